@@ -3,13 +3,12 @@ package fr.rca.mapmaker;
 import fr.rca.mapmaker.editor.MapEditor;
 import fr.rca.mapmaker.exception.Exceptions;
 import fr.rca.mapmaker.io.Format;
+import fr.rca.mapmaker.io.autodeploy.AutoDeployWatcher;
 import fr.rca.mapmaker.io.autodeploy.AutoDeployer;
 import fr.rca.mapmaker.io.autodeploy.MeltedIceAutoDeployer;
 import fr.rca.mapmaker.io.autodeploy.PlaydateAutoDeployer;
 import fr.rca.mapmaker.io.autodeploy.PuzzleSuitAutoDeployer;
 import fr.rca.mapmaker.io.common.Formats;
-import fr.rca.mapmaker.model.project.Project;
-import fr.rca.mapmaker.model.sprite.Instance;
 import fr.rca.mapmaker.preferences.PreferencesManager;
 import java.awt.Desktop;
 import java.awt.EventQueue;
@@ -21,6 +20,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.prefs.BackingStoreException;
 import javax.imageio.ImageIO;
@@ -203,10 +203,28 @@ public class MapMaker {
 	}
 
 	private static void printAutoDeployUsage() {
-		System.out.println("Usage: autodeploy <playdate|meltedice|puzzlesuit> <project file> [target folder]");
+		System.out.println("Usage: autodeploy [--incremental] [--watch] <playdate|meltedice|puzzlesuit> <project file> [target folder]");
+		System.out.println("  --incremental  only regenerate the files whose content changed since the last deploy");
+		System.out.println("  --watch        deploy again incrementally each time the project is saved");
 	}
 
-	private static void autoDeploy(String[] args) {
+	private static void autoDeploy(String[] arguments) {
+		boolean incremental = false;
+		boolean watch = false;
+		final List<String> parameters = new ArrayList<>();
+		for (final String argument : arguments) {
+			if ("--incremental".equals(argument)) {
+				incremental = true;
+			} else if ("--watch".equals(argument)) {
+				watch = true;
+			} else if (argument.startsWith("--")) {
+				printAutoDeployUsage();
+				return;
+			} else {
+				parameters.add(argument);
+			}
+		}
+		final String[] args = parameters.toArray(new String[0]);
 		if (args.length < 2 || args.length > 3) {
 			printAutoDeployUsage();
 			return;
@@ -227,6 +245,7 @@ public class MapMaker {
 				return;
 		}
 		deployer.setHeadless(true);
+		deployer.setIncremental(incremental);
 		final File projectFile = new File(args[1]);
 		final Format format = Formats.getFormat(projectFile.getName());
 		if (!projectFile.exists() || format == null) {
@@ -242,11 +261,11 @@ public class MapMaker {
 			return;
 		}
 		try {
-			final Project project = format.openProject(projectFile);
-			project.getAllInstances().stream()
-					.flatMap(List::stream)
-					.forEach(Instance::runScript);
-			deployer.deployProjectInFolder(project, outputFolder);
+			if (watch) {
+				new AutoDeployWatcher(deployer, format, projectFile, outputFolder).watch();
+			} else {
+				deployer.deployProjectFile(format, projectFile, outputFolder);
+			}
 		} catch (IOException ex) {
 			System.err.println("Unable to deploy: " + ex.getClass().getSimpleName() + ' ' + ex.getMessage());
 		}
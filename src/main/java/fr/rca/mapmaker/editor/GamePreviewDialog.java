@@ -10,6 +10,7 @@ import fr.rca.mapmaker.ui.LayerLayout;
 import java.awt.Dimension;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.JViewport;
 import javax.swing.SwingWorker;
@@ -59,7 +60,7 @@ public class GamePreviewDialog extends javax.swing.JDialog {
 	}
 
 	private void addSprites() {
-		spritePane.removeAll();
+		spritePane.setInstances(null);
 		final Project project = getProject();
 		if (project == null) {
 			return;
@@ -75,6 +76,7 @@ public class GamePreviewDialog extends javax.swing.JDialog {
 		final int mapWidth = previewGrid.getTileMapWidth() * previewGrid.getTileSize();
 		final int mapHeight = previewGrid.getTileMapHeight() * previewGrid.getTileSize();
 
+		final List<Instance> copies = new ArrayList<>(instances.size());
 		for (final Instance instance : instances) {
 			final Instance copy = new Instance(instance);
 			if (copy.getX() > mapWidth || copy.getY() > mapHeight) {
@@ -83,9 +85,9 @@ public class GamePreviewDialog extends javax.swing.JDialog {
 						copy.getWidth(), copy.getHeight());
 			}
 			copy.setZoom(1);
-			spritePane.add(copy);
+			copies.add(copy);
 		}
-		spritePane.repaint();
+		spritePane.setInstances(copies);
 	}
 
 	private @Nullable Project getProject() {
@@ -116,7 +118,7 @@ public class GamePreviewDialog extends javax.swing.JDialog {
         jLabel2 = new javax.swing.JLabel();
         gridScrollPane = new javax.swing.JScrollPane();
         gridParentPanel = new javax.swing.JPanel(new LayerLayout(LayerLayout.Disposition.TOP_LEFT));
-        spritePane = new javax.swing.JPanel();
+        spritePane = new fr.rca.mapmaker.ui.InstanceLayer();
         previewGrid = new fr.rca.mapmaker.ui.Grid();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
@@ -241,7 +243,7 @@ public class GamePreviewDialog extends javax.swing.JDialog {
     private javax.swing.JLabel jLabel2;
     private javax.swing.JToolBar.Separator jSeparator1;
     private fr.rca.mapmaker.ui.Grid previewGrid;
-    private javax.swing.JPanel spritePane;
+    private fr.rca.mapmaker.ui.InstanceLayer spritePane;
     private javax.swing.JToolBar toolBar;
     private javax.swing.JTextField zoomTextField;
     private org.jdesktop.beansbinding.BindingGroup bindingGroup;
@@ -242,7 +242,7 @@ public class MapEditor extends javax.swing.JFrame {
         mapScrollPane = new javax.swing.JScrollPane();
         mapScrollPane.putClientProperty("JScrollPane.useSmoothScrolling", false);
         mapBackgroundPanel = new JPanel(new LayerLayout(LayerLayout.Disposition.TOP_LEFT));
-        spriteLayerPanel = new javax.swing.JPanel();
+        spriteLayerPanel = new fr.rca.mapmaker.ui.InstanceLayer();
         mapGrid = new fr.rca.mapmaker.ui.Grid();
         mapListScrollPane = new javax.swing.JScrollPane();
         mapList = new javax.swing.JList();
@@ -1611,7 +1611,6 @@ private void redoButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FI
 	}
 
 	private void spriteInstancesChanged() {
-		spriteLayerPanel.removeAll();
 		final List<Instance> instances = project.getInstances();
 		if (instances != null) {
 			final int mapWidth = mapGrid.getTileMapWidth() * mapGrid.getTileSize();
@@ -2106,7 +2105,7 @@ private void redoButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FI
     private javax.swing.JToggleButton selectionToggleButton;
     private javax.swing.JPanel spriteBackgroundPanel;
     private fr.rca.mapmaker.editor.SpriteInspector spriteInspector;
-    private javax.swing.JPanel spriteLayerPanel;
+    private fr.rca.mapmaker.ui.InstanceLayer spriteLayerPanel;
     private fr.rca.mapmaker.ui.Grid spritePaletteGrid;
     private javax.swing.JScrollPane spritePaletteScrollPane;
     private javax.swing.JToolBar spritePaletteToolBar;
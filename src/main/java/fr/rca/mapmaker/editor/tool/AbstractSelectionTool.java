@@ -5,19 +5,21 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 import fr.rca.mapmaker.ui.Grid;
+import fr.rca.mapmaker.ui.InstanceLayer;
 import fr.rca.mapmaker.model.map.TileLayer;
 import fr.rca.mapmaker.model.sprite.Instance;
-import java.awt.Component;
+import fr.rca.mapmaker.model.sprite.InstanceList;
+import java.awt.Rectangle;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import javax.swing.JPanel;
 
 public abstract class AbstractSelectionTool extends MouseAdapter implements Tool {
 
 	protected final Grid grid;
-	protected JPanel spriteLayerPanel;
+	protected InstanceLayer spriteLayerPanel;
 	protected TileLayer selectionLayer;
 	
 	protected Point startPoint;
@@ -41,7 +43,7 @@ public abstract class AbstractSelectionTool extends MouseAdapter implements Tool
 		});
 	}
 	
-	public AbstractSelectionTool(Grid grid, JPanel spriteLayerPanel) {
+	public AbstractSelectionTool(Grid grid, InstanceLayer spriteLayerPanel) {
 		this(grid);
 		this.spriteLayerPanel = spriteLayerPanel;
 	}
@@ -188,13 +190,10 @@ public abstract class AbstractSelectionTool extends MouseAdapter implements Tool
 		if (spriteLayerPanel == null) {
 			return;
 		}
-		for (final Component component : spriteLayerPanel.getComponents()) {
-			if (component instanceof Instance) {
-				final Instance instance = (Instance) component;
-				final Point point = pointInGridForInstance(instance);
-				if (selectionLayer.getTile(point.x, point.y) >= 0) {
-					selectedInstances.add(instance);
-				} 
+		for (final Instance instance : spriteLayerPanel.getInstances()) {
+			final Point point = pointInGridForInstance(instance);
+			if (selectionLayer.getTile(point.x, point.y) >= 0) {
+				selectedInstances.add(instance);
 			}
 		}
 	}
@@ -203,14 +202,17 @@ public abstract class AbstractSelectionTool extends MouseAdapter implements Tool
 		if (spriteLayerPanel == null) {
 			return;
 		}
-		for (final Component component : spriteLayerPanel.getComponents()) {
-			if (component instanceof Instance) {
-				final Instance instance = (Instance) component;
-				final Point point = pointInGridForInstance(instance);
-				if (point.x >= x1 && point.x < x2 &&
-						point.y >= y1 && point.y < y2) {
-					selectedInstances.add(instance);
-				} 
+		List<Instance> instances = spriteLayerPanel.getInstances();
+		if (instances instanceof InstanceList) {
+			final int tileSize = gridTileSize();
+			instances = ((InstanceList) instances).getInstancesIn(new Rectangle(
+					x1 * tileSize, y1 * tileSize, (x2 - x1) * tileSize, (y2 - y1) * tileSize));
+		}
+		for (final Instance instance : instances) {
+			final Point point = pointInGridForInstance(instance);
+			if (point.x >= x1 && point.x < x2 &&
+					point.y >= y1 && point.y < y2) {
+				selectedInstances.add(instance);
 			}
 		}
 	}
@@ -6,7 +6,7 @@ import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 
 import fr.rca.mapmaker.ui.Grid;
-import javax.swing.JPanel;
+import fr.rca.mapmaker.ui.InstanceLayer;
 
 public class SelectionTool extends AbstractSelectionTool {
 
@@ -17,7 +17,7 @@ public class SelectionTool extends AbstractSelectionTool {
 		super(grid);
 	}
 
-	public SelectionTool(Grid grid, JPanel spriteLayerPanel) {
+	public SelectionTool(Grid grid, InstanceLayer spriteLayerPanel) {
 		super(grid, spriteLayerPanel);
 	}
 
@@ -6,20 +6,16 @@ import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Instance;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import fr.rca.mapmaker.ui.Grid;
-import java.awt.Color;
+import fr.rca.mapmaker.ui.InstanceLayer;
 import java.awt.Point;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.ResourceBundle;
-import javax.swing.JComponent;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
-import javax.swing.border.LineBorder;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -33,28 +29,41 @@ public class SpriteTool extends MouseAdapter implements Tool {
 	private static final ResourceBundle LANGUAGE = ResourceBundle.getBundle("resources/language"); // NO18N
 
 	private Project project;
-	private JComponent spriteLayer;
+	private InstanceLayer spriteLayer;
 	private Grid spritePaletteGrid;
 	private List<Instance> instances;
 	private int zIndex;
-	private Map<Instance, MouseAdapter> mouseAdapters;
 	private double zoom;
 
+	/**
+	 * Encadre, déplace et inspecte les instances. Un seul écouteur est ajouté
+	 * au calque des instances, l'instance concernée est cherchée au moment où
+	 * le bouton de la souris est enfoncé.
+	 */
+	private final MouseAdapter instanceMouseAdapter = createMouseAdapter();
+
 	private final InstanceInspector inspector = new InstanceInspector(null, false);
 
 	public SpriteTool() {
 		this(null, null, null);
 	}
 
-	public SpriteTool(JComponent spriteLayer, Grid spritePaletteGrid, Project project) {
-		this.spriteLayer = spriteLayer;
+	public SpriteTool(InstanceLayer spriteLayer, Grid spritePaletteGrid, Project project) {
 		this.spritePaletteGrid = spritePaletteGrid;
 		this.instances = project != null ? project.getInstances() : new ArrayList<Instance>();
-		this.mouseAdapters = new HashMap<Instance, MouseAdapter>();
+		setSpriteLayer(spriteLayer);
 	}
 
-	public void setSpriteLayer(JComponent spriteLayer) {
+	public void setSpriteLayer(InstanceLayer spriteLayer) {
+		if (this.spriteLayer != null) {
+			this.spriteLayer.removeMouseListener(instanceMouseAdapter);
+			this.spriteLayer.removeMouseMotionListener(instanceMouseAdapter);
+		}
 		this.spriteLayer = spriteLayer;
+		if (spriteLayer != null) {
+			spriteLayer.addMouseListener(instanceMouseAdapter);
+			spriteLayer.addMouseMotionListener(instanceMouseAdapter);
+		}
 	}
 
 	public void setSpritePaletteGrid(Grid spritePaletteGrid) {
@@ -72,19 +81,16 @@ public class SpriteTool extends MouseAdapter implements Tool {
 	}
 
 	public void setInstances(List<Instance> instances) {
-		if (this.instances != null) {
-			for (final Instance instance : this.instances) {
-				unregisterInsance(instance);
-			}
-		}
-
 		this.instances = instances;
 
 		if (instances != null) {
 			for (final Instance instance : instances) {
-				registerInstance(instance);
+				instance.setZoom(zoom);
 			}
 		}
+		if (spriteLayer != null) {
+			spriteLayer.setInstances(instances);
+		}
 	}
 
 	public void setZoom(double zoom) {
@@ -99,23 +105,6 @@ public class SpriteTool extends MouseAdapter implements Tool {
 		}
 	}
 
-	private void registerInstance(final Instance instance) {
-		final MouseAdapter adapter = createMouseAdapter(instance);
-		instance.addMouseListener(adapter);
-		instance.addMouseMotionListener(adapter);
-		instance.setZoom(zoom);
-		instance.setComponentPopupMenu(createPopupMenu(instance));
-
-		spriteLayer.add(instance);
-		mouseAdapters.put(instance, adapter);
-	}
-
-	private void unregisterInsance(final Instance instance) {
-		instance.removeMouseListener(mouseAdapters.get(instance));
-		instance.removeMouseMotionListener(mouseAdapters.remove(instance));
-		spriteLayer.remove(instance);
-	}
-
 	@Override
 	public void mouseClicked(MouseEvent e) {
 		final Sprite sprite = getPalette().getSelectedSprite();
@@ -132,11 +121,10 @@ public class SpriteTool extends MouseAdapter implements Tool {
 			final Instance instance = new Instance(getPalette().getSelectedTile(), project, new Point(x, y));
 			instance.setZIndex(zIndex);
 			instance.setDirty(true);
+			instance.setZoom(zoom);
 			instances.add(instance);
 
-			registerInstance(instance);
-
-			spriteLayer.repaint(instance.getBounds());
+			spriteLayer.instanceAdded(instance);
 		}
 	}
 
@@ -150,23 +138,29 @@ public class SpriteTool extends MouseAdapter implements Tool {
 		// Pas d'action.
 	}
 
-	private MouseAdapter createMouseAdapter(final Instance instance) {
+	private MouseAdapter createMouseAdapter() {
 		return new MouseAdapter() {
+			private Instance instance;
 			private Point startPoint;
 			private Point originalPoint;
 
 			@Override
-			public void mouseEntered(MouseEvent e) {
-				instance.setBorder(new LineBorder(Color.BLACK, 1));
+			public void mouseMoved(MouseEvent e) {
+				spriteLayer.setHighlightedInstance(spriteLayer.getInstanceAt(e.getPoint()));
 			}
 
 			@Override
 			public void mouseExited(MouseEvent e) {
-				instance.setBorder(null);
+				if (instance == null) {
+					spriteLayer.setHighlightedInstance(null);
+				}
 			}
 
 			@Override
 			public void mouseDragged(MouseEvent e) {
+				if (instance == null) {
+					return;
+				}
 				if (startPoint == null) {
 					startPoint = e.getLocationOnScreen();
 					originalPoint = instance.getPoint();
@@ -177,32 +171,41 @@ public class SpriteTool extends MouseAdapter implements Tool {
 
 				instance.setPoint(new Point(originalPoint.x + translationX, originalPoint.y + translationY));
 				instance.updateBounds();
-				instance.repaint();
 			}
 
 			@Override
 			public void mousePressed(MouseEvent e) {
-				inspector.setInstance(instance);
-				maybeShowPopupMenu(instance, e);
+				instance = spriteLayer.getInstanceAt(e.getPoint());
+				if (instance != null) {
+					inspector.setInstance(instance);
+					maybeShowPopupMenu(instance, e);
+				}
 			}
 
 			@Override
 			public void mouseReleased(MouseEvent e) {
-				maybeShowPopupMenu(instance, e);
+				if (instance != null) {
+					maybeShowPopupMenu(instance, e);
+				}
+				instance = null;
 				startPoint = null;
+				spriteLayer.setHighlightedInstance(spriteLayer.getInstanceAt(e.getPoint()));
 				originalPoint = null;
 			}
 
 			@Override
 			public void mouseClicked(MouseEvent e) {
-				inspector.setInstance(instance);
+				final Instance clickedInstance = spriteLayer.getInstanceAt(e.getPoint());
+				if (clickedInstance != null) {
+					inspector.setInstance(clickedInstance);
+				}
 			}
 		};
 	}
 
 	private void maybeShowPopupMenu(Instance instance, MouseEvent e) {
 		if (e.isPopupTrigger()) {
-			instance.getComponentPopupMenu().show(instance, e.getX(), e.getY());
+			createPopupMenu(instance).show(spriteLayer, e.getX(), e.getY());
 		}
 	}
 
@@ -217,21 +220,17 @@ public class SpriteTool extends MouseAdapter implements Tool {
 				inspector.setVisible(false);
 			}
 			project.getInstances().remove(instance);
-			instance.setComponentPopupMenu(null);
-			unregisterInsance(instance);
-			spriteLayer.repaint(instance.getBounds());
+			spriteLayer.instanceRemoved(instance);
 		});
 		addMenuItem(popupMenu, "popupmenu.instance.movetofront", actionEvent -> {
 			instances.remove(instance);
 			instances.add(0, instance);
-			spriteLayer.remove(instance);
-			spriteLayer.add(instance, 0);
+			spriteLayer.instancesReordered();
 		});
 		addMenuItem(popupMenu, "popupmenu.instance.movetoback", actionEvent -> {
 			instances.remove(instance);
 			instances.add(instance);
-			spriteLayer.remove(instance);
-			spriteLayer.add(instance, -1);
+			spriteLayer.instancesReordered();
 		});
 		return popupMenu;
 	}
@@ -4,33 +4,129 @@ import java.awt.Rectangle;
 
 import fr.rca.mapmaker.model.map.TileLayer;
 
+/**
+ * Modification d'une zone rectangulaire d'une couche.
+ * <p>
+ * Seules les tuiles comprises dans le rectangle modifié sont conservées
+ * (avant et après la modification), le coût d'une modification est donc
+ * proportionnel à la taille du trait et non à celle de la couche.
+ */
 public class Change {
 
 	private final int layerIndex;
 	private final TileLayer layer;
-	private final int[] tiles;
 	private final Rectangle rectangle;
-	
-	public Change(int index, TileLayer layer, int[] tiles, Rectangle rectangle) {
+	private final int[] before;
+	private final int[] after;
+
+	public Change(int index, TileLayer layer, Rectangle rectangle, int[] before, int[] after) {
 		this.layerIndex = index;
 		this.layer = layer;
-		this.tiles = tiles.clone();
 		this.rectangle = rectangle;
+		this.before = before;
+		this.after = after;
 	}
-	
+
 	public int getLayerIndex() {
 		return layerIndex;
 	}
-	
+
 	public TileLayer getLayer() {
 		return layer;
 	}
-	
-	public int[] getTiles() {
-		return tiles;
-	}
-	
+
 	public Rectangle getRectangle() {
 		return rectangle;
 	}
+
+	/**
+	 * Tuiles du rectangle avant la modification.
+	 *
+	 * @return Les tuiles du rectangle, ligne par ligne.
+	 */
+	public int[] getBefore() {
+		return before;
+	}
+
+	/**
+	 * Tuiles du rectangle après la modification.
+	 *
+	 * @return Les tuiles du rectangle, ligne par ligne.
+	 */
+	public int[] getAfter() {
+		return after;
+	}
+
+	/**
+	 * Estimation de la mémoire occupée par cette modification.
+	 *
+	 * @return Nombre d'octets utilisés par les tuiles conservées.
+	 */
+	public long getSize() {
+		return 4L * (before.length + after.length);
+	}
+
+	/**
+	 * Annule la modification sur la couche.
+	 *
+	 * @return <code>true</code> si la couche a été modifiée,
+	 * <code>false</code> si le rectangle n'est plus dans la couche.
+	 */
+	public boolean undo() {
+		return apply(before);
+	}
+
+	/**
+	 * Réapplique la modification sur la couche.
+	 *
+	 * @return <code>true</code> si la couche a été modifiée,
+	 * <code>false</code> si le rectangle n'est plus dans la couche.
+	 */
+	public boolean redo() {
+		return apply(after);
+	}
+
+	private boolean apply(int[] tiles) {
+		if (rectangle.x >= layer.getWidth() || rectangle.y >= layer.getHeight()) {
+			return false;
+		}
+		layer.mergeAtPoint(new TileLayer(rectangle.width, rectangle.height, tiles), rectangle.getLocation());
+		return true;
+	}
+
+	/**
+	 * Copie les tuiles de la couche donnée comprises dans le rectangle donné.
+	 * Les tuiles en dehors de la couche sont considérées comme vides.
+	 *
+	 * @param layer Couche à lire.
+	 * @param rectangle Zone à copier.
+	 * @return Les tuiles du rectangle, ligne par ligne.
+	 */
+	static int[] copyTiles(TileLayer layer, Rectangle rectangle) {
+		final int[] tiles = new int[rectangle.width * rectangle.height];
+		int index = 0;
+		for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+			for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+				tiles[index++] = layer.getTile(x, y);
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * Remplace les tuiles de la couche donnée comprises dans le rectangle
+	 * donné sans déclencher d'événement.
+	 *
+	 * @param layer Couche à modifier.
+	 * @param rectangle Zone à remplacer.
+	 * @param tiles Tuiles du rectangle, ligne par ligne.
+	 */
+	static void pasteTiles(TileLayer layer, Rectangle rectangle, int[] tiles) {
+		int index = 0;
+		for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+			for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+				layer.setRawTile(x, y, tiles[index++]);
+			}
+		}
+	}
 }
@@ -6,6 +6,7 @@ import java.util.ArrayDeque;
 import fr.rca.mapmaker.model.map.TileLayer;
 import fr.rca.mapmaker.model.LayerChangeListener;
 import fr.rca.mapmaker.model.map.TileMap;
+import fr.rca.mapmaker.preferences.PreferencesManager;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.Arrays;
@@ -14,19 +15,40 @@ import java.util.List;
 
 public class LayerMemento implements Memento {
 
+	/**
+	 * Mémoire maximale (en méga-octets) utilisée par défaut pour conserver
+	 * l'historique des modifications.
+	 */
+	public static final int DEFAULT_MEMORY_BUDGET = 64;
+
 	private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
-	private int[][] states;
+	/**
+	 * Dernier état connu de chaque couche. Seules les zones modifiées sont
+	 * mises à jour après chaque changement.
+	 */
+	private TileLayer[] states;
+	private TileLayer[] layers;
 	private final Deque<Change> undoStack = new ArrayDeque<Change>();
 	private final Deque<Change> redoStack = new ArrayDeque<Change>();
 
 	private boolean ignoreNextChange;
 	private boolean transactionActive;
 
-	private Change[] transactionObjects;
+	private Rectangle[] transactionRectangles;
 
 	private TileMap tileMap;
 
+	/**
+	 * Mémoire maximale (en octets) occupée par les piles d'annulation.
+	 */
+	private long memoryBudget = PreferencesManager.getInt(PreferencesManager.UNDO_MEMORY_BUDGET, DEFAULT_MEMORY_BUDGET) * 1024L * 1024L;
+
+	/**
+	 * Mémoire (en octets) occupée par les piles d'annulation.
+	 */
+	private long usedMemory;
+
 	public LayerMemento() {
 		// Vide.
 	}
@@ -36,8 +58,9 @@ public class LayerMemento implements Memento {
 	}
 
 	public final void setLayers(final List<TileLayer> layers) {
-		states = new int[layers.size()][];
-		transactionObjects = new Change[layers.size()];
+		this.layers = layers.toArray(new TileLayer[layers.size()]);
+		states = new TileLayer[layers.size()];
+		transactionRectangles = new Rectangle[layers.size()];
 
 		clear();
 
@@ -45,40 +68,40 @@ public class LayerMemento implements Memento {
 			final int index = i;
 			final TileLayer layer = layers.get(index);
 
-			states[index] = layer.copyData();
+			states[index] = new TileLayer(layer);
 
 			layer.addLayerChangeListener(new LayerChangeListener() {
 
 				@Override
 				public void layerChanged(TileLayer layer, Rectangle dirtyRectangle) {
 					if (transactionActive) {
-						final Change change = transactionObjects[index];
-						if (change != null) {
-							final Rectangle currentDirty = change.getRectangle();
+						final Rectangle currentDirty = transactionRectangles[index];
+						if (currentDirty != null) {
 							final int x1 = Math.min(dirtyRectangle.x, currentDirty.x);
 							final int y1 = Math.min(dirtyRectangle.y, currentDirty.y);
 							final int x2 = Math.max(dirtyRectangle.x + dirtyRectangle.width, currentDirty.x + currentDirty.width);
 							final int y2 = Math.max(dirtyRectangle.y + dirtyRectangle.height, currentDirty.y + currentDirty.height);
 
-							change.getRectangle().x = x1;
-							change.getRectangle().y = y1;
-							change.getRectangle().width = x2 - x1;
-							change.getRectangle().height = y2 - y1;
+							currentDirty.x = x1;
+							currentDirty.y = y1;
+							currentDirty.width = x2 - x1;
+							currentDirty.height = y2 - y1;
 
 						} else {
-							transactionObjects[index] = new Change(index, layer, states[index], dirtyRectangle);
+							transactionRectangles[index] = new Rectangle(dirtyRectangle);
 						}
 
 					} else {
-						if (!ignoreNextChange) {
-							clearRedoStack();
-							pushOnUndoStack(new Change(index, layer, states[index], dirtyRectangle));
+						final Change change = updateState(index, layer, dirtyRectangle);
 
+						if (!ignoreNextChange) {
+							if (change != null) {
+								clearRedoStack();
+								pushOnUndoStack(change);
+							}
 						} else {
 							ignoreNextChange = false;
 						}
-
-						states[index] = layer.copyData();
 					}
 				}
 			});
@@ -87,12 +110,12 @@ public class LayerMemento implements Memento {
 
 	@Override
 	public void undo() {
-		restore(undoStack, redoStack);
+		restore(undoStack, redoStack, true);
 	}
 
 	@Override
 	public void redo() {
-		restore(redoStack, undoStack);
+		restore(redoStack, undoStack, false);
 	}
 
 	@Override
@@ -112,6 +135,7 @@ public class LayerMemento implements Memento {
 
 		undoStack.clear();
 		redoStack.clear();
+		usedMemory = 0;
 
 		propertyChangeSupport.firePropertyChange("undoable", oldUndoable, false);
 		propertyChangeSupport.firePropertyChange("redoable", oldRedoable, false);
@@ -126,21 +150,38 @@ public class LayerMemento implements Memento {
 	public void end() {
 		transactionActive = false;
 
-		boolean changed = false;
+		for (int index = 0; index < transactionRectangles.length; index++) {
+			if (transactionRectangles[index] != null) {
+				final Change change = updateState(index, layers[index], transactionRectangles[index]);
+				transactionRectangles[index] = null;
 
-		for (int index = 0; index < transactionObjects.length; index++) {
-			if (transactionObjects[index] != null) {
-				pushOnUndoStack(transactionObjects[index]);
-				states[index] = transactionObjects[index].getLayer().copyData();
-
-				transactionObjects[index] = null;
-				changed = true;
+				if (change != null) {
+					clearRedoStack();
+					pushOnUndoStack(change);
+				}
 			}
 		}
+	}
 
-		if (changed) {
-			clearRedoStack();
-		}
+	/**
+	 * Mémoire maximale (en octets) occupée par les piles d'annulation.
+	 *
+	 * @return La mémoire maximale en octets.
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * Modifie la mémoire maximale occupée par les piles d'annulation. Les
+	 * modifications les plus anciennes sont oubliées lorsque cette limite est
+	 * dépassée.
+	 *
+	 * @param memoryBudget Mémoire maximale en octets.
+	 */
+	public void setMemoryBudget(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		trimUndoStack();
 	}
 
 	public TileMap getTileMap() {
@@ -159,19 +200,49 @@ public class LayerMemento implements Memento {
 		propertyChangeSupport.removePropertyChangeListener(pl);
 	}
 
-	private void restore(Deque<Change> source, Deque<Change> destination) {
+	/**
+	 * Met à jour le dernier état connu de la couche donnée pour la zone
+	 * modifiée et créé la modification correspondante.
+	 *
+	 * @param index Index de la couche.
+	 * @param layer Couche modifiée.
+	 * @param dirtyRectangle Zone modifiée.
+	 * @return La modification ou <code>null</code> si aucune tuile n'a changé.
+	 */
+	private Change updateState(int index, TileLayer layer, Rectangle dirtyRectangle) {
+		final TileLayer state = states[index];
+		final Rectangle rectangle = dirtyRectangle.intersection(new Rectangle(0, 0, layer.getWidth(), layer.getHeight()));
+
+		Change change = null;
+		if (!rectangle.isEmpty()) {
+			final int[] before = Change.copyTiles(state, rectangle);
+			final int[] after = Change.copyTiles(layer, rectangle);
+			if (!Arrays.equals(before, after)) {
+				change = new Change(index, layer, rectangle, before, after);
+			}
+			if (state.getWidth() == layer.getWidth() && state.getHeight() == layer.getHeight()) {
+				Change.pasteTiles(state, rectangle, after);
+			}
+		}
+		if (state.getWidth() != layer.getWidth() || state.getHeight() != layer.getHeight()) {
+			states[index] = new TileLayer(layer);
+		}
+		return change;
+	}
+
+	private void restore(Deque<Change> source, Deque<Change> destination, boolean undo) {
 		final boolean oldUndoable = isUndoable();
 		final boolean oldRedoable = isRedoable();
 
 		if (!source.isEmpty()) {
 			final Change lastChange = source.pop();
-			final TileLayer layer = lastChange.getLayer();
-
-			destination.push(new Change(lastChange.getLayerIndex(), layer,
-					states[lastChange.getLayerIndex()], lastChange.getRectangle()));
+			destination.push(lastChange);
 
 			ignoreNextChange = true;
-			layer.restoreData(lastChange.getTiles(), lastChange.getRectangle());
+			final boolean restored = undo ? lastChange.undo() : lastChange.redo();
+			if (!restored) {
+				ignoreNextChange = false;
+			}
 		}
 
 		final boolean undoable = isUndoable();
@@ -191,6 +262,9 @@ public class LayerMemento implements Memento {
 	private void clearRedoStack() {
 		final boolean oldRedoable = isRedoable();
 
+		for (final Change change : redoStack) {
+			usedMemory -= change.getSize();
+		}
 		redoStack.clear();
 
 		final boolean redoable = isRedoable();
@@ -203,6 +277,8 @@ public class LayerMemento implements Memento {
 		final boolean oldUndoable = isUndoable();
 
 		undoStack.push(change);
+		usedMemory += change.getSize();
+		trimUndoStack();
 
 		final boolean undoable = isUndoable();
 		if (oldUndoable != undoable) {
@@ -212,4 +288,15 @@ public class LayerMemento implements Memento {
 			tileMap.setDirty(true);
 		}
 	}
+
+	/**
+	 * Oublie les modifications les plus anciennes tant que la mémoire
+	 * occupée dépasse la limite. La dernière modification est toujours
+	 * conservée.
+	 */
+	private void trimUndoStack() {
+		while (usedMemory > memoryBudget && undoStack.size() > 1) {
+			usedMemory -= undoStack.removeLast().getSize();
+		}
+	}
 }
@@ -9,11 +9,13 @@ package fr.rca.mapmaker.io;
 public final class OperatingSystem {
     
     public static final boolean IS_MAC_OS;
+    public static final boolean IS_WINDOWS;
     
     static {
         final String osName = System.getProperty("os.name");
         // TODO: Vérifier ce que renvoi Mojave.
         IS_MAC_OS = osName != null && (osName.startsWith("Mac OS X") || osName.startsWith("macOS"));
+        IS_WINDOWS = osName != null && osName.startsWith("Windows");
     }
     
 }
@@ -0,0 +1,141 @@
+package fr.rca.mapmaker.io.autodeploy;
+
+import fr.rca.mapmaker.io.Format;
+import fr.rca.mapmaker.io.bundle.BundleEntryCache;
+import fr.rca.mapmaker.io.bundle.BundleFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Déploie un projet à chaque modification de son fichier.
+ * <p>
+ * Le déploiement est incrémental : seuls les fichiers dont les données ont
+ * changé sont réécrits. Pour un paquet (<code>.mmkb</code>), seuls les
+ * fichiers du paquet modifiés sont relus.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class AutoDeployWatcher {
+
+	/**
+	 * Délai sans modification attendu avant de déployer, en millisecondes.
+	 * Un enregistrement modifie plusieurs fichiers à la suite.
+	 */
+	private static final long QUIET_PERIOD = 200;
+
+	private final AutoDeployer deployer;
+	private final Format format;
+	private final File projectFile;
+	private final File root;
+
+	/**
+	 * Crée un observateur.
+	 *
+	 * @param deployer Déploiement à utiliser. Il est passé en mode
+	 * incrémental.
+	 * @param format Format du fichier projet. Pour un {@link BundleFormat},
+	 * un cache de fichiers est ajouté.
+	 * @param projectFile Fichier ou paquet du projet.
+	 * @param root Emplacement où déployer.
+	 */
+	public AutoDeployWatcher(AutoDeployer deployer, Format format, File projectFile, File root) {
+		this.deployer = deployer;
+		this.format = format;
+		this.projectFile = projectFile.getAbsoluteFile();
+		this.root = root;
+
+		deployer.setIncremental(true);
+		if (format instanceof BundleFormat && ((BundleFormat) format).getEntryCache() == null) {
+			((BundleFormat) format).setEntryCache(new BundleEntryCache());
+		}
+	}
+
+	/**
+	 * Déploie le projet. Si le projet ne peut pas être lu (par exemple
+	 * pendant son enregistrement), rien n'est déployé : le déploiement sera
+	 * retenté à la prochaine modification.
+	 *
+	 * @return <code>true</code> si le déploiement a réussi.
+	 */
+	public boolean deploy() {
+		final long start = System.nanoTime();
+		try {
+			deployer.deployProjectFile(format, projectFile, root);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Unable to deploy: " + e.getClass().getSimpleName() + ' ' + e.getMessage());
+			return false;
+		}
+		System.out.println("Deployed in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+		return true;
+	}
+
+	/**
+	 * Déploie le projet puis le déploie de nouveau à chaque modification.
+	 * Ne rend la main que si le thread est interrompu ou si le dossier
+	 * observé n'est plus accessible.
+	 *
+	 * @throws IOException Si le dossier du projet ne peut pas être observé.
+	 */
+	public void watch() throws IOException {
+		final Path directory = projectFile.isDirectory()
+				? projectFile.toPath()
+				: projectFile.getParentFile().toPath();
+
+		try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+			directory.register(watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+
+			deploy();
+			System.out.println("Watching " + projectFile + " for changes.");
+
+			while (true) {
+				WatchKey key = watchService.take();
+				boolean changed = false;
+				while (key != null) {
+					changed |= isProjectChange(key);
+					if (!key.reset()) {
+						System.err.println("Unable to watch " + directory + " anymore.");
+						return;
+					}
+					key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+				}
+				if (changed) {
+					deploy();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Indique si les événements donnés concernent le projet.
+	 *
+	 * @param key Événements.
+	 * @return <code>true</code> si le projet a été modifié.
+	 */
+	private boolean isProjectChange(WatchKey key) {
+		boolean changed = false;
+		for (final WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				changed = true;
+			} else if (projectFile.isDirectory()) {
+				// Tous les fichiers du paquet font partie du projet.
+				changed = true;
+			} else {
+				changed |= projectFile.getName().equals(event.context().toString());
+			}
+		}
+		return changed;
+	}
+
+}
@@ -3,6 +3,8 @@ package fr.rca.mapmaker.io.autodeploy;
 import fr.rca.mapmaker.editor.ProgressDialog;
 import fr.rca.mapmaker.exception.Exceptions;
 import fr.rca.mapmaker.io.DataHandler;
+import fr.rca.mapmaker.io.Format;
+import fr.rca.mapmaker.io.bundle.BundleFormat;
 import fr.rca.mapmaker.io.common.Streams;
 import fr.rca.mapmaker.io.mkz.MKZFormat;
 import fr.rca.mapmaker.model.map.Packer;
@@ -11,16 +13,16 @@ import fr.rca.mapmaker.model.map.TileMap;
 import fr.rca.mapmaker.model.palette.Palette;
 import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Instance;
+import fr.rca.mapmaker.model.sprite.InstanceList;
 import fr.rca.mapmaker.model.sprite.Sprite;
+import fr.rca.mapmaker.operation.ScriptRunner;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.SwingWorker;
@@ -45,6 +47,14 @@ public abstract class AutoDeployer extends FileFilter {
 	@Getter @Setter
 	private boolean headless;
 
+	/**
+	 * <code>true</code> pour ne produire que les fichiers dont les données ont
+	 * changé depuis le dernier déploiement (voir {@link DeployManifest}).
+	 * Seul le déploiement Playdate en tient compte.
+	 */
+	@Getter @Setter
+	private boolean incremental;
+
 	/**
 	 * Renvoi le nom de l'auto-deployer.
 	 *
@@ -61,6 +71,31 @@ public abstract class AutoDeployer extends FileFilter {
 	 */
 	public abstract void deployProjectInFolder(Project project, File root) throws IOException;
 
+	/**
+	 * Ouvre le projet donné, exécute les scripts de ses instances en parallèle
+	 * (voir {@link ScriptRunner}) puis le déploie à l'emplacement donné.
+	 * <p>
+	 * Rien n'est déployé si le projet ne peut pas être lu : une erreur de
+	 * lecture d'un paquet est transmise au lieu de déployer un projet vide.
+	 *
+	 * @param format Format du fichier projet.
+	 * @param projectFile Fichier projet.
+	 * @param root Emplacement où déployer.
+	 * @throws IOException En cas d'erreur lors de la lecture ou du déploiement.
+	 */
+	public void deployProjectFile(Format format, File projectFile, File root) throws IOException {
+		final Project project = format instanceof BundleFormat
+				? ((BundleFormat) format).loadProject(projectFile, null)
+				: format.openProject(projectFile);
+		if (project == null) {
+			throw new IOException("Impossible d'ouvrir le fichier " + projectFile);
+		}
+		ScriptRunner.runScripts(project.getAllInstances().stream()
+				.flatMap(List::stream)
+				.collect(Collectors.toList()));
+		deployProjectInFolder(project, root);
+	}
+
 	/**
 	 * Demande l'emplacement où déployer le projet donné puis déploie en
 	 * arrière-plan.
@@ -192,19 +227,7 @@ public abstract class AutoDeployer extends FileFilter {
 			final String baseName = getBaseName(map);
 
 			if (baseName != null) {
-				final List<Instance> instances = new ArrayList<>(mapAndInstances.getSpriteInstances());
-				Collections.sort(instances, new Comparator<Instance>() {
-
-					@Override
-					public int compare(Instance o1, Instance o2) {
-						int order = Integer.valueOf(o1.getX()).compareTo(o2.getX());
-						if (order == 0) {
-							return Integer.valueOf(o1.getY()).compareTo(o2.getY());
-						} else {
-							return order;
-						}
-					}
-				});
+				final List<Instance> instances = InstanceList.sortByLocation(mapAndInstances.getSpriteInstances());
 
 				// Écriture de la carte
 				final File mapFile = new File(folder, baseName + MAP_EXTENSION);
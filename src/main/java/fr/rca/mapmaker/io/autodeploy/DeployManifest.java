@@ -0,0 +1,248 @@
+package fr.rca.mapmaker.io.autodeploy;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manifeste des fichiers produits par un déploiement incrémental.
+ * <p>
+ * Pour chaque fichier, le manifeste garde l'empreinte des données utilisées
+ * pour le produire et l'empreinte de son contenu. Au déploiement suivant, un
+ * fichier dont les données n'ont pas changé n'est pas recalculé et un
+ * fichier dont le contenu n'a pas changé n'est pas réécrit (sa date de
+ * modification est conservée).
+ * <p>
+ * Le manifeste est enregistré dans le dossier de destination sous le nom
+ * {@link #FILE_NAME}. Un fichier supprimé ou dont la taille a changé depuis
+ * le dernier déploiement est toujours réécrit. Si seule sa date de
+ * modification a changé, son contenu est comparé à l'empreinte enregistrée.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class DeployManifest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DeployManifest.class);
+
+	public static final String FILE_NAME = "mmkmanifest.json";
+
+	/**
+	 * Version du format. Un manifeste d'une autre version est ignoré.
+	 */
+	private static final int VERSION = 1;
+
+	private final File root;
+	private final boolean enabled;
+
+	/**
+	 * Fichiers du déploiement précédent.
+	 */
+	private final Map<String, Entry> previousFiles;
+
+	/**
+	 * Fichiers produits ou conservés par ce déploiement.
+	 */
+	private final Map<String, Entry> files = new TreeMap<>();
+
+	/**
+	 * Nombre de fichiers écrits depuis la création du manifeste.
+	 */
+	@Getter
+	private int writeCount;
+
+	/**
+	 * Nombre de fichiers conservés depuis la création du manifeste.
+	 */
+	@Getter
+	private int skipCount;
+
+	private DeployManifest(File root, boolean enabled, Map<String, Entry> previousFiles) {
+		this.root = root;
+		this.enabled = enabled;
+		this.previousFiles = previousFiles;
+	}
+
+	/**
+	 * Charge le manifeste du dossier donné. Un manifeste absent ou illisible
+	 * est considéré comme vide : tous les fichiers seront produits.
+	 *
+	 * @param root Dossier de destination du déploiement.
+	 * @return Le manifeste.
+	 */
+	public static DeployManifest load(File root) {
+		final File file = new File(root, FILE_NAME);
+		Map<String, Entry> previousFiles = new TreeMap<>();
+		if (file.canRead()) {
+			try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+				final Content content = new Gson().fromJson(reader, Content.class);
+				if (content != null && content.version == VERSION && content.files != null) {
+					previousFiles = content.files;
+				}
+			} catch (Exception e) {
+				LOGGER.warn("Unable to read deploy manifest " + file + ", deploying everything.", e);
+			}
+		}
+		return new DeployManifest(root, true, previousFiles);
+	}
+
+	/**
+	 * Crée un manifeste inactif : tous les fichiers sont produits et écrits,
+	 * rien n'est enregistré.
+	 *
+	 * @param root Dossier de destination du déploiement.
+	 * @return Le manifeste.
+	 */
+	public static DeployManifest disabled(File root) {
+		return new DeployManifest(root, false, new TreeMap<>());
+	}
+
+	/**
+	 * Indique si le fichier donné a déjà été produit à partir des mêmes
+	 * données. Dans ce cas, il est conservé et n'a pas besoin d'être
+	 * recalculé.
+	 *
+	 * @param file Fichier à produire.
+	 * @param inputs Empreinte des données utilisées pour produire le fichier.
+	 * @return <code>true</code> si le fichier est à jour.
+	 */
+	public boolean isUpToDate(File file, @Nullable String inputs) {
+		if (!enabled || inputs == null) {
+			return false;
+		}
+		final String key = keyOf(file);
+		final Entry entry = previousFiles.get(key);
+		if (entry != null && inputs.equals(entry.inputs) && isOnDisk(file, entry)) {
+			files.put(key, new Entry(entry.inputs, entry.output, entry.length, file.lastModified()));
+			skipCount++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Écrit le contenu donné dans le fichier donné s'il est différent du
+	 * contenu écrit lors du déploiement précédent.
+	 *
+	 * @param file Fichier à écrire.
+	 * @param inputs Empreinte des données utilisées pour produire le fichier
+	 * ou <code>null</code> si le contenu est toujours recalculé.
+	 * @param content Contenu du fichier.
+	 * @throws IOException En cas d'erreur d'écriture.
+	 */
+	public void write(File file, @Nullable String inputs, byte[] content) throws IOException {
+		if (!enabled) {
+			writeFile(file, content);
+			return;
+		}
+		final String key = keyOf(file);
+		final String output = Fingerprint.of(content);
+		final Entry entry = previousFiles.get(key);
+		if (entry != null && output.equals(entry.output) && isOnDisk(file, entry)) {
+			skipCount++;
+		} else {
+			writeFile(file, content);
+		}
+		files.put(key, new Entry(inputs, output, content.length, file.lastModified()));
+	}
+
+	/**
+	 * Enregistre le manifeste dans le dossier de destination. Les fichiers qui
+	 * n'ont pas été produits par ce déploiement sont retirés du manifeste.
+	 *
+	 * @throws IOException En cas d'erreur d'écriture.
+	 */
+	public void save() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		final Content content = new Content();
+		content.version = VERSION;
+		content.files = files;
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(root, FILE_NAME)), StandardCharsets.UTF_8)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(content, writer);
+		}
+		LOGGER.info("Deploy: {} file(s) written, {} unchanged.", writeCount, skipCount);
+	}
+
+	/**
+	 * Indique si le fichier donné est toujours celui enregistré dans le
+	 * manifeste. Le contenu n'est relu que si la date de modification a
+	 * changé.
+	 *
+	 * @param file Fichier produit.
+	 * @param entry Entrée du manifeste.
+	 * @return <code>true</code> si le fichier n'a pas été modifié.
+	 */
+	private static boolean isOnDisk(File file, Entry entry) {
+		if (!file.isFile() || file.length() != entry.length) {
+			return false;
+		}
+		if (file.lastModified() == entry.lastModified) {
+			return true;
+		}
+		try {
+			return Fingerprint.of(Files.readAllBytes(file.toPath())).equals(entry.output);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private void writeFile(File file, byte[] content) throws IOException {
+		try (final BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+			outputStream.write(content);
+		}
+		writeCount++;
+	}
+
+	private String keyOf(File file) {
+		return root.toPath().toAbsolutePath().normalize()
+				.relativize(file.toPath().toAbsolutePath().normalize())
+				.toString()
+				.replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Contenu du fichier de manifeste.
+	 */
+	private static class Content {
+		private int version;
+		private Map<String, Entry> files;
+	}
+
+	/**
+	 * Fichier produit.
+	 */
+	private static class Entry {
+		private String inputs;
+		private String output;
+		private long length;
+		private long lastModified;
+
+		Entry() {
+		}
+
+		Entry(String inputs, String output, long length, long lastModified) {
+			this.inputs = inputs;
+			this.output = output;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+package fr.rca.mapmaker.io.autodeploy;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.ColorPalette;
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Empreinte SHA-256 des données utilisées pour produire un fichier.
+ * <p>
+ * Les valeurs sont ajoutées les unes après les autres puis
+ * {@link #toString()} renvoie l'empreinte en hexadécimal.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class Fingerprint {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final MessageDigest digest;
+
+	public Fingerprint() {
+		try {
+			this.digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 n'est pas disponible.", e);
+		}
+	}
+
+	public Fingerprint add(int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+		return this;
+	}
+
+	public Fingerprint add(long value) {
+		add((int) (value >>> 32));
+		return add((int) value);
+	}
+
+	public Fingerprint add(double value) {
+		return add(Double.doubleToLongBits(value));
+	}
+
+	public Fingerprint add(boolean value) {
+		return add(value ? 1 : 0);
+	}
+
+	/**
+	 * Ajoute une chaîne. La longueur est ajoutée avant le contenu pour que
+	 * deux suites de chaînes différentes ne se confondent pas.
+	 *
+	 * @param value Chaîne à ajouter (peut être <code>null</code>).
+	 * @return Cette empreinte.
+	 */
+	public Fingerprint add(String value) {
+		if (value == null) {
+			return add(-1);
+		}
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		add(bytes.length);
+		digest.update(bytes);
+		return this;
+	}
+
+	/**
+	 * Ajoute la taille et les tuiles de la couche donnée.
+	 *
+	 * @param layer Couche à ajouter (peut être <code>null</code>).
+	 * @return Cette empreinte.
+	 */
+	public Fingerprint add(TileLayer layer) {
+		if (layer == null) {
+			return add(-1);
+		}
+		add(layer.getWidth());
+		add(layer.getHeight());
+		final int[] tiles = layer.copyData();
+		final ByteBuffer buffer = ByteBuffer.allocate(tiles.length * 4);
+		buffer.asIntBuffer().put(tiles);
+		digest.update(buffer.array());
+		return this;
+	}
+
+	/**
+	 * Ajoute le type et les couleurs de la palette donnée.
+	 *
+	 * @param palette Palette à ajouter (peut être <code>null</code>).
+	 * @return Cette empreinte.
+	 */
+	public Fingerprint add(ColorPalette palette) {
+		if (palette == null) {
+			return add(-1);
+		}
+		add(palette.getClass().getName());
+		final Color[] colors = palette.getColors();
+		add(colors.length);
+		for (final Color color : colors) {
+			add(color != null ? color.getRGB() : 0);
+			add(color != null);
+		}
+		return this;
+	}
+
+	/**
+	 * Renvoie l'empreinte en hexadécimal. L'empreinte ne doit plus être
+	 * modifiée ensuite.
+	 *
+	 * @return L'empreinte des valeurs ajoutées.
+	 */
+	@Override
+	public String toString() {
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Calcule l'empreinte du contenu donné.
+	 *
+	 * @param content Contenu d'un fichier.
+	 * @return L'empreinte en hexadécimal.
+	 */
+	public static String of(byte[] content) {
+		final Fingerprint fingerprint = new Fingerprint();
+		fingerprint.digest.update(content);
+		return fingerprint.toString();
+	}
+
+	private static String toHex(byte[] bytes) {
+		final char[] chars = new char[bytes.length * 2];
+		for (int index = 0; index < bytes.length; index++) {
+			chars[index * 2] = HEX_DIGITS[(bytes[index] >> 4) & 0xF];
+			chars[index * 2 + 1] = HEX_DIGITS[bytes[index] & 0xF];
+		}
+		return new String(chars);
+	}
+
+}
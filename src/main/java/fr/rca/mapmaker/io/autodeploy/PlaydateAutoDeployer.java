@@ -15,6 +15,7 @@ import fr.rca.mapmaker.io.playdate.PaletteNamesAsCodeHandler;
 import fr.rca.mapmaker.io.playdate.PaletteNamesAsHeaderHandler;
 import fr.rca.mapmaker.io.playdate.PlaydateExportConfiguration;
 import fr.rca.mapmaker.io.playdate.PlaydateFormat;
+import fr.rca.mapmaker.io.playdate.PngEncodingPool;
 import fr.rca.mapmaker.io.playdate.SpriteAsCodeHandler;
 import fr.rca.mapmaker.io.playdate.SpriteAsHeaderHandler;
 import fr.rca.mapmaker.io.playdate.SpriteDefinitionsAsCodeHandler;
@@ -28,24 +29,27 @@ import fr.rca.mapmaker.model.map.TileLayer;
 import fr.rca.mapmaker.model.map.TileMap;
 import fr.rca.mapmaker.model.palette.EditableImagePalette;
 import fr.rca.mapmaker.model.palette.Palette;
+import fr.rca.mapmaker.model.palette.PaletteReference;
 import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Animation;
 import fr.rca.mapmaker.model.sprite.Instance;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import fr.rca.mapmaker.ui.ImageRenderer;
+import fr.rca.mapmaker.util.DitheringEngine;
 import java.awt.Rectangle;
-import java.awt.image.BufferedImage;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
+import org.jetbrains.annotations.Nullable;
 
 /**
  *
@@ -90,125 +94,229 @@ public class PlaydateAutoDeployer extends AutoDeployer {
 				.orElse(false);
 
 		final List<Palette> palettes = PlaydateFormat.palettesForProject(project);
+		final List<Sprite> sprites = PlaydateFormat.spritesForProject(project);
+		final DitheringEngine ditheringEngine = PlaydateFormat.ditheringEngineFor(configuration);
+
+		final DeployManifest manifest = isIncremental()
+				? DeployManifest.load(root)
+				: DeployManifest.disabled(root);
 
 		final File mapDir = createDirectories
 				? new File(resourceDir, "maps")
 				: resourceDir;
-		mapDir.mkdirs();
-
-		for(final Palette palette : palettes) {
-			if (!flattenLayers) {
-				try (final BufferedOutputStream outputStream = new BufferedOutputStream(
-						new FileOutputStream(
-						new File(mapDir, "palette-" + Names.normalizeName(palette, Names::toLowerCase) + "-table-" + palette.getTileSize() + '-' + palette.getTileSize() + ".png")))) {
-					ImageIO.write(PlaydateFormat.renderPalette((EditableImagePalette) palette), "png", outputStream);
-				}
+		final File spriteDir = createDirectories
+				? new File(resourceDir, "sprites")
+				: resourceDir;
+
+		try (PngEncodingPool pool = new PngEncodingPool()) {
+			// Les images sont rendues et encodées en parallèle pendant
+			// l'écriture des cartes et du code. Les images à jour ne sont
+			// pas rendues.
+			final List<File> paletteFiles = new ArrayList<>();
+			final List<String> paletteInputs = new ArrayList<>();
+			final List<Future<byte[]>> paletteImages = new ArrayList<>();
+			for (final Palette palette : palettes) {
+				final File file = new File(mapDir, "palette-" + Names.normalizeName(palette, Names::toLowerCase) + "-table-" + palette.getTileSize() + '-' + palette.getTileSize() + ".png");
+				final String inputs = flattenLayers ? null : fingerprintOf(palette);
+				paletteFiles.add(file);
+				paletteInputs.add(inputs);
+				paletteImages.add(flattenLayers || manifest.isUpToDate(file, inputs)
+						? CompletableFuture.<byte[]>completedFuture(null)
+						: pool.submit(() -> PlaydateFormat.renderPalette((EditableImagePalette) palette)));
 			}
 
-			generateFile(generatedSourcesDir, new PaletteAsHeaderHandler(), palette, configuration);
-			generateFile(generatedSourcesDir, new PaletteAsCodeHandler(), palette, configuration);
-		}
-		generateFile(generatedSourcesDir, new PaletteNamesAsHeaderHandler(), palettes, configuration);
-		generateFile(generatedSourcesDir, new PaletteNamesAsCodeHandler(), palettes, configuration);
+			final List<File> spriteFiles = new ArrayList<>();
+			final List<String> spriteInputs = new ArrayList<>();
+			final List<Future<byte[]>> spriteImages = new ArrayList<>();
+			for (final Sprite sprite : sprites) {
+				final File file = new File(spriteDir, "sprite-" + Names.normalizeName(sprite, Names::toSnakeCase) + "-table-" + sprite.getWidth() + '-' + sprite.getHeight() + ".png");
+				final String inputs = fingerprintOf(sprite, project.getAnimationNames(), ditheringEngine);
+				spriteFiles.add(file);
+				spriteInputs.add(inputs);
+				spriteImages.add(manifest.isUpToDate(file, inputs)
+						? null
+						: pool.submit(() -> PlaydateFormat.renderSprite(sprite, project.getAnimationNames(), ditheringEngine, true)));
+			}
+
+			mapDir.mkdirs();
 
-		final TileMapHandler tileMapHandler = new TileMapHandler().withConfiguration(configuration);
-		final InstancesHandler instancesHandler = new InstancesHandler().withConfiguration(configuration);
+			for(int index = 0; index < palettes.size(); index++) {
+				final Palette palette = palettes.get(index);
+				final byte[] paletteImage = PngEncodingPool.get(paletteImages.get(index));
+				if (paletteImage != null) {
+					manifest.write(paletteFiles.get(index), paletteInputs.get(index), paletteImage);
+				}
+
+				generateFile(generatedSourcesDir, new PaletteAsHeaderHandler(), palette, configuration, manifest);
+				generateFile(generatedSourcesDir, new PaletteAsCodeHandler(), palette, configuration, manifest);
+			}
+			generateFile(generatedSourcesDir, new PaletteNamesAsHeaderHandler(), palettes, configuration, manifest);
+			generateFile(generatedSourcesDir, new PaletteNamesAsCodeHandler(), palettes, configuration, manifest);
 
-		final List<TileMap> maps = PlaydateFormat.mapsForProject(project);
-		for(int index = 0; index < maps.size(); index++) {
-			final TileMap mapAndInstances = maps.get(index);
-			final TileMap tileMap = mapAndInstances;
+			final TileMapHandler tileMapHandler = new TileMapHandler().withConfiguration(configuration);
+			final InstancesHandler instancesHandler = new InstancesHandler().withConfiguration(configuration);
 
-			try (final BufferedOutputStream outputStream = new BufferedOutputStream(
-					new FileOutputStream(
-					new File(mapDir, "map-" + Names.normalizeName(tileMap, Names::toLowerCase) + ".data")))) {
-				tileMapHandler.write(tileMap, outputStream);
+			final List<TileMap> maps = PlaydateFormat.mapsForProject(project);
+			for(int index = 0; index < maps.size(); index++) {
+				final TileMap mapAndInstances = maps.get(index);
+				final TileMap tileMap = mapAndInstances;
+
+				final ByteArrayOutputStream mapOutputStream = new ByteArrayOutputStream();
+				tileMapHandler.write(tileMap, mapOutputStream);
 				final List<Instance> instances = mapAndInstances.getSpriteInstances().stream()
 						.filter(instance -> instance.getSprite().isExportable())
 						.collect(Collectors.toList());
-				instancesHandler.write(instances, outputStream);
-			}
+				instancesHandler.write(instances, mapOutputStream);
+				manifest.write(new File(mapDir, "map-" + Names.normalizeName(tileMap, Names::toLowerCase) + ".data"), null, mapOutputStream.toByteArray());
 
-			if (flattenLayers) {
-				// Exporte chaque couches séparement dans un PNG chacun.
-				final ImageRenderer renderer = new ImageRenderer();
-				final Palette palette = tileMap.getPalette();
-				final ArrayList<Layer> layers = tileMap.getLayers();
-				for (int layerIndex = 0; layerIndex < layers.size(); layerIndex++) {
-					final Layer layer = layers.get(layerIndex);
-					Rectangle size = TileMapHandler.getLayerSize(layer);
-					if (size.width == 0 || size.height == 0) {
-						continue;
-					}
-					try (final BufferedOutputStream outputStream = new BufferedOutputStream(
-						new FileOutputStream(
-						new File(mapDir, "map-" + Names.normalizeName(tileMap, Names::toLowerCase) + "-layer-" + layerIndex + ".png")))) {
-						ImageIO.write(renderer.renderImage((TileLayer) layer, palette, size, palette.getTileSize()), "png", outputStream);
+				if (flattenLayers) {
+					// Exporte chaque couches séparement dans un PNG chacun.
+					final ImageRenderer renderer = new ImageRenderer();
+					final Palette palette = tileMap.getPalette();
+					final String layerPaletteInputs = fingerprintOf(palette);
+					final ArrayList<Layer> layers = tileMap.getLayers();
+					for (int layerIndex = 0; layerIndex < layers.size(); layerIndex++) {
+						final Layer layer = layers.get(layerIndex);
+						Rectangle size = TileMapHandler.getLayerSize(layer);
+						if (size.width == 0 || size.height == 0) {
+							continue;
+						}
+						final File file = new File(mapDir, "map-" + Names.normalizeName(tileMap, Names::toLowerCase) + "-layer-" + layerIndex + ".png");
+						final String inputs = layerPaletteInputs != null
+								? new Fingerprint()
+										.add("layer")
+										.add(layerPaletteInputs)
+										.add((TileLayer) layer)
+										.add(size.x).add(size.y).add(size.width).add(size.height)
+										.toString()
+								: null;
+						if (!manifest.isUpToDate(file, inputs)) {
+							manifest.write(file, inputs, PngEncodingPool.encode(renderer.renderImage((TileLayer) layer, palette, size, palette.getTileSize())));
+						}
 					}
 				}
 			}
-		}
-		generateFile(generatedSourcesDir, new TileMapsAsHeaderHandler().withConfiguration(configuration), maps, configuration);
-		generateFile(generatedSourcesDir, new TileMapsAsCodeHandler(resourceDir).withConfiguration(configuration), maps, configuration);
+			generateFile(generatedSourcesDir, new TileMapsAsHeaderHandler().withConfiguration(configuration), maps, configuration, manifest);
+			generateFile(generatedSourcesDir, new TileMapsAsCodeHandler(resourceDir).withConfiguration(configuration), maps, configuration, manifest);
 
-		generateFile(generatedSourcesDir, new AnimationNamesAsHeaderHandler(), project.getAnimationNames(), configuration);
+			generateFile(generatedSourcesDir, new AnimationNamesAsHeaderHandler(), project.getAnimationNames(), configuration, manifest);
 
-		final SpriteAsCodeHandler spriteAsCodeHandler = new SpriteAsCodeHandler(project.getAnimationNames());
-		final FontHandler fontHandler = new FontHandler(project.getAnimationNames());
+			final SpriteAsCodeHandler spriteAsCodeHandler = new SpriteAsCodeHandler(project.getAnimationNames());
+			final FontHandler fontHandler = new FontHandler(project.getAnimationNames());
 
-		final File spriteDir = createDirectories
-				? new File(resourceDir, "sprites")
-				: resourceDir;
-		spriteDir.mkdirs();
+			spriteDir.mkdirs();
 
-		final List<Sprite> sprites = PlaydateFormat.spritesForProject(project);
-		for(int index = 0; index < sprites.size(); index++) {
-			final Sprite sprite = sprites.get(index);
-			BufferedImage spriteImage = PlaydateFormat.renderSprite(sprite, project.getAnimationNames(), configuration.getEnableDithering() != null && configuration.getEnableDithering());
-			if (spriteImage != null) {
-				try (final BufferedOutputStream outputStream = new BufferedOutputStream(
-						new FileOutputStream(
-						new File(spriteDir, "sprite-" + Names.normalizeName(sprite, Names::toSnakeCase) + "-table-" + sprite.getWidth() + '-' + sprite.getHeight() + ".png")))) {
-					ImageIO.write(spriteImage, "png", outputStream);
-				}
+			for(int index = 0; index < sprites.size(); index++) {
+				final Sprite sprite = sprites.get(index);
+				final Future<byte[]> spriteImage = spriteImages.get(index);
+				// Sans tâche, l'image est à jour : le sprite a bien des images.
+				final byte[] content = spriteImage != null ? PngEncodingPool.get(spriteImage) : null;
+				if (spriteImage == null || content != null) {
+					if (content != null) {
+						manifest.write(spriteFiles.get(index), spriteInputs.get(index), content);
+					}
 
-				generateFile(generatedSourcesDir, new SpriteAsHeaderHandler(), sprite, configuration);
-				generateFile(generatedSourcesDir, spriteAsCodeHandler, sprite, configuration);
+					generateFile(generatedSourcesDir, new SpriteAsHeaderHandler(), sprite, configuration, manifest);
+					generateFile(generatedSourcesDir, spriteAsCodeHandler, sprite, configuration, manifest);
+				}
 			}
-		}
 
-		generateFile(generatedSourcesDir, new SpriteDefinitionsAsHeaderHandler(), sprites, configuration);
-		generateFile(generatedSourcesDir, new SpriteDefinitionsAsCodeHandler(), sprites, configuration);
+			generateFile(generatedSourcesDir, new SpriteDefinitionsAsHeaderHandler(), sprites, configuration, manifest);
+			generateFile(generatedSourcesDir, new SpriteDefinitionsAsCodeHandler(), sprites, configuration, manifest);
 
-		final File fontDir = createDirectories
-				? new File(resourceDir, "fonts")
-				: resourceDir;
-		fontDir.mkdirs();
+			final File fontDir = createDirectories
+					? new File(resourceDir, "fonts")
+					: resourceDir;
+			fontDir.mkdirs();
+
+			final List<Sprite> fonts = PlaydateFormat.fontsForProject(project);
+			for(Sprite font : fonts) {
+				generateFile(fontDir, fontHandler, font, configuration, manifest);
+			}
 
-		final List<Sprite> fonts = PlaydateFormat.fontsForProject(project);
-		for(Sprite font : fonts) {
-			generateFile(fontDir, fontHandler, font, configuration);
+			generateFile(generatedSourcesDir, new SpriteVariablesAsHeaderHandler(), PlaydateFormat.variablesForSprites(project), configuration, manifest);
 		}
 
-		generateFile(generatedSourcesDir, new SpriteVariablesAsHeaderHandler(), PlaydateFormat.variablesForSprites(project), configuration);
+		manifest.save();
 	}
 
-	private <T> void generateFile(final File generatedSourcesDir, CodeDataHandler<T> handler, final T data, PlaydateExportConfiguration configuration) throws IOException {
+	private <T> void generateFile(final File generatedSourcesDir, CodeDataHandler<T> handler, final T data, PlaydateExportConfiguration configuration, DeployManifest manifest) throws IOException {
 		File file = new File(generatedSourcesDir, handler.fileNameFor(data));
 		String generatedDate = Headers.getGeneratedDate(file);
-		try (final BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
-			handler
-					.withConfiguration(configuration)
-					.withGeneratedDate(generatedDate)
-					.write(data, outputStream);
-		}
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		handler
+				.withConfiguration(configuration)
+				.withGeneratedDate(generatedDate)
+				.write(data, outputStream);
+		manifest.write(file, null, outputStream.toByteArray());
 	}
 
-	private <T> void generateFile(final File generatedSourcesDir, DataHandler<T> handler, final T data, PlaydateExportConfiguration configuration) throws IOException {
+	private <T> void generateFile(final File generatedSourcesDir, DataHandler<T> handler, final T data, PlaydateExportConfiguration configuration, DeployManifest manifest) throws IOException {
 		File file = new File(generatedSourcesDir, handler.fileNameFor(data));
-		try (final BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
-			handler.write(data, outputStream);
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		handler.write(data, outputStream);
+		manifest.write(file, null, outputStream.toByteArray());
+	}
+
+	/**
+	 * Calcule l'empreinte des données utilisées pour dessiner la palette.
+	 *
+	 * @param palette Palette.
+	 * @return L'empreinte ou <code>null</code> si la palette n'est pas
+	 * une palette éditable (elle est alors toujours redessinée).
+	 */
+	private static @Nullable String fingerprintOf(Palette palette) {
+		if (palette instanceof PaletteReference) {
+			palette = ((PaletteReference) palette).getPalette();
+		}
+		if (!(palette instanceof EditableImagePalette)) {
+			return null;
+		}
+		final EditableImagePalette editableImagePalette = (EditableImagePalette) palette;
+		final Fingerprint fingerprint = new Fingerprint()
+				.add("palette")
+				.add(editableImagePalette.getTileSize())
+				.add(editableImagePalette.getColorPalette());
+		fingerprint.add(editableImagePalette.size());
+		for (int index = 0; index < editableImagePalette.size(); index++) {
+			fingerprint.add(editableImagePalette.getSource(index));
+		}
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Calcule l'empreinte des données utilisées pour dessiner les images du
+	 * sprite.
+	 *
+	 * @param sprite Sprite.
+	 * @param animationNames Noms des animations exportées.
+	 * @param ditheringEngine Moteur de dithering ou <code>null</code>.
+	 * @return L'empreinte.
+	 */
+	private static String fingerprintOf(Sprite sprite, List<String> animationNames, @Nullable DitheringEngine ditheringEngine) {
+		final Fingerprint fingerprint = new Fingerprint()
+				.add("sprite")
+				.add(sprite.getWidth())
+				.add(sprite.getHeight())
+				.add(sprite.getPalette())
+				.add(ditheringEngine != null ? ditheringEngine.getMode().name() : null)
+				.add(ditheringEngine != null && ditheringEngine.isPerceivedLightness());
+		for (final String animationName : animationNames) {
+			fingerprint.add(animationName);
+			final Animation animation = sprite.findByName(animationName);
+			if (animation == null) {
+				fingerprint.add(-1);
+				continue;
+			}
+			for (final double angle : animation.getAnglesWithValue()) {
+				final List<TileLayer> frames = animation.getFrames(angle);
+				fingerprint.add(angle).add(frames.size());
+				for (final TileLayer frame : frames) {
+					fingerprint.add(frame);
+				}
+			}
 		}
+		return fingerprint.toString();
 	}
 
 	@Override
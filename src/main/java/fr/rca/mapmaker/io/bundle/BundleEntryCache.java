@@ -0,0 +1,129 @@
+package fr.rca.mapmaker.io.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache des fichiers d'un paquet déjà lus.
+ * <p>
+ * Lorsqu'un paquet est relu, les fichiers dont la date de modification et la
+ * taille n'ont pas changé ne sont pas lus de nouveau : l'objet lu la fois
+ * précédente est réutilisé. Les objets renvoyés sont partagés entre les
+ * projets ouverts avec le même cache, ils ne doivent donc être modifiés que
+ * si le projet précédent n'est plus utilisé.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class BundleEntryCache {
+
+	/**
+	 * Lecture d'un fichier.
+	 *
+	 * @param <T> Type de l'objet lu.
+	 */
+	@FunctionalInterface
+	public interface Reader<T> {
+		T read() throws IOException;
+	}
+
+	private final Map<File, Entry> entries = new HashMap<>();
+
+	/**
+	 * Fichiers utilisés par la lecture en cours.
+	 */
+	private final Set<File> usedFiles = new HashSet<>();
+
+	private int readCount;
+	private int hitCount;
+
+	/**
+	 * Renvoie l'objet lu depuis le fichier donné. Le fichier n'est lu que s'il
+	 * a changé depuis la dernière lecture.
+	 *
+	 * @param <T> Type de l'objet lu.
+	 * @param file Fichier à lire.
+	 * @param reader Lecture du fichier.
+	 * @return L'objet lu.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> T get(File file, Reader<T> reader) throws IOException {
+		usedFiles.add(file);
+
+		// La date est lue avant le fichier : une modification pendant la
+		// lecture sera vue à la lecture suivante.
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+
+		final Entry entry = entries.get(file);
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+			hitCount++;
+			return (T) entry.value;
+		}
+
+		final T value = reader.read();
+		entries.put(file, new Entry(lastModified, length, value));
+		readCount++;
+		return value;
+	}
+
+	/**
+	 * Indique le début de la lecture d'un paquet.
+	 */
+	public synchronized void startLoading() {
+		usedFiles.clear();
+	}
+
+	/**
+	 * Indique la fin de la lecture d'un paquet. Les fichiers qui n'ont pas été
+	 * utilisés sont retirés du cache.
+	 */
+	public synchronized void endLoading() {
+		entries.keySet().retainAll(usedFiles);
+		usedFiles.clear();
+	}
+
+	/**
+	 * Vide le cache.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		usedFiles.clear();
+	}
+
+	/**
+	 * Nombre de fichiers lus depuis la création du cache.
+	 *
+	 * @return Le nombre de lectures.
+	 */
+	public synchronized int getReadCount() {
+		return readCount;
+	}
+
+	/**
+	 * Nombre de fichiers réutilisés sans être relus depuis la création du
+	 * cache.
+	 *
+	 * @return Le nombre de fichiers réutilisés.
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	private static class Entry {
+		private final long lastModified;
+		private final long length;
+		private final Object value;
+
+		Entry(long lastModified, long length, Object value) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.value = value;
+		}
+	}
+
+}
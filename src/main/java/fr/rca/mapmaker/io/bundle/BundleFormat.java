@@ -7,10 +7,13 @@ import fr.rca.mapmaker.io.DataHandler;
 import fr.rca.mapmaker.io.HasProgress;
 import fr.rca.mapmaker.io.ProgressTracker;
 import fr.rca.mapmaker.io.SupportedOperation;
+import fr.rca.mapmaker.io.common.ByteBufferInputStream;
 import fr.rca.mapmaker.io.common.Streams;
 import fr.rca.mapmaker.io.internal.InternalFormat;
+import fr.rca.mapmaker.model.map.Layer;
 import fr.rca.mapmaker.model.map.ScrollRate;
 import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.map.TileLoader;
 import fr.rca.mapmaker.model.map.TileMap;
 import fr.rca.mapmaker.model.palette.AlphaColorPalette;
 import fr.rca.mapmaker.model.palette.ColorPalette;
@@ -23,6 +26,7 @@ import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Animation;
 import fr.rca.mapmaker.model.sprite.Instance;
 import fr.rca.mapmaker.model.sprite.Sprite;
+import fr.rca.mapmaker.preferences.PreferencesManager;
 import fr.rca.mapmaker.util.CanBeDirty;
 import java.awt.Color;
 import java.awt.Rectangle;
@@ -34,6 +38,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -44,6 +49,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +88,23 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 	private static final String ANIMATION_NAMES = "animation-names";
 	private static final String SCRIPTS = "scripts";
 
+	/**
+	 * Nombre de fichiers écrits en même temps lors de l'enregistrement.
+	 */
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * <code>true</code> pour ne lire les tuiles des cartes qu'au premier
+	 * accès.
+	 */
+	private boolean lazyLoading = PreferencesManager.getInt(PreferencesManager.LAZY_MAP_LOADING, 1) != 0;
+
+	/**
+	 * Cache des fichiers déjà lus ou <code>null</code> pour toujours lire
+	 * tous les fichiers.
+	 */
+	private BundleEntryCache entryCache;
+
 	public BundleFormat() {
 		super(EXTENSION, SupportedOperation.SAVE, SupportedOperation.LOAD);
 
@@ -88,7 +117,7 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 		addHandler(EditableImagePalette.class, new fr.rca.mapmaker.io.internal.EditableImagePaletteDataHandler(this));
 		addHandler(PaletteReference.class, new fr.rca.mapmaker.io.internal.PaletteReferenceDataHandler());
 		addHandler(BufferedImage.class, new fr.rca.mapmaker.io.internal.BufferedImageDataHandler());
-		addHandler(TileLayer.class, new fr.rca.mapmaker.io.internal.LayerDataHandler(this));
+		addHandler(TileLayer.class, new LazyLayerDataHandler(this));
 		addHandler(ScrollRate.class, new fr.rca.mapmaker.io.internal.ScrollRateDataHandler());
 		addHandler(TileMap.class, new fr.rca.mapmaker.io.internal.TileMapDataHandler(this));
 		addHandler(Sprite.class, new fr.rca.mapmaker.io.internal.SpriteDataHandler(this));
@@ -141,15 +170,18 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 		projectMap.put(SPRITES, sprites);
 		projectMap.put(ANIMATION_NAMES, project.getAnimationNames());
 
+		final ExecutorService executor = threadCount > 1
+				? Executors.newFixedThreadPool(threadCount)
+				: null;
 		try {
-			// Palettes
-			write(project.getPalettes(), file, files, PALETTE_FILE_FORMAT, palettes, getHandler(Palette.class), forceDirty);
-			progressTracker.stepDidEnd("palettes");
+			// Les fichiers sont indépendants : ils sont écrits en parallèle
+			// puis attendus dans l'ordre pour suivre la progression.
+			final List<Future<CanBeDirty>> paletteTasks = write(project.getPalettes(), file, files, PALETTE_FILE_FORMAT, palettes, getHandler(Palette.class), forceDirty, executor);
 
 			// Cartes
 			final DataHandler<TileMap> tileMapHandler = getHandler(TileMap.class);
 			final DataHandler<Instance> instanceHandler = getHandler(Instance.class);
-			progressTracker.stepHaveSubsteps(project.getMaps().size());
+			final List<Future<CanBeDirty>> mapTasks = new ArrayList<>();
 			for (final TileMap mapAndInstances : project.getMaps()) {
 				final TileMap tileMap = mapAndInstances;
 
@@ -157,20 +189,31 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 				final String mapName = String.format(MAP_FILE_FORMAT, tileMap.getIndex());
 				final String instancesName = String.format(INSTANCES_FILE_FORMAT, tileMap.getIndex());
 
-				writeMap(tileMap, file, files, mapName, tileMapHandler, map, forceDirty);
-				progressTracker.subStepDidEnd();
+				if (forceDirty || tileMap.isDirty() || !isReadFrom(tileMap, new File(file, mapName))) {
+					// Le fichier d'origine des tuiles pas encore lues va être
+					// remplacé ou supprimé.
+					tileMap.loadTiles();
+				}
+				mapTasks.add(writeMap(tileMap, file, files, mapName, tileMapHandler, map, forceDirty, executor));
 
 				// Instances
 				final List<Instance> instances = mapAndInstances.getSpriteInstances();
-				writeInstances(instances, file, files, instancesName, instanceHandler, map);
-				progressTracker.subStepDidEnd();
+				mapTasks.add(writeInstances(instances, file, files, instancesName, instanceHandler, map, executor));
 
 				maps.add(map);
 			}
-			progressTracker.stepDidEnd("instances");
 
 			// Sprites
-			write(project.getSprites(), file, files, SPRITE_FILE_FORMAT, sprites, getHandler(Sprite.class), forceDirty);
+			final List<Future<CanBeDirty>> spriteTasks = write(project.getSprites(), file, files, SPRITE_FILE_FORMAT, sprites, getHandler(Sprite.class), forceDirty, executor);
+
+			await(paletteTasks, null);
+			progressTracker.stepDidEnd("palettes");
+
+			progressTracker.stepHaveSubsteps(project.getMaps().size());
+			await(mapTasks, progressTracker);
+			progressTracker.stepDidEnd("instances");
+
+			await(spriteTasks, null);
 			progressTracker.stepDidEnd("sprites");
 
 			// Scripts
@@ -209,6 +252,124 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 
 		} catch (IOException e) {
 			Exceptions.showStackTrace(e, null);
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Indique si les tuiles des cartes sont lues au premier accès.
+	 *
+	 * @return <code>true</code> si les tuiles sont lues à la demande.
+	 */
+	public boolean isLazyLoading() {
+		return lazyLoading;
+	}
+
+	/**
+	 * Définit si les tuiles des cartes sont lues à l'ouverture du projet ou
+	 * au premier accès. Dans le second cas, seules les informations des
+	 * cartes et de leurs couches sont lues à l'ouverture et les tuiles des
+	 * cartes non modifiées peuvent être oubliées quand elles ne sont plus
+	 * affichées.
+	 *
+	 * @param lazyLoading <code>true</code> pour lire les tuiles à la demande.
+	 */
+	public void setLazyLoading(boolean lazyLoading) {
+		this.lazyLoading = lazyLoading;
+	}
+
+	public BundleEntryCache getEntryCache() {
+		return entryCache;
+	}
+
+	/**
+	 * Définit le cache utilisé à l'ouverture. Avec un cache, seuls les
+	 * fichiers modifiés depuis l'ouverture précédente sont lus et les tuiles
+	 * des cartes sont toujours lues à l'ouverture (un fichier projeté en
+	 * mémoire ne doit pas être réécrit pendant qu'il est utilisé).
+	 *
+	 * @param entryCache Cache à utiliser ou <code>null</code> pour lire tous
+	 * les fichiers.
+	 */
+	public void setEntryCache(BundleEntryCache entryCache) {
+		this.entryCache = entryCache;
+	}
+
+	/**
+	 * Nombre de fichiers écrits en même temps lors de l'enregistrement.
+	 *
+	 * @return Le nombre de threads utilisés pour l'écriture.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Définit le nombre de fichiers écrits en même temps lors de
+	 * l'enregistrement. Avec 1, les fichiers sont écrits les uns après les
+	 * autres par le thread appelant.
+	 *
+	 * @param threadCount Nombre de threads à utiliser.
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+
+	/**
+	 * Exécute la tâche donnée avec <code>executor</code> ou directement si
+	 * <code>executor</code> est <code>null</code>.
+	 *
+	 * @param executor Exécuteur à utiliser.
+	 * @param task Tâche d'écriture. Elle renvoie l'objet écrit pour qu'il
+	 * soit marqué comme enregistré ou <code>null</code>.
+	 * @return Le résultat de la tâche.
+	 */
+	private static Future<CanBeDirty> submit(ExecutorService executor, Callable<CanBeDirty> task) {
+		if (executor != null) {
+			return executor.submit(task);
+		}
+		final FutureTask<CanBeDirty> futureTask = new FutureTask<>(task);
+		futureTask.run();
+		return futureTask;
+	}
+
+	/**
+	 * Attend la fin des tâches données, dans l'ordre, et marque les objets
+	 * écrits comme enregistrés.
+	 *
+	 * @param tasks Tâches à attendre.
+	 * @param progressTracker Suivi de progression à avancer d'une sous-étape
+	 * pour chaque tâche ou <code>null</code>.
+	 * @throws IOException Si une des tâches a échoué.
+	 */
+	private static void await(List<Future<CanBeDirty>> tasks, ProgressTracker progressTracker) throws IOException {
+		for (final Future<CanBeDirty> task : tasks) {
+			final CanBeDirty written;
+			try {
+				written = task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Enregistrement interrompu.");
+			} catch (ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause);
+			}
+			if (written != null) {
+				written.setDirty(false);
+			}
+			if (progressTracker != null) {
+				progressTracker.subStepDidEnd();
+			}
 		}
 	}
 
@@ -220,7 +381,8 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 		}
 	}
 
-	private <T> void write(List<T> objects, File parent, Set<File> files, String format, List<String> infoEntries, DataHandler<T> handler, boolean forceDirty) throws IOException {
+	private <T> List<Future<CanBeDirty>> write(List<T> objects, File parent, Set<File> files, String format, List<String> infoEntries, DataHandler<T> handler, boolean forceDirty, ExecutorService executor) {
+		final List<Future<CanBeDirty>> tasks = new ArrayList<>();
 		for (int index = 0; index < objects.size(); index++) {
 			final String name = String.format(format, index);
 			final File file = new File(parent, name);
@@ -229,39 +391,48 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 			final CanBeDirty canBeDirty = CanBeDirty.wrap(object);
 			LOGGER.debug("{} {} {}", object.getClass().getSimpleName(), object.toString(), (canBeDirty.isDirty() ? "is dirty" : "has not changed"));
 			if (forceDirty || canBeDirty.isDirty()) {
-				try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
-					handler.write(object, outputStream);
-					canBeDirty.setDirty(false);
-				}
+				tasks.add(submit(executor, () -> {
+					try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+						handler.write(object, outputStream);
+					}
+					return canBeDirty;
+				}));
 			}
 			infoEntries.add(name);
 		}
+		return tasks;
 	}
 
-	private void writeMap(TileMap tileMap, File parent, Set<File> files, final String mapName, final DataHandler<TileMap> tileMapHandler, final Map<String, Object> map, boolean forceDirty) throws IOException, FileNotFoundException {
+	private Future<CanBeDirty> writeMap(TileMap tileMap, File parent, Set<File> files, final String mapName, final DataHandler<TileMap> tileMapHandler, final Map<String, Object> map, boolean forceDirty, ExecutorService executor) {
 		// Carte
 		final File file = new File(parent, mapName);
 		files.remove(file);
+		map.put(MAP, mapName);
 		LOGGER.debug("TileMap {} {}", tileMap.getName(), (tileMap.isDirty() ? "is dirty" : "has not changed"));
 		if (forceDirty || tileMap.isDirty()) {
-			try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
-				tileMapHandler.write(tileMap, outputStream);
-				tileMap.setDirty(false);
-			}
+			return submit(executor, () -> {
+				try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+					tileMapHandler.write(tileMap, outputStream);
+				}
+				return tileMap;
+			});
 		}
-		map.put(MAP, mapName);
+		return CompletableFuture.completedFuture(null);
 	}
 
-	private void writeInstances(final List<Instance> instances, File parent, Set<File> files, final String instancesName, final DataHandler<Instance> instanceHandler, final Map<String, Object> map) throws FileNotFoundException, IOException {
+	private Future<CanBeDirty> writeInstances(final List<Instance> instances, File parent, Set<File> files, final String instancesName, final DataHandler<Instance> instanceHandler, final Map<String, Object> map, ExecutorService executor) {
 		final File file = new File(parent, instancesName);
 		files.remove(file);
-		try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
-			Streams.write(instances.size(), outputStream);
-			for (Instance instance : instances) {
-				instanceHandler.write(instance, outputStream);
+		map.put(INSTANCES, instancesName);
+		return submit(executor, () -> {
+			try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+				Streams.write(instances.size(), outputStream);
+				for (Instance instance : instances) {
+					instanceHandler.write(instance, outputStream);
+				}
 			}
-			map.put(INSTANCES, instancesName);
-		}
+			return null;
+		});
 	}
 
 	@Override
@@ -271,99 +442,120 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 
 	@Override
 	public Project openProject(File file, Listener progressListener) {
+		try {
+			return loadProject(file, progressListener);
+		} catch (IOException e) {
+			Exceptions.showStackTrace(e, null);
+		}
+
+		return Project.createEmptyProject();
+	}
+
+	/**
+	 * Ouvre le paquet donné. Contrairement à {@link #openProject(File, Listener)},
+	 * les erreurs de lecture ne sont pas affichées mais transmises à
+	 * l'appelant et aucun projet vide n'est renvoyé à la place.
+	 *
+	 * @param file Paquet à ouvrir.
+	 * @param progressListener Suivi de la progression (peut être <code>null</code>).
+	 * @return Le projet lu.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	public Project loadProject(File file, Listener progressListener) throws IOException {
 		final Project project = new Project();
 		final ProgressTracker progressTracker = new ProgressTracker(progressListener,
 				"info", "version", "animationNames", "palettes", "maps", "instances", "scripts", "sprites");
 
-		try {
-			final Map<String, Object> projectInfo = readProjectInfo(file);
-			progressTracker.stepDidEnd("info");
-
-			// Version
-			final Integer version = (Integer) projectInfo.get(VERSION);
-			setVersion(version != null ? version : InternalFormat.VERSION_4);
-			progressTracker.stepDidEnd("version");
+		if (entryCache != null) {
+			entryCache.startLoading();
+		}
+		final Map<String, Object> projectInfo = readProjectInfo(file);
+		progressTracker.stepDidEnd("info");
 
-			final boolean oldVersion = version == null || version < InternalFormat.LAST_VERSION;
+		// Version
+		final Integer version = (Integer) projectInfo.get(VERSION);
+		setVersion(version != null ? version : InternalFormat.VERSION_4);
+		progressTracker.stepDidEnd("version");
 
-			// Animation names
-			List<String> animationNames = (List<String>) projectInfo.get(ANIMATION_NAMES);
-			if (animationNames != null) {
-				project.setAnimationNames(animationNames);
-			}
-			progressTracker.stepDidEnd("animationNames");
-
-			// Palettes
-			final DataHandler<Palette> paletteHandler = getHandler(Palette.class);
-			final List<String> palettes = (List<String>) projectInfo.get(PALETTES);
-			progressTracker.stepHaveSubsteps(palettes.size());
-			for (final String palette : palettes) {
-				project.addPalette(read(file, palette, paletteHandler, oldVersion));
-				progressTracker.subStepDidEnd();
-			}
-			progressTracker.stepDidEnd("palettes");
+		final boolean oldVersion = version == null || version < InternalFormat.LAST_VERSION;
 
-			// Maps
-			final DataHandler<TileMap> tileMapHandler = getHandler(TileMap.class);
-			final DataHandler<Instance> instanceHandler = getHandler(Instance.class);
+		// Animation names
+		List<String> animationNames = (List<String>) projectInfo.get(ANIMATION_NAMES);
+		if (animationNames != null) {
+			project.setAnimationNames(animationNames);
+		}
+		progressTracker.stepDidEnd("animationNames");
+
+		// Palettes
+		final DataHandler<Palette> paletteHandler = getHandler(Palette.class);
+		final List<String> palettes = (List<String>) projectInfo.get(PALETTES);
+		progressTracker.stepHaveSubsteps(palettes.size());
+		for (final String palette : palettes) {
+			project.addPalette(read(file, palette, paletteHandler, oldVersion));
+			progressTracker.subStepDidEnd();
+		}
+		progressTracker.stepDidEnd("palettes");
 
-			final List<Map<String, Object>> maps = (List<Map<String, Object>>) projectInfo.get(MAPS);
-			progressTracker.stepHaveSubsteps(maps.size());
+		// Maps
+		final DataHandler<TileMap> tileMapHandler = getHandler(TileMap.class);
+		final DataHandler<Instance> instanceHandler = getHandler(Instance.class);
 
-			for (final Map<String, Object> map : maps) {
-				// Map
-				final TileMap tileMap = read(file, (String) map.get(MAP), tileMapHandler, oldVersion);
-				progressTracker.subStepDidEnd();
+		final List<Map<String, Object>> maps = (List<Map<String, Object>>) projectInfo.get(MAPS);
+		progressTracker.stepHaveSubsteps(maps.size());
 
-				// Instances
-				final List<Instance> instances = readInstances(file, (String) map.get(INSTANCES), project, instanceHandler);
-				progressTracker.subStepDidEnd();
+		for (final Map<String, Object> map : maps) {
+			// Map
+			final TileMap tileMap = lazyLoading && entryCache == null
+					? readMapped(file, (String) map.get(MAP), tileMapHandler, oldVersion)
+					: read(file, (String) map.get(MAP), tileMapHandler, oldVersion);
+			progressTracker.subStepDidEnd();
 
-				project.addMap(tileMap, instances, false);
-			}
-			if (version >= InternalFormat.VERSION_7 && projectInfo.containsKey(NEXT_MAP)) {
-				project.setNextMap((Integer) projectInfo.get(NEXT_MAP));
-			}
-			progressTracker.stepDidEnd("instances");
+			// Instances
+			final List<Instance> instances = readInstances(file, (String) map.get(INSTANCES), project, instanceHandler);
+			progressTracker.subStepDidEnd();
 
-			// Scripts
-			final List<String> scriptNames = (List<String>) projectInfo.get(SCRIPTS);
-			if (scriptNames != null) {
-				progressTracker.stepHaveSubsteps(scriptNames.size());
-				for (int index = 0; index < scriptNames.size(); index++) {
-					project.getScripts().put(scriptNames.get(index), read(file, String.format(SCRIPT_FILE_FORMAT, index)));
-					progressTracker.subStepDidEnd();
-				}
-			}
-			progressTracker.stepDidEnd("scripts");
+			project.addMap(tileMap, instances, false);
+		}
+		if (version >= InternalFormat.VERSION_7 && projectInfo.containsKey(NEXT_MAP)) {
+			project.setNextMap((Integer) projectInfo.get(NEXT_MAP));
+		}
+		progressTracker.stepDidEnd("instances");
 
-			// Sprites
-			final DataHandler<Sprite> spriteHandler = getHandler(Sprite.class);
-			final List<Sprite> sprites = project.getSprites();
-			sprites.clear();
-
-			final List<String> spriteFiles = (List<String>) projectInfo.get(SPRITES);
-			progressTracker.stepHaveSubsteps(spriteFiles.size());
-			for (final String sprite : spriteFiles) {
-				Sprite aSprite;
-				try {
-					aSprite = read(file, sprite, spriteHandler, oldVersion);
-				} catch (FileNotFoundException e) {
-					aSprite = new Sprite();
-				}
-				sprites.add(aSprite);
+		// Scripts
+		final List<String> scriptNames = (List<String>) projectInfo.get(SCRIPTS);
+		if (scriptNames != null) {
+			progressTracker.stepHaveSubsteps(scriptNames.size());
+			for (int index = 0; index < scriptNames.size(); index++) {
+				project.getScripts().put(scriptNames.get(index), read(file, String.format(SCRIPT_FILE_FORMAT, index)));
 				progressTracker.subStepDidEnd();
 			}
+		}
+		progressTracker.stepDidEnd("scripts");
 
-			progressTracker.onEnd();
+		// Sprites
+		final DataHandler<Sprite> spriteHandler = getHandler(Sprite.class);
+		final List<Sprite> sprites = project.getSprites();
+		sprites.clear();
 
-			return project;
+		final List<String> spriteFiles = (List<String>) projectInfo.get(SPRITES);
+		progressTracker.stepHaveSubsteps(spriteFiles.size());
+		for (final String sprite : spriteFiles) {
+			Sprite aSprite;
+			try {
+				aSprite = read(file, sprite, spriteHandler, oldVersion);
+			} catch (FileNotFoundException e) {
+				aSprite = new Sprite();
+			}
+			sprites.add(aSprite);
+			progressTracker.subStepDidEnd();
+		}
 
-		} catch (IOException e) {
-			Exceptions.showStackTrace(e, null);
+		if (entryCache != null) {
+			entryCache.endLoading();
 		}
+		progressTracker.onEnd();
 
-		return Project.createEmptyProject();
+		return project;
 	}
 
 	private Map<String, Object> readProjectInfo(File parent) throws IOException, FileNotFoundException {
@@ -373,13 +565,50 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 	}
 
 	private <T> T read(File parent, String name, DataHandler<T> handler, boolean dirty) throws FileNotFoundException, IOException {
-		try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(new File(parent, name)))) {
+		final File file = new File(parent, name);
+		if (entryCache != null) {
+			return entryCache.get(file, () -> read(file, handler, dirty));
+		}
+		return read(file, handler, dirty);
+	}
+
+	private <T> T read(File file, DataHandler<T> handler, boolean dirty) throws FileNotFoundException, IOException {
+		try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+			final T t = handler.read(inputStream);
+			CanBeDirty.wrap(t).setDirty(dirty);
+			return t;
+		}
+	}
+
+	private <T> T readMapped(File parent, String name, DataHandler<T> handler, boolean dirty) throws IOException {
+		try (ByteBufferInputStream inputStream = ByteBufferInputStream.open(new File(parent, name).toPath())) {
 			final T t = handler.read(inputStream);
 			CanBeDirty.wrap(t).setDirty(dirty);
 			return t;
 		}
 	}
 
+	/**
+	 * Indique si les tuiles pas encore lues de la carte donnée proviennent du
+	 * fichier donné.
+	 *
+	 * @param tileMap Carte.
+	 * @param file Fichier de la carte.
+	 * @return <code>true</code> si toutes les tuiles restant à lire sont dans
+	 * <code>file</code>.
+	 */
+	private static boolean isReadFrom(TileMap tileMap, File file) {
+		for (final Layer layer : tileMap.getLayers()) {
+			if (layer instanceof TileLayer) {
+				final TileLoader loader = ((TileLayer) layer).getTileLoader();
+				if (loader != null && !loader.getFile().equals(file)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Lecture des instances contenues dans le fichier <code>name</code>.
 	 *
@@ -391,26 +620,48 @@ public class BundleFormat extends AbstractFormat implements HasProgress {
 	 * @throws IOException En cas d'erreur de lecture.
 	 */
 	private List<Instance> readInstances(File parent, String name, Project project, DataHandler<Instance> handler) throws FileNotFoundException, IOException {
-		final List<Instance> instances = new ArrayList<>();
-
 		final File file = new File(parent, name);
+		if (!file.exists()) {
+			return new ArrayList<>();
+		}
 
-		if (file.exists()) {
-			try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
-				final int size = Streams.readInt(inputStream);
-				for (int index = 0; index < size; index++) {
-					final Instance instance = handler.read(inputStream);
-					instance.setProject(project);
-					instances.add(instance);
-				}
+		final List<Instance> instances;
+		if (entryCache != null) {
+			// Les instances en cache sont copiées pour que chaque projet ait
+			// ses propres écouteurs et son propre état.
+			instances = new ArrayList<>();
+			for (final Instance instance : entryCache.get(file, () -> readInstances(file, handler))) {
+				instances.add(new Instance(instance));
 			}
+		} else {
+			instances = readInstances(file, handler);
 		}
+		for (final Instance instance : instances) {
+			instance.setProject(project);
+		}
+		return instances;
+	}
 
+	private List<Instance> readInstances(File file, DataHandler<Instance> handler) throws IOException {
+		final List<Instance> instances = new ArrayList<>();
+		try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+			final int size = Streams.readInt(inputStream);
+			for (int index = 0; index < size; index++) {
+				instances.add(handler.read(inputStream));
+			}
+		}
 		return instances;
 	}
 
 	private String read(File parent, String name) throws IOException {
 		final File file = new File(parent, name);
+		if (entryCache != null) {
+			return entryCache.get(file, () -> read(file));
+		}
+		return read(file);
+	}
+
+	private String read(File file) throws IOException {
 		if (!file.isFile() || !file.canRead()) {
 			return null;
 		}
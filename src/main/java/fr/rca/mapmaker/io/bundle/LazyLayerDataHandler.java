@@ -0,0 +1,105 @@
+package fr.rca.mapmaker.io.bundle;
+
+import fr.rca.mapmaker.io.Format;
+import fr.rca.mapmaker.io.common.ByteBufferInputStream;
+import fr.rca.mapmaker.io.common.Streams;
+import fr.rca.mapmaker.io.internal.LayerDataHandler;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.map.TileLoader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecteur de couches dont les tuiles ne sont lues qu'au premier accès.
+ * <p>
+ * Seules les couches lues depuis un fichier ouvert avec
+ * {@link ByteBufferInputStream#open(java.nio.file.Path)} sont lues à la
+ * demande : la position de leurs tuiles dans le fichier est conservée et les
+ * tuiles sont sautées. Les autres sont lues normalement.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+class LazyLayerDataHandler extends LayerDataHandler {
+
+	LazyLayerDataHandler(Format format) {
+		super(format);
+	}
+
+	@Override
+	protected TileLayer readTiles(int width, int height, InputStream inputStream) throws IOException {
+		if (!(inputStream instanceof ByteBufferInputStream) || ((ByteBufferInputStream) inputStream).getPath() == null) {
+			return super.readTiles(width, height, inputStream);
+		}
+		final ByteBufferInputStream byteBufferInputStream = (ByteBufferInputStream) inputStream;
+		final int position = byteBufferInputStream.position();
+
+		final int count = Streams.readInt(byteBufferInputStream);
+		if (count != width * height) {
+			throw new IOException("Taille inattendue pour " + byteBufferInputStream.getPath() + " : " + count + " tuiles au lieu de " + width * height + '.');
+		}
+		// Un fichier tronqué est signalé à l'ouverture du projet plutôt
+		// qu'au premier dessin de la couche.
+		final FileTileLoader loader = new FileTileLoader(byteBufferInputStream.getPath().toFile(), position, count);
+		loader.checkLength();
+		byteBufferInputStream.skip(count * 4L);
+
+		return new TileLayer(width, height, loader);
+	}
+
+	/**
+	 * Lit un tableau de tuiles à une position donnée d'un fichier.
+	 */
+	private static class FileTileLoader implements TileLoader {
+		private final File file;
+		private final long position;
+		private final int count;
+
+		FileTileLoader(File file, long position, int count) {
+			this.file = file;
+			this.position = position;
+			this.count = count;
+		}
+
+		/**
+		 * Vérifie que le fichier contient toutes les tuiles.
+		 *
+		 * @throws EOFException Si le fichier est trop court.
+		 */
+		void checkLength() throws EOFException {
+			final long expectedLength = position + 4L + count * 4L;
+			if (file.length() < expectedLength) {
+				throw new EOFException("Fin de fichier inattendue : " + file + " contient " + file.length() + " octets au lieu d'au moins " + expectedLength + '.');
+			}
+		}
+
+		@Override
+		public int[] load() throws IOException {
+			try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				final ByteBuffer buffer = ByteBuffer.allocate(4 + count * 4).order(ByteOrder.LITTLE_ENDIAN);
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, position + buffer.position()) < 0) {
+						throw new EOFException("Fin de fichier inattendue : " + file);
+					}
+				}
+				buffer.flip();
+				if (buffer.getInt() != count) {
+					throw new IOException("Le fichier " + file + " a été modifié.");
+				}
+				final int[] tiles = new int[count];
+				buffer.asIntBuffer().get(tiles);
+				return tiles;
+			}
+		}
+
+		@Override
+		public File getFile() {
+			return file;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package fr.rca.mapmaker.io.common;
+
+import fr.rca.mapmaker.io.OperatingSystem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Flux de lecture du contenu d'un {@link ByteBuffer}.
+ * <p>
+ * Utilisé avec un fichier projeté en mémoire (voir {@link #map(Path)}), il
+ * évite de copier les données dans un tampon intermédiaire. Les entiers et
+ * les tableaux d'entiers sont lus directement depuis le tampon par
+ * {@link Streams}.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buffer;
+	private final Path path;
+	private int mark;
+
+	/**
+	 * Créé un flux lisant le tampon donné à partir de sa position courante.
+	 *
+	 * @param buffer Tampon à lire.
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this(buffer, null);
+	}
+
+	private ByteBufferInputStream(ByteBuffer buffer, Path path) {
+		this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		this.path = path;
+	}
+
+	/**
+	 * Projette en mémoire le fichier donné et créé un flux pour le lire.
+	 *
+	 * @param path Fichier à lire.
+	 * @return Un flux lisant le fichier projeté.
+	 * @throws IOException En cas d'erreur de lecture ou si le fichier est trop
+	 * gros pour être projeté.
+	 */
+	public static ByteBufferInputStream map(Path path) throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Fichier trop gros pour être projeté en mémoire : " + path);
+			}
+			// La projection reste valide après la fermeture du canal.
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			return new ByteBufferInputStream(buffer, path);
+		}
+	}
+
+	/**
+	 * Ouvre le fichier donné en lecture.
+	 * <p>
+	 * Le fichier est projeté en mémoire sauf sous Windows où un fichier
+	 * projeté ne peut pas être remplacé tant que la projection existe : il
+	 * est alors lu entièrement.
+	 *
+	 * @param path Fichier à lire.
+	 * @return Un flux lisant le fichier.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	public static ByteBufferInputStream open(Path path) throws IOException {
+		if (OperatingSystem.IS_WINDOWS) {
+			return new ByteBufferInputStream(ByteBuffer.wrap(Files.readAllBytes(path)), path);
+		}
+		return map(path);
+	}
+
+	/**
+	 * Fichier lu par ce flux.
+	 *
+	 * @return Le fichier projeté ou <code>null</code> si le tampon ne provient
+	 * pas de {@link #map(Path)}.
+	 */
+	public @Nullable Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Position de lecture dans le tampon.
+	 *
+	 * @return Nombre d'octets déjà lus.
+	 */
+	public int position() {
+		return buffer.position();
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		final int count = Math.min(len, buffer.remaining());
+		buffer.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n) {
+		final int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+		buffer.position(buffer.position() + count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		mark = buffer.position();
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		buffer.position(mark);
+	}
+
+	/**
+	 * Indique s'il reste au moins <code>count</code> entiers à lire.
+	 *
+	 * @param count Nombre d'entiers.
+	 * @return <code>true</code> si les entiers peuvent être lus directement.
+	 */
+	boolean hasInts(int count) {
+		return count >= 0 && buffer.remaining() / 4 >= count;
+	}
+
+	/**
+	 * Lit un entier en little endian.
+	 *
+	 * @return L'entier lu.
+	 */
+	int readInt() {
+		return buffer.getInt();
+	}
+
+	/**
+	 * Lit des entiers en little endian sans copie intermédiaire.
+	 *
+	 * @param array Tableau à remplir.
+	 */
+	void readInts(int[] array) {
+		final IntBuffer ints = buffer.asIntBuffer();
+		ints.get(array);
+		buffer.position(buffer.position() + array.length * 4);
+	}
+}
@@ -3,6 +3,8 @@ package fr.rca.mapmaker.io.common;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Date;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -17,8 +19,58 @@ public final class Streams {
     private static final int SHORT_SIZE = 2;
 	private static final int INTEGER_SIZE = 4;
 	private static final int LONG_SIZE = 8;
+
+	/**
+	 * Taille maximale (en octets) des blocs utilisés pour lire et écrire les
+	 * tableaux.
+	 */
+	private static final int BLOCK_SIZE = 8192;
 	
 	private Streams() {}
+
+	/**
+	 * Créé un tampon pour lire ou écrire un tableau de <code>count</code>
+	 * éléments de <code>size</code> octets, dans la limite de
+	 * {@link #BLOCK_SIZE} octets.
+	 */
+	private static ByteBuffer newBlock(int count, int size) {
+		final int elements = Math.max(1, Math.min(count, BLOCK_SIZE / size));
+		return ByteBuffer.allocate(elements * size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Écrit le contenu du tampon donné et le vide.
+	 */
+	private static void flush(ByteBuffer block, OutputStream outputStream) throws IOException {
+		outputStream.write(block.array(), 0, block.position());
+		block.clear();
+	}
+
+	/**
+	 * Lit le nombre d'octets demandé. S'arrête à la fin du flux, les octets
+	 * manquants gardent alors leur valeur.
+	 */
+	private static void readFully(InputStream inputStream, byte[] bytes, int length) throws IOException {
+		int offset = 0;
+		while (offset < length) {
+			final int read = inputStream.read(bytes, offset, length - offset);
+			if (read < 0) {
+				return;
+			}
+			offset += read;
+		}
+	}
+
+	/**
+	 * Remplit le tampon avec les <code>count</code> éléments suivants.
+	 */
+	private static ByteBuffer fill(ByteBuffer block, int count, int size, InputStream inputStream) throws IOException {
+		final int length = Math.min(block.capacity(), count * size);
+		readFully(inputStream, block.array(), length);
+		block.clear();
+		block.limit(length);
+		return block;
+	}
 	
 	private static byte[] asArray(long value, int size) {
 		final byte[] result = new byte[size];
@@ -63,6 +115,26 @@ public final class Streams {
 	public static void writeUnsignedShort(int i, OutputStream outputStream) throws IOException {
 		outputStream.write(asArray(i, SHORT_SIZE));
 	}
+	/**
+	 * Écrit les valeurs données sur 2 octets chacune, sans écrire leur
+	 * nombre.
+	 *
+	 * @param array Valeurs à écrire.
+	 * @param offset Indice de la première valeur à écrire.
+	 * @param length Nombre de valeurs à écrire.
+	 * @param outputStream Flux où écrire.
+	 * @throws IOException En cas d'erreur d'écriture.
+	 */
+	public static void writeUnsignedShorts(int[] array, int offset, int length, OutputStream outputStream) throws IOException {
+		final ByteBuffer block = newBlock(length, SHORT_SIZE);
+		for(int index = offset; index < offset + length; index++) {
+			block.putShort((short) array[index]);
+			if(!block.hasRemaining()) {
+				flush(block, outputStream);
+			}
+		}
+		flush(block, outputStream);
+	}
 	public static void write(long l, OutputStream outputStream) throws IOException {
 		outputStream.write(asArray(l, LONG_SIZE));
 	}
@@ -81,17 +153,19 @@ public final class Streams {
 	
 	public static void write(byte[] array, OutputStream outputStream) throws IOException {
 		write(array.length, outputStream);
-		
-		for(final byte b : array) {
-			write(b, outputStream);
-		}
+		outputStream.write(array);
 	}
 	
 	public static void write(char[] array, OutputStream outputStream) throws IOException {
 		write(array.length, outputStream);
-		
-		for(final char c : array) {
-			write(c, outputStream);
+
+		final ByteBuffer block = newBlock(array.length, CHAR_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / CHAR_SIZE);
+			block.asCharBuffer().put(array, index, count);
+			block.position(count * CHAR_SIZE);
+			flush(block, outputStream);
+			index += count;
 		}
 	}
 	
@@ -112,33 +186,53 @@ public final class Streams {
 	
 	public static void write(int[] array, OutputStream outputStream) throws IOException {
 		write(array.length, outputStream);
-		
-		for(final int i : array) {
-			write(i, outputStream);
+
+		final ByteBuffer block = newBlock(array.length, INTEGER_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / INTEGER_SIZE);
+			block.asIntBuffer().put(array, index, count);
+			block.position(count * INTEGER_SIZE);
+			flush(block, outputStream);
+			index += count;
 		}
 	}
 	
 	public static void write(long[] array, OutputStream outputStream) throws IOException {
 		write(array.length, outputStream);
-		
-		for(final long l : array) {
-			write(l, outputStream);
+
+		final ByteBuffer block = newBlock(array.length, LONG_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / LONG_SIZE);
+			block.asLongBuffer().put(array, index, count);
+			block.position(count * LONG_SIZE);
+			flush(block, outputStream);
+			index += count;
 		}
 	}
 	
 	public static void write(float[] array, OutputStream outputStream) throws IOException {
 		write(array.length, outputStream);
-		
-		for(final float f : array) {
-			write(f, outputStream);
+
+		final ByteBuffer block = newBlock(array.length, INTEGER_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / INTEGER_SIZE);
+			block.asFloatBuffer().put(array, index, count);
+			block.position(count * INTEGER_SIZE);
+			flush(block, outputStream);
+			index += count;
 		}
 	}
 	
 	public static void write(double[] array, OutputStream outputStream) throws IOException {
 		write(array.length, outputStream);
-		
-		for(final double d : array) {
-			write(d, outputStream);
+
+		final ByteBuffer block = newBlock(array.length, LONG_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / LONG_SIZE);
+			block.asDoubleBuffer().put(array, index, count);
+			block.position(count * LONG_SIZE);
+			flush(block, outputStream);
+			index += count;
 		}
 	}
 	
@@ -152,21 +246,24 @@ public final class Streams {
 	
 	public static char readChar(InputStream inputStream) throws IOException {
 		final byte[] bytes = new byte[CHAR_SIZE];
-		inputStream.read(bytes);
+		readFully(inputStream, bytes, CHAR_SIZE);
 		
 		return (char) fromArray(bytes);
 	}
 	
 	public static int readInt(InputStream inputStream) throws IOException {
+		if(inputStream instanceof ByteBufferInputStream && ((ByteBufferInputStream) inputStream).hasInts(1)) {
+			return ((ByteBufferInputStream) inputStream).readInt();
+		}
 		final byte[] bytes = new byte[INTEGER_SIZE];
-		inputStream.read(bytes);
+		readFully(inputStream, bytes, INTEGER_SIZE);
 		
 		return (int) fromArray(bytes);
 	}
 	
 	public static long readLong(InputStream inputStream) throws IOException {
 		final byte[] bytes = new byte[LONG_SIZE];
-		inputStream.read(bytes);
+		readFully(inputStream, bytes, LONG_SIZE);
 		
 		return fromArray(bytes);
 	}
@@ -185,19 +282,19 @@ public final class Streams {
 	
 	public static byte[] readByteArray(InputStream inputStream) throws IOException {
 		final byte[] array = new byte[readInt(inputStream)];
-		
-		for(int index = 0; index < array.length; index++) {
-			array[index] = readByte(inputStream);
-		}
+		readFully(inputStream, array, array.length);
 		
 		return array;
 	}
 	
 	public static char[] readCharArray(InputStream inputStream) throws IOException {
 		final char[] array = new char[readInt(inputStream)];
-		
-		for(int index = 0; index < array.length; index++) {
-			array[index] = readChar(inputStream);
+
+		final ByteBuffer block = newBlock(array.length, CHAR_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / CHAR_SIZE);
+			fill(block, count, CHAR_SIZE, inputStream).asCharBuffer().get(array, index, count);
+			index += count;
 		}
 		
 		return array;
@@ -229,9 +326,17 @@ public final class Streams {
 	
 	public static int[] readIntArray(InputStream inputStream) throws IOException {
 		final int[] array = new int[readInt(inputStream)];
-		
-		for(int index = 0; index < array.length; index++) {
-			array[index] = readInt(inputStream);
+
+		if(inputStream instanceof ByteBufferInputStream && ((ByteBufferInputStream) inputStream).hasInts(array.length)) {
+			((ByteBufferInputStream) inputStream).readInts(array);
+			return array;
+		}
+
+		final ByteBuffer block = newBlock(array.length, INTEGER_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / INTEGER_SIZE);
+			fill(block, count, INTEGER_SIZE, inputStream).asIntBuffer().get(array, index, count);
+			index += count;
 		}
 		
 		return array;
@@ -239,9 +344,12 @@ public final class Streams {
 	
 	public static long[] readLongArray(InputStream inputStream) throws IOException {
 		final long[] array = new long[readInt(inputStream)];
-		
-		for(int index = 0; index < array.length; index++) {
-			array[index] = readLong(inputStream);
+
+		final ByteBuffer block = newBlock(array.length, LONG_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / LONG_SIZE);
+			fill(block, count, LONG_SIZE, inputStream).asLongBuffer().get(array, index, count);
+			index += count;
 		}
 		
 		return array;
@@ -249,9 +357,12 @@ public final class Streams {
 	
 	public static float[] readFloatArray(InputStream inputStream) throws IOException {
 		final float[] array = new float[readInt(inputStream)];
-		
-		for(int index = 0; index < array.length; index++) {
-			array[index] = readFloat(inputStream);
+
+		final ByteBuffer block = newBlock(array.length, INTEGER_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / INTEGER_SIZE);
+			fill(block, count, INTEGER_SIZE, inputStream).asFloatBuffer().get(array, index, count);
+			index += count;
 		}
 		
 		return array;
@@ -259,9 +370,12 @@ public final class Streams {
 	
 	public static double[] readDoubleArray(InputStream inputStream) throws IOException {
 		final double[] array = new double[readInt(inputStream)];
-		
-		for(int index = 0; index < array.length; index++) {
-			array[index] = readDouble(inputStream);
+
+		final ByteBuffer block = newBlock(array.length, LONG_SIZE);
+		for(int index = 0; index < array.length; ) {
+			final int count = Math.min(array.length - index, block.capacity() / LONG_SIZE);
+			fill(block, count, LONG_SIZE, inputStream).asDoubleBuffer().get(array, index, count);
+			index += count;
 		}
 		
 		return array;
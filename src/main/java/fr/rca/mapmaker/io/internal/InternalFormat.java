@@ -5,6 +5,7 @@ import fr.rca.mapmaker.io.AbstractFormat;
 import fr.rca.mapmaker.io.DataHandler;
 import fr.rca.mapmaker.io.common.Streams;
 import fr.rca.mapmaker.io.SupportedOperation;
+import fr.rca.mapmaker.io.common.ByteBufferInputStream;
 import fr.rca.mapmaker.model.map.ScrollRate;
 import fr.rca.mapmaker.model.map.TileLayer;
 import fr.rca.mapmaker.model.map.TileMap;
@@ -22,6 +23,8 @@ import fr.rca.mapmaker.model.sprite.Sprite;
 import java.awt.Color;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -150,7 +153,7 @@ public class InternalFormat extends AbstractFormat {
 		setVersion(LAST_VERSION);
 
 		try {
-			final FileOutputStream outputStream = new FileOutputStream(file);
+			final OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
 			try {
 				writeHeader(HEADER_LAST_VERSION, outputStream);
 				handler.write(project, outputStream);
@@ -169,15 +172,19 @@ public class InternalFormat extends AbstractFormat {
 		Project project = null;
 		final DataHandler<Project> handler = getHandler(Project.class);
 
-		// Définition du numéro de version.
-		final int version = getVersion(file);
-		setVersion(version);
-
 		try {
 			final InputStream inputStream = openInputStream(file);
+			if (inputStream == null) {
+				throw new IOException("Impossible d'ouvrir le fichier " + file);
+			}
 			try {
-				if (version >= VERSION_3) {
-					readHeader(inputStream);
+				// Définition du numéro de version.
+				inputStream.mark(HEADER_LENGTH * 2);
+				final int version = getVersion(readHeader(inputStream));
+				setVersion(version);
+
+				if (version < VERSION_3) {
+					inputStream.reset();
 				}
 				project = handler.read(inputStream);
 
@@ -206,69 +213,39 @@ public class InternalFormat extends AbstractFormat {
 		return new String(header);
 	}
 
-	private int getVersion(File file) {
-		try {
-			final InputStream inputStream = openInputStream(file);
-			try {
-				final String header = readHeader(inputStream);
-				if (header.length() == HEADER_LENGTH && header.startsWith("MMK")) {
-					return header.charAt(3) - '0';
-				} else if (header.length() == HEADER_LENGTH && header.startsWith("MM")) {
-					return (header.charAt(2) - '0') * 10 + header.charAt(3) - '0';
-				} else {
-					throw new IllegalArgumentException("Bad file header: " + header);
-				}
-			} finally {
-				inputStream.close();
-			}
-
-		} catch (IOException e) {
-			Exceptions.showStackTrace(e, null);
+	private int getVersion(String header) {
+		if (header.length() == HEADER_LENGTH && header.startsWith("MMK")) {
+			return header.charAt(3) - '0';
+		} else if (header.length() == HEADER_LENGTH && header.startsWith("MM")) {
+			return (header.charAt(2) - '0') * 10 + header.charAt(3) - '0';
+		} else {
+			throw new IllegalArgumentException("Bad file header: " + header);
 		}
-		return 0;
 	}
 
+	/**
+	 * Ouvre le fichier donné en lecture.
+	 * <p>
+	 * Les anciens fichiers sont compressés au format zip, le contenu de
+	 * l'entrée <code>data</code> est alors lu via un tampon. Les fichiers
+	 * actuels ne sont pas compressés : ils sont projetés en mémoire pour que
+	 * les tableaux de tuiles soient lus sans copie intermédiaire.
+	 *
+	 * @param file Fichier à ouvrir.
+	 * @return Un flux supportant <code>mark</code> et <code>reset</code> ou
+	 * <code>null</code> si le fichier ne peut pas être ouvert.
+	 */
 	private InputStream openInputStream(File file) {
 		try {
 			final ZipFile zipFile = new ZipFile(file);
 			final ZipEntry entry = zipFile.getEntry(DATA_ENTRY);
 			final InputStream inputStream = zipFile.getInputStream(entry);
 
-			return new InputStream() {
-
-				@Override
-				public int available() throws IOException {
-					return inputStream.available();
-				}
-
-				@Override
-				public int read() throws IOException {
-					return inputStream.read();
-				}
-
-				@Override
-				public int read(byte[] b) throws IOException {
-					return inputStream.read(b);
-				}
-
-				@Override
-				public int read(byte[] b, int off, int len) throws IOException {
-					return inputStream.read(b, off, len);
-				}
-
-				@Override
-				public long skip(long n) throws IOException {
-					return inputStream.skip(n); //To change body of generated methods, choose Tools | Templates.
-				}
-
-				@Override
-				public synchronized void reset() throws IOException {
-					inputStream.reset();
-				}
+			return new BufferedInputStream(inputStream) {
 
 				@Override
 				public void close() throws IOException {
-					inputStream.close();
+					super.close();
 					zipFile.close();
 				}
 
@@ -279,7 +256,14 @@ public class InternalFormat extends AbstractFormat {
 		}
 
 		try {
-			return new FileInputStream(file);
+			return ByteBufferInputStream.open(file.toPath());
+
+		} catch (IOException e) {
+			// Ignoré.
+		}
+
+		try {
+			return new BufferedInputStream(new FileInputStream(file));
 
 		} catch (IOException e) {
 			// Ignoré.
@@ -61,9 +61,7 @@ public class LayerDataHandler implements DataHandler<TileLayer>, HasVersion {
 		final boolean solid = version >= InternalFormat.VERSION_12
 				? Streams.readBoolean(inputStream)
 				: name.startsWith("Piste");
-		final int[] tiles = Streams.readIntArray(inputStream);
-
-		final TileLayer layer = new TileLayer(width, height, tiles);
+		final TileLayer layer = readTiles(width, height, inputStream);
 		layer.setName(name);
 		layer.setScrollRate(scrollRate);
 		layer.setSolid(solid);
@@ -71,6 +69,19 @@ public class LayerDataHandler implements DataHandler<TileLayer>, HasVersion {
 		return layer;
 	}
 
+	/**
+	 * Lit les tuiles d'une couche et créé la couche.
+	 *
+	 * @param width Largeur de la couche.
+	 * @param height Hauteur de la couche.
+	 * @param inputStream Flux à lire.
+	 * @return Une nouvelle couche contenant les tuiles lues.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	protected TileLayer readTiles(int width, int height, InputStream inputStream) throws IOException {
+		return new TileLayer(width, height, Streams.readIntArray(inputStream));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
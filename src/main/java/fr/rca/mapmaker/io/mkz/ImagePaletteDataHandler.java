@@ -34,7 +34,7 @@ public class ImagePaletteDataHandler implements DataHandler<Palette> {
 				
 				Streams.write(function != null, outputStream);
 				if(function != null) {
-					final Operation operation = OperationParser.parse(function);
+					final Operation operation = OperationParser.optimize(OperationParser.parse(function));
 					
 					Streams.write(operation.toByteArray(), outputStream);
 				}
@@ -4,6 +4,7 @@ import fr.rca.mapmaker.io.DataHandler;
 import fr.rca.mapmaker.io.common.Streams;
 import fr.rca.mapmaker.model.sprite.Instance;
 import fr.rca.mapmaker.operation.Operation;
+import fr.rca.mapmaker.operation.OperationParser;
 import fr.rca.mapmaker.operation.VariableDeclarationParser;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,7 +25,7 @@ public class InstanceDataHandler implements DataHandler<Instance> {
 		Streams.write(t.getScript() != null, outputStream);
 		
 		if(t.getScript() != null) {
-			final Operation operation = VariableDeclarationParser.parse(t.getScript(), t.getProject());
+			final Operation operation = OperationParser.optimize(VariableDeclarationParser.parse(t.getScript(), t.getProject()));
 			Streams.write(operation.toByteArray(), outputStream);
 		}
 	}
@@ -16,6 +16,7 @@ import fr.rca.mapmaker.model.sprite.Sprite;
 import java.awt.Color;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -55,7 +56,7 @@ public class MKZFormat extends AbstractFormat {
 		
 		ZipOutputStream outputStream = null;
 		try {
-			outputStream = new ZipOutputStream(new FileOutputStream(file));
+			outputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
 			
 			handler.write(project, outputStream);
 			outputStream.closeEntry();
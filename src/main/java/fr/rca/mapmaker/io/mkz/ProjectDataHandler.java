@@ -9,6 +9,7 @@ import fr.rca.mapmaker.model.map.Packer;
 import fr.rca.mapmaker.model.map.PackerFactory;
 import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Instance;
+import fr.rca.mapmaker.model.sprite.InstanceList;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -16,9 +17,6 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -73,19 +71,7 @@ public class ProjectDataHandler implements DataHandler<Project> {
 		for(int index = 0; index < maps.size(); index++) {
             final TileMap mapAndInstances = maps.get(index);
 			final TileMap map = mapAndInstances;
-			final List<Instance> instances = new ArrayList<Instance>(mapAndInstances.getSpriteInstances());
-			Collections.sort(instances, new Comparator<Instance>() {
-
-				@Override
-				public int compare(Instance o1, Instance o2) {
-					int order = Integer.valueOf(o1.getX()).compareTo(o2.getX());
-					if(order == 0) {
-						return Integer.valueOf(o1.getY()).compareTo(o2.getY());
-					} else {
-						return order;
-					}
-				}
-			});
+			final List<Instance> instances = InstanceList.sortByLocation(mapAndInstances.getSpriteInstances());
 			
 			
 			// Écriture de la carte
@@ -20,6 +20,7 @@ import fr.rca.mapmaker.model.palette.Palette;
 import fr.rca.mapmaker.model.palette.PaletteReference;
 import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Instance;
+import fr.rca.mapmaker.model.sprite.InstanceList;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import java.awt.Color;
 import java.awt.Rectangle;
@@ -27,9 +28,6 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import javax.swing.SwingWorker;
 import org.slf4j.Logger;
@@ -117,20 +115,7 @@ public class MMLFormat extends AbstractFormat implements HasProgress {
 		progression = progress(progression + STEP, progressListener);
 		
 		final TileMap map = project.getCurrentMap();
-		final List<Instance> instances = new ArrayList<Instance>(project.getInstances());
-		
-		Collections.sort(instances, new Comparator<Instance>() {
-
-			@Override
-			public int compare(Instance o1, Instance o2) {
-				int order = Integer.valueOf(o1.getX()).compareTo(o2.getX());
-				if(order == 0) {
-					return Integer.valueOf(o1.getY()).compareTo(o2.getY());
-				} else {
-					return order;
-				}
-			}
-		});
+		final List<Instance> instances = InstanceList.sortByLocation(project.getInstances());
 		
 		progression = progress(progression + STEP, progressListener);
 		
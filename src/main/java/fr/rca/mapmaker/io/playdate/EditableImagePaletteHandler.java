@@ -28,7 +28,7 @@ public class EditableImagePaletteHandler implements DataHandler<EditableImagePal
 
 			Streams.write(function != null, outputStream);
 			if (function != null) {
-				final Operation operation = OperationParser.parse(function);
+				final Operation operation = OperationParser.optimize(OperationParser.parse(function));
 				Streams.write(operation.toByteArray(), outputStream);
 			}
 		}
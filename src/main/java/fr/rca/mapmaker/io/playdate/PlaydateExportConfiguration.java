@@ -1,5 +1,6 @@
 package fr.rca.mapmaker.io.playdate;
 
+import fr.rca.mapmaker.util.DitheringEngine;
 import lombok.Data;
 
 /**
@@ -16,6 +17,12 @@ public class PlaydateExportConfiguration {
 	 */
 	private Boolean enableDithering;
 
+	/**
+	 * Méthode de dithering utilisée lorsque <code>enableDithering</code> est
+	 * vrai (<code>lines</code> par défaut).
+	 */
+	private DitheringMode ditheringMode;
+
 	/**
 	 * Exporte les sprites dans un dossier "sprites" et les cartes dans un
 	 * dossier "maps".
@@ -39,6 +46,14 @@ public class PlaydateExportConfiguration {
 		 * Écrit la taille des tuiles au début des cartes.
 		 */
 		private Boolean writeTileSize;
+
+		/**
+		 * Encodage des tuiles des couches. Si une valeur est donnée, elle est
+		 * écrite au début des cartes (après la taille des tuiles) :
+		 * <code>0</code> pour <code>raw</code>, <code>1</code> pour
+		 * <code>rle</code>.
+		 */
+		private LayerEncoding layerEncoding;
 	}
 
 	@Data
@@ -51,6 +66,36 @@ public class PlaydateExportConfiguration {
 		pointer;
 	}
 
+	public static enum DitheringMode {
+		lines(DitheringEngine.Mode.LINES),
+		bayer4x4(DitheringEngine.Mode.BAYER_4X4),
+		bayer8x8(DitheringEngine.Mode.BAYER_8X8),
+		floydSteinberg(DitheringEngine.Mode.FLOYD_STEINBERG),
+		atkinson(DitheringEngine.Mode.ATKINSON);
+
+		private final DitheringEngine.Mode mode;
+
+		private DitheringMode(DitheringEngine.Mode mode) {
+			this.mode = mode;
+		}
+
+		public DitheringEngine.Mode getMode() {
+			return mode;
+		}
+	}
+
+	public static enum LayerEncoding {
+		/**
+		 * Chaque tuile est écrite sur 2 octets.
+		 */
+		raw,
+		/**
+		 * Les tuiles sont compressées par plages (voir
+		 * {@link TileMapHandler#encodeRunLength(int[])}).
+		 */
+		rle;
+	}
+
 	public static enum InstancesOrder {
 		x,
 		zIndex;
@@ -12,31 +12,35 @@ import fr.rca.mapmaker.model.palette.ColorPalette;
 import fr.rca.mapmaker.model.palette.EditableImagePalette;
 import fr.rca.mapmaker.model.palette.Palette;
 import fr.rca.mapmaker.model.project.Project;
-import fr.rca.mapmaker.model.sprite.Animation;
+import fr.rca.mapmaker.model.sprite.FrameIndex;
 import fr.rca.mapmaker.model.sprite.Instance;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import fr.rca.mapmaker.model.sprite.SpriteType;
-import fr.rca.mapmaker.util.Dithering;
+import fr.rca.mapmaker.util.DitheringEngine;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
+import org.jetbrains.annotations.Nullable;
 
 /**
  *
@@ -48,6 +52,8 @@ public class PlaydateFormat extends AbstractFormat {
 
 	private static final boolean WRITE_MAP_AS_CODE = false;
 
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
 	public PlaydateFormat() {
 		super(EXTENSION, SupportedOperation.SAVE);
 
@@ -63,21 +69,33 @@ public class PlaydateFormat extends AbstractFormat {
 
 	@Override
 	public void saveProject(Project project, File file) {
-		try (ZipOutputStream outputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+		try (ZipOutputStream outputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+				PngEncodingPool pool = new PngEncodingPool(threadCount)) {
 			final PaletteAsHeaderHandler paletteAsHeaderHandler = new PaletteAsHeaderHandler();
 			final PaletteAsCodeHandler paletteAsCodeHandler = new PaletteAsCodeHandler();
 
 			final List<Palette> palettes = project.getPalettes().stream()
 					.filter(palette -> palette instanceof EditableImagePalette)
 					.collect(Collectors.toList());
-			
+
+			// Les images sont rendues et encodées en parallèle pendant
+			// l'écriture des autres entrées, puis ajoutées dans l'ordre.
+			final List<Future<byte[]>> paletteImages = palettes.stream()
+					.map(palette -> pool.submit(() -> renderPalette((EditableImagePalette) palette)))
+					.collect(Collectors.toList());
+
+			final List<Sprite> sprites = project.getSprites();
+			final List<Future<byte[]>> spriteImages = sprites.stream()
+					.map(sprite -> pool.submit(() -> renderSprite(sprite, project.getAnimationNames())))
+					.collect(Collectors.toList());
+
 			for(int index = 0; index < palettes.size(); index++) {
 				final Palette palette = palettes.get(index);
 				outputStream.putNextEntry(new ZipEntry("palette" + index + ".data"));
 				write(palette, outputStream);
 
 				outputStream.putNextEntry(new ZipEntry("palette" + index + "-table-" + palette.getTileSize() + '-' + palette.getTileSize() + ".png"));
-				write(renderPalette((EditableImagePalette) palette), outputStream);
+				outputStream.write(PngEncodingPool.get(paletteImages.get(index)));
 
 				outputStream.putNextEntry(new ZipEntry(paletteAsHeaderHandler.fileNameFor(palette)));
 				paletteAsHeaderHandler.write(palette, outputStream);
@@ -110,13 +128,12 @@ public class PlaydateFormat extends AbstractFormat {
 			outputStream.putNextEntry(new ZipEntry(animationNameAsHeaderHandler.fileNameFor(project.getAnimationNames())));
 			animationNameAsHeaderHandler.write(project.getAnimationNames(), outputStream);
 
-			final List<Sprite> sprites = project.getSprites();
 			for(int index = 0; index < sprites.size(); index++) {
 				final Sprite sprite = sprites.get(index);
-				BufferedImage spriteImage = renderSprite(sprite, project.getAnimationNames());
+				final byte[] spriteImage = PngEncodingPool.get(spriteImages.get(index));
 				if (spriteImage != null) {
 					outputStream.putNextEntry(new ZipEntry("sprite-" + Names.normalizeName(sprite, Names::toSnakeCase) + "-table-" + sprite.getWidth() + '-' + sprite.getHeight() + ".png"));
-					write(spriteImage, outputStream);
+					outputStream.write(spriteImage);
 				}
 			}
 		} catch (IOException ex) {
@@ -124,6 +141,26 @@ public class PlaydateFormat extends AbstractFormat {
 		}
 	}
 
+	/**
+	 * Nombre d'images rendues en même temps lors de l'export.
+	 *
+	 * @return Le nombre de threads utilisés pour le rendu des images.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Définit le nombre d'images rendues en même temps lors de l'export. Avec
+	 * 1, les images sont rendues les unes après les autres par le thread
+	 * appelant.
+	 *
+	 * @param threadCount Nombre de threads à utiliser.
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+
 	public static BufferedImage renderPalette(EditableImagePalette p) {
 		int tileSize = p.getTileSize();
 
@@ -156,17 +193,38 @@ public class PlaydateFormat extends AbstractFormat {
 	}
 
 	public static BufferedImage renderSprite(Sprite sprite, List<String> animationNames, boolean dither, boolean distinct) {
-		Stream<TileLayer> frameStream = animationNames.stream()
+		return renderSprite(sprite, animationNames, dither ? new DitheringEngine() : null, distinct);
+	}
+
+	/**
+	 * Dessine toutes les images des animations données du sprite dans une
+	 * même image.
+	 *
+	 * @param sprite Sprite à dessiner.
+	 * @param animationNames Noms des animations à dessiner.
+	 * @param ditheringEngine Moteur utilisé pour passer les images en noir et
+	 * blanc ou <code>null</code> pour garder les couleurs.
+	 * @param distinct <code>true</code> pour ne dessiner qu'une fois les
+	 * images identiques.
+	 * @return L'image ou <code>null</code> si le sprite n'a aucune image.
+	 */
+	public static BufferedImage renderSprite(Sprite sprite, List<String> animationNames, @Nullable DitheringEngine ditheringEngine, boolean distinct) {
+		final List<TileLayer> frames;
+		if (distinct) {
+			final FrameIndex frameIndex = new FrameIndex();
+			frameIndex.addAll(sprite, animationNames);
+			frames = frameIndex.getFrames();
+		} else {
+			frames = animationNames.stream()
 				.map(sprite::findByName)
 				.filter(Objects::nonNull)
 				.flatMap(animation -> animation.getAnglesWithValue().stream()
 					.map(animation::getFrames))
-				.flatMap(List::stream);
-
-		final int frameCount = distinct
-				? (int)frameStream.distinct().count()
-				: (int)frameStream.count();
+				.flatMap(List::stream)
+				.collect(Collectors.toList());
+		}
 
+		final int frameCount = frames.size();
 		if (frameCount == 0) {
 			return null;
 		}
@@ -177,41 +235,51 @@ public class PlaydateFormat extends AbstractFormat {
 		final Dimension grid = getGridSize(frameCount);
 
 		final BufferedImage image = new BufferedImage(grid.width * spriteWidth, grid.height * spriteHeight, BufferedImage.TYPE_INT_ARGB);
-		final Graphics2D graphics = image.createGraphics();
-		graphics.setBackground(new Color(0, 0, 0, 0));
+		final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		final int imageWidth = image.getWidth();
+		final int imageHeight = image.getHeight();
 
 		final ColorPalette palette = sprite.getPalette();
-
-		final HashMap<TileLayer, Integer> indexForTile = new HashMap<>(frameCount);
-		int total = 0;
-		for (final String animationName : animationNames) {
-			final Animation animation = sprite.findByName(animationName);
-			if (animation == null) {
-				continue;
+		// Couleur ARGB de chaque tuile, lue dans la palette au premier usage.
+		int[] colors = new int[0];
+		boolean[] knownColors = new boolean[0];
+
+		for (int frameIndex = 0; frameIndex < frameCount; frameIndex++) {
+			TileLayer frame = frames.get(frameIndex);
+			if (ditheringEngine != null) {
+				frame = ditheringEngine.dither(frame, palette);
 			}
-			for (double angle : animation.getAnglesWithValue()) {
-				for (TileLayer frame : animation.getFrames(angle)) {
-					Integer frameIndex = indexForTile.get(frame);
-					if (frameIndex == null || !distinct) {
-						frameIndex = distinct ? indexForTile.size() : total++;
-						indexForTile.put(frame, frameIndex);
-
-						if (dither) {
-							frame = Dithering.dither(frame, palette);
-						}
-						int originY = (frameIndex / grid.width) * spriteHeight;
-						int originX = (frameIndex % grid.width) * spriteWidth;
-						for (int y = 0; y < frame.getHeight(); y++) {
-							for(int x = 0; x < frame.getWidth(); x++) {
-								palette.paintTile(graphics, frame.getTile(x, y), originX + x, originY + y, 1);
-							}
-						}
+			final int frameWidth = frame.getWidth();
+			final int[] tiles = frame.copyData();
+
+			// Écriture directe des pixels, limitée à l'image comme le ferait
+			// un Graphics2D.
+			final int originY = (frameIndex / grid.width) * spriteHeight;
+			final int originX = (frameIndex % grid.width) * spriteWidth;
+			final int width = Math.min(frameWidth, imageWidth - originX);
+			final int height = Math.min(frame.getHeight(), imageHeight - originY);
+			for (int y = 0; y < height; y++) {
+				final int row = (originY + y) * imageWidth + originX;
+				for (int x = 0; x < width; x++) {
+					final int tile = tiles[y * frameWidth + x];
+					if (tile < 0) {
+						continue;
+					}
+					if (tile >= colors.length) {
+						colors = Arrays.copyOf(colors, tile + 1);
+						knownColors = Arrays.copyOf(knownColors, tile + 1);
+					}
+					if (!knownColors[tile]) {
+						colors[tile] = palette.getARGB(tile);
+						knownColors[tile] = true;
+					}
+					if (colors[tile] != 0) {
+						pixels[row + x] = colors[tile];
 					}
 				}
 			}
 		}
 
-		graphics.dispose();
 		return image;
 	}
 
@@ -231,6 +299,22 @@ public class PlaydateFormat extends AbstractFormat {
 		}
 	}
 
+	/**
+	 * Crée le moteur de dithering demandé par la configuration donnée.
+	 *
+	 * @param configuration Configuration de l'export.
+	 * @return Un nouveau moteur ou <code>null</code> si le dithering n'est pas
+	 * activé.
+	 */
+	public static @Nullable DitheringEngine ditheringEngineFor(@Nullable PlaydateExportConfiguration configuration) {
+		if (configuration == null || configuration.getEnableDithering() == null || !configuration.getEnableDithering()) {
+			return null;
+		}
+		return new DitheringEngine(Optional.ofNullable(configuration.getDitheringMode())
+				.map(PlaydateExportConfiguration.DitheringMode::getMode)
+				.orElse(DitheringEngine.Mode.LINES));
+	}
+
 	public static List<TileMap> mapsForProject(Project project) {
 		return project.getMaps().stream()
 				.filter(map -> map.isExportable())
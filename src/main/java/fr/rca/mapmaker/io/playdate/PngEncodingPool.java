@@ -0,0 +1,118 @@
+package fr.rca.mapmaker.io.playdate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Rend et encode des images PNG en parallèle.
+ * <p>
+ * Les images sont rendues et encodées par un groupe de threads pendant que
+ * le thread appelant écrit les autres fichiers. Les résultats sont ensuite
+ * attendus dans l'ordre d'ajout pour que seule l'écriture finale soit faite
+ * à la suite. Avec un seul thread, les tâches sont exécutées directement.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class PngEncodingPool implements Closeable {
+
+	private final ExecutorService executor;
+
+	public PngEncodingPool() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Crée un groupe de threads.
+	 *
+	 * @param threadCount Nombre d'images encodées en même temps. Avec 1, les
+	 * images sont encodées par le thread appelant.
+	 */
+	public PngEncodingPool(int threadCount) {
+		this.executor = threadCount > 1
+				? Executors.newFixedThreadPool(threadCount)
+				: null;
+	}
+
+	/**
+	 * Ajoute une image à rendre et à encoder.
+	 *
+	 * @param renderer Rendu de l'image. Peut renvoyer <code>null</code> s'il
+	 * n'y a rien à écrire.
+	 * @return Le contenu du fichier PNG ou <code>null</code> si le rendu n'a
+	 * pas produit d'image.
+	 */
+	public Future<byte[]> submit(Callable<BufferedImage> renderer) {
+		final Callable<byte[]> task = () -> encode(renderer.call());
+		if (executor != null) {
+			return executor.submit(task);
+		}
+		final FutureTask<byte[]> futureTask = new FutureTask<>(task);
+		futureTask.run();
+		return futureTask;
+	}
+
+	/**
+	 * Attend la fin de la tâche donnée.
+	 *
+	 * @param task Tâche renvoyée par {@link #submit(Callable)}.
+	 * @return Le contenu du fichier PNG ou <code>null</code>.
+	 * @throws IOException Si le rendu ou l'encodage a échoué.
+	 */
+	public static byte[] get(Future<byte[]> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Export interrompu.");
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Encode l'image donnée en PNG. L'encodage se fait en mémoire, sans
+	 * passer par le fichier de cache d'<code>ImageIO</code>.
+	 *
+	 * @param image Image à encoder.
+	 * @return Le contenu du fichier PNG ou <code>null</code> si
+	 * <code>image</code> est <code>null</code>.
+	 * @throws IOException En cas d'erreur d'encodage.
+	 */
+	public static byte[] encode(BufferedImage image) throws IOException {
+		if (image == null) {
+			return null;
+		}
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (ImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+			ImageIO.write(image, "png", imageOutputStream);
+		}
+		return outputStream.toByteArray();
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -4,12 +4,12 @@ import fr.rca.mapmaker.model.map.HitboxLayerPlugin;
 import fr.rca.mapmaker.model.map.SecondaryHitboxLayerPlugin;
 import fr.rca.mapmaker.model.map.TileLayer;
 import fr.rca.mapmaker.model.sprite.Animation;
+import fr.rca.mapmaker.model.sprite.FrameIndex;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import java.awt.Rectangle;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -60,7 +60,7 @@ public class SpriteAsCodeHandler extends CodeDataHandler<Sprite> {
 				+ "    .size = {" + t.getWidth() + ", " + t.getHeight() + "},\n"
 				+ "    .animations = (MELAnimationDefinition * _Nullable [" + (animationNames.size() * ANGLES.length) + "]) {\n").getBytes(StandardCharsets.UTF_8));
 
-		final HashMap<TileLayer, Integer> indexForTile = new HashMap<>();
+		final FrameIndex indexForTile = new FrameIndex();
 		for (final String animationName : animationNames) {
 			final Animation animation = t.findByName(animationName);
 			outputStream.write(("        // " + Names.toPascalCase(animationName) + "\n").getBytes(StandardCharsets.UTF_8));
@@ -147,20 +147,16 @@ public class SpriteAsCodeHandler extends CodeDataHandler<Sprite> {
 		}
 	}
 
-	private static String framesToString(List<TileLayer> frames, HashMap<TileLayer, Integer> indexForTile) {
+	private static String framesToString(List<TileLayer> frames, FrameIndex indexForTile) {
 		StringBuilder stringBuilder = new StringBuilder();
-		Integer frameIndex = null;
+		boolean first = true;
 		for (final TileLayer frame : frames) {
-			if (frameIndex != null) {
+			if (!first) {
 				stringBuilder.append(", ");
 			}
-			frameIndex = indexForTile.get(frame);
-			if (frameIndex == null) {
-				frameIndex = indexForTile.size();
-				indexForTile.put(frame, frameIndex);
-			}
+			first = false;
 			stringBuilder.append("{ .atlasIndex = ")
-					.append(frameIndex);
+					.append(indexForTile.add(frame));
 			appendHitbox(stringBuilder, frame, "hitbox", HitboxLayerPlugin.class);
 			appendHitbox(stringBuilder, frame, "attackHitbox", SecondaryHitboxLayerPlugin.class);
 			stringBuilder.append(" }");
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +30,24 @@ public class TileMapHandler implements DataHandler<TileMap> {
 	 */
 	public static final String WATER_LAYER_NAME = "water";
 
+	/**
+	 * Bit indiquant une plage de tuiles identiques dans une couche encodée
+	 * avec {@link PlaydateExportConfiguration.LayerEncoding#rle}.
+	 */
+	public static final int RUN_FLAG = 0x8000;
+
+	/**
+	 * Nombre maximum de tuiles d'une plage ou d'une suite de tuiles
+	 * littérales.
+	 */
+	public static final int MAX_RUN_LENGTH = 0x7FFF;
+
+	/**
+	 * Taille minimum d'une plage. Une plage plus courte est écrite avec les
+	 * tuiles littérales.
+	 */
+	private static final int MIN_RUN_LENGTH = 3;
+
 	protected PlaydateExportConfiguration configuration;
 
 	@Override
@@ -46,6 +65,14 @@ public class TileMapHandler implements DataHandler<TileMap> {
 			Streams.write(palette.getTileSize(), outputStream);
 		}
 
+		final PlaydateExportConfiguration.LayerEncoding layerEncoding = Optional.ofNullable(configuration)
+				.map(PlaydateExportConfiguration::getMaps)
+				.map(PlaydateExportConfiguration.Maps::getLayerEncoding)
+				.orElse(null);
+		if (layerEncoding != null) {
+			Streams.write(layerEncoding.ordinal(), outputStream);
+		}
+
 		Streams.write(t.getWidth() * palette.getTileSize(), outputStream);
 		Streams.write(t.getHeight() * palette.getTileSize(), outputStream);
 
@@ -73,9 +100,19 @@ public class TileMapHandler implements DataHandler<TileMap> {
 			Streams.write((float)layer.getScrollRate().getX(), outputStream);
 			Streams.write((float)layer.getScrollRate().getY(), outputStream);
 			Streams.write(layer.isSolid(), outputStream);
-			int max = frame.width * frame.height;
-			for (int index = 0; index < max; index++) {
-				Streams.writeUnsignedShort(layer.getTile(frame.x + (index % frame.width), frame.y + (index / frame.width)), outputStream);
+			final int[] tiles = new int[frame.width * frame.height];
+			int index = 0;
+			for (int y = frame.y; y < frame.y + frame.height; y++) {
+				for (int x = frame.x; x < frame.x + frame.width; x++) {
+					tiles[index++] = layer.getTile(x, y);
+				}
+			}
+			if (layerEncoding == PlaydateExportConfiguration.LayerEncoding.rle) {
+				final int[] words = encodeRunLength(tiles);
+				Streams.write(words.length, outputStream);
+				Streams.writeUnsignedShorts(words, 0, words.length, outputStream);
+			} else {
+				Streams.writeUnsignedShorts(tiles, 0, tiles.length, outputStream);
 			}
 		}
 	}
@@ -90,6 +127,57 @@ public class TileMapHandler implements DataHandler<TileMap> {
 		return this;
 	}
 
+	/**
+	 * Compresse les tuiles données par plages.
+	 * <p>
+	 * Le résultat est une suite de mots de 2 octets. Chaque bloc commence par
+	 * un mot de contrôle :
+	 * <ul>
+	 * <li>si le bit {@link #RUN_FLAG} est présent, le mot suivant est une
+	 * tuile à répéter <code>controle &amp; MAX_RUN_LENGTH</code> fois ;</li>
+	 * <li>sinon, les <code>controle</code> mots suivants sont des tuiles à
+	 * copier telles quelles.</li>
+	 * </ul>
+	 * Les couches sont surtout composées de longues plages de tuiles vides,
+	 * une plage occupe 4 octets quelle que soit sa longueur.
+	 *
+	 * @param tiles Tuiles d'une couche.
+	 * @return Les mots à écrire, sur 16 bits.
+	 */
+	static int[] encodeRunLength(int[] tiles) {
+		final int[] words = new int[tiles.length + (tiles.length + MAX_RUN_LENGTH - 1) / MAX_RUN_LENGTH];
+		int length = 0;
+		int literalStart = 0;
+		int index = 0;
+		while (index < tiles.length) {
+			final int tile = tiles[index];
+			int end = index + 1;
+			while (end < tiles.length && tiles[end] == tile && end - index < MAX_RUN_LENGTH) {
+				end++;
+			}
+			if (end - index >= MIN_RUN_LENGTH) {
+				length = writeLiterals(tiles, literalStart, index, words, length);
+				words[length++] = RUN_FLAG | (end - index);
+				words[length++] = tile & 0xFFFF;
+				literalStart = end;
+			}
+			index = end;
+		}
+		length = writeLiterals(tiles, literalStart, tiles.length, words, length);
+		return Arrays.copyOf(words, length);
+	}
+
+	private static int writeLiterals(int[] tiles, int from, int to, int[] words, int length) {
+		for (int start = from; start < to; start += MAX_RUN_LENGTH) {
+			final int count = Math.min(to - start, MAX_RUN_LENGTH);
+			words[length++] = count;
+			for (int index = start; index < start + count; index++) {
+				words[length++] = tiles[index] & 0xFFFF;
+			}
+		}
+		return length;
+	}
+
 	public static Rectangle getLayerSize(Layer layer) {
 		Point topLeft = new Point(layer.getWidth(), layer.getHeight());
 		Point bottomRight = new Point();
@@ -3,288 +3,345 @@ package fr.rca.mapmaker.model;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Implémentation à 2 dimensions d'un arbre k-d.
- * 
+ * <p>
+ * L'arbre est équilibré et stocké dans des tableaux : les points sont rangés
+ * de sorte que le point médian de chaque intervalle <code>[début, fin[</code>
+ * soit à l'indice <code>(début + fin) / 2</code>, les points à sa gauche
+ * étant inférieurs ou égaux selon l'axe de la profondeur (X pour les
+ * profondeurs paires, Y pour les impaires) et ceux à sa droite supérieurs ou
+ * égaux.
+ * <p>
+ * Les points ajoutés avec {@link #add(Point2D.Float)} sont conservés jusqu'à
+ * la prochaine recherche qui reconstruit l'arbre en une fois. Les recherches
+ * parcourent l'arbre sans créer d'objet intermédiaire.
+ *
  * @author Raphaël Calabro (rcalabro@ideia.fr)
  */
 public class KdTree {
-	private final static int NUMBER_OF_DIMENSIONS = 2;
-	private Element root;
+
+	private Point2D.Float[] points = new Point2D.Float[0];
+	private float[] xs = new float[0];
+	private float[] ys = new float[0];
+	private int size;
+
+	/**
+	 * <code>true</code> si des points ont été ajoutés depuis la dernière
+	 * construction.
+	 */
+	private boolean dirty;
 
 	public KdTree() {
 	}
-	
+
 	public KdTree(List<Point2D.Float> points) {
-		root = add(points, 0, null);
+		addAll(points);
 	}
-	
-	public List<Point2D.Float> get(Point2D.Float point, float distance) {
-		final List<Point2D.Float> points = new ArrayList<Point2D.Float>();
-		
-		final Leaf nearest = getNearestLeaf(point);
-		if(distance(point, nearest) <= distance) {
-			points.add(nearest.getValue());
-		}
-		
-		final Set<Element> doneNodes = new HashSet<Element>();
-		doneNodes.add(nearest);
-		
-		testElement(nearest.getParent(), point, distance, points, doneNodes);
-		
-		return points;
-	}
-	
+
+	/**
+	 * Ajoute un point. L'arbre est reconstruit à la prochaine recherche.
+	 *
+	 * @param point Point à ajouter.
+	 */
 	public void add(Point2D.Float point) {
-		root = add(point, 0, root);
+		ensureCapacity(size + 1);
+		points[size++] = point;
+		dirty = true;
 	}
-	
-	private void testElement(Element element, Point2D.Float point, float distance, List<Point2D.Float> points, Set<Element> doneNodes) {
-		if(element instanceof Leaf) {
-			final Leaf leaf = (Leaf)element;
-			if(distance(point, leaf) <= distance) {
-				points.add(leaf.getValue());
-			}
-			doneNodes.add(element);
-			
-		} else if(element instanceof Node) {
-			final Node node = (Node)element;
-			
-			final Axis axis = Axis.values()[node.getDepth() % NUMBER_OF_DIMENSIONS];
-			final Point2D.Float nodePoint;
-			if(axis == Axis.X) {
-				nodePoint = new Point2D.Float(node.getLocation(), (float)point.getY());
-			} else {
-				nodePoint = new Point2D.Float((float)point.getX(), node.getLocation());
-			}
-			
-			if(point.distance(nodePoint) > distance) {
-				return;
-			}
-			
-			if(!doneNodes.contains(node.getLeft())) {
-				testElement(node.getLeft(), point, distance, points, doneNodes);
-			}
-			if(!doneNodes.contains(node.getRight())) {
-				testElement(node.getRight(), point, distance, points, doneNodes);
-			}
-			doneNodes.add(node);
-			
-			testElement(node.getParent(), point, distance, points, doneNodes);
+
+	/**
+	 * Ajoute des points. L'arbre est reconstruit à la prochaine recherche.
+	 *
+	 * @param points Points à ajouter.
+	 */
+	public void addAll(List<Point2D.Float> points) {
+		ensureCapacity(size + points.size());
+		for (final Point2D.Float point : points) {
+			this.points[size++] = point;
 		}
+		dirty = true;
 	}
-	
-	private float distance(Point2D.Float point, Leaf leaf) {
-		return (float) point.distance(leaf.getValue());
+
+	/**
+	 * Nombre de points de l'arbre.
+	 *
+	 * @return Le nombre de points.
+	 */
+	public int size() {
+		return size;
 	}
-	
-	private Leaf getNearestLeaf(Point2D.Float point) {
-		return getNearestLeaf(point, 0, root);
+
+	/**
+	 * Renvoie les points situés à une distance inférieure ou égale à
+	 * <code>distance</code> du point donné.
+	 *
+	 * @param point Point de référence.
+	 * @param distance Distance maximale.
+	 * @return Les points trouvés, dans un ordre quelconque.
+	 */
+	public List<Point2D.Float> get(Point2D.Float point, float distance) {
+		final List<Point2D.Float> result = new ArrayList<Point2D.Float>();
+		forEachWithin(point.x, point.y, distance, result::add);
+		return result;
 	}
-	
-	private Leaf getNearestLeaf(Point2D.Float point, int depth, Element parent) {
-		if(parent instanceof Leaf) {
-			return (Leaf)parent;
-			
-		} else if(parent instanceof Node) {
-			final Node node = (Node)parent;
-			final Axis axis = Axis.values()[depth % NUMBER_OF_DIMENSIONS];
-			
-			if(axis.get(point) < node.getLocation()) {
-				return getNearestLeaf(point, depth + 1, node.getLeft());
-			} else {
-				return getNearestLeaf(point, depth + 1, node.getRight());
-			}
-			
-		} else {
-			return null;
+
+	/**
+	 * Appelle <code>consumer</code> pour chaque point situé à une distance
+	 * inférieure ou égale à <code>distance</code> du point donné.
+	 *
+	 * @param x Abscisse du point de référence.
+	 * @param y Ordonnée du point de référence.
+	 * @param distance Distance maximale.
+	 * @param consumer Action à effectuer sur chaque point trouvé.
+	 */
+	public void forEachWithin(float x, float y, float distance, Consumer<Point2D.Float> consumer) {
+		build();
+		if (size > 0 && distance >= 0) {
+			forEachWithin(0, size, 0, x, y, distance, distance * distance, consumer);
 		}
 	}
-	
-	private Element add(Point2D.Float point, int depth, Element parent) {
-		final Axis axis = Axis.values()[depth % NUMBER_OF_DIMENSIONS];
-		
-		if(parent instanceof Leaf) {
-			final Leaf leaf = (Leaf)parent;
-			final float median = median(Arrays.asList(point, leaf.getValue()), axis);
-			
-			final Point2D.Float left;
-			final Point2D.Float right;
-			
-			if(axis.get(point) < median) {
-				left = point;
-				right = leaf.getValue();
-			} else {
-				left = leaf.getValue();
-				right = point;
-			}
-			
-			final Node node = new Node(median, depth, parent);
-			node.setLeft(new Leaf(left, depth + 1, node));
-			node.setRight(new Leaf(right, depth + 1, node));
-			return node;
-			
-		} else if(parent instanceof Node) {
-			final Node node = (Node)parent;
-			
-			if(axis.get(point) < node.getLocation()) {
-				return add(point, depth + 1, node.left);
-			} else {
-				return add(point, depth + 1, node.right);
-			}
-		}
-		
-		return new Leaf(point, depth, parent);
+
+	/**
+	 * Renvoie le point le plus proche du point donné.
+	 *
+	 * @param point Point de référence.
+	 * @return Le point le plus proche ou <code>null</code> si l'arbre est vide.
+	 */
+	public Point2D.Float nearest(Point2D.Float point) {
+		final List<Point2D.Float> nearest = nearest(point, 1);
+		return nearest.isEmpty() ? null : nearest.get(0);
 	}
-	
-	private Element add(List<Point2D.Float> points, int depth, Element parent) {
-		if(points.isEmpty()) {
-			return null;
-			
-		} else if(points.size() == 1) {
-			return new Leaf(points.get(0), depth, parent);
-			
-		} else {
-			final Axis axis = Axis.values()[depth % NUMBER_OF_DIMENSIONS];
 
-			final float median = median(points, axis);
+	/**
+	 * Renvoie les <code>count</code> points les plus proches du point donné.
+	 *
+	 * @param point Point de référence.
+	 * @param count Nombre de points à trouver.
+	 * @return Les points trouvés, du plus proche au plus éloigné.
+	 */
+	public List<Point2D.Float> nearest(Point2D.Float point, int count) {
+		build();
+		final int k = Math.min(count, size);
+		if (k <= 0) {
+			return new ArrayList<Point2D.Float>();
+		}
+		final Neighbors neighbors = new Neighbors(k);
+		nearest(0, size, 0, point.x, point.y, neighbors);
 
-			final List<Point2D.Float> left = new ArrayList<Point2D.Float>();
-			final List<Point2D.Float> right = new ArrayList<Point2D.Float>();
+		final Point2D.Float[] result = new Point2D.Float[neighbors.count];
+		// Le tas est vidé du plus éloigné au plus proche.
+		for (int index = result.length - 1; index >= 0; index--) {
+			result[index] = points[neighbors.poll()];
+		}
+		return Arrays.asList(result);
+	}
 
-			for(final Point2D.Float point : points) {
-				if(axis.get(point) < median) {
-					left.add(point);
-				} else {
-					right.add(point);
-				}
+	private void forEachWithin(int start, int end, int depth, float x, float y, float distance, float squaredDistance, Consumer<Point2D.Float> consumer) {
+		while (start < end) {
+			final int median = (start + end) >>> 1;
+			final float dx = xs[median] - x;
+			final float dy = ys[median] - y;
+			if (dx * dx + dy * dy <= squaredDistance) {
+				consumer.accept(points[median]);
 			}
 
-			final Node node = new Node(median, depth, parent);
-			node.setLeft(add(left, depth + 1, node));
-			node.setRight(add(right, depth + 1, node));
-			return node;
+			final float delta = (depth & 1) == 0 ? x - xs[median] : y - ys[median];
+			if (delta < 0) {
+				// Le côté droit n'est utile que s'il est assez proche.
+				if (-delta <= distance) {
+					forEachWithin(median + 1, end, depth + 1, x, y, distance, squaredDistance, consumer);
+				}
+				end = median;
+			} else {
+				if (delta <= distance) {
+					forEachWithin(start, median, depth + 1, x, y, distance, squaredDistance, consumer);
+				}
+				start = median + 1;
+			}
+			depth++;
 		}
 	}
-	
-	private float median(List<Point2D.Float> points, Axis axis) {
-		float total = 0;
-		for(Point2D.Float point : points) {
-			total += axis.get(point);
+
+	private void nearest(int start, int end, int depth, float x, float y, Neighbors neighbors) {
+		if (start >= end) {
+			return;
 		}
-		return total / (float)points.size();
-	}
-	
-	private enum Axis {
-		X {
-			@Override
-			public float get(Point2D.Float point) {
-				return (float) point.getX();
-			}
-		}, 
-		Y {
-			@Override
-			public float get(Point2D.Float point) {
-				return (float) point.getY();
+		final int median = (start + end) >>> 1;
+		final float dx = xs[median] - x;
+		final float dy = ys[median] - y;
+		neighbors.offer(median, dx * dx + dy * dy);
+
+		final float delta = (depth & 1) == 0 ? x - xs[median] : y - ys[median];
+		final boolean leftFirst = delta < 0;
+		if (leftFirst) {
+			nearest(start, median, depth + 1, x, y, neighbors);
+		} else {
+			nearest(median + 1, end, depth + 1, x, y, neighbors);
+		}
+		if (!neighbors.isFull() || delta * delta < neighbors.farthestDistance()) {
+			if (leftFirst) {
+				nearest(median + 1, end, depth + 1, x, y, neighbors);
+			} else {
+				nearest(start, median, depth + 1, x, y, neighbors);
 			}
-		};
-		
-		public abstract float get(Point2D.Float point);
-	}
-	
-	private interface Element {
-		int getDepth();
-		Element getParent();
-		boolean isLeaf();
+		}
 	}
-	
-	private abstract class BaseElement implements Element {
-		private int depth;
-		private Element parent;
 
-		public BaseElement(int depth, Element parent) {
-			this.depth = depth;
-			this.parent = parent;
+	/**
+	 * Reconstruit l'arbre si des points ont été ajoutés. Visible dans le
+	 * paquet pour mesurer le temps de construction (voir
+	 * <code>KdTreeBenchmark</code>).
+	 */
+	void build() {
+		if (!dirty) {
+			return;
 		}
-		
-		@Override
-		public int getDepth() {
-			return depth;
+		build(0, size, 0);
+		if (xs.length != points.length) {
+			xs = new float[points.length];
+			ys = new float[points.length];
 		}
-
-		public void setDepth(int depth) {
-			this.depth = depth;
+		for (int index = 0; index < size; index++) {
+			xs[index] = points[index].x;
+			ys[index] = points[index].y;
 		}
+		dirty = false;
+	}
 
-		@Override
-		public Element getParent() {
-			return parent;
+	private void build(int start, int end, int depth) {
+		while (end - start > 1) {
+			final int median = (start + end) >>> 1;
+			select(start, end - 1, median, (depth & 1) == 0);
+			build(start, median, depth + 1);
+			start = median + 1;
+			depth++;
 		}
+	}
 
-		public void setParent(Element parent) {
-			this.parent = parent;
+	/**
+	 * Range les points de <code>[left, right]</code> de sorte que le point à
+	 * l'indice <code>n</code> soit à sa place une fois trié, les points
+	 * inférieurs ou égaux avant lui et les points supérieurs ou égaux après.
+	 */
+	private void select(int left, int right, int n, boolean axisX) {
+		while (right > left) {
+			final float pivot = coordinate(points[(left + right) >>> 1], axisX);
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (coordinate(points[i], axisX) < pivot) {
+					i++;
+				}
+				while (coordinate(points[j], axisX) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(i++, j--);
+				}
+			}
+			if (n <= j) {
+				right = j;
+			} else if (n >= i) {
+				left = i;
+			} else {
+				break;
+			}
 		}
 	}
-	
-	private class Node extends BaseElement {
-		private final float location;
-		private Element left;
-		private Element right;
-
-		public Node(float location, int depth, Element parent) {
-			super(depth, parent);
-			this.location = location;
-		}
 
-		@Override
-		public boolean isLeaf() {
-			return false;
-		}
+	private static float coordinate(Point2D.Float point, boolean axisX) {
+		return axisX ? point.x : point.y;
+	}
 
-		public float getLocation() {
-			return location;
-		}
+	private void swap(int first, int second) {
+		final Point2D.Float point = points[first];
+		points[first] = points[second];
+		points[second] = point;
+	}
 
-		public Element getLeft() {
-			return left;
+	private void ensureCapacity(int capacity) {
+		if (points.length < capacity) {
+			points = Arrays.copyOf(points, Math.max(capacity, points.length * 2));
 		}
+	}
+
+	/**
+	 * Tas max des plus proches voisins trouvés, sur des tableaux de
+	 * primitifs.
+	 */
+	private static class Neighbors {
+		private final int[] indexes;
+		private final float[] distances;
+		private int count;
 
-		public void setLeft(Element left) {
-			this.left = left;
+		Neighbors(int capacity) {
+			this.indexes = new int[capacity];
+			this.distances = new float[capacity];
 		}
 
-		public Element getRight() {
-			return right;
+		boolean isFull() {
+			return count == indexes.length;
 		}
-		
-		public void setRight(Element right) {
-			this.right = right;
+
+		float farthestDistance() {
+			return distances[0];
 		}
-	}
-	
-	private class Leaf extends BaseElement {
-		private final Point2D.Float value;
 
-		public Leaf(Point2D.Float value, int depth, Element parent) {
-			super(depth, parent);
-			this.value = value;
+		void offer(int index, float distance) {
+			if (count < indexes.length) {
+				int child = count++;
+				while (child > 0) {
+					final int parent = (child - 1) >>> 1;
+					if (distances[parent] >= distance) {
+						break;
+					}
+					indexes[child] = indexes[parent];
+					distances[child] = distances[parent];
+					child = parent;
+				}
+				indexes[child] = index;
+				distances[child] = distance;
+			} else if (distance < distances[0]) {
+				siftDown(index, distance, count);
+			}
 		}
 
-		@Override
-		public boolean isLeaf() {
-			return true;
+		int poll() {
+			final int result = indexes[0];
+			count--;
+			if (count > 0) {
+				siftDown(indexes[count], distances[count], count);
+			}
+			return result;
 		}
 
-		public Point2D.Float getValue() {
-			return value;
+		private void siftDown(int index, float distance, int length) {
+			int parent = 0;
+			while (true) {
+				int child = parent * 2 + 1;
+				if (child >= length) {
+					break;
+				}
+				if (child + 1 < length && distances[child + 1] > distances[child]) {
+					child++;
+				}
+				if (distances[child] <= distance) {
+					break;
+				}
+				indexes[parent] = indexes[child];
+				distances[parent] = distances[child];
+				parent = child;
+			}
+			indexes[parent] = index;
+			distances[parent] = distance;
 		}
 	}
-	
+
 	public static void main(String[] args) {
 		long iterateMin = Long.MAX_VALUE;
 		long iterateMax = 0L;
@@ -294,6 +351,8 @@ public class KdTree {
 		long kdMax = 0L;
 		long kdTotal = 0L;
 		
+		long buildTotal = 0L;
+		
 		int errors = 0;
 		
 		final Random random = new Random();
@@ -301,7 +360,11 @@ public class KdTree {
 		
 		for(int i = 0; i < tests; i++) {
 			final List<Point2D.Float> points = generatePoints(10000);
+			
+			final long buildStart = System.nanoTime();
 			final KdTree tree = new KdTree(points);
+			tree.build();
+			buildTotal += System.nanoTime() - buildStart;
 			
 			final Point2D.Float reference = new Point2D.Float(random.nextFloat() * 100.0f, random.nextFloat() * 100.0f);
 			
@@ -328,6 +391,7 @@ public class KdTree {
 		System.out.println(errors + " errors.");
 		System.out.println("Iterate - min : " + iterateMin + ", max : " + iterateMax + ", avg : " + (double)iterateTotal/(tests * 1000000.0) + "ms");
 		System.out.println("Kd Tree - min : " + kdMin + ", max : " + kdMax + ", avg : " + (double)kdTotal/(tests * 1000000.0) + "ms");
+		System.out.println("Kd Tree build - avg : " + (double)buildTotal/(tests * 1000000.0) + "ms");
 	}
 	
 	private static List<Point2D.Float> generatePoints(int length) {
@@ -0,0 +1,229 @@
+package fr.rca.mapmaker.model.map;
+
+import java.util.Arrays;
+
+/**
+ * Stockage des tuiles par morceaux carrés de {@link #CHUNK_SIZE} tuiles de
+ * côté.
+ * <p>
+ * Les morceaux ne sont alloués qu'à la première écriture d'une tuile non
+ * vide. Tant qu'un morceau n'a pas été modifié, il pointe vers un morceau
+ * vide partagé. La mémoire utilisée dépend donc de la surface dessinée et non
+ * de la taille de la couche.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+class ChunkedTileStorage implements TileStorage {
+
+	static final int CHUNK_SHIFT = 5;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * Morceau partagé par toutes les zones vides. Ne doit jamais être modifié.
+	 */
+	private static final int[] EMPTY_CHUNK = new int[CHUNK_SIZE * CHUNK_SIZE];
+	static {
+		Arrays.fill(EMPTY_CHUNK, TileLayer.EMPTY_TILE);
+	}
+
+	private final int width;
+	private final int height;
+	private final int columns;
+	private final int rows;
+	private final int[][] chunks;
+
+	/**
+	 * Empreinte du contenu ou 0 si elle doit être recalculée.
+	 */
+	private volatile long contentHash;
+
+	ChunkedTileStorage(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.columns = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+		this.rows = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+		this.chunks = new int[columns * rows][];
+		Arrays.fill(chunks, EMPTY_CHUNK);
+	}
+
+	/**
+	 * Créé un stockage à partir d'un tableau de tuiles rangées ligne par
+	 * ligne. Seuls les morceaux contenant au moins une tuile sont alloués.
+	 *
+	 * @param width Largeur de la couche.
+	 * @param height Hauteur de la couche.
+	 * @param tiles Tuiles de la couche.
+	 * @return Un nouveau stockage.
+	 */
+	static ChunkedTileStorage fromArray(int width, int height, int[] tiles) {
+		final ChunkedTileStorage storage = new ChunkedTileStorage(width, height);
+		final int lastY = Math.min(height, tiles.length / Math.max(1, width));
+		for (int y = 0; y < lastY; y++) {
+			storage.setRow(0, y, tiles, y * width, width);
+		}
+		return storage;
+	}
+
+	/**
+	 * Nombre de morceaux réellement alloués.
+	 *
+	 * @return Le nombre de morceaux alloués.
+	 */
+	int getAllocatedChunkCount() {
+		int count = 0;
+		for (final int[] chunk : chunks) {
+			if (chunk != EMPTY_CHUNK) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int get(int x, int y) {
+		return chunks[(y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT)][((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+	}
+
+	@Override
+	public void set(int x, int y, int tile) {
+		contentHash = 0;
+		final int chunkIndex = (y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT);
+		int[] chunk = chunks[chunkIndex];
+		if (chunk == EMPTY_CHUNK) {
+			if (tile == TileLayer.EMPTY_TILE) {
+				return;
+			}
+			chunk = EMPTY_CHUNK.clone();
+			chunks[chunkIndex] = chunk;
+		}
+		chunk[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] = tile;
+	}
+
+	@Override
+	public void getRow(int x, int y, int[] destination, int offset, int length) {
+		final int rowStart = (y >> CHUNK_SHIFT) * columns;
+		final int lineStart = (y & CHUNK_MASK) << CHUNK_SHIFT;
+
+		int remaining = length;
+		while (remaining > 0) {
+			final int inChunkX = x & CHUNK_MASK;
+			final int count = Math.min(remaining, CHUNK_SIZE - inChunkX);
+			System.arraycopy(chunks[rowStart + (x >> CHUNK_SHIFT)], lineStart + inChunkX, destination, offset, count);
+			x += count;
+			offset += count;
+			remaining -= count;
+		}
+	}
+
+	@Override
+	public void setRow(int x, int y, int[] source, int offset, int length) {
+		contentHash = 0;
+		final int rowStart = (y >> CHUNK_SHIFT) * columns;
+		final int lineStart = (y & CHUNK_MASK) << CHUNK_SHIFT;
+
+		int remaining = length;
+		while (remaining > 0) {
+			final int inChunkX = x & CHUNK_MASK;
+			final int count = Math.min(remaining, CHUNK_SIZE - inChunkX);
+			final int chunkIndex = rowStart + (x >> CHUNK_SHIFT);
+
+			int[] chunk = chunks[chunkIndex];
+			if (chunk == EMPTY_CHUNK && !isEmpty(source, offset, count)) {
+				chunk = EMPTY_CHUNK.clone();
+				chunks[chunkIndex] = chunk;
+			}
+			if (chunk != EMPTY_CHUNK) {
+				System.arraycopy(source, offset, chunk, lineStart + inChunkX, count);
+			}
+			x += count;
+			offset += count;
+			remaining -= count;
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (final int[] chunk : chunks) {
+			if (chunk != EMPTY_CHUNK && !isEmpty(chunk, 0, chunk.length)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int[] toArray() {
+		final int[] tiles = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			getRow(0, y, tiles, y * width, width);
+		}
+		return tiles;
+	}
+
+	@Override
+	public TileStorage copy() {
+		final ChunkedTileStorage copy = new ChunkedTileStorage(width, height);
+		for (int index = 0; index < chunks.length; index++) {
+			final int[] chunk = chunks[index];
+			if (chunk != EMPTY_CHUNK) {
+				copy.chunks[index] = chunk.clone();
+			}
+		}
+		return copy;
+	}
+
+	@Override
+	public int contentHashCode() {
+		int hash = 1;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				hash = 31 * hash + get(x, y);
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public long contentHash() {
+		long hash = contentHash;
+		if (hash == 0) {
+			final int[] row = new int[width];
+			for (int y = 0; y < height; y++) {
+				getRow(0, y, row, 0, width);
+				hash = TileStorage.hash(hash, row, 0, width);
+			}
+			hash = TileStorage.finish(hash, width * height);
+			contentHash = hash;
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean contentEquals(TileStorage other) {
+		if (other instanceof ChunkedTileStorage) {
+			final ChunkedTileStorage chunked = (ChunkedTileStorage) other;
+			if (chunked.width != width || chunked.height != height) {
+				return false;
+			}
+			for (int index = 0; index < chunks.length; index++) {
+				if (!Arrays.equals(chunks[index], chunked.chunks[index])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return TileStorage.super.contentEquals(other);
+	}
+
+	private static boolean isEmpty(int[] tiles, int offset, int length) {
+		final int end = offset + length;
+		for (int index = offset; index < end; index++) {
+			if (tiles[index] != TileLayer.EMPTY_TILE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,106 @@
+package fr.rca.mapmaker.model.map;
+
+import java.util.Arrays;
+
+/**
+ * Stockage des tuiles dans un seul tableau, ligne par ligne.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+class DenseTileStorage implements TileStorage {
+
+	private final int width;
+	private final int[] tiles;
+
+	/**
+	 * Empreinte du contenu ou 0 si elle doit être recalculée.
+	 */
+	private volatile long contentHash;
+
+	DenseTileStorage(int width, int[] tiles) {
+		this.width = width;
+		this.tiles = tiles;
+	}
+
+	/**
+	 * Tableau utilisé pour stocker les tuiles.
+	 *
+	 * @return Le tableau des tuiles (n'est pas copié). Il ne doit pas être
+	 * modifié, l'empreinte du contenu ne serait pas recalculée.
+	 */
+	int[] getTiles() {
+		return tiles;
+	}
+
+	@Override
+	public int get(int x, int y) {
+		final int index = y * width + x;
+		return index < tiles.length ? tiles[index] : TileLayer.EMPTY_TILE;
+	}
+
+	@Override
+	public void set(int x, int y, int tile) {
+		tiles[y * width + x] = tile;
+		contentHash = 0;
+	}
+
+	@Override
+	public void getRow(int x, int y, int[] destination, int offset, int length) {
+		final int start = y * width + x;
+		final int available = Math.max(0, Math.min(length, tiles.length - start));
+		System.arraycopy(tiles, start, destination, offset, available);
+		if (available < length) {
+			Arrays.fill(destination, offset + available, offset + length, TileLayer.EMPTY_TILE);
+		}
+	}
+
+	@Override
+	public void setRow(int x, int y, int[] source, int offset, int length) {
+		System.arraycopy(source, offset, tiles, y * width + x, length);
+		contentHash = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (final int tile : tiles) {
+			if (tile != TileLayer.EMPTY_TILE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int[] toArray() {
+		return tiles.clone();
+	}
+
+	@Override
+	public TileStorage copy() {
+		return new DenseTileStorage(width, tiles.clone());
+	}
+
+	@Override
+	public int contentHashCode() {
+		return Arrays.hashCode(tiles);
+	}
+
+	@Override
+	public long contentHash() {
+		long hash = contentHash;
+		if (hash == 0) {
+			hash = TileStorage.finish(TileStorage.hash(0, tiles, 0, tiles.length), tiles.length);
+			contentHash = hash;
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean contentEquals(TileStorage other) {
+		if (other instanceof DenseTileStorage) {
+			return Arrays.equals(tiles, ((DenseTileStorage) other).tiles);
+		}
+		return TileStorage.super.contentEquals(other);
+	}
+
+}
@@ -0,0 +1,139 @@
+package fr.rca.mapmaker.model.map;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Stockage dont les tuiles sont lues au premier accès.
+ * <p>
+ * Tant qu'elles n'ont pas été modifiées, les tuiles peuvent être oubliées
+ * avec {@link #unload()} pour libérer la mémoire, elles seront relues au
+ * prochain accès.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+class LazyTileStorage implements TileStorage {
+
+	private final int width;
+	private final int height;
+	private final TileLoader loader;
+
+	private TileStorage storage;
+
+	/**
+	 * <code>true</code> si les tuiles ont été modifiées depuis leur lecture.
+	 */
+	private boolean modified;
+
+	LazyTileStorage(int width, int height, TileLoader loader) {
+		this.width = width;
+		this.height = height;
+		this.loader = loader;
+	}
+
+	TileLoader getLoader() {
+		return loader;
+	}
+
+	/**
+	 * Indique si les tuiles sont en mémoire.
+	 *
+	 * @return <code>true</code> si les tuiles ont été lues.
+	 */
+	synchronized boolean isLoaded() {
+		return storage != null;
+	}
+
+	/**
+	 * Renvoie le stockage contenant les tuiles, en les lisant si besoin.
+	 *
+	 * @return Le stockage chargé.
+	 * @throws UncheckedIOException Si les tuiles ne peuvent pas être lues.
+	 */
+	synchronized TileStorage getStorage() {
+		if (storage == null) {
+			try {
+				final int[] tiles = loader.load();
+				if (tiles.length != width * height) {
+					throw new IOException("Taille inattendue pour " + loader.getFile() + " : " + tiles.length + " tuiles au lieu de " + width * height + '.');
+				}
+				storage = TileStorage.of(width, height, tiles);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return storage;
+	}
+
+	/**
+	 * Oublie les tuiles si elles n'ont pas été modifiées.
+	 *
+	 * @return <code>true</code> si les tuiles ont été oubliées.
+	 */
+	synchronized boolean unload() {
+		if (modified) {
+			return false;
+		}
+		storage = null;
+		return true;
+	}
+
+	private synchronized TileStorage getModifiableStorage() {
+		final TileStorage loaded = getStorage();
+		modified = true;
+		return loaded;
+	}
+
+	@Override
+	public int get(int x, int y) {
+		return getStorage().get(x, y);
+	}
+
+	@Override
+	public void set(int x, int y, int tile) {
+		getModifiableStorage().set(x, y, tile);
+	}
+
+	@Override
+	public void getRow(int x, int y, int[] destination, int offset, int length) {
+		getStorage().getRow(x, y, destination, offset, length);
+	}
+
+	@Override
+	public void setRow(int x, int y, int[] source, int offset, int length) {
+		getModifiableStorage().setRow(x, y, source, offset, length);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return getStorage().isEmpty();
+	}
+
+	@Override
+	public int[] toArray() {
+		return getStorage().toArray();
+	}
+
+	@Override
+	public TileStorage copy() {
+		return getStorage().copy();
+	}
+
+	@Override
+	public int contentHashCode() {
+		return getStorage().contentHashCode();
+	}
+
+	@Override
+	public long contentHash() {
+		return getStorage().contentHash();
+	}
+
+	@Override
+	public boolean contentEquals(TileStorage other) {
+		if (other instanceof LazyTileStorage) {
+			return getStorage().contentEquals(((LazyTileStorage) other).getStorage());
+		}
+		return getStorage().contentEquals(other);
+	}
+}
@@ -182,19 +182,23 @@ public class PackMap implements Packer {
 		return result;
 	}
 
-	private static void addMapsOfSprite(final Sprite sprite, final Double direction, final Map<TileLayer, SingleLayerTileMap> maps) {
+	/**
+	 * Ajoute les images des animations du sprite donné. Une image déjà
+	 * présente (y compris dans un autre sprite) n'est ajoutée qu'une fois.
+	 */
+	static void addMapsOfSprite(final Sprite sprite, final Double direction, final Map<TileLayer, SingleLayerTileMap> maps) {
 		for(final Animation animation : sprite.getAnimations()) {
 			if (direction == null) {
 				for(final List<TileLayer> frames : animation.getFrames().values()) {
 					for(final TileLayer frame : frames) {
-						maps.put(frame, new SingleLayerTileMap(frame, sprite.getPalette()));
+						maps.computeIfAbsent(frame, key -> new SingleLayerTileMap(key, sprite.getPalette()));
 					}
 				}
 			} else {
 				final List<TileLayer> frames = animation.getFrames(direction);
 				if (frames != null) {
 					for(final TileLayer frame : frames) {
-						maps.put(frame, new SingleLayerTileMap(frame, sprite.getPalette()));
+						maps.computeIfAbsent(frame, key -> new SingleLayerTileMap(key, sprite.getPalette()));
 					}
 				}
 			}
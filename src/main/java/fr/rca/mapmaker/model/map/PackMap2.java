@@ -3,56 +3,313 @@ package fr.rca.mapmaker.model.map;
 import fr.rca.mapmaker.model.palette.EditableImagePalette;
 import fr.rca.mapmaker.model.sprite.Sprite;
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import org.jetbrains.annotations.Nullable;
 
 /**
+ * Table qui agence ses objets avec l'algorithme de la ligne d'horizon
+ * (<i>skyline</i>).
+ * <p>
+ * Le haut des objets déjà placés est décrit par une liste de segments
+ * horizontaux. Chaque objet est posé sur le segment qui le place le plus
+ * haut possible (puis le plus à gauche possible), ce qui évite de parcourir
+ * une grille de cellules comme {@link PackMap}.
+ * <p>
+ * La taille de la texture est une puissance de 2 estimée à partir de la
+ * surface totale des objets. Elle n'est doublée que si les objets ne tiennent
+ * pas.
  *
  * @author Raphaël Calabro (ddaeke-github@yahoo.fr)
  */
 public class PackMap2 implements Packer {
-    
+
+    private int width;
+    private int height;
+
+    private final int margin;
+
+    /**
+     * Segments décrivant le haut de la zone occupée, triés de gauche à
+     * droite et couvrant toute la largeur.
+     */
+    private final List<Segment> skyline = new ArrayList<>();
+
+    private Map<SingleLayerTileMap, Point> locations = new HashMap<>();
+
+    private Map<TileLayer, SingleLayerTileMap> tileLayerToTileMap;
+    private Collection<Sprite> sprites;
+    private EditableImagePalette imagePalette;
+
+    public PackMap2(int width, int height, int margin) {
+        this.margin = margin;
+        reset(width, height);
+    }
+
     @Override
     public void addAll(EditableImagePalette palette, Collection<Sprite> sprites, Double direction) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        final Map<TileLayer, SingleLayerTileMap> maps = new LinkedHashMap<>();
+
+        if (palette != null) {
+            for (int index = 0; index < palette.size(); index++) {
+                final TileLayer map = palette.getSource(index);
+                maps.put(map, SingleLayerTileMap.withTileFromImagePalette(palette, index));
+            }
+        }
+
+        if (sprites != null) {
+            for (final Sprite sprite : sprites) {
+                if (sprite.isExportable()) {
+                    PackMap.addMapsOfSprite(sprite, direction, maps);
+                }
+            }
+        }
+
+        // Tri des cartes du plus haut au plus petit.
+        final TreeSet<SingleLayerTileMap> orderedSet = new TreeSet<>();
+        orderedSet.addAll(maps.values());
+
+        int size = estimateSize(orderedSet, margin);
+        reset(size, size);
+        while (!addAll(orderedSet)) {
+            size *= 2;
+            reset(size, size);
+        }
+
+        this.tileLayerToTileMap = maps;
+        this.sprites = sprites;
+        this.imagePalette = palette;
     }
 
+    /**
+     * Ajoute les cartes données à la suite de celles déjà placées.
+     *
+     * @param maps Cartes à ajouter, triées de la plus haute à la moins haute.
+     * @return <code>true</code> si toutes les cartes ont été placées,
+     * <code>false</code> si l'une d'elle ne tient pas.
+     */
     @Override
     public boolean addAll(Set<SingleLayerTileMap> maps) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        for (final SingleLayerTileMap map : maps) {
+            final Point location = insert(map.getWidth() + margin, map.getHeight() + margin);
+            if (location == null) {
+                return false;
+            }
+            locations.put(map, location);
+        }
+        return true;
+    }
+
+    /**
+     * Place un rectangle de la taille donnée.
+     *
+     * @param cellWidth Largeur du rectangle (marge comprise).
+     * @param cellHeight Hauteur du rectangle (marge comprise).
+     * @return L'emplacement du coin supérieur gauche du rectangle ou
+     * <code>null</code> s'il ne tient pas.
+     */
+    @Nullable
+    Point insert(int cellWidth, int cellHeight) {
+        int bestIndex = -1;
+        int bestBottom = Integer.MAX_VALUE;
+        int bestX = Integer.MAX_VALUE;
+        int bestY = 0;
+
+        for (int index = 0; index < skyline.size(); index++) {
+            final int y = fit(index, cellWidth, cellHeight);
+            if (y >= 0) {
+                final int bottom = y + cellHeight;
+                final int x = skyline.get(index).x;
+                if (bottom < bestBottom || (bottom == bestBottom && x < bestX)) {
+                    bestIndex = index;
+                    bestBottom = bottom;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+        }
+
+        if (bestIndex < 0) {
+            return null;
+        }
+        if (cellWidth > 0) {
+            place(bestIndex, bestX, bestBottom, cellWidth);
+        }
+        return new Point(bestX, bestY);
+    }
+
+    /**
+     * Calcule l'ordonnée à laquelle un rectangle posé sur le segment donné
+     * se trouverait.
+     *
+     * @return L'ordonnée du rectangle ou -1 s'il dépasse de la texture.
+     */
+    private int fit(int index, int cellWidth, int cellHeight) {
+        final int x = skyline.get(index).x;
+        if (x + cellWidth > width) {
+            return -1;
+        }
+        int y = 0;
+        int remaining = cellWidth;
+        for (int i = index; i < skyline.size() && (remaining > 0 || i == index); i++) {
+            final Segment segment = skyline.get(i);
+            y = Math.max(y, segment.y);
+            if (y + cellHeight > height) {
+                return -1;
+            }
+            remaining -= segment.width;
+        }
+        return y;
+    }
+
+    /**
+     * Ajoute un segment pour le rectangle placé et raccourcit ou retire les
+     * segments qu'il recouvre.
+     */
+    private void place(int index, int x, int y, int cellWidth) {
+        skyline.add(index, new Segment(x, y, cellWidth));
+
+        final int right = x + cellWidth;
+        while (index + 1 < skyline.size()) {
+            final Segment next = skyline.get(index + 1);
+            if (next.x >= right) {
+                break;
+            }
+            final int overlap = right - next.x;
+            if (overlap >= next.width) {
+                skyline.remove(index + 1);
+            } else {
+                next.x += overlap;
+                next.width -= overlap;
+                break;
+            }
+        }
+
+        // Fusion des segments voisins à la même hauteur.
+        for (int i = skyline.size() - 1; i > 0; i--) {
+            final Segment previous = skyline.get(i - 1);
+            final Segment segment = skyline.get(i);
+            if (previous.y == segment.y) {
+                previous.width += segment.width;
+                skyline.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Estime la plus petite texture carrée (de côté une puissance de 2)
+     * pouvant contenir les cartes données.
+     *
+     * @param maps Cartes à placer.
+     * @param margin Marge entre 2 cartes.
+     * @return Le côté de la texture.
+     */
+    static int estimateSize(Collection<SingleLayerTileMap> maps, int margin) {
+        long area = 0;
+        int largestSide = 1;
+        for (final SingleLayerTileMap map : maps) {
+            final int cellWidth = map.getWidth() + margin;
+            final int cellHeight = map.getHeight() + margin;
+            area += (long) cellWidth * cellHeight;
+            largestSide = Math.max(largestSide, Math.max(cellWidth, cellHeight));
+        }
+        final int minimumSide = (int) Math.max(largestSide, Math.ceil(Math.sqrt(area)));
+
+        int size = 1;
+        while (size < minimumSide) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    private void reset(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.locations = new HashMap<>();
+        this.skyline.clear();
+        this.skyline.add(new Segment(0, 0, width));
     }
 
+    @Nullable
     @Override
     public Point getPoint(SingleLayerTileMap map) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        final Point point = locations.get(map);
+        if (point != null) {
+            return new Point(point.x + map.getInsets().x, point.y + map.getInsets().y);
+        } else {
+            return null;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
     }
 
     @Override
     public Collection<Sprite> getSprites() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return sprites;
     }
 
     @Override
     public EditableImagePalette getImagePalette() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return imagePalette;
     }
 
     @Override
     public Map<TileLayer, SingleLayerTileMap> getTileLayerToTileMap() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return tileLayerToTileMap;
     }
 
     @Override
     public BufferedImage renderImage() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return renderImage(null);
     }
 
     @Override
     public BufferedImage renderImage(Color backgroundColor) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        final BufferedImage image = new BufferedImage(width, height, backgroundColor == null ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+
+        if (backgroundColor != null) {
+            graphics.setColor(backgroundColor);
+            graphics.fillRect(0, 0, width, height);
+        }
+
+        for (Map.Entry<SingleLayerTileMap, Point> entry : locations.entrySet()) {
+            entry.getKey().paintAtLocation(entry.getValue(), graphics);
+        }
+
+        graphics.dispose();
+
+        return image;
     }
-    
+
+    /**
+     * Partie horizontale de la ligne d'horizon.
+     */
+    private static class Segment {
+        private int x;
+        private final int y;
+        private int width;
+
+        Segment(int x, int y, int width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+    }
+
 }
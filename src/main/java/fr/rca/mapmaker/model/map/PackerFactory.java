@@ -1,15 +1,47 @@
 package fr.rca.mapmaker.model.map;
 
+import fr.rca.mapmaker.preferences.PreferencesManager;
+
 /**
  *
  * @author Raphaël Calabro (ddaeke-github@yahoo.fr)
  */
 public final class PackerFactory {
     
+    /**
+     * Valeur de la préférence {@link PreferencesManager#PACKER} pour utiliser
+     * {@link PackMap}.
+     */
+    public static final String PACK_MAP = "packmap";
+    
+    /**
+     * Valeur de la préférence {@link PreferencesManager#PACKER} pour utiliser
+     * {@link PackMap2} (par défaut).
+     */
+    public static final String SKYLINE = "skyline";
+    
+    /**
+     * Créé la table choisie dans les préférences.
+     * 
+     * @return Une nouvelle table vide.
+     */
     public static Packer createPacker() {
-        return new PackMap(0, 0, 1);
+        return createPacker(PreferencesManager.get(PreferencesManager.PACKER, SKYLINE));
     } 
     
+    /**
+     * Créé une table du type donné.
+     * 
+     * @param type {@link #PACK_MAP} ou {@link #SKYLINE}.
+     * @return Une nouvelle table vide.
+     */
+    public static Packer createPacker(String type) {
+        if (PACK_MAP.equals(type)) {
+            return new PackMap(0, 0, 1);
+        }
+        return new PackMap2(0, 0, 1);
+    }
+    
     private PackerFactory() {
         // Vide.
     }
@@ -76,7 +76,7 @@ public class SingleLayerTileMap implements Comparable<SingleLayerTileMap> {
 		if (layer != null) {
 			hash = 79 * hash + layer.getWidth();
 			hash = 79 * hash + layer.getHeight();
-			hash = 79 * hash + layerHashCode();
+			hash = 79 * hash + Long.hashCode(layerHash());
 		}
 		return hash;
 	}
@@ -104,7 +104,8 @@ public class SingleLayerTileMap implements Comparable<SingleLayerTileMap> {
 			final int compareWidth = Integer.valueOf(other.getWidth()).compareTo(getWidth());
 
 			if(compareWidth == 0) {
-				return Integer.valueOf(layerHashCode()).compareTo(other.layerHashCode());
+				final int compareHash = Long.compare(layerHash(), other.layerHash());
+				return compareHash != 0 ? compareHash : compareTiles(layer, other.layer);
 			} else {
 				return compareWidth;
 			}
@@ -113,21 +114,51 @@ public class SingleLayerTileMap implements Comparable<SingleLayerTileMap> {
 		}
 	}
 	
-	private int layerHashCode() {
+	/**
+	 * Empreinte des tuiles de la grille. L'empreinte des {@link TileLayer}
+	 * est conservée par la couche, elle n'est calculée qu'une fois.
+	 */
+	private long layerHash() {
 		if (layer == null) {
             return 0;
 		}
+		if (layer instanceof TileLayer) {
+			return ((TileLayer) layer).getContentHash();
+		}
 		
-		final int[] primes = {3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71};
-
-        int result = 1;
+		final int width = layer.getWidth();
+		final int[] row = new int[width];
+        long result = 0;
         for (int y = 0; y < layer.getHeight(); y++) {
-			for (int x = 0; x < layer.getWidth(); x++) {
-				result = primes[(y * layer.getWidth() + x) % primes.length] * result + layer.getTile(x, y);
+			for (int x = 0; x < width; x++) {
+				row[x] = layer.getTile(x, y);
 			}
+			result = TileStorage.hash(result, row, 0, width);
 		}
-
-        return result;
+        return TileStorage.finish(result, width * layer.getHeight());
+	}
+	
+	/**
+	 * Compare les tuiles de 2 grilles de même taille dont l'empreinte est
+	 * identique.
+	 */
+	private static int compareTiles(Layer layer1, Layer layer2) {
+		if (layer1 == layer2) {
+			return 0;
+		} else if (layer1 == null) {
+			return -1;
+		} else if (layer2 == null) {
+			return 1;
+		}
+		for (int y = 0; y < layer1.getHeight(); y++) {
+			for (int x = 0; x < layer1.getWidth(); x++) {
+				final int compare = Integer.compare(layer1.getTile(x, y), layer2.getTile(x, y));
+				if (compare != 0) {
+					return compare;
+				}
+			}
+		}
+		return 0;
 	}
 	
 	private boolean layerEquals(Layer layer1, Layer layer2) {
@@ -20,7 +20,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
 
 @Data
 public class TileLayer implements DataLayer, HasSizeChangeListeners, HasPropertyChangeListeners, HasLayerPlugin {
@@ -49,9 +53,10 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	private int height;
 
 	/**
-	 * Liste des tuiles.
+	 * Stockage des tuiles.
 	 */
-	private int[] tiles;
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private TileStorage storage;
 
 	/**
 	 * Vitesse de défilement pour le parallaxe.
@@ -94,8 +99,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	public TileLayer(int width, int height) {
 		this.width = width;
 		this.height = height;
-		this.tiles = new int[width * height];
-		Arrays.fill(this.tiles, EMPTY_TILE);
+		this.storage = TileStorage.create(width, height);
 	}
 
 	public TileLayer(int width, int height, LayerPlugin plugin) {
@@ -117,7 +121,9 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * @param other Couche à copier.
 	 */
 	public TileLayer(TileLayer other) {
-		this(other.tiles, new Dimension(other.width, other.height), null);
+		this.width = other.width;
+		this.height = other.height;
+		this.storage = other.storage.copy();
 		copyTileLayerFields(other);
 	}
 
@@ -129,10 +135,12 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	public TileLayer(DataLayer other) {
 		this.width = other.getWidth();
 		this.height = other.getHeight();
-		this.tiles = other.copyData();
 		this.name = other.getName();
 		if (other instanceof TileLayer) {
+			this.storage = ((TileLayer) other).storage.copy();
 			copyTileLayerFields((TileLayer) other);
+		} else {
+			this.storage = TileStorage.of(width, height, other.copyData());
 		}
 	}
 
@@ -146,14 +154,15 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 
 		if (copySurface.width == dimension.width && copySurface.height == dimension.height
 				&& copySurface.x == 0 && copySurface.y == 0) {
-			this.tiles = data.clone();
+			this.storage = TileStorage.copyOf(width, height, data);
 		} else {
-			this.tiles = new int[width * height];
+			final int[] tiles = new int[width * height];
 
 			final int lastY = Math.min(height, dimension.height - copySurface.y);
 			for (int y = 0; y < lastY; y++) {
 				System.arraycopy(data, (y + copySurface.y) * dimension.width + copySurface.x, tiles, y * width, Math.min(width, dimension.width - copySurface.x));
 			}
+			this.storage = TileStorage.of(width, height, tiles);
 		}
 	}
 
@@ -161,7 +170,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * Créé une nouvelle couche à partir des informations données.
 	 * <p>
 	 * Attention, le tableau de tuiles donné est utilisé tel quel et n'est pas
-	 * copié.
+	 * copié (sauf pour les grandes couches qui sont stockées par morceaux).
 	 *
 	 * @param width Largeur de la couche.
 	 * @param height Hauteur de la couche.
@@ -170,7 +179,20 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	public TileLayer(int width, int height, int[] data) {
 		this.width = width;
 		this.height = height;
-		this.tiles = data;
+		this.storage = TileStorage.of(width, height, data);
+	}
+
+	/**
+	 * Créé une nouvelle couche dont les tuiles seront lues au premier accès.
+	 *
+	 * @param width Largeur de la couche.
+	 * @param height Hauteur de la couche.
+	 * @param loader Lecteur des tuiles.
+	 */
+	public TileLayer(int width, int height, TileLoader loader) {
+		this.width = width;
+		this.height = height;
+		this.storage = new LazyTileStorage(width, height, loader);
 	}
 
 	@Override
@@ -178,7 +200,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		int hash = 3;
 		hash = 59 * hash + this.width;
 		hash = 59 * hash + this.height;
-		hash = 59 * hash + Arrays.hashCode(this.tiles);
+		hash = 59 * hash + Long.hashCode(this.storage.contentHash());
 		hash = 59 * hash + Objects.hashCode(this.scrollRate);
 		hash = 59 * hash + (this.solid ? 1 : 0);
 		hash = 59 * hash + Objects.hashCode(this.plugins);
@@ -206,7 +228,8 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		if (this.solid != other.solid) {
 			return false;
 		}
-		if (!Arrays.equals(this.tiles, other.tiles)) {
+		if (this.storage.contentHash() != other.storage.contentHash()
+				|| !this.storage.contentEquals(other.storage)) {
 			return false;
 		}
 		if (!Objects.equals(this.scrollRate, other.scrollRate)) {
@@ -248,9 +271,8 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 */
 	@Override
 	public int getTile(int x, int y) {
-		final int index = y * width + x;
-		return (x >= 0 && x < width) && (y >= 0 && y < height) && index < tiles.length
-				? tiles[index]
+		return (x >= 0 && x < width) && (y >= 0 && y < height)
+				? storage.get(x, y)
 				: -1;
 	}
 
@@ -288,7 +310,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * @param tile Numéro de la tuile.
 	 */
 	public void setRawTile(int x, int y, int tile) {
-		tiles[y * width + x] = tile;
+		storage.set(x, y, tile);
 	}
 
 	/**
@@ -298,7 +320,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * @param tile Numéro de la tuile.
 	 */
 	public void setTile(Point p, int tile) {
-		tiles[p.y * width + p.x] = tile;
+		storage.set(p.x, p.y, tile);
 
 		fireLayerChanged(new Rectangle(p.x, p.y, 1, 1));
 	}
@@ -321,7 +343,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		for (int y = minY; y < maxY; y++) {
 			for (int x = minX; x < maxX; x++) {
 				if (shape.contains(x, y)) {
-					tiles[y * width + x] = tile;
+					storage.set(x, y, tile);
 				}
 			}
 		}
@@ -349,10 +371,11 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 
 		final int max = (int) Math.ceil(length);
 		for (int i = 0; i < max; i++) {
-			final int index = (int) (Math.round(y) * this.width + Math.round(x));
+			final int tileX = (int) Math.round(x);
+			final int tileY = (int) Math.round(y);
 
-			if (y >= 0 && y < height && x >= 0 && x < width && index < tiles.length) {
-				tiles[index] = tile;
+			if (y >= 0 && y < height && x >= 0 && x < width && tileX < width && tileY < height) {
+				storage.set(tileX, tileY, tile);
 			}
 
 			x += stepX;
@@ -408,12 +431,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * sinon.
 	 */
 	public boolean isEmpty() {
-		for (final int tile : tiles) {
-			if (tile != EMPTY_TILE) {
-				return false;
-			}
-		}
-		return true;
+		return storage.isEmpty();
 	}
 
 	/**
@@ -425,10 +443,9 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	public boolean isEmpty(Rectangle rectangle) {
 		final int endX = Math.min(rectangle.x + rectangle.width, width);
 		final int endY = Math.min(rectangle.y + rectangle.height, height);
-		for (int y = rectangle.y; y < endY; y++) {
-			final int rowStart = y * width;
-			for (int x = rectangle.x; x < endX; x++) {
-				if (tiles[rowStart + x] != EMPTY_TILE) {
+		for (int y = Math.max(0, rectangle.y); y < endY; y++) {
+			for (int x = Math.max(0, rectangle.x); x < endX; x++) {
+				if (storage.get(x, y) != EMPTY_TILE) {
 					return false;
 				}
 			}
@@ -447,25 +464,20 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			// Rien à faire.
 			return;
 		}
-		final int[] resizedTiles = new int[width * height];
-		Arrays.fill(resizedTiles, EMPTY_TILE);
+		final TileStorage resizedTiles = TileStorage.create(width, height);
 
 		final int minHeight = Math.min(height, this.height);
 		final int minWidth = Math.min(width, this.width);
 
-		final int max = minHeight * minWidth;
-		for (int index = 0; index < max; index++) {
-			final int x = index % minWidth;
-			final int y = index / minWidth;
-			final int indexInOldArray = y * this.width + x;
-			if (indexInOldArray < tiles.length) {
-				resizedTiles[y * width + x] = tiles[indexInOldArray];
-			}
+		final int[] row = new int[minWidth];
+		for (int y = 0; y < minHeight; y++) {
+			storage.getRow(0, y, row, 0, minWidth);
+			resizedTiles.setRow(0, y, row, 0, minWidth);
 		}
 
 		final Dimension oldDimension = new Dimension(this.width, this.height);
 
-		this.tiles = resizedTiles;
+		this.storage = resizedTiles;
 		this.width = width;
 		this.height = height;
 
@@ -483,8 +495,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * @param height Nouvelle hauteur.
 	 */
 	public void scale(int width, int height) {
-		final int[] scaledTiles = new int[width * height];
-		Arrays.fill(scaledTiles, EMPTY_TILE);
+		final TileStorage scaledTiles = TileStorage.create(width, height);
 
 		final double ratioX = (double)this.width / width;
 		final double ratioY = (double)this.height / height;
@@ -493,13 +504,13 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			for (int x = 0; x < width; x++) {
 				final int xInOld = (int) Math.min(Math.round(x * ratioX), this.width - 1);
 				final int yInOld = (int) Math.min(Math.round(y * ratioY), this.height - 1);
-				scaledTiles[y * width + x] = tiles[yInOld * this.width + xInOld];
+				scaledTiles.set(x, y, storage.get(xInOld, yInOld));
 			}
 		}
 
 		final Dimension oldDimension = new Dimension(this.width, this.height);
 
-		this.tiles = scaledTiles;
+		this.storage = scaledTiles;
 		this.width = width;
 		this.height = height;
 
@@ -508,7 +519,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 
 	private int ditherColor(double x, double y) {
 		if (Math.floor(x) == x && Math.floor(y) == y) {
-			return tiles[(int)y * this.width + (int)x];
+			return storage.get((int)x, (int)y);
 		} else {
 			final int top = (int)y;
 			final int bottom = top < this.height - 1 ? top + 1 : this.height - 1;
@@ -516,8 +527,8 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			final int right = left < this.width - 1 ? left + 1 : this.width - 1;
 			// TODO: Faire varier la taille de la palette en fonction de la taille de destination.
 			int[] tileSquare = new int[] {
-				tiles[top * this.width + left], tiles[top * this.width + right],
-				tiles[bottom * this.width + left], tiles[bottom * this.width + right]
+				storage.get(left, top), storage.get(right, top),
+				storage.get(left, bottom), storage.get(right, bottom)
 			};
 			// TODO: Mélanger les couleurs en fonction de la partie décimale de x et y.
 		}
@@ -535,18 +546,17 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			// Rien à faire.
 			return;
 		}
-		translate(this.tiles, this.width, this.height, offsetX, offsetY);
+		translate(this.storage, this.width, this.height, offsetX, offsetY);
 	}
 
 	public void copyAndTranslate(TileLayer layer, int offsetX, int offsetY) {
 		// Effectue le déplacement même si offsetX et offsetY valent 0 car il y
 		// a une copie des tuiles données.
-		translate(layer.tiles, layer.width, layer.height, offsetX, offsetY);
+		translate(layer.storage, layer.width, layer.height, offsetX, offsetY);
 	}
 
-	private void translate(int[] source, int width, int height, int offsetX, int offsetY) {
-		final int[] translatedTiles = new int[this.width * this.height];
-		Arrays.fill(translatedTiles, EMPTY_TILE);
+	private void translate(TileStorage source, int width, int height, int offsetX, int offsetY) {
+		final TileStorage translatedTiles = TileStorage.create(this.width, this.height);
 
 		final int sourceX = Math.max(0, -offsetX);
 		final int sourceY = Math.max(0, -offsetY);
@@ -555,13 +565,15 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		final int copyWidth = Math.min(this.width - destinationX, width - sourceX);
 		final int copyHeight = Math.min(this.height - destinationY, height - sourceY);
 
-		for (int j = 0; j < copyHeight; j++) {
-			System.arraycopy(
-					source, (j + sourceY) * width + sourceX,
-					translatedTiles, (j + destinationY) * this.width + destinationX, copyWidth);
+		if (copyWidth > 0) {
+			final int[] row = new int[copyWidth];
+			for (int j = 0; j < copyHeight; j++) {
+				source.getRow(sourceX, j + sourceY, row, 0, copyWidth);
+				translatedTiles.setRow(destinationX, j + destinationY, row, 0, copyWidth);
+			}
 		}
 
-		this.tiles = translatedTiles;
+		this.storage = translatedTiles;
 		fireLayerChanged(new Rectangle(0, 0, width, height));
 	}
 
@@ -569,7 +581,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * Vide le contenu de la couche.
 	 */
 	public void clear() {
-		Arrays.fill(this.tiles, EMPTY_TILE);
+		this.storage = TileStorage.create(width, height);
 		fireLayerChanged(new Rectangle(0, 0, width, height));
 	}
 
@@ -609,17 +621,15 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 
 		for (int y = 0; y < minHeight; y++) {
 			for (int x = 0; x < minWidth; x++) {
-				int tile = layer.tiles[y * layer.width + x];
+				int tile = layer.storage.get(x, y);
 
 				if (tile != EMPTY_TILE) {
 					if (tile == ERASE_TILE) {
 						tile = EMPTY_TILE;
 					}
 
-					final int index = y * this.width + x;
-
-					if (this.tiles[index] != tile) {
-						this.tiles[index] = tile;
+					if (this.storage.get(x, y) != tile) {
+						this.storage.set(x, y, tile);
 
 						// Calcul du rectangle modifié
 						minDirtyX = Math.min(minDirtyX, x);
@@ -648,7 +658,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		final int copiedHeight = Math.min(layer.getHeight(), this.height - destination.y);
 
 		for (int y = 0; y < copiedHeight; y++) {
-			System.arraycopy(copiedTiles, y * layer.getWidth(), tiles, destination.x + (y + destination.y) * width, copiedWidth);
+			storage.setRow(destination.x, y + destination.y, copiedTiles, y * layer.getWidth(), copiedWidth);
 		}
 
 		fireLayerChanged(new Rectangle(destination.x, destination.y, copiedWidth, copiedHeight));
@@ -670,13 +680,11 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 
 		for (int y = 0; y < minHeight; y++) {
 			for (int x = 0; x < minWidth; x++) {
-				final int tile = layer.tiles[y * layer.width + x];
+				final int tile = layer.storage.get(x, y);
 
 				if (tile != EMPTY_TILE) {
-					final int index = y * this.width + x;
-
-					if (this.tiles[index] != EMPTY_TILE) {
-						this.tiles[index] = EMPTY_TILE;
+					if (this.storage.get(x, y) != EMPTY_TILE) {
+						this.storage.set(x, y, EMPTY_TILE);
 
 						// Calcul du rectangle modifié
 						minDirtyX = Math.min(minDirtyX, x);
@@ -794,7 +802,76 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 */
 	@Override
 	public int[] copyData() {
-		return this.tiles.clone();
+		return this.storage.toArray();
+	}
+
+	/**
+	 * Renvoie les tuiles de cette couche sous forme de tableau.
+	 * <p>
+	 * Pour les petites couches, le tableau renvoyé est celui utilisé pour le
+	 * stockage et n'est pas copié. Pour les grandes couches stockées par
+	 * morceaux, un nouveau tableau est créé à chaque appel. Le tableau ne doit
+	 * pas être modifié, utiliser {@link #restoreData(int[], int, int)}.
+	 *
+	 * @return Les tuiles de la couche.
+	 */
+	public int[] getTiles() {
+		// Le tableau renvoyé peut être conservé : les tuiles ne doivent plus
+		// être oubliées.
+		loadTiles();
+		if (storage instanceof DenseTileStorage) {
+			return ((DenseTileStorage) storage).getTiles();
+		} else {
+			return storage.toArray();
+		}
+	}
+
+	/**
+	 * Indique si les tuiles de cette couche sont en mémoire.
+	 *
+	 * @return <code>false</code> si les tuiles seront lues au prochain accès,
+	 * <code>true</code> sinon.
+	 */
+	public boolean isLoaded() {
+		return !(storage instanceof LazyTileStorage) || ((LazyTileStorage) storage).isLoaded();
+	}
+
+	/**
+	 * Renvoie le lecteur utilisé pour lire les tuiles de cette couche.
+	 *
+	 * @return Le lecteur des tuiles ou <code>null</code> si les tuiles ne
+	 * sont pas lues à la demande.
+	 */
+	public @Nullable TileLoader getTileLoader() {
+		return storage instanceof LazyTileStorage
+				? ((LazyTileStorage) storage).getLoader()
+				: null;
+	}
+
+	/**
+	 * Lit les tuiles de cette couche si elles ne sont pas en mémoire et les
+	 * y garde : elles ne seront plus relues depuis leur fichier.
+	 * <p>
+	 * À appeler avant de remplacer ou de supprimer le fichier d'origine.
+	 */
+	public void loadTiles() {
+		if (storage instanceof LazyTileStorage) {
+			storage = ((LazyTileStorage) storage).getStorage();
+		}
+	}
+
+	/**
+	 * Oublie les tuiles de cette couche pour libérer la mémoire. Elles seront
+	 * relues au prochain accès.
+	 * <p>
+	 * Sans effet si les tuiles ne sont pas lues à la demande ou si elles ont
+	 * été modifiées.
+	 *
+	 * @return <code>true</code> si les tuiles ont été oubliées.
+	 */
+	public boolean unloadTiles() {
+		return storage instanceof LazyTileStorage
+				&& ((LazyTileStorage) storage).unload();
 	}
 
 	/**
@@ -806,7 +883,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	@Override
 	public void restoreData(int[] tiles, Rectangle source) {
 		// TODO: Restaurer correctement les changements en cas de redimensionnement. Sauvegarder les changements de taille ?
-		this.tiles = tiles.clone();
+		this.storage = TileStorage.copyOf(width, height, tiles);
 
 		if (source == null) {
 			source = new Rectangle(0, 0, width, height);
@@ -827,7 +904,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	public void restoreData(int[] tiles, int width, int height) {
 		final Dimension oldDimension = new Dimension(this.width, this.height);
 
-		this.tiles = tiles.clone();
+		this.storage = TileStorage.copyOf(width, height, tiles);
 		this.width = width;
 		this.height = height;
 
@@ -840,9 +917,13 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		final Dimension oldDimension = new Dimension(this.width, this.height);
 
 		this.name = source.getName();
-		this.tiles = source.copyData();
 		this.width = source.getWidth();
 		this.height = source.getHeight();
+		if (source instanceof TileLayer) {
+			this.storage = ((TileLayer) source).storage.copy();
+		} else {
+			this.storage = TileStorage.of(width, height, source.copyData());
+		}
 
 		if (source instanceof HasLayerPlugin) {
 			plugins.clear();
@@ -854,6 +935,19 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		fireLayerChanged(new Rectangle(0, 0, width, height));
 	}
 
+	/**
+	 * Empreinte 64 bits des tuiles de cette couche.
+	 * <p>
+	 * Elle est calculée au premier appel puis conservée jusqu'à la prochaine
+	 * modification des tuiles. Deux couches ayant les mêmes tuiles ont la
+	 * même empreinte, les extensions et le nom ne sont pas pris en compte.
+	 *
+	 * @return L'empreinte des tuiles.
+	 */
+	public long getContentHash() {
+		return storage.contentHash();
+	}
+
 	/**
 	 * Vérifie si cette couche est visuellement identique à celle donnée en
 	 * argument.
@@ -863,7 +957,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * <code>false</code> sinon.
 	 */
 	public boolean hasSameData(TileLayer other) {
-		return Arrays.equals(tiles, other.tiles);
+		return storage.contentEquals(other.storage);
 	}
 
 	/**
@@ -881,7 +975,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			}
 		}
 
-		this.tiles = mirror;
+		this.storage = TileStorage.of(width, height, mirror);
 		fireLayerChanged(new Rectangle(width, height));
 	}
 
@@ -892,13 +986,10 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 		final int[] mirror = new int[width * height];
 		Arrays.fill(mirror, -1);
 		for (int y = 0; y < height; y++) {
-			final int lineSize = Math.min(width, tiles.length - y * width);
-			if (lineSize > 0) {
-				System.arraycopy(tiles, y * width, mirror, (height - y - 1) * width, lineSize);
-			}
+			storage.getRow(0, y, mirror, (height - y - 1) * width, width);
 		}
 
-		this.tiles = mirror;
+		this.storage = TileStorage.of(width, height, mirror);
 		fireLayerChanged(new Rectangle(width, height));
 	}
 
@@ -919,7 +1010,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 	 * @param pivotY Ordonnée du centre de la rotation.
 	 */
 	public void rotate(double angle, double pivotX, double pivotY) {
-		final int[] rotated = new int[this.tiles.length];
+		final int[] rotated = new int[width * height];
 
 		int index = 0;
 		for (int y = 0; y < height; y++) {
@@ -936,20 +1027,18 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			}
 		}
 
-		this.tiles = rotated;
+		this.storage = TileStorage.of(width, height, rotated);
 		fireLayerChanged(new Rectangle(width, height));
 	}
 
 	public void rotate90(int times) {
-		final int[] rotated = new int[this.tiles.length];
-		final int[] source = new int[this.tiles.length];
-
-		System.arraycopy(this.tiles, 0, rotated, 0, this.tiles.length);
+		final int[] rotated = storage.toArray();
+		final int[] source = new int[rotated.length];
 
 		// FIXME : Faire la rotation en une seule fois !!!
 		times = times % 4;
 		for (int iteration = 0; iteration < times; iteration++) {
-			System.arraycopy(rotated, 0, source, 0, this.tiles.length);
+			System.arraycopy(rotated, 0, source, 0, rotated.length);
 
 			int index = 0;
 			for (int y = 0; y < height; y++) {
@@ -960,7 +1049,7 @@ public class TileLayer implements DataLayer, HasSizeChangeListeners, HasProperty
 			}
 		}
 
-		this.tiles = rotated;
+		this.storage = TileStorage.of(width, height, rotated);
 		fireLayerChanged(new Rectangle(width, height));
 	}
 
@@ -0,0 +1,28 @@
+package fr.rca.mapmaker.model.map;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Charge à la demande les tuiles d'une couche.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ * @see TileLayer#TileLayer(int, int, TileLoader)
+ */
+public interface TileLoader {
+
+	/**
+	 * Lit les tuiles de la couche.
+	 *
+	 * @return Les tuiles de la couche, ligne par ligne.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	int[] load() throws IOException;
+
+	/**
+	 * Fichier contenant les tuiles.
+	 *
+	 * @return Le fichier lu par {@link #load()}.
+	 */
+	File getFile();
+}
@@ -10,6 +10,7 @@ import fr.rca.mapmaker.model.palette.Palette;
 import fr.rca.mapmaker.model.palette.PaletteReference;
 import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Instance;
+import fr.rca.mapmaker.model.sprite.InstanceList;
 import fr.rca.mapmaker.util.CanBeDirty;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -23,7 +24,6 @@ import javax.swing.ListModel;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 import lombok.Getter;
-import lombok.Setter;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -90,7 +90,9 @@ public class TileMap implements HasSizeChangeListeners, HasPropertyChangeListene
 	 */
 	private final ArrayList<Layer> layers = new ArrayList<>();
 
-	@Setter
+	/**
+	 * Instances de sprites, indexées par leur position.
+	 */
 	private List<Instance> spriteInstances;
 
 	/**
@@ -127,6 +129,26 @@ public class TileMap implements HasSizeChangeListeners, HasPropertyChangeListene
 		this.palette = palette;
 	}
 
+	/**
+	 * Change les instances de sprites de cette carte.
+	 * <p>
+	 * Les instances sont copiées dans une {@link InstanceList} si besoin : les
+	 * modifications suivantes doivent passer par {@link #getSpriteInstances()}.
+	 * La liste précédente est vidée pour retirer ses écouteurs des instances.
+	 *
+	 * @param spriteInstances Instances de la carte.
+	 */
+	public void setSpriteInstances(@Nullable List<Instance> spriteInstances) {
+		if (this.spriteInstances instanceof InstanceList && this.spriteInstances != spriteInstances) {
+			this.spriteInstances.clear();
+		}
+		if (spriteInstances == null || spriteInstances instanceof InstanceList) {
+			this.spriteInstances = spriteInstances;
+		} else {
+			this.spriteInstances = new InstanceList(spriteInstances);
+		}
+	}
+
 	public void setParent(Project parent) {
 		if (palette instanceof PaletteReference) {
 			((PaletteReference) palette).setProject(parent);
@@ -152,6 +174,7 @@ public class TileMap implements HasSizeChangeListeners, HasPropertyChangeListene
 		this.name = name;
 
 		propertyChangeSupport.firePropertyChange("name", oldName, name);
+		fireMapChanged();
 	}
 
 	public void setFileName(String fileName) {
@@ -166,6 +189,7 @@ public class TileMap implements HasSizeChangeListeners, HasPropertyChangeListene
 		this.width = width;
 
 		propertyChangeSupport.firePropertyChange("width", oldWidth, width);
+		fireMapChanged();
 	}
 
 	public void setHeight(int height) {
@@ -173,6 +197,7 @@ public class TileMap implements HasSizeChangeListeners, HasPropertyChangeListene
 		this.height = height;
 
 		propertyChangeSupport.firePropertyChange("height", oldHeight, height);
+		fireMapChanged();
 	}
 
 	public void setExportable(boolean exportable) {
@@ -413,13 +438,69 @@ public class TileMap implements HasSizeChangeListeners, HasPropertyChangeListene
 		}
 	}
 
+	/**
+	 * Indique si les tuiles de toutes les couches sont en mémoire.
+	 *
+	 * @return <code>false</code> si au moins une couche sera lue au prochain
+	 * accès, <code>true</code> sinon.
+	 */
+	public boolean isLoaded() {
+		for (final Layer layer : layers) {
+			if (layer instanceof TileLayer && !((TileLayer) layer).isLoaded()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Lit les tuiles des couches qui ne sont pas encore en mémoire et les y
+	 * garde.
+	 *
+	 * @see TileLayer#loadTiles()
+	 */
+	public void loadTiles() {
+		for (final Layer layer : layers) {
+			if (layer instanceof TileLayer) {
+				((TileLayer) layer).loadTiles();
+			}
+		}
+	}
+
+	/**
+	 * Oublie les tuiles des couches lues à la demande et non modifiées.
+	 * Sans effet si la carte n'a pas été enregistrée.
+	 *
+	 * @see TileLayer#unloadTiles()
+	 */
+	public void unloadTiles() {
+		if (dirty) {
+			return;
+		}
+		for (final Layer layer : layers) {
+			if (layer instanceof TileLayer) {
+				((TileLayer) layer).unloadTiles();
+			}
+		}
+	}
+
 	protected void fireSizeChanged(Dimension oldSize, Dimension newSize) {
 		for (final SizeChangeListener listener : sizeChangeListeners) {
 			listener.sizeChanged(this, oldSize, newSize);
 		}
+		fireMapChanged();
 		setDirty(true);
 	}
 
+	/**
+	 * Signale au projet que le nom ou la taille de la carte a changé.
+	 */
+	private void fireMapChanged() {
+		if (parent != null) {
+			parent.mapChanged();
+		}
+	}
+
 	protected void fireIntervalAdded(int index) {
 		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, index, index);
 
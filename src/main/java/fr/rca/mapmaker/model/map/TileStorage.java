@@ -0,0 +1,221 @@
+package fr.rca.mapmaker.model.map;
+
+import java.util.Arrays;
+
+/**
+ * Stockage des tuiles d'une couche.
+ * <p>
+ * Les coordonnées données aux méthodes de cette interface ne sont pas
+ * vérifiées, c'est à la couche de s'assurer qu'elles sont comprises dans
+ * ses dimensions.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+interface TileStorage {
+
+	/**
+	 * Surface (en nombre de tuiles) à partir de laquelle une couche est
+	 * stockée par morceaux plutôt que dans un seul tableau.
+	 */
+	int CHUNKED_STORAGE_THRESHOLD = 256 * 256;
+
+	long HASH_PRIME_1 = 0x9E3779B185EBCA87L;
+	long HASH_PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+	long HASH_PRIME_3 = 0x165667B19E3779F9L;
+	long HASH_PRIME_4 = 0x85EBCA77C2B2AE63L;
+
+	/**
+	 * Récupère la tuile à l'emplacement donné.
+	 *
+	 * @param x Abscisse de la tuile.
+	 * @param y Ordonnée de la tuile.
+	 * @return Le numéro de la tuile.
+	 */
+	int get(int x, int y);
+
+	/**
+	 * Défini la tuile à l'emplacement donné.
+	 *
+	 * @param x Abscisse de la tuile.
+	 * @param y Ordonnée de la tuile.
+	 * @param tile Numéro de la tuile.
+	 */
+	void set(int x, int y, int tile);
+
+	/**
+	 * Copie une partie d'une ligne dans le tableau donné.
+	 *
+	 * @param x Abscisse de la première tuile à lire.
+	 * @param y Ligne à lire.
+	 * @param destination Tableau où copier les tuiles.
+	 * @param offset Index de la première case à écrire dans <code>destination</code>.
+	 * @param length Nombre de tuiles à copier.
+	 */
+	void getRow(int x, int y, int[] destination, int offset, int length);
+
+	/**
+	 * Remplace une partie d'une ligne par le contenu du tableau donné.
+	 *
+	 * @param x Abscisse de la première tuile à écrire.
+	 * @param y Ligne à modifier.
+	 * @param source Tableau contenant les tuiles.
+	 * @param offset Index de la première case à lire dans <code>source</code>.
+	 * @param length Nombre de tuiles à copier.
+	 */
+	void setRow(int x, int y, int[] source, int offset, int length);
+
+	/**
+	 * Détermine si toutes les tuiles sont vides.
+	 *
+	 * @return <code>true</code> si aucune tuile n'a été posée,
+	 * <code>false</code> sinon.
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Renvoie le contenu sous la forme d'un tableau ligne par ligne.
+	 *
+	 * @return Un nouveau tableau contenant les tuiles.
+	 */
+	int[] toArray();
+
+	/**
+	 * Créé une copie indépendante de ce stockage.
+	 *
+	 * @return Une copie.
+	 */
+	TileStorage copy();
+
+	/**
+	 * Calcule un code de hachage du contenu identique à celui renvoyé par
+	 * <code>Arrays.hashCode(toArray())</code>.
+	 *
+	 * @return Le code de hachage du contenu.
+	 */
+	default int contentHashCode() {
+		return Arrays.hashCode(toArray());
+	}
+
+	/**
+	 * Calcule une empreinte 64 bits du contenu.
+	 * <p>
+	 * Deux stockages ayant le même contenu ont la même empreinte quelle que
+	 * soit leur implémentation. Les implémentations modifiables conservent
+	 * l'empreinte jusqu'à la prochaine écriture.
+	 *
+	 * @return L'empreinte du contenu.
+	 */
+	default long contentHash() {
+		final int[] tiles = toArray();
+		return finish(hash(0, tiles, 0, tiles.length), tiles.length);
+	}
+
+	/**
+	 * Compare le contenu de ce stockage avec celui donné.
+	 *
+	 * @param other Stockage à comparer.
+	 * @return <code>true</code> si les tuiles sont identiques,
+	 * <code>false</code> sinon.
+	 */
+	default boolean contentEquals(TileStorage other) {
+		return Arrays.equals(toArray(), other.toArray());
+	}
+
+	/**
+	 * Créé un stockage vide adapté à la taille donnée.
+	 *
+	 * @param width Largeur de la couche.
+	 * @param height Hauteur de la couche.
+	 * @return Un stockage rempli de tuiles vides.
+	 */
+	static TileStorage create(int width, int height) {
+		if (isLarge(width, height)) {
+			return new ChunkedTileStorage(width, height);
+		} else {
+			final int[] tiles = new int[width * height];
+			Arrays.fill(tiles, TileLayer.EMPTY_TILE);
+			return new DenseTileStorage(width, tiles);
+		}
+	}
+
+	/**
+	 * Créé un stockage adapté à la taille donnée à partir des tuiles données.
+	 * <p>
+	 * Attention, pour les petites couches, le tableau est utilisé tel quel et
+	 * n'est pas copié.
+	 *
+	 * @param width Largeur de la couche.
+	 * @param height Hauteur de la couche.
+	 * @param tiles Tuiles de la couche.
+	 * @return Un stockage contenant les tuiles données.
+	 */
+	static TileStorage of(int width, int height, int[] tiles) {
+		if (isLarge(width, height)) {
+			return ChunkedTileStorage.fromArray(width, height, tiles);
+		} else {
+			return new DenseTileStorage(width, tiles);
+		}
+	}
+
+	/**
+	 * Créé un stockage adapté à la taille donnée contenant une copie des
+	 * tuiles données.
+	 *
+	 * @param width Largeur de la couche.
+	 * @param height Hauteur de la couche.
+	 * @param tiles Tuiles de la couche.
+	 * @return Un stockage contenant une copie des tuiles données.
+	 */
+	static TileStorage copyOf(int width, int height, int[] tiles) {
+		if (isLarge(width, height)) {
+			return ChunkedTileStorage.fromArray(width, height, tiles);
+		} else {
+			return new DenseTileStorage(width, tiles.clone());
+		}
+	}
+
+	/**
+	 * Ajoute les tuiles données à une empreinte en cours de calcul.
+	 * <p>
+	 * Les tours sont ceux de xxHash64 appliqués à chaque tuile. Une empreinte
+	 * commence à 0 et ne doit pas dépendre du découpage des tuiles en
+	 * plusieurs appels.
+	 *
+	 * @param hash Empreinte en cours, 0 pour commencer.
+	 * @param tiles Tuiles à ajouter.
+	 * @param offset Index de la première tuile.
+	 * @param length Nombre de tuiles à ajouter.
+	 * @return La nouvelle empreinte en cours.
+	 */
+	static long hash(long hash, int[] tiles, int offset, int length) {
+		final int end = offset + length;
+		long result = hash;
+		for (int index = offset; index < end; index++) {
+			result ^= Long.rotateLeft((tiles[index] & 0xFFFFFFFFL) * HASH_PRIME_1, 23) * HASH_PRIME_2 + HASH_PRIME_3;
+			result = Long.rotateLeft(result, 27) * HASH_PRIME_1 + HASH_PRIME_4;
+		}
+		return result;
+	}
+
+	/**
+	 * Termine le calcul d'une empreinte (mélange final de xxHash64).
+	 *
+	 * @param hash Empreinte en cours.
+	 * @param count Nombre total de tuiles.
+	 * @return L'empreinte finale, jamais égale à 0.
+	 */
+	static long finish(long hash, int count) {
+		long result = hash + count * 4L;
+		result ^= result >>> 33;
+		result *= HASH_PRIME_2;
+		result ^= result >>> 29;
+		result *= HASH_PRIME_3;
+		result ^= result >>> 32;
+		return result != 0 ? result : 1;
+	}
+
+	static boolean isLarge(int width, int height) {
+		return (long) width * height >= CHUNKED_STORAGE_THRESHOLD;
+	}
+
+}
@@ -34,6 +34,13 @@ public abstract class AbstractEditablePalette<T> implements EditablePalette, Has
 	@Getter @Setter
 	private boolean dirty;
 
+	/**
+	 * Compteur incrémenté à chaque fois qu'une tuile est redessinée, ajoutée
+	 * ou supprimée. Permet aux caches d'affichage de détecter les changements.
+	 */
+	@Getter
+	private int modificationCount;
+
 	@Override
 	public void setName(String name) {
 		this.name = name;
@@ -79,6 +86,7 @@ public abstract class AbstractEditablePalette<T> implements EditablePalette, Has
 			sources.add(index, layer);
 			tiles.add(index, render(layer));
 		}
+		modificationCount++;
 
 		fireSizeChanged(oldSize, getSize());
 	}
@@ -96,6 +104,7 @@ public abstract class AbstractEditablePalette<T> implements EditablePalette, Has
 			sources.remove(index);
 			tiles.remove(index);
 		}
+		modificationCount++;
 
 		fireSizeChanged(oldSize, getSize());
 	}
@@ -165,6 +174,7 @@ public abstract class AbstractEditablePalette<T> implements EditablePalette, Has
 
 	public void add(BufferedImage tile) {
 		tiles.add(tile);
+		modificationCount++;
 	}
 
 	public void addSources(List<T> sources) {
@@ -215,6 +225,7 @@ public abstract class AbstractEditablePalette<T> implements EditablePalette, Has
 		} else {
 			throw new IndexOutOfBoundsException("L'index " + index + " n'existe pas.");
 		}
+		modificationCount++;
 	}
 
 	protected abstract BufferedImage render(T t);
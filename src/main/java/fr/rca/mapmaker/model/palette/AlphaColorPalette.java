@@ -47,6 +47,11 @@ public class AlphaColorPalette extends ColorPalette {
 		}
 	}
 
+	@Override
+	public int getARGB(int tile) {
+		return toARGB(getColor(tile));
+	}
+
 	public void setSelectedAlpha(int alphaIndex) {
 		selectedAlpha = alphaIndex;
 	}
@@ -100,6 +100,32 @@ public class ColorPalette implements Palette, Iterable<Color> {
 		}
 	}
 
+	@Override
+	public boolean paintTile(int[] pixels, int width, int height, int tile, int x, int y, int size) {
+		RasterPainter.fill(pixels, width, height, getARGB(tile), x, y, size);
+		return true;
+	}
+
+	/**
+	 * Renvoie la couleur de la tuile donnée au format ARGB, pour l'écrire
+	 * directement dans une image.
+	 *
+	 * @param tile Tuile.
+	 * @return La couleur ou 0 (transparent) si la tuile n'est pas dessinée
+	 * par {@link #paintTile(Graphics, int, int, int, int)}.
+	 */
+	public int getARGB(int tile) {
+		return tile >= 0 && tile < colors.length
+				? toARGB(colors[tile])
+				: 0;
+	}
+
+	protected static int toARGB(Color color) {
+		return color != null && color.getAlpha() != 0
+				? color.getRGB()
+				: 0;
+	}
+
 	@Override
 	public int getTileSize() {
 		return 1;
@@ -50,6 +50,15 @@ public class EditableImagePalette extends AbstractEditablePalette<TileLayer> imp
 		}
 	}
 
+	@Override
+	public boolean paintTile(int[] pixels, int width, int height, int tile, int x, int y, int size) {
+		if (tile >= 0 && tile < tiles.size()) {
+			final BufferedImage image = tiles.get(tile);
+			RasterPainter.draw(pixels, width, height, image, 0, 0, image.getWidth(), image.getHeight(), x, y, size, false, false);
+		}
+		return true;
+	}
+
 	@Override
 	protected BufferedImage render(TileLayer layer) {
 		return renderer.renderImage(layer, palette, 1);
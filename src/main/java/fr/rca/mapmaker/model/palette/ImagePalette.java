@@ -123,6 +123,22 @@ public class ImagePalette implements Palette, Flippable {
 		}
 	}
 
+	@Override
+	public boolean paintTile(int[] pixels, int width, int height, int tile, int x, int y, int size) {
+		final boolean flipX = deformX1 != 0;
+		final boolean flipY = deformY1 != 0;
+		if ((flipX || flipY) && size != tileSize) {
+			// Le retournement n'est un miroir qu'à la taille d'origine.
+			return false;
+		}
+		if (tile >= 0 && tile < length) {
+			RasterPainter.draw(pixels, width, height, tiles,
+					(tile % this.width) * tileSize, (tile / this.width) * tileSize, tileSize, tileSize,
+					x, y, size, flipX, flipY);
+		}
+		return true;
+	}
+
 	@Override
 	public int getTileSize() {
 		return tileSize;
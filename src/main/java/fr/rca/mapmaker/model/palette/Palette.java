@@ -4,6 +4,26 @@ import java.awt.Graphics;
 
 public interface Palette {
 	void paintTile(Graphics g, int tile, int x, int y, int size);
+
+	/**
+	 * Dessine une tuile directement dans les pixels d'une image
+	 * <code>BufferedImage.TYPE_INT_ARGB</code>, sans passer par
+	 * <code>Graphics</code>. Les pixels en dehors de l'image sont ignorés.
+	 *
+	 * @param pixels Pixels de l'image (ARGB, une ligne après l'autre).
+	 * @param width Largeur de l'image.
+	 * @param height Hauteur de l'image.
+	 * @param tile Numéro de la tuile.
+	 * @param x Abscisse où dessiner la tuile.
+	 * @param y Ordonnée où dessiner la tuile.
+	 * @param size Taille de la tuile.
+	 * @return <code>true</code> si la tuile a été dessinée, <code>false</code>
+	 * si la palette ne sait pas le faire et qu'il faut utiliser
+	 * {@link #paintTile(Graphics, int, int, int, int)}.
+	 */
+	default boolean paintTile(int[] pixels, int width, int height, int tile, int x, int y, int size) {
+		return false;
+	}
 	int getTileSize();
 	int getTileSize(int tile);
 	int size();
@@ -88,6 +88,11 @@ public class PaletteReference implements Palette, EditablePalette, HasSizeChange
 		getPalette().paintTile(g, tile, x, y, size);
 	}
 
+	@Override
+	public boolean paintTile(int[] pixels, int width, int height, int tile, int x, int y, int size) {
+		return getPalette().paintTile(pixels, width, height, tile, x, y, size);
+	}
+
 	@Override
 	public int getTileSize() {
 		return getPalette().getTileSize();
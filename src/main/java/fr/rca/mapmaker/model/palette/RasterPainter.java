@@ -0,0 +1,146 @@
+package fr.rca.mapmaker.model.palette;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Écriture de tuiles directement dans les pixels d'une image ARGB.
+ * <p>
+ * Les pixels sont au format ARGB non prémultiplié (celui de
+ * <code>BufferedImage.TYPE_INT_ARGB</code>). Les couleurs translucides sont
+ * mélangées avec le fond comme le fait <code>AlphaComposite.SrcOver</code>.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+final class RasterPainter {
+
+	private RasterPainter() {
+	}
+
+	/**
+	 * Remplit un carré avec la couleur donnée.
+	 *
+	 * @param pixels Pixels de l'image de destination.
+	 * @param width Largeur de l'image.
+	 * @param height Hauteur de l'image.
+	 * @param argb Couleur au format ARGB.
+	 * @param x Abscisse du carré.
+	 * @param y Ordonnée du carré.
+	 * @param size Taille du carré.
+	 */
+	static void fill(int[] pixels, int width, int height, int argb, int x, int y, int size) {
+		final int alpha = argb >>> 24;
+		if (alpha == 0) {
+			return;
+		}
+		final int left = Math.max(x, 0);
+		final int right = Math.min(x + size, width);
+		final int top = Math.max(y, 0);
+		final int bottom = Math.min(y + size, height);
+		if (left >= right) {
+			return;
+		}
+
+		for (int row = top; row < bottom; row++) {
+			final int offset = row * width;
+			if (alpha == 0xFF) {
+				Arrays.fill(pixels, offset + left, offset + right, argb);
+			} else {
+				for (int index = offset + left; index < offset + right; index++) {
+					pixels[index] = blend(argb, pixels[index]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Dessine une partie d'une image dans un carré. L'agrandissement et la
+	 * réduction se font au plus proche voisin.
+	 *
+	 * @param pixels Pixels de l'image de destination.
+	 * @param width Largeur de l'image.
+	 * @param height Hauteur de l'image.
+	 * @param source Image contenant la tuile.
+	 * @param sourceX Abscisse de la tuile dans <code>source</code>.
+	 * @param sourceY Ordonnée de la tuile dans <code>source</code>.
+	 * @param sourceWidth Largeur de la tuile dans <code>source</code>.
+	 * @param sourceHeight Hauteur de la tuile dans <code>source</code>.
+	 * @param x Abscisse du carré.
+	 * @param y Ordonnée du carré.
+	 * @param size Taille du carré.
+	 * @param flipX <code>true</code> pour retourner horizontalement.
+	 * @param flipY <code>true</code> pour retourner verticalement.
+	 */
+	static void draw(int[] pixels, int width, int height, BufferedImage source,
+			int sourceX, int sourceY, int sourceWidth, int sourceHeight, int x, int y, int size,
+			boolean flipX, boolean flipY) {
+		final int left = Math.max(x, 0);
+		final int right = Math.min(x + size, width);
+		final int top = Math.max(y, 0);
+		final int bottom = Math.min(y + size, height);
+		if (left >= right || top >= bottom) {
+			return;
+		}
+
+		final int[] tile = source.getRGB(sourceX, sourceY, sourceWidth, sourceHeight, null, 0, sourceWidth);
+
+		final int[] columns = new int[right - left];
+		for (int column = left; column < right; column++) {
+			final int tileX = sourceCoordinate(column - x, sourceWidth, size);
+			columns[column - left] = flipX ? sourceWidth - 1 - tileX : tileX;
+		}
+
+		for (int row = top; row < bottom; row++) {
+			final int tileY = sourceCoordinate(row - y, sourceHeight, size);
+			final int tileOffset = (flipY ? sourceHeight - 1 - tileY : tileY) * sourceWidth;
+			final int offset = row * width + left;
+
+			for (int column = 0; column < columns.length; column++) {
+				final int argb = tile[tileOffset + columns[column]];
+				final int alpha = argb >>> 24;
+				if (alpha == 0xFF) {
+					pixels[offset + column] = argb;
+				} else if (alpha != 0) {
+					pixels[offset + column] = blend(argb, pixels[offset + column]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renvoie la coordonnée dans la tuile source du pixel de destination donné
+	 * en prenant le centre du pixel.
+	 */
+	private static int sourceCoordinate(int destination, int sourceSize, int size) {
+		return (int) (((long) destination * 2 + 1) * sourceSize / (size * 2L));
+	}
+
+	/**
+	 * Mélange une couleur translucide avec le fond.
+	 *
+	 * @param argb Couleur à dessiner.
+	 * @param background Couleur du fond.
+	 * @return La couleur résultante.
+	 */
+	static int blend(int argb, int background) {
+		final int alpha = argb >>> 24;
+		final int backgroundAlpha = background >>> 24;
+		if (backgroundAlpha == 0) {
+			return argb;
+		}
+
+		// Opacité du fond restant visible, sur 255 * 255.
+		final int remaining = backgroundAlpha * (255 - alpha);
+		final int resultAlpha = alpha * 255 + remaining;
+
+		int result = ((resultAlpha + 127) / 255) << 24;
+		for (int shift = 0; shift < 24; shift += 8) {
+			final int channel = (argb >> shift) & 0xFF;
+			final int backgroundChannel = (background >> shift) & 0xFF;
+			final int value = (channel * alpha * 255 + backgroundChannel * remaining + resultAlpha / 2) / resultAlpha;
+			result |= value << shift;
+		}
+		return result;
+	}
+
+}
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.ListModel;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
@@ -74,6 +75,13 @@ public class Project implements ListModel, HasColorPalette {
 
 	private Map<String, String> scripts = new HashMap<>();
 
+	/**
+	 * Compteur incrémenté à chaque fois qu'une carte est ajoutée, supprimée,
+	 * déplacée, renommée ou redimensionnée. Permet aux caches qui dépendent
+	 * des noms et des tailles des cartes de détecter les changements.
+	 */
+	private final AtomicInteger mapsModificationCount = new AtomicInteger();
+
 	public static Project createEmptyProject() {
 		final Project project = new Project();
 
@@ -173,6 +181,12 @@ public class Project implements ListModel, HasColorPalette {
 		propertyChangeSupport.firePropertyChange(CURRENT_LAYER_MODEL, oldPaletteMap, getCurrentPaletteMap());
 		propertyChangeSupport.firePropertyChange(CURRENT_SELECTED, oldSelected, isSelected());
 		propertyChangeSupport.firePropertyChange(CURRENT_INSTANCES, oldInstances, getInstances());
+
+		// La carte quittée n'est plus affichée, ses tuiles seront relues si
+		// besoin.
+		if (oldMap != null && oldMap != getCurrentMap()) {
+			oldMap.unloadTiles();
+		}
 	}
 
 	public void currentPaletteChanged() {
@@ -350,6 +364,17 @@ public class Project implements ListModel, HasColorPalette {
 		fireContentsChanged(Math.min(first, second), Math.max(first, second));
 	}
 
+	public int getMapsModificationCount() {
+		return mapsModificationCount.get();
+	}
+
+	/**
+	 * Signale qu'une carte du projet a été renommée ou redimensionnée.
+	 */
+	public void mapChanged() {
+		mapsModificationCount.incrementAndGet();
+	}
+
 	public List<String> getAnimationNames() {
 		return animationNames;
 	}
@@ -367,6 +392,7 @@ public class Project implements ListModel, HasColorPalette {
 	}
 
 	protected void fireIntervalAdded(int from, int to) {
+		mapChanged();
 		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, from, to);
 
 		for (final ListDataListener listener : listeners) {
@@ -375,6 +401,7 @@ public class Project implements ListModel, HasColorPalette {
 	}
 
 	protected void fireIntervalRemoved(int from, int to) {
+		mapChanged();
 		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.INTERVAL_REMOVED, from, to);
 
 		for (final ListDataListener listener : listeners) {
@@ -383,6 +410,7 @@ public class Project implements ListModel, HasColorPalette {
 	}
 
 	protected void fireContentsChanged(int from, int to) {
+		mapChanged();
 		final ListDataEvent event = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, from, to);
 
 		for (final ListDataListener listener : listeners) {
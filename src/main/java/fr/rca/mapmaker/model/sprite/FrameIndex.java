@@ -0,0 +1,92 @@
+package fr.rca.mapmaker.model.sprite;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numérotation des images distinctes d'une ou plusieurs animations.
+ * <p>
+ * Deux images égales (mêmes tuiles, mêmes extensions) reçoivent le même
+ * numéro, dans l'ordre de leur premier ajout. La recherche utilise
+ * l'empreinte conservée par chaque {@link TileLayer} : les tuiles d'une image
+ * ne sont parcourues qu'une fois, même si elle est ajoutée plusieurs fois.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class FrameIndex {
+
+	private final Map<TileLayer, Integer> indexes = new HashMap<>();
+	private final List<TileLayer> frames = new ArrayList<>();
+
+	/**
+	 * Ajoute l'image donnée si elle n'est pas déjà présente.
+	 *
+	 * @param frame Image à ajouter.
+	 * @return Le numéro de l'image ou celui de l'image égale déjà ajoutée.
+	 */
+	public int add(TileLayer frame) {
+		final Integer index = indexes.get(frame);
+		if (index != null) {
+			return index;
+		}
+		final int newIndex = frames.size();
+		indexes.put(frame, newIndex);
+		frames.add(frame);
+		return newIndex;
+	}
+
+	/**
+	 * Ajoute toutes les images des animations données, dans l'ordre des
+	 * angles.
+	 *
+	 * @param sprite Sprite contenant les animations.
+	 * @param animationNames Noms des animations à ajouter.
+	 */
+	public void addAll(Sprite sprite, List<String> animationNames) {
+		for (final String animationName : animationNames) {
+			final Animation animation = sprite.findByName(animationName);
+			if (animation == null) {
+				continue;
+			}
+			for (final double angle : animation.getAnglesWithValue()) {
+				for (final TileLayer frame : animation.getFrames(angle)) {
+					add(frame);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renvoie le numéro de l'image donnée.
+	 *
+	 * @param frame Image à chercher.
+	 * @return Le numéro de l'image ou -1 si elle n'a pas été ajoutée.
+	 */
+	public int indexOf(TileLayer frame) {
+		final Integer index = indexes.get(frame);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Images distinctes, dans l'ordre de leur numéro.
+	 *
+	 * @return Une liste non modifiable des images.
+	 */
+	public List<TileLayer> getFrames() {
+		return Collections.unmodifiableList(frames);
+	}
+
+	/**
+	 * Nombre d'images distinctes.
+	 *
+	 * @return Le nombre d'images.
+	 */
+	public int size() {
+		return frames.size();
+	}
+
+}
@@ -4,14 +4,17 @@ import fr.rca.mapmaker.model.map.TileLayer;
 import fr.rca.mapmaker.model.map.TileMap;
 import fr.rca.mapmaker.model.palette.ColorPalette;
 import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.operation.ScriptTarget;
 import fr.rca.mapmaker.operation.VariableDeclarationParser;
 import fr.rca.mapmaker.ui.ImageRenderer;
+import fr.rca.mapmaker.ui.InstanceImageCache;
 import fr.rca.mapmaker.util.CanBeDirty;
 import fr.rca.mapmaker.util.CleanEdge;
 import fr.rca.mapmaker.util.Random;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -30,7 +33,7 @@ import org.jetbrains.annotations.Nullable;
 @Getter
 @Setter
 @EqualsAndHashCode(callSuper = false)
-public class Instance extends JComponent implements CanBeDirty {
+public class Instance extends JComponent implements CanBeDirty, ScriptTarget {
 
 	private static final int TILE_SIZE = 1;
 
@@ -124,13 +127,37 @@ public class Instance extends JComponent implements CanBeDirty {
 
 		if (worker != null) {
 			worker.cancel(true);
+			worker = null;
 		}
+
+		final ColorPalette palette;
+		final Dimension dimension;
+		if (sprite != null && defaultLayer != null) {
+			palette = getPalette(sprite);
+			dimension = getDimension();
+
+			// Image déjà dessinée pour une autre instance.
+			final BufferedImage cachedImage = InstanceImageCache.INSTANCE.getIfPresent(sprite, defaultLayer, dimension, palette);
+			if (cachedImage != null) {
+				setImage(cachedImage);
+				return;
+			}
+		} else {
+			palette = null;
+			dimension = null;
+		}
+
 		SwingWorker<Void, Void> aWorker = new SwingWorker() {
 			BufferedImage result;
 
 			@Override
 			protected Void doInBackground() throws Exception {
-				result = drawLayer(sprite, defaultLayer);
+				if (palette != null) {
+					result = InstanceImageCache.INSTANCE.get(sprite, defaultLayer, dimension, palette,
+							() -> drawLayer(defaultLayer, palette, dimension));
+				} else {
+					result = drawEmptyLayer(sprite);
+				}
 				return null;
 			}
 
@@ -140,41 +167,42 @@ public class Instance extends JComponent implements CanBeDirty {
 					return;
 				}
 				worker = null;
-				image = result;
-				repaint();
+				setImage(result);
 			}
 		};
 		aWorker.execute();
 		worker = aWorker;
 	}
 
-	private BufferedImage drawLayer(final Sprite sprite, final TileLayer defaultLayer) {
-		final ImageRenderer renderer = new ImageRenderer();
-		if (sprite != null && defaultLayer != null) {
-			ColorPalette palette = sprite.getPalette();
-			if (palette == null) {
-				final TileMap map = getMap();
-				palette = map != null ? map.getColorPalette() : project.getColorPalette();
-			}
-			final TileLayer layerToDraw;
-			Dimension dimension = getDimension();
-			if (!dimension.equals(defaultLayer.getDimension())) {
-				layerToDraw = CleanEdge.builder()
-						.palette(palette)
-						.dimension(dimension)
-						.slope(true)
-						.cleanUpSmallDetails(true)
-						.build()
-						.shaded(defaultLayer);
-			} else {
-				layerToDraw = defaultLayer;
-			}
-			return renderer.renderImage(layerToDraw, palette, TILE_SIZE);
+	private ColorPalette getPalette(final Sprite sprite) {
+		final ColorPalette palette = sprite.getPalette();
+		if (palette != null) {
+			return palette;
+		}
+		final TileMap map = getMap();
+		return map != null ? map.getColorPalette() : project.getColorPalette();
+	}
+
+	private static BufferedImage drawLayer(final TileLayer defaultLayer, final ColorPalette palette, final Dimension dimension) {
+		final TileLayer layerToDraw;
+		if (!dimension.equals(defaultLayer.getDimension())) {
+			layerToDraw = CleanEdge.builder()
+					.palette(palette)
+					.dimension(dimension)
+					.slope(true)
+					.cleanUpSmallDetails(true)
+					.build()
+					.shaded(defaultLayer);
 		} else {
-			final int width = sprite != null ? sprite.getWidth() : 32;
-			final int height = sprite != null ? sprite.getHeight() : 32;
-			return renderer.renderImage(width, height, TILE_SIZE);
+			layerToDraw = defaultLayer;
 		}
+		return new ImageRenderer().renderImage(layerToDraw, palette, TILE_SIZE);
+	}
+
+	private static BufferedImage drawEmptyLayer(final Sprite sprite) {
+		final int width = sprite != null ? sprite.getWidth() : 32;
+		final int height = sprite != null ? sprite.getHeight() : 32;
+		return new ImageRenderer().renderImage(width, height, TILE_SIZE);
 	}
 
 	public void updateBounds() {
@@ -194,8 +222,45 @@ public class Instance extends JComponent implements CanBeDirty {
 		setBounds(translationX, translationY, dimension.width, dimension.height);
 	}
 
+	/**
+	 * Change l'image affichée et prévient les écouteurs de la propriété
+	 * <code>image</code>.
+	 *
+	 * @param image Nouvelle image.
+	 */
+	public void setImage(BufferedImage image) {
+		final BufferedImage oldImage = this.image;
+		this.image = image;
+		firePropertyChange("image", oldImage, image);
+	}
+
+	/**
+	 * Prévient les écouteurs de la propriété <code>bounds</code> à chaque
+	 * déplacement ou redimensionnement.
+	 * <p>
+	 * Les instances ne sont pas ajoutées à l'interface, elles sont dessinées
+	 * par un {@link fr.rca.mapmaker.ui.InstanceLayer} qui utilise cette
+	 * propriété pour mettre à jour son index.
+	 */
+	@Override
+	public void setBounds(int x, int y, int width, int height) {
+		final Rectangle oldBounds = getBounds();
+		super.setBounds(x, y, width, height);
+		firePropertyChange("bounds", oldBounds, getBounds());
+	}
+
 	@Override
 	protected void paintComponent(Graphics g) {
+		paintInstance(g);
+	}
+
+	/**
+	 * Dessine l'instance.
+	 *
+	 * @param g Contexte graphique dont l'origine est le coin supérieur gauche
+	 * de l'instance.
+	 */
+	public void paintInstance(Graphics g) {
 		final Dimension dimension = getDimension();
 
 		if (!getPreferredSize().equals(dimension)) {
@@ -224,7 +289,7 @@ public class Instance extends JComponent implements CanBeDirty {
 	 */
 	public void redraw() {
 		updateSprite();
-		repaint();
+		firePropertyChange("image", null, image);
 	}
 
 	public void setIndex(int index) {
@@ -298,8 +363,8 @@ public class Instance extends JComponent implements CanBeDirty {
 	public void setScript(String script) {
 		this.script = script;
 		setDirty(dirty);
-		// Repaint appelle getDimension qui va mettre à jour les variables.
-		repaint();
+		// Le dessin appelle getDimension qui va mettre à jour les variables.
+		firePropertyChange("script", null, script);
 	}
 
 	@NotNull
@@ -334,9 +399,49 @@ public class Instance extends JComponent implements CanBeDirty {
 		return new Dimension(width, height);
 	}
 
+	/**
+	 * Zone occupée par l'instance sur la carte, sans tenir compte du zoom.
+	 * <p>
+	 * Utilise les variables <code>width</code> et <code>height</code> calculées
+	 * lors du dernier appel à {@link #getDimension()} sans exécuter à nouveau
+	 * le script. Lorsque le script change cette zone, la propriété
+	 * <code>mapBounds</code> est modifiée.
+	 *
+	 * @return La zone occupée par l'instance.
+	 */
+	public Rectangle getMapBounds() {
+		if (point == null) {
+			return new Rectangle();
+		}
+		final Sprite sprite = getSprite();
+		if (sprite == null) {
+			return new Rectangle(point.x, point.y, 32, 32);
+		}
+		final Double variableWidth = variables.get("width");
+		final Double variableHeight = variables.get("height");
+		return new Rectangle(point.x, point.y,
+				variableWidth == null ? sprite.getWidth() : variableWidth.intValue(),
+				variableHeight == null ? sprite.getHeight() : variableHeight.intValue());
+	}
+
 	public void runScript() {
+		final Rectangle oldMapBounds = getMapBounds();
 		variables.clear();
 		VariableDeclarationParser.parse(script, project).execute(this);
+		firePropertyChange("mapBounds", oldMapBounds, getMapBounds());
+	}
+
+	/**
+	 * Remplace les variables de l'instance, par exemple par celles calculées
+	 * par {@link fr.rca.mapmaker.operation.ScriptRunner}.
+	 *
+	 * @param variables Nouvelles variables.
+	 */
+	public void setVariables(Map<String, Double> variables) {
+		final Rectangle oldMapBounds = getMapBounds();
+		this.variables.clear();
+		this.variables.putAll(variables);
+		firePropertyChange("mapBounds", oldMapBounds, getMapBounds());
 	}
 
 }
@@ -0,0 +1,142 @@
+package fr.rca.mapmaker.model.sprite;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grille uniforme rangeant des instances selon leur zone.
+ * <p>
+ * Chaque instance est ajoutée à toutes les cellules touchées par sa zone.
+ * Une instance vide (largeur ou hauteur nulle) est rangée dans la cellule de
+ * son coin. La grille ne connaît pas la zone des instances : les
+ * recherches renvoient des candidats qui doivent encore être comparés à la
+ * zone cherchée.
+ * <p>
+ * Utilisée par {@link InstanceList} (coordonnées de la carte) et par
+ * {@link fr.rca.mapmaker.ui.InstanceLayer} (coordonnées du calque).
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceGrid {
+
+	/**
+	 * Taille (en pixels) d'une cellule.
+	 */
+	private final int cellSize;
+
+	/**
+	 * Instances touchant chaque cellule. La clé est calculée par
+	 * {@link #cellKey(int, int)}.
+	 */
+	private final Map<Long, List<Instance>> cells = new HashMap<>();
+
+	public InstanceGrid(int cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Ajoute une instance.
+	 *
+	 * @param instance Instance à ajouter.
+	 * @param bounds Zone de l'instance.
+	 */
+	public void add(Instance instance, Rectangle bounds) {
+		final int endColumn = Math.floorDiv(bounds.x + Math.max(bounds.width, 1) - 1, cellSize);
+		final int endRow = Math.floorDiv(bounds.y + Math.max(bounds.height, 1) - 1, cellSize);
+		for (int row = Math.floorDiv(bounds.y, cellSize); row <= endRow; row++) {
+			for (int column = Math.floorDiv(bounds.x, cellSize); column <= endColumn; column++) {
+				cells.computeIfAbsent(cellKey(column, row), key -> new ArrayList<>()).add(instance);
+			}
+		}
+	}
+
+	/**
+	 * Retire une instance.
+	 *
+	 * @param instance Instance à retirer.
+	 * @param bounds Zone donnée lors de l'ajout de l'instance.
+	 */
+	public void remove(Instance instance, Rectangle bounds) {
+		final int endColumn = Math.floorDiv(bounds.x + Math.max(bounds.width, 1) - 1, cellSize);
+		final int endRow = Math.floorDiv(bounds.y + Math.max(bounds.height, 1) - 1, cellSize);
+		for (int row = Math.floorDiv(bounds.y, cellSize); row <= endRow; row++) {
+			for (int column = Math.floorDiv(bounds.x, cellSize); column <= endColumn; column++) {
+				final long key = cellKey(column, row);
+				final List<Instance> cell = cells.get(key);
+				if (cell == null) {
+					continue;
+				}
+				final Iterator<Instance> iterator = cell.iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next() == instance) {
+						iterator.remove();
+						break;
+					}
+				}
+				if (cell.isEmpty()) {
+					cells.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Vide la grille.
+	 */
+	public void clear() {
+		cells.clear();
+	}
+
+	/**
+	 * Renvoie les instances de la cellule contenant le point donné.
+	 *
+	 * @param x Abscisse du point.
+	 * @param y Ordonnée du point.
+	 * @return Les candidats, dans l'ordre d'ajout.
+	 */
+	public List<Instance> candidatesAt(int x, int y) {
+		final List<Instance> cell = cells.get(cellKey(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize)));
+		return cell != null ? Collections.unmodifiableList(cell) : Collections.<Instance>emptyList();
+	}
+
+	/**
+	 * Renvoie les instances des cellules touchant la zone donnée. Chaque
+	 * instance n'est renvoyée qu'une fois.
+	 *
+	 * @param area Zone cherchée (non vide).
+	 * @return Les candidats, dans un ordre quelconque.
+	 */
+	public List<Instance> candidatesIn(Rectangle area) {
+		final List<Instance> result = new ArrayList<>();
+		if (area.isEmpty()) {
+			return result;
+		}
+		final Map<Instance, Boolean> found = new IdentityHashMap<>();
+		final int endColumn = Math.floorDiv(area.x + area.width - 1, cellSize);
+		final int endRow = Math.floorDiv(area.y + area.height - 1, cellSize);
+		for (int row = Math.floorDiv(area.y, cellSize); row <= endRow; row++) {
+			for (int column = Math.floorDiv(area.x, cellSize); column <= endColumn; column++) {
+				final List<Instance> cell = cells.get(cellKey(column, row));
+				if (cell == null) {
+					continue;
+				}
+				for (final Instance instance : cell) {
+					if (found.put(instance, Boolean.TRUE) == null) {
+						result.add(instance);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private static long cellKey(int column, int row) {
+		return ((long) column << 32) | (row & 0xFFFFFFFFL);
+	}
+}
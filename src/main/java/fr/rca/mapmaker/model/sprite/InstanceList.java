@@ -0,0 +1,248 @@
+package fr.rca.mapmaker.model.sprite;
+
+import java.awt.Rectangle;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Liste des instances d'une carte, indexées par leur position.
+ * <p>
+ * Les instances sont rangées dans une {@link InstanceGrid} de cellules de
+ * {@link #CELL_SIZE} pixels selon leur zone sur la carte (voir
+ * {@link Instance#getMapBounds()}). La grille est mise à jour à chaque ajout,
+ * suppression, déplacement ou changement de taille d'une instance et permet
+ * de chercher les instances d'une zone sans parcourir toute la liste.
+ * <p>
+ * La liste triée par position (utilisée par les exports) est conservée
+ * jusqu'à la prochaine modification.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceList extends AbstractList<Instance> implements RandomAccess {
+
+	/**
+	 * Taille (en pixels) d'une cellule de la grille.
+	 */
+	private static final int CELL_SIZE = 256;
+
+	/**
+	 * Ordre des instances triées par abscisse puis par ordonnée.
+	 */
+	private static final Comparator<Instance> LOCATION_ORDER = Comparator
+			.comparingInt((Instance instance) -> instance.getPoint().x)
+			.thenComparingInt(instance -> instance.getPoint().y);
+
+	private final ArrayList<Instance> instances;
+
+	/**
+	 * Zone de chaque instance au moment de son indexation.
+	 */
+	private final Map<Instance, Rectangle> indexedBounds = new IdentityHashMap<>();
+
+	/**
+	 * Nombre d'occurrences de chaque instance dans la liste.
+	 */
+	private final Map<Instance, Integer> occurrences = new IdentityHashMap<>();
+
+	private final InstanceGrid grid = new InstanceGrid(CELL_SIZE);
+
+	private @Nullable List<Instance> instancesByLocation;
+
+	private final PropertyChangeListener instanceListener = this::instanceChanged;
+
+	public InstanceList() {
+		this.instances = new ArrayList<>();
+	}
+
+	public InstanceList(Collection<Instance> instances) {
+		this.instances = new ArrayList<>(instances.size());
+		for (final Instance instance : instances) {
+			this.instances.add(instance);
+			index(instance);
+		}
+	}
+
+	@Override
+	public Instance get(int index) {
+		return instances.get(index);
+	}
+
+	@Override
+	public int size() {
+		return instances.size();
+	}
+
+	@Override
+	public Instance set(int index, Instance instance) {
+		final Instance oldInstance = instances.set(index, instance);
+		if (oldInstance != instance) {
+			unindex(oldInstance);
+			index(instance);
+		}
+		instancesByLocation = null;
+		return oldInstance;
+	}
+
+	@Override
+	public void add(int index, Instance instance) {
+		instances.add(index, instance);
+		index(instance);
+		instancesByLocation = null;
+		modCount++;
+	}
+
+	@Override
+	public Instance remove(int index) {
+		final Instance instance = instances.remove(index);
+		unindex(instance);
+		instancesByLocation = null;
+		modCount++;
+		return instance;
+	}
+
+	/**
+	 * Trie directement les instances : le tri ne change pas leur position sur
+	 * la carte, la grille n'a pas besoin d'être mise à jour.
+	 */
+	@Override
+	public void sort(Comparator<? super Instance> comparator) {
+		instances.sort(comparator);
+		instancesByLocation = null;
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		for (final Instance instance : instances) {
+			instance.removePropertyChangeListener(instanceListener);
+		}
+		instances.clear();
+		indexedBounds.clear();
+		occurrences.clear();
+		grid.clear();
+		instancesByLocation = null;
+		modCount++;
+	}
+
+	/**
+	 * Vérifie d'abord si l'objet donné est l'une des instances de cette liste
+	 * avant de le comparer à chaque instance.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return indexedBounds.containsKey(o) || super.contains(o);
+	}
+
+	/**
+	 * Renvoie les instances touchant la zone donnée.
+	 *
+	 * @param area Zone de la carte (en pixels).
+	 * @return Les instances de la zone, dans un ordre quelconque.
+	 */
+	public List<Instance> getInstancesIn(Rectangle area) {
+		final List<Instance> result = grid.candidatesIn(area);
+		result.removeIf(instance -> !touches(indexedBounds.get(instance), area));
+		return result;
+	}
+
+	/**
+	 * Indique si une instance touche la zone donnée. Une instance vide
+	 * (largeur ou hauteur nulle, ou sans position) est réduite à son coin.
+	 *
+	 * @param bounds Zone de l'instance.
+	 * @param area Zone recherchée.
+	 * @return <code>true</code> si l'instance touche la zone.
+	 */
+	private static boolean touches(Rectangle bounds, Rectangle area) {
+		return bounds.isEmpty()
+				? area.contains(bounds.x, bounds.y)
+				: bounds.intersects(area);
+	}
+
+	/**
+	 * Renvoie les instances triées par abscisse puis par ordonnée. Les
+	 * instances à la même position restent dans l'ordre de la liste.
+	 *
+	 * @return Une liste non modifiable des instances.
+	 */
+	public List<Instance> getInstancesByLocation() {
+		List<Instance> result = instancesByLocation;
+		if (result == null) {
+			final ArrayList<Instance> sorted = new ArrayList<>(instances);
+			sorted.sort(LOCATION_ORDER);
+			result = Collections.unmodifiableList(sorted);
+			instancesByLocation = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Renvoie les instances données triées par abscisse puis par ordonnée.
+	 *
+	 * @param instances Instances à trier.
+	 * @return Une nouvelle liste triée. Le tri d'une {@link InstanceList} est
+	 * réutilisé tant qu'elle n'est pas modifiée.
+	 */
+	public static List<Instance> sortByLocation(List<Instance> instances) {
+		if (instances instanceof InstanceList) {
+			return new ArrayList<>(((InstanceList) instances).getInstancesByLocation());
+		}
+		final ArrayList<Instance> sorted = new ArrayList<>(instances);
+		sorted.sort(LOCATION_ORDER);
+		return sorted;
+	}
+
+	private void instanceChanged(PropertyChangeEvent event) {
+		if ("pointInfo".equals(event.getPropertyName())
+				|| "bounds".equals(event.getPropertyName())
+				|| "mapBounds".equals(event.getPropertyName())) {
+			final Instance instance = (Instance) event.getSource();
+			final Rectangle oldBounds = indexedBounds.get(instance);
+			if (oldBounds != null && !oldBounds.equals(instance.getMapBounds())) {
+				grid.remove(instance, oldBounds);
+				addToGrid(instance);
+				instancesByLocation = null;
+			}
+		}
+	}
+
+	private void index(Instance instance) {
+		if (occurrences.merge(instance, 1, Integer::sum) > 1) {
+			// Instance présente plusieurs fois dans la liste.
+			return;
+		}
+		instance.addPropertyChangeListener(instanceListener);
+		addToGrid(instance);
+	}
+
+	private void unindex(Instance instance) {
+		final Integer count = occurrences.get(instance);
+		if (count == null) {
+			return;
+		}
+		if (count > 1) {
+			// Il reste une autre occurrence de l'instance.
+			occurrences.put(instance, count - 1);
+			return;
+		}
+		occurrences.remove(instance);
+		instance.removePropertyChangeListener(instanceListener);
+		grid.remove(instance, indexedBounds.remove(instance));
+	}
+
+	private void addToGrid(Instance instance) {
+		final Rectangle bounds = instance.getMapBounds();
+		indexedBounds.put(instance, bounds);
+		grid.add(instance, bounds);
+	}
+}
@@ -0,0 +1,236 @@
+package fr.rca.mapmaker.operation;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forme compilée d'une {@link Operation}.
+ * <p>
+ * Les instructions sont aplaties en un tableau de codes et un tableau de
+ * constantes, puis exécutées sur une pile de <code>double</code> dont la
+ * taille est calculée à la compilation. Une évaluation n'alloue aucun objet
+ * (pas de <code>Deque</code> ni de <code>Double</code>).
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+final class CompiledOperation {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompiledOperation.class);
+
+	private static final int CONSTANT = 0;
+	private static final int X = 1;
+	private static final int ADD = 2;
+	private static final int SUBSTRACT = 3;
+	private static final int MULTIPLY = 4;
+	private static final int DIVIDE = 5;
+	private static final int POW = 6;
+	private static final int NEGATIVE = 7;
+	private static final int MINIMUM = 8;
+	private static final int MAXIMUM = 9;
+	private static final int COSINUS = 10;
+	private static final int SINUS = 11;
+	private static final int SQUARE_ROOT = 12;
+
+	/**
+	 * Code de chaque instruction.
+	 */
+	private final int[] codes;
+
+	/**
+	 * Valeur des constantes, à l'index de l'instruction correspondante.
+	 */
+	private final double[] constants;
+
+	/**
+	 * Taille maximale atteinte par la pile pendant l'exécution.
+	 */
+	private final int stackSize;
+
+	/**
+	 * Pile réutilisée d'une exécution à l'autre. Elle est retirée pendant
+	 * l'exécution pour que 2 threads ne l'utilisent jamais en même temps.
+	 */
+	private final AtomicReference<double[]> sharedStack = new AtomicReference<>();
+
+	private CompiledOperation(int[] codes, double[] constants, int stackSize) {
+		this.codes = codes;
+		this.constants = constants;
+		this.stackSize = stackSize;
+		this.sharedStack.set(new double[stackSize]);
+	}
+
+	/**
+	 * Compile la liste d'instructions donnée.
+	 *
+	 * @param instructions Instructions à compiler.
+	 * @return La forme compilée des instructions ou <code>null</code> si une
+	 * des instructions n'est pas supportée (instructions modifiant un sprite,
+	 * zoom, instruction inconnue) ou si la pile ne serait pas équilibrée.
+	 */
+	static @Nullable CompiledOperation compile(List<Instruction> instructions) {
+		final int[] codes = new int[instructions.size()];
+		final double[] constants = new double[instructions.size()];
+
+		int depth = 0;
+		int stackSize = 0;
+		for (int index = 0; index < codes.length; index++) {
+			final Instruction instruction = instructions.get(index);
+			final int code = codeOf(instruction);
+			if (code < 0) {
+				return null;
+			}
+			codes[index] = code;
+			if (code == CONSTANT) {
+				constants[index] = ((Constant) instruction).getValue();
+			}
+
+			final int arguments = argumentCount(code);
+			if (depth < arguments) {
+				// La version interprétée lève une exception dans ce cas.
+				return null;
+			}
+			depth = depth - arguments + 1;
+			stackSize = Math.max(stackSize, depth);
+		}
+		return new CompiledOperation(codes, constants, stackSize);
+	}
+
+	/**
+	 * Exécute l'opération.
+	 *
+	 * @param x Valeur de x.
+	 * @return Le résultat de l'opération ou 0 si elle est vide.
+	 */
+	double execute(double x) {
+		double[] stack = sharedStack.getAndSet(null);
+		if (stack == null) {
+			// Exécution concurrente.
+			stack = new double[stackSize];
+		}
+		try {
+			return execute(x, stack);
+		} finally {
+			sharedStack.set(stack);
+		}
+	}
+
+	private double execute(double x, double[] stack) {
+		int top = -1;
+		for (int index = 0; index < codes.length; index++) {
+			switch (codes[index]) {
+				case CONSTANT:
+					stack[++top] = constants[index];
+					break;
+				case X:
+					stack[++top] = x;
+					break;
+				case ADD:
+					top--;
+					stack[top] = stack[top] + stack[top + 1];
+					break;
+				case SUBSTRACT:
+					top--;
+					stack[top] = stack[top] - stack[top + 1];
+					break;
+				case MULTIPLY:
+					top--;
+					stack[top] = stack[top] * stack[top + 1];
+					break;
+				case DIVIDE:
+					top--;
+					if (stack[top + 1] == 0.0) {
+						stack[top] = 0.0;
+						LOGGER.warn("[OPERATION] Tentative de division par zéro.");
+					} else {
+						stack[top] = stack[top] / stack[top + 1];
+					}
+					break;
+				case POW:
+					top--;
+					stack[top] = Math.pow(stack[top], stack[top + 1]);
+					break;
+				case NEGATIVE:
+					stack[top] = -stack[top];
+					break;
+				case MINIMUM:
+					top--;
+					if (!(stack[top] < stack[top + 1])) {
+						stack[top] = stack[top + 1];
+					}
+					break;
+				case MAXIMUM:
+					top--;
+					if (!(stack[top] > stack[top + 1])) {
+						stack[top] = stack[top + 1];
+					}
+					break;
+				case COSINUS:
+					stack[top] = Math.cos(stack[top]);
+					break;
+				case SINUS:
+					stack[top] = Math.sin(stack[top]);
+					break;
+				case SQUARE_ROOT:
+					stack[top] = Math.sqrt(stack[top]);
+					break;
+				default:
+					throw new IllegalStateException("Code inconnu : " + codes[index]);
+			}
+		}
+		return top >= 0 ? stack[top] : 0.0;
+	}
+
+	/**
+	 * Code correspondant à l'instruction donnée. Seules les classes exactes
+	 * sont reconnues : une sous-classe peut redéfinir <code>execute</code>.
+	 */
+	private static int codeOf(Instruction instruction) {
+		final Class<?> type = instruction.getClass();
+		if (type == Constant.class) {
+			return CONSTANT;
+		} else if (type == Variable.class) {
+			return X;
+		} else if (type == Add.class) {
+			return ADD;
+		} else if (type == Substract.class) {
+			return SUBSTRACT;
+		} else if (type == Multiply.class) {
+			return MULTIPLY;
+		} else if (type == Divide.class) {
+			return DIVIDE;
+		} else if (type == Pow.class) {
+			return POW;
+		} else if (type == Negative.class) {
+			return NEGATIVE;
+		} else if (type == Minimum.class) {
+			return MINIMUM;
+		} else if (type == Maximum.class) {
+			return MAXIMUM;
+		} else if (type == Cosinus.class) {
+			return COSINUS;
+		} else if (type == Sinus.class) {
+			return SINUS;
+		} else if (type == SquareRoot.class) {
+			return SQUARE_ROOT;
+		}
+		return -1;
+	}
+
+	private static int argumentCount(int code) {
+		switch (code) {
+			case CONSTANT:
+			case X:
+				return 0;
+			case NEGATIVE:
+			case COSINUS:
+			case SINUS:
+			case SQUARE_ROOT:
+				return 1;
+			default:
+				return 2;
+		}
+	}
+}
@@ -25,7 +25,7 @@ public class Constant implements Instruction {
 	}
 	
 	@Override
-	public void execute(double x, Deque<Double> stack, fr.rca.mapmaker.model.sprite.Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		stack.push(value);
 	}
 
@@ -19,7 +19,7 @@ public class Cosinus implements Function {
 	}
 
 	@Override
-	public void execute(double x, Deque<Double> stack, fr.rca.mapmaker.model.sprite.Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		stack.push(Math.cos(stack.pop()));
 	}
 
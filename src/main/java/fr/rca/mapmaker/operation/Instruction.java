@@ -1,6 +1,5 @@
 package fr.rca.mapmaker.operation;
 
-import fr.rca.mapmaker.model.sprite.Instance;
 import java.io.Serializable;
 import java.util.Deque;
 
@@ -17,9 +16,9 @@ public interface Instruction extends Serializable {
 	 * 
 	 * @param x Valeur de x.
 	 * @param stack Pile d'exécution.
-	 * @param instance Instance à modifier.
+	 * @param instance Instance ou état d'instance à modifier.
 	 */
-	void execute(double x, Deque<Double> stack, Instance instance);
+	void execute(double x, Deque<Double> stack, ScriptTarget instance);
 	
 	ByteCode toByteCode();
 
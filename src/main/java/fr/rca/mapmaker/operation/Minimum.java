@@ -20,7 +20,7 @@ public class Minimum implements Function {
 	}
 
 	@Override
-	public void execute(double x, Deque<Double> stack, fr.rca.mapmaker.model.sprite.Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		final Double o2 = stack.pop();
 		final Double o1 = stack.pop();
 		
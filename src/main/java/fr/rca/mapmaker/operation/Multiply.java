@@ -11,7 +11,7 @@ import java.util.Deque;
 public class Multiply implements Operator {
 
 	@Override
-	public void execute(double x, Deque<Double> stack, fr.rca.mapmaker.model.sprite.Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		final Double o2 = stack.pop();
 		final Double o1 = stack.pop();
 		
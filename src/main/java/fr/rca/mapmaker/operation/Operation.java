@@ -2,7 +2,6 @@ package fr.rca.mapmaker.operation;
 
 import fr.rca.mapmaker.exception.Exceptions;
 import fr.rca.mapmaker.io.common.Streams;
-import fr.rca.mapmaker.model.sprite.Instance;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayDeque;
@@ -25,6 +24,17 @@ public class Operation {
 	 */
 	private final List<Instruction> instructions;
 
+	/**
+	 * Forme compilée des instructions, créée à la première exécution.
+	 */
+	private volatile CompiledOperation compiledOperation;
+
+	/**
+	 * Vaut <code>true</code> si les instructions ont déjà été compilées (ou
+	 * si la compilation n'est pas possible).
+	 */
+	private volatile boolean compiled;
+
 	public Operation() {
 		this.instructions = Collections.emptyList();
 	}
@@ -43,6 +53,11 @@ public class Operation {
 	 * @return Le résultat de cette opération.
 	 */
 	public double execute(double x) {
+		final CompiledOperation compiledOperation = getCompiledOperation();
+		if(compiledOperation != null) {
+			return compiledOperation.execute(x);
+		}
+
 		final Deque<Double> stack = new ArrayDeque<Double>();
 
 		for(final Instruction instruction : instructions) {
@@ -59,9 +74,9 @@ public class Operation {
 	
 	/**
 	 * Exécute cette opération pour l'instance donnée.
-	 * @param instance Instance à modifier.
+	 * @param instance Instance ou état d'instance à modifier.
 	 */
-	public void execute(final Instance instance) {
+	public void execute(final ScriptTarget instance) {
 		final Deque<Double> stack = new ArrayDeque<Double>() {
 
 			@Override
@@ -80,6 +95,19 @@ public class Operation {
 		}
 	}
 
+	/**
+	 * Renvoie la forme compilée de cette opération.
+	 * @return La forme compilée ou <code>null</code> si les instructions ne
+	 * peuvent être exécutées que par la pile d'objets.
+	 */
+	private CompiledOperation getCompiledOperation() {
+		if(!compiled) {
+			compiledOperation = CompiledOperation.compile(OperationParser.optimize(instructions));
+			compiled = true;
+		}
+		return compiledOperation;
+	}
+
 	public List<Instruction> getInstructions() {
 		return instructions;
 	}
@@ -1,9 +1,12 @@
 package fr.rca.mapmaker.operation;
 
 import static fr.rca.mapmaker.operation.Instructions.INSTRUCTIONS;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -76,7 +79,7 @@ public final class OperationParser {
 		RETURN
 	}
 
-	private HashMap<String, Instruction> instructions;
+	private final Map<String, Instruction> instructions;
 
 	/**
 	 * Cet objet n'est pas instantiable, utilisez directement ses méthodes.
@@ -85,6 +88,17 @@ public final class OperationParser {
 		this.instructions = new HashMap<>(Instructions.INSTRUCTIONS);
 	}
 
+	/**
+	 * Crée un analyseur utilisant la table d'instructions donnée. La table
+	 * n'est pas copiée : elle peut être partagée entre plusieurs analyseurs
+	 * tant qu'elle n'est plus modifiée.
+	 *
+	 * @param instructions Instructions par nom (en minuscules).
+	 */
+	public OperationParser(Map<String, Instruction> instructions) {
+		this.instructions = instructions;
+	}
+
 	/**
 	 * Créé une opération à partir de sa représentation sous forme de texte.
 	 *
@@ -153,6 +167,193 @@ public final class OperationParser {
 		return result;
 	}
 
+	/**
+	 * Simplifie l'opération donnée.
+	 * <p>
+	 * Les sous-expressions constantes sont calculées (par exemple
+	 * <code>pi / 2</code>) et les identités algébriques simples sont
+	 * appliquées (<code>x * 1</code>, <code>x + 0</code>, <code>x ^ 2</code>,
+	 * etc.). L'opération obtenue donne le même résultat mais contient moins
+	 * d'instructions, elle est donc plus rapide à exécuter et plus courte une
+	 * fois exportée avec {@link Operation#toByteArray()}.
+	 *
+	 * @param operation Opération à simplifier.
+	 * @return L'opération simplifiée ou <code>operation</code> si ses
+	 * instructions ne sont pas équilibrées.
+	 */
+	public static @NotNull Operation optimize(@NotNull Operation operation) {
+		final List<Instruction> instructions = operation.getInstructions();
+		final List<Instruction> optimized = optimize(instructions);
+		return optimized != instructions
+				? new Operation(optimized)
+				: operation;
+	}
+
+	/**
+	 * Simplifie la liste d'instructions donnée.
+	 * <p>
+	 * Les instructions modifiant un sprite ne sont jamais déplacées : toutes
+	 * les expressions en attente sont écrites avant elles, dans le même ordre.
+	 *
+	 * @param instructions Instructions à simplifier.
+	 * @return Les instructions simplifiées ou <code>instructions</code> si la
+	 * pile n'est pas équilibrée.
+	 */
+	static @NotNull List<Instruction> optimize(@NotNull List<Instruction> instructions) {
+		final List<Instruction> result = new ArrayList<>();
+		final List<Expression> stack = new ArrayList<>();
+
+		for (final Instruction instruction : instructions) {
+			final int arguments = getNumberOfArguments(instruction);
+			if (arguments < 0) {
+				// Instruction avec effet de bord : l'ordre doit être conservé.
+				for (final Expression expression : stack) {
+					result.addAll(expression.instructions);
+				}
+				stack.clear();
+				result.add(instruction);
+				continue;
+			}
+			if (stack.size() < arguments) {
+				return instructions;
+			}
+
+			final List<Expression> operands = new ArrayList<>(stack.subList(stack.size() - arguments, stack.size()));
+			stack.subList(stack.size() - arguments, stack.size()).clear();
+			stack.add(simplify(instruction, operands));
+		}
+
+		for (final Expression expression : stack) {
+			result.addAll(expression.instructions);
+		}
+		return result;
+	}
+
+	/**
+	 * Nombre de valeurs retirées de la pile par l'instruction donnée.
+	 *
+	 * @param instruction Instruction.
+	 * @return Le nombre d'arguments ou -1 si l'instruction a un effet de bord
+	 * ou n'est pas connue.
+	 */
+	private static int getNumberOfArguments(Instruction instruction) {
+		final Class<?> type = instruction.getClass();
+		if (type == Constant.class || type == Variable.class) {
+			return 0;
+		} else if (type == Negative.class || type == Cosinus.class
+				|| type == Sinus.class || type == SquareRoot.class) {
+			return 1;
+		} else if (type == Add.class || type == Substract.class
+				|| type == Multiply.class || type == Divide.class
+				|| type == Pow.class || type == Minimum.class
+				|| type == Maximum.class) {
+			return 2;
+		}
+		return -1;
+	}
+
+	private static Expression simplify(Instruction instruction, List<Expression> operands) {
+		if (instruction instanceof Constant) {
+			return new Expression((Constant) instruction);
+		}
+
+		// Calcul des expressions constantes.
+		boolean constant = !(instruction instanceof Variable);
+		for (final Expression operand : operands) {
+			constant &= operand.isConstant();
+		}
+		if (constant && !(instruction instanceof Divide && operands.get(1).isConstant(0.0))) {
+			final Deque<Double> stack = new ArrayDeque<>();
+			for (final Expression operand : operands) {
+				stack.push(operand.getValue());
+			}
+			instruction.execute(0.0, stack, null);
+			return new Expression(new Constant(stack.pop()));
+		}
+
+		final Expression left = operands.isEmpty() ? null : operands.get(0);
+		final Expression right = operands.size() < 2 ? null : operands.get(1);
+
+		if (instruction instanceof Add) {
+			if (right.isConstant(0.0)) {
+				return left;
+			} else if (left.isConstant(0.0)) {
+				return right;
+			}
+		} else if (instruction instanceof Substract) {
+			if (right.isConstant(0.0)) {
+				return left;
+			} else if (left.isConstant(0.0)) {
+				return new Expression(new Negative(), right);
+			}
+		} else if (instruction instanceof Multiply) {
+			if (right.isConstant(1.0)) {
+				return left;
+			} else if (left.isConstant(1.0)) {
+				return right;
+			} else if (right.isConstant(-1.0)) {
+				return new Expression(new Negative(), left);
+			} else if (left.isConstant(-1.0)) {
+				return new Expression(new Negative(), right);
+			}
+		} else if (instruction instanceof Divide) {
+			if (right.isConstant(1.0)) {
+				return left;
+			}
+		} else if (instruction instanceof Pow) {
+			if (right.isConstant(1.0)) {
+				return left;
+			} else if (right.isConstant(2.0) && left.instructions.size() == 1) {
+				return new Expression(new Multiply(), left, left);
+			}
+		} else if (instruction instanceof Negative) {
+			if (left.getRoot() instanceof Negative) {
+				return new Expression(left.instructions.subList(0, left.instructions.size() - 1));
+			}
+		}
+		return new Expression(instruction, operands.toArray(new Expression[operands.size()]));
+	}
+
+	/**
+	 * Sous-expression d'une opération en cours de simplification.
+	 */
+	private static class Expression {
+		private final List<Instruction> instructions;
+
+		Expression(Constant constant) {
+			this.instructions = new ArrayList<>(1);
+			this.instructions.add(constant);
+		}
+
+		Expression(List<Instruction> instructions) {
+			this.instructions = instructions;
+		}
+
+		Expression(Instruction instruction, Expression... operands) {
+			this.instructions = new ArrayList<>();
+			for (final Expression operand : operands) {
+				this.instructions.addAll(operand.instructions);
+			}
+			this.instructions.add(instruction);
+		}
+
+		Instruction getRoot() {
+			return instructions.get(instructions.size() - 1);
+		}
+
+		boolean isConstant() {
+			return instructions.size() == 1 && getRoot() instanceof Constant;
+		}
+
+		boolean isConstant(double value) {
+			return isConstant() && getValue() == value;
+		}
+
+		double getValue() {
+			return ((Constant) getRoot()).getValue();
+		}
+	}
+
 	/**
 	 * Analyse un morceau d'une opération.
 	 *
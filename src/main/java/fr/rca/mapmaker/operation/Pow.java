@@ -1,6 +1,5 @@
 package fr.rca.mapmaker.operation;
 
-import fr.rca.mapmaker.model.sprite.Instance;
 import java.util.Deque;
 
 /**
@@ -20,7 +19,7 @@ public class Pow implements Function {
 	}
 
     @Override
-    public void execute(double x, Deque<Double> stack, Instance instance) {
+    public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
         final Double o2 = stack.pop();
 		final Double o1 = stack.pop();
 		
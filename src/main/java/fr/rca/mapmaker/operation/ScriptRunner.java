@@ -0,0 +1,68 @@
+package fr.rca.mapmaker.operation;
+
+import fr.rca.mapmaker.model.sprite.Instance;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Exécute les scripts d'un grand nombre d'instances.
+ * <p>
+ * L'état de chaque instance est copié dans un {@link ScriptState} par le
+ * thread appelant, les scripts sont exécutés en parallèle sur ces copies puis
+ * les résultats sont reportés sur les instances, dans l'ordre, par le thread
+ * appelant. Les opérations compilées sont partagées (voir
+ * {@link VariableDeclarationParser}) et ne sont jamais modifiées : le
+ * résultat est le même qu'une exécution séquentielle de
+ * {@link Instance#runScript()}.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public final class ScriptRunner {
+
+	/**
+	 * En dessous de ce nombre d'instances, les scripts sont exécutés par le
+	 * thread appelant.
+	 */
+	private static final int PARALLEL_THRESHOLD = 256;
+
+	/**
+	 * Cet objet n'est pas instantiable, utilisez directement ses méthodes.
+	 */
+	private ScriptRunner() {
+	}
+
+	/**
+	 * Exécute le script de chacune des instances données en utilisant le pool
+	 * commun.
+	 *
+	 * @param instances Instances dont le script doit être exécuté.
+	 */
+	public static void runScripts(List<Instance> instances) {
+		runScripts(instances, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Exécute le script de chacune des instances données.
+	 *
+	 * @param instances Instances dont le script doit être exécuté.
+	 * @param pool Pool où exécuter les scripts.
+	 */
+	public static void runScripts(List<Instance> instances, ForkJoinPool pool) {
+		final List<ScriptState> states = new ArrayList<>(instances.size());
+		for (final Instance instance : instances) {
+			states.add(new ScriptState(instance));
+		}
+
+		if (states.size() < PARALLEL_THRESHOLD || pool.getParallelism() <= 1) {
+			states.forEach(ScriptState::run);
+		} else {
+			pool.submit(() -> states.parallelStream().forEach(ScriptState::run)).join();
+		}
+
+		for (int index = 0; index < instances.size(); index++) {
+			states.get(index).applyTo(instances.get(index));
+		}
+	}
+
+}
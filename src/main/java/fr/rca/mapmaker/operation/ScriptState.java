@@ -0,0 +1,65 @@
+package fr.rca.mapmaker.operation;
+
+import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Direction;
+import fr.rca.mapmaker.model.sprite.Instance;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * État d'une instance modifié par son script.
+ * <p>
+ * L'état est copié depuis l'instance, le script est exécuté sur la copie puis
+ * le résultat est reporté sur l'instance avec {@link #applyTo(Instance)}. Une
+ * copie n'est utilisée que par un seul thread à la fois et l'exécution du
+ * script ne fait aucun appel à Swing.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+@Getter
+@Setter
+public class ScriptState implements ScriptTarget {
+
+	private final Project project;
+	private final String script;
+	private Direction direction;
+	private String animationName;
+	private final Map<String, Double> variables = new LinkedHashMap<>();
+
+	/**
+	 * Copie l'état de l'instance donnée. Les variables sont vides, comme au
+	 * début de {@link Instance#runScript()}.
+	 *
+	 * @param instance Instance à copier.
+	 */
+	public ScriptState(Instance instance) {
+		this.project = instance.getProject();
+		this.script = instance.getScript();
+		this.direction = instance.getDirection();
+		this.animationName = instance.getAnimationName();
+	}
+
+	/**
+	 * Exécute le script sur cet état.
+	 *
+	 * @return Cet état.
+	 */
+	public ScriptState run() {
+		VariableDeclarationParser.parse(script, project).execute(this);
+		return this;
+	}
+
+	/**
+	 * Reporte cet état sur l'instance donnée.
+	 *
+	 * @param instance Instance à modifier.
+	 */
+	public void applyTo(Instance instance) {
+		instance.setDirection(direction);
+		instance.setAnimationName(animationName);
+		instance.setVariables(variables);
+	}
+
+}
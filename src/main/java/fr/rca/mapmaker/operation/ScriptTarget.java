@@ -0,0 +1,26 @@
+package fr.rca.mapmaker.operation;
+
+import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Direction;
+import java.util.Map;
+
+/**
+ * Élément modifié par l'exécution d'un script d'instance.
+ * <p>
+ * Implémentée par {@link fr.rca.mapmaker.model.sprite.Instance} et par
+ * {@link ScriptState} qui permet d'exécuter les scripts sans toucher aux
+ * composants Swing.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public interface ScriptTarget {
+
+	Project getProject();
+
+	void setDirection(Direction direction);
+
+	void setAnimationName(String animationName);
+
+	Map<String, Double> getVariables();
+
+}
@@ -1,7 +1,6 @@
 package fr.rca.mapmaker.operation;
 
 import fr.rca.mapmaker.model.project.Project;
-import fr.rca.mapmaker.model.sprite.Instance;
 import java.util.Deque;
 
 /**
@@ -11,7 +10,7 @@ import java.util.Deque;
 public class SpriteAnimation implements Instruction {
 
 	@Override
-	public void execute(double x, Deque<Double> stack, Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		Project project = instance.getProject();
 		int index = stack.pop().intValue();
 		String animationName = project.getAnimationNames().get(index);
@@ -10,7 +10,7 @@ import java.util.Deque;
 public class SpriteDirection implements Instruction {
 
 	@Override
-	public void execute(double x, Deque<Double> stack, fr.rca.mapmaker.model.sprite.Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		instance.setDirection(Direction.from(stack.pop()));
 	}
 
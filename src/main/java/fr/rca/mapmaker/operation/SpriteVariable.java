@@ -1,6 +1,5 @@
 package fr.rca.mapmaker.operation;
 
-import fr.rca.mapmaker.model.sprite.Instance;
 import java.util.Deque;
 
 /**
@@ -19,7 +18,7 @@ public class SpriteVariable implements Instruction {
 	}
 	
 	@Override
-	public void execute(double x, Deque<Double> stack, Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		instance.getVariables().put(name, stack.pop());
 	}
 
@@ -4,10 +4,13 @@ import fr.rca.mapmaker.model.map.TileMap;
 import fr.rca.mapmaker.model.project.Project;
 import fr.rca.mapmaker.model.sprite.Direction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +33,11 @@ public class VariableDeclarationParser {
 		DIRECTIONS = map;
 	}
 
+	/**
+	 * Scripts déjà analysés pour chaque projet.
+	 */
+	private static final Map<Project, ScriptCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
 	/**
 	 * Cet objet n'est pas instantiable, utilisez directement ses méthodes.
 	 */
@@ -37,26 +45,62 @@ public class VariableDeclarationParser {
 	}
 
 	/**
+	 * Analyse le script donné.
+	 * <p>
+	 * Le résultat est gardé en cache pour chaque projet : un même script n'est
+	 * analysé qu'une fois tant que les cartes du projet ne sont pas
+	 * ajoutées, supprimées, renommées ou redimensionnées et que les noms des
+	 * animations ne changent pas. L'opération renvoyée est partagée, elle ne
+	 * doit pas être modifiée.
 	 *
-	 * @param script
-	 * @return
+	 * @param script Script de chargement d'une instance.
+	 * @param project Projet de l'instance.
+	 * @return L'opération correspondant au script.
 	 */
 	public static Operation parse(String script, Project project) {
 		if (script == null || script.trim().isEmpty()) {
 			return new Operation();
 		}
 
-		final OperationParser parser = new OperationParser();
+		ScriptCache cache = CACHES.get(project);
+		if (cache == null || !cache.isValidFor(project)) {
+			cache = new ScriptCache(project);
+			CACHES.put(project, cache);
+		}
+		return cache.get(script);
+	}
+
+	/**
+	 * Crée la table des symboles du projet donné : les instructions de base
+	 * et une constante pour l'indice, la largeur et la hauteur de chaque
+	 * carte.
+	 *
+	 * @param project Projet.
+	 * @return Une table non modifiable.
+	 */
+	static Map<String, Instruction> symbolsOf(Project project) {
+		final Map<String, Instruction> symbols = new HashMap<>(Instructions.INSTRUCTIONS);
 		final List<TileMap> maps = project.getMaps();
 		for (int index = 0; index < maps.size(); index++) {
 			// Création d'une constante contenant l'indice de la carte pour chaque carte.
 			final TileMap tileMap = maps.get(index);
 			final String name = Optional.ofNullable(tileMap.getName()).map(String::toLowerCase).orElse("map" + index);
-			parser.putInstruction("maps." + name, new Constant(index));
-			parser.putInstruction("maps." + name + ".width", new Constant(tileMap.getWidth() * tileMap.getPalette().getTileSize()));
-			parser.putInstruction("maps." + name + ".height", new Constant(tileMap.getHeight()* tileMap.getPalette().getTileSize()));
+			symbols.put("maps." + name, new Constant(index));
+			symbols.put("maps." + name + ".width", new Constant(tileMap.getWidth() * tileMap.getPalette().getTileSize()));
+			symbols.put("maps." + name + ".height", new Constant(tileMap.getHeight()* tileMap.getPalette().getTileSize()));
 		}
+		return Collections.unmodifiableMap(symbols);
+	}
 
+	/**
+	 * Analyse le script donné avec la table de symboles donnée.
+	 *
+	 * @param script Script à analyser.
+	 * @param parser Analyseur utilisant la table des symboles du projet.
+	 * @param animationNames Noms des animations du projet.
+	 * @return L'opération correspondant au script.
+	 */
+	static Operation parse(String script, OperationParser parser, List<String> animationNames) {
 		final List<Instruction> instructions = new ArrayList<Instruction>();
 
 		for (final String line : script.split("\n")) {
@@ -79,7 +123,7 @@ public class VariableDeclarationParser {
 					break;
 
 				case "sprite.animation":
-					int index = project.getAnimationNames().indexOf(right);
+					int index = animationNames.indexOf(right);
 					if (index >= 0) {
 						instructions.add(new Constant(index));
 						instructions.add(new SpriteAnimation());
@@ -108,7 +152,41 @@ public class VariableDeclarationParser {
 				}
 			}
 		}
-		return new Operation(instructions);
+		return new Operation(Collections.unmodifiableList(instructions));
+	}
+
+	/**
+	 * Scripts analysés d'un projet.
+	 */
+	private static class ScriptCache {
+		private final int mapsModificationCount;
+		private final int mapCount;
+		private final List<String> animationNames;
+
+		/**
+		 * Analyseur partagé par tous les scripts. Il ne modifie pas sa table
+		 * de symboles et peut être utilisé par plusieurs threads.
+		 */
+		private final OperationParser parser;
+
+		private final ConcurrentHashMap<String, Operation> operations = new ConcurrentHashMap<>();
+
+		ScriptCache(Project project) {
+			this.mapsModificationCount = project.getMapsModificationCount();
+			this.mapCount = project.getMaps().size();
+			this.animationNames = new ArrayList<>(project.getAnimationNames());
+			this.parser = new OperationParser(symbolsOf(project));
+		}
+
+		boolean isValidFor(Project project) {
+			return mapsModificationCount == project.getMapsModificationCount()
+					&& mapCount == project.getMaps().size()
+					&& animationNames.equals(project.getAnimationNames());
+		}
+
+		Operation get(String script) {
+			return operations.computeIfAbsent(script, key -> parse(key, parser, animationNames));
+		}
 	}
 
 }
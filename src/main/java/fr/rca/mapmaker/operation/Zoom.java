@@ -26,7 +26,7 @@ public class Zoom implements Function {
 	}
 
 	@Override
-	public void execute(double x, Deque<Double> stack, fr.rca.mapmaker.model.sprite.Instance instance) {
+	public void execute(double x, Deque<Double> stack, ScriptTarget instance) {
 		stack.push(stack.pop() * zoom);
 	}
 
@@ -16,6 +16,9 @@ public class PreferencesManager {
 	public static final String RECENT = "recent";
 	public static final String LAST_GAME_PREVIEW_DIMENSION = "last_game_preview_dimension";
 	public static final String LAST_GAME_PREVIEW_ZOOM = "last_game_preview_zoom";
+	public static final String UNDO_MEMORY_BUDGET = "undo_memory_budget";
+	public static final String LAZY_MAP_LOADING = "lazy_map_loading";
+	public static final String PACKER = "packer";
 	
 	private static final Preferences PREFERENCES;
 	
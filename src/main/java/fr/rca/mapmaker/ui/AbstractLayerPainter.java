@@ -73,7 +73,7 @@ public abstract class AbstractLayerPainter extends JComponent {
 		// Affichage de la couche
 		for(int y = startY; y < maxY; y++) {
 			for(int x = startX; x < maxX; x++) {
-				palette.paintTile(g, layer.getTile(x, y), originX + x * spaceX, originY + y * spaceY, tileSize);
+				paintTile(palette, g, layer.getTile(x, y), originX + x * spaceX, originY + y * spaceY, tileSize);
 			}
 		}
 	}
@@ -108,7 +108,7 @@ public abstract class AbstractLayerPainter extends JComponent {
 		if (tileSize >= 1.0) {
 			for(double y = startY; y < maxY; y++) {
 				for(double x = startX; x < maxX; x++) {
-					palette.paintTile(g, layer.getTile((int) x, (int) y), (int) (originX + x * spaceX), (int) (originY + y * spaceY), (int) tileSize);
+					paintTile(palette, g, layer.getTile((int) x, (int) y), (int) (originX + x * spaceX), (int) (originY + y * spaceY), (int) tileSize);
 				}
 			}
 		} else {
@@ -117,11 +117,26 @@ public abstract class AbstractLayerPainter extends JComponent {
 				for(double x = startX; x < maxX; x++) {
 					nextTileSize += tileSize;
 					if (nextTileSize >= 1.0) {
-						palette.paintTile(g, layer.getTile((int) x, (int) y), (int) (originX + x * spaceX), (int) (originY + y * spaceY), 1);
+						paintTile(palette, g, layer.getTile((int) x, (int) y), (int) (originX + x * spaceX), (int) (originY + y * spaceY), 1);
 						nextTileSize -= 1;
 					}
 				}
 			}
 		}
 	}
+
+	/**
+	 * Dessine une tuile. Les sous-classes peuvent surcharger cette méthode
+	 * pour utiliser un cache.
+	 *
+	 * @param palette Palette à utiliser.
+	 * @param g Image de destination.
+	 * @param tile Numéro de la tuile.
+	 * @param x Abscisse où dessiner la tuile.
+	 * @param y Ordonnée où dessiner la tuile.
+	 * @param size Taille de la tuile.
+	 */
+	protected void paintTile(Palette palette, Graphics g, int tile, int x, int y, int size) {
+		palette.paintTile(g, tile, x, y, size);
+	}
 }
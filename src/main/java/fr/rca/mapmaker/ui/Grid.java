@@ -51,6 +51,16 @@ public class Grid extends AbstractLayerPainter {
 
 	private final TileLayer overlay;
 
+	/**
+	 * Images des tuiles redimensionnées à la taille d'affichage.
+	 */
+	private final TileImageCache tileImageCache = new TileImageCache();
+
+	/**
+	 * Morceaux de couches déjà dessinés.
+	 */
+	private final LayerChunkCache layerChunkCache = new LayerChunkCache(tileImageCache);
+
 	/**
 	 * Gestion du scrolling.
 	 */
@@ -85,6 +95,8 @@ public class Grid extends AbstractLayerPainter {
 		layerChangeListener = new LayerChangeListener() {
 			@Override
 			public void layerChanged(TileLayer layer, Rectangle dirtyRectangle) {
+				layerChunkCache.invalidate(layer, dirtyRectangle);
+
 				final int tileSize = getTileSize();
 				final Point origin = getLayerOrigin(layer);
 
@@ -113,6 +125,8 @@ public class Grid extends AbstractLayerPainter {
 
 			@Override
 			public void sizeChanged(Object source, Dimension oldSize, Dimension newSize) {
+				tileImageCache.clear();
+				layerChunkCache.clear();
 				updateSize();
 			}
 		};
@@ -148,6 +162,10 @@ public class Grid extends AbstractLayerPainter {
 			if (this.tileMap instanceof HasSizeChangeListeners) {
 				((HasSizeChangeListeners) this.tileMap).removeSizeChangeListener(sizeChangeListener);
 			}
+
+			if (this.tileMap.getPalette() instanceof HasSizeChangeListeners) {
+				((HasSizeChangeListeners) this.tileMap.getPalette()).removeSizeChangeListener(sizeChangeListener);
+			}
 		}
 
 		this.tileMap = tileMap;
@@ -162,6 +180,11 @@ public class Grid extends AbstractLayerPainter {
 		if (tileMap instanceof HasSizeChangeListeners) {
 			((HasSizeChangeListeners) tileMap).addSizeChangeListener(sizeChangeListener);
 		}
+		if (tileMap != null && tileMap.getPalette() instanceof HasSizeChangeListeners) {
+			((HasSizeChangeListeners) tileMap.getPalette()).addSizeChangeListener(sizeChangeListener);
+		}
+		tileImageCache.clear();
+		layerChunkCache.clear();
 
 		firePropertyChange("activeLayer", oldActiveLayer, getActiveLayer());
 
@@ -287,7 +310,9 @@ public class Grid extends AbstractLayerPainter {
 			}
 
 			if (layer.isVisible()) {
-				if (tileSize > 0) {
+				if (layerChunkCache.canPaint(layer, palette, tileSize)) {
+					layerChunkCache.paintLayer((TileLayer) layer, palette, clipBounds, tileSize, getLayerOrigin(layer), g);
+				} else if (tileSize > 0) {
 					paintLayer(layer, palette, clipBounds, tileSize, viewPoint, g);
 				} else {
 					paintLayer(layer, palette, clipBounds, getZoomedTileSize(), viewPoint, g);
@@ -307,6 +332,11 @@ public class Grid extends AbstractLayerPainter {
 		g.dispose();
 	}
 
+	@Override
+	protected void paintTile(Palette palette, Graphics g, int tile, int x, int y, int size) {
+		tileImageCache.paintTile(palette, g, tile, x, y, size);
+	}
+
 	public void repaint(Point p) {
 		// TODO: prendre en compte le scrolling
 		final int tileSize = getTileSize();
@@ -388,6 +418,8 @@ public class Grid extends AbstractLayerPainter {
 		if (tileMap != null) {
 			tileMap.refresh();
 		}
+		tileImageCache.clear();
+		layerChunkCache.clear();
 		updateSize();
 		repaint();
 	}
@@ -7,10 +7,12 @@ import fr.rca.mapmaker.model.palette.Flip;
 import fr.rca.mapmaker.model.palette.Palette;
 import fr.rca.mapmaker.model.palette.Flippable;
 import java.awt.Dimension;
+import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,7 +22,7 @@ import java.util.List;
  */
 public class ImageRenderer extends AbstractLayerPainter {
 
-	private Flip flip;
+	private Flip flip = Flip.NORMAL;
 	private boolean forceSquare;
 	private int padding;
 
@@ -132,8 +134,11 @@ public class ImageRenderer extends AbstractLayerPainter {
 			((Flippable) palette).flipTiles(flip);
 		}
 
+		// Les tuiles sont écrites directement dans les pixels de l'image
+		// quand la palette le permet.
+		final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
 		for (final Layer layer : layers) {
-			paintLayer(layer, palette, bounds, tileSize, padding, cameraTopLeft, graphics);
+			paintLayer(layer, palette, bounds, tileSize, cameraTopLeft, pixels, graphics);
 		}
 
 		if (palette instanceof Flippable) {
@@ -145,6 +150,51 @@ public class ImageRenderer extends AbstractLayerPainter {
 		return image;
 	}
 
+	/**
+	 * Dessine la couche donnée dans les pixels d'une image
+	 * <code>TYPE_INT_ARGB</code>. Même découpage que
+	 * {@link #paintLayer(Layer, Palette, Rectangle, int, int, Point, Graphics)}
+	 * mais sans passer par <code>Graphics</code> quand la palette sait écrire
+	 * directement dans les pixels.
+	 *
+	 * @param layer Couche à dessiner.
+	 * @param palette Palette à utiliser.
+	 * @param bounds Surface à dessiner.
+	 * @param tileSize Taille des tuiles.
+	 * @param viewpoint Point de vue.
+	 * @param pixels Pixels de l'image de destination.
+	 * @param g Image de destination, pour les tuiles que la palette ne sait pas
+	 * écrire directement.
+	 */
+	private void paintLayer(Layer layer, Palette palette, Rectangle bounds, int tileSize, Point viewpoint, int[] pixels, Graphics g) {
+		if (viewpoint == null) {
+			viewpoint = new Point(0, 0);
+		}
+
+		final int originX = (int) (viewpoint.x * (1 - layer.getScrollRate().getX())) + padding;
+		final int originY = (int) (viewpoint.y * (1 - layer.getScrollRate().getY())) + padding;
+
+		final int startX = (int) ((bounds.x * layer.getScrollRate().getX()) / tileSize);
+		final int startY = (int) ((bounds.y * layer.getScrollRate().getY()) / tileSize);
+
+		final int maxX = (int) Math.ceil((double) (bounds.x + bounds.width) / tileSize);
+		final int maxY = (int) Math.ceil((double) (bounds.y + bounds.height) / tileSize);
+
+		final int spaceX = tileSize + padding + padding;
+		final int spaceY = tileSize + padding + padding;
+
+		for (int y = startY; y < maxY; y++) {
+			for (int x = startX; x < maxX; x++) {
+				final int tile = layer.getTile(x, y);
+				final int left = originX + x * spaceX;
+				final int top = originY + y * spaceY;
+				if (!palette.paintTile(pixels, bounds.width, bounds.height, tile, left, top, tileSize)) {
+					paintTile(palette, g, tile, left, top, tileSize);
+				}
+			}
+		}
+	}
+
 	public void setFlip(Flip flip) {
 		this.flip = flip;
 	}
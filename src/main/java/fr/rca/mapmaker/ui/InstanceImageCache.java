@@ -0,0 +1,206 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.event.Event;
+import fr.rca.mapmaker.event.EventBus;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.Palette;
+import fr.rca.mapmaker.model.sprite.Sprite;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cache des images des instances de sprites, partagé par toutes les
+ * instances.
+ * <p>
+ * Une image est identifiée par le sprite, l'image de l'animation affichée,
+ * la taille d'affichage et la palette. Les instances d'un même sprite
+ * partagent donc la même image au lieu de la redessiner chacune. Une image
+ * demandée par plusieurs instances pendant qu'elle est dessinée n'est
+ * dessinée qu'une fois.
+ * <p>
+ * Les images les moins récemment utilisées sont oubliées au delà de
+ * {@link #MEMORY_BUDGET} octets. Le cache est vidé à chaque
+ * {@link Event#SPRITE_CHANGED}.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceImageCache {
+
+	public static final InstanceImageCache INSTANCE = new InstanceImageCache();
+
+	/**
+	 * Mémoire maximale (en octets) occupée par les images.
+	 */
+	private static final long MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+	private final LinkedHashMap<Key, Entry> images = new LinkedHashMap<>(64, 0.75f, true);
+	private long memory;
+
+	private InstanceImageCache() {
+		EventBus.INSTANCE.listenToEventsOfType(Event.SPRITE_CHANGED, (event, arguments) -> clear());
+	}
+
+	/**
+	 * Renvoie l'image donnée si elle a déjà été dessinée.
+	 *
+	 * @param sprite Sprite de l'instance.
+	 * @param frame Image de l'animation à afficher.
+	 * @param dimension Taille d'affichage.
+	 * @param palette Palette utilisée.
+	 * @return L'image ou <code>null</code> si elle n'est pas dans le cache.
+	 */
+	public synchronized @Nullable BufferedImage getIfPresent(Sprite sprite, TileLayer frame, Dimension dimension, Palette palette) {
+		final Entry entry = images.get(new Key(sprite, frame, dimension, palette));
+		return entry != null && entry.size > 0 ? getQuietly(entry.task) : null;
+	}
+
+	/**
+	 * Renvoie l'image donnée en la dessinant si elle n'est pas dans le
+	 * cache. Si elle est en train d'être dessinée par un autre thread,
+	 * attend la fin du dessin.
+	 *
+	 * @param sprite Sprite de l'instance.
+	 * @param frame Image de l'animation à afficher.
+	 * @param dimension Taille d'affichage.
+	 * @param palette Palette utilisée.
+	 * @param renderer Dessine l'image si besoin.
+	 * @return L'image.
+	 * @throws InterruptedException Si le thread est interrompu pendant
+	 * l'attente.
+	 */
+	public BufferedImage get(Sprite sprite, TileLayer frame, Dimension dimension, Palette palette, Supplier<BufferedImage> renderer) throws InterruptedException {
+		final Key key = new Key(sprite, frame, dimension, palette);
+		final Entry entry;
+		final boolean owner;
+		synchronized (this) {
+			final Entry existing = images.get(key);
+			if (existing != null) {
+				entry = existing;
+				owner = false;
+			} else {
+				entry = new Entry(new FutureTask<>(renderer::get));
+				images.put(key, entry);
+				owner = true;
+			}
+		}
+
+		if (owner) {
+			entry.task.run();
+		}
+
+		final BufferedImage image;
+		try {
+			image = entry.task.get();
+		} catch (ExecutionException e) {
+			synchronized (this) {
+				images.remove(key, entry);
+			}
+			final Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+		}
+
+		if (owner) {
+			added(key, entry, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Vide entièrement le cache.
+	 */
+	public synchronized void clear() {
+		images.clear();
+		memory = 0;
+	}
+
+	private synchronized void added(Key key, Entry entry, BufferedImage image) {
+		if (images.get(key) != entry) {
+			// Le cache a été vidé pendant le dessin.
+			return;
+		}
+		entry.size = Math.max(1L, 4L * image.getWidth() * image.getHeight());
+		memory += entry.size;
+
+		final Iterator<Entry> iterator = images.values().iterator();
+		while (memory > MEMORY_BUDGET && iterator.hasNext()) {
+			final Entry eldest = iterator.next();
+			if (eldest != entry && eldest.size > 0) {
+				iterator.remove();
+				memory -= eldest.size;
+			}
+		}
+	}
+
+	private static @Nullable BufferedImage getQuietly(FutureTask<BufferedImage> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException | ExecutionException e) {
+			return null;
+		}
+	}
+
+	private static class Entry {
+		private final FutureTask<BufferedImage> task;
+
+		/**
+		 * Taille de l'image en octets ou 0 tant qu'elle est en train d'être
+		 * dessinée.
+		 */
+		private long size;
+
+		Entry(FutureTask<BufferedImage> task) {
+			this.task = task;
+		}
+	}
+
+	/**
+	 * Clé d'une image. Les objets sont comparés par identité, l'empreinte
+	 * de l'image de l'animation permet de détecter les modifications.
+	 */
+	private static class Key {
+		private final Sprite sprite;
+		private final TileLayer frame;
+		private final long frameHash;
+		private final int width;
+		private final int height;
+		private final Palette palette;
+
+		Key(Sprite sprite, TileLayer frame, Dimension dimension, Palette palette) {
+			this.sprite = sprite;
+			this.frame = frame;
+			this.frameHash = frame.getContentHash();
+			this.width = dimension.width;
+			this.height = dimension.height;
+			this.palette = palette;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = System.identityHashCode(sprite);
+			hash = 31 * hash + System.identityHashCode(frame);
+			hash = 31 * hash + Long.hashCode(frameHash);
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+			hash = 31 * hash + System.identityHashCode(palette);
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return sprite == other.sprite && frame == other.frame
+					&& frameHash == other.frameHash
+					&& width == other.width && height == other.height
+					&& palette == other.palette;
+		}
+	}
+}
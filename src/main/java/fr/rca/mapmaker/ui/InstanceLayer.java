@@ -0,0 +1,244 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.model.sprite.Instance;
+import fr.rca.mapmaker.model.sprite.InstanceGrid;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.JPanel;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Calque dessinant toutes les instances de sprites d'une carte.
+ * <p>
+ * Les instances ne sont pas ajoutées comme composants Swing : elles sont
+ * toutes dessinées en une seule passe par {@link #paintComponent(Graphics)}.
+ * Une {@link InstanceGrid} de cellules de {@link #CELL_SIZE} pixels permet de ne dessiner
+ * que les instances visibles et de trouver l'instance sous la souris.
+ * <p>
+ * Lorsque des écouteurs de la souris lui sont ajoutés, le calque ne reçoit
+ * les évènements qu'au dessus d'une instance (voir
+ * {@link #contains(int, int)}), les autres évènements sont reçus par les
+ * composants situés en dessous.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceLayer extends JPanel {
+
+	/**
+	 * Taille (en pixels) d'une cellule de la grille.
+	 */
+	private static final int CELL_SIZE = 128;
+
+	private static final Color HIGHLIGHT_COLOR = Color.BLACK;
+
+	private List<Instance> instances = Collections.emptyList();
+
+	/**
+	 * Position de chaque instance dans la liste. La première instance de la
+	 * liste est dessinée au dessus des autres.
+	 */
+	private final Map<Instance, Integer> order = new IdentityHashMap<>();
+
+	private final InstanceGrid grid = new InstanceGrid(CELL_SIZE);
+	private boolean indexValid;
+
+	/**
+	 * Instance encadrée (par exemple celle sous la souris).
+	 */
+	private @Nullable Instance highlightedInstance;
+
+	private final PropertyChangeListener instanceListener = this::instanceChanged;
+
+	public InstanceLayer() {
+		setOpaque(false);
+		setLayout(null);
+	}
+
+	/**
+	 * Change les instances à dessiner.
+	 *
+	 * @param instances Instances à dessiner. La liste n'est pas copiée,
+	 * {@link #instanceAdded(Instance)}, {@link #instanceRemoved(Instance)} ou
+	 * {@link #instancesReordered()} doivent être appelées lorsqu'elle change.
+	 */
+	public void setInstances(@Nullable List<Instance> instances) {
+		for (final Instance instance : this.instances) {
+			instance.removePropertyChangeListener(instanceListener);
+		}
+		this.instances = instances != null ? instances : Collections.<Instance>emptyList();
+		for (final Instance instance : this.instances) {
+			instance.addPropertyChangeListener(instanceListener);
+		}
+		highlightedInstance = null;
+		invalidateIndex();
+		repaint();
+	}
+
+	public List<Instance> getInstances() {
+		return instances;
+	}
+
+	/**
+	 * Indique qu'une instance a été ajoutée à la liste.
+	 *
+	 * @param instance Instance ajoutée.
+	 */
+	public void instanceAdded(Instance instance) {
+		instance.addPropertyChangeListener(instanceListener);
+		invalidateIndex();
+		repaint(instance.getBounds());
+	}
+
+	/**
+	 * Indique qu'une instance a été retirée de la liste.
+	 *
+	 * @param instance Instance retirée.
+	 */
+	public void instanceRemoved(Instance instance) {
+		instance.removePropertyChangeListener(instanceListener);
+		if (highlightedInstance == instance) {
+			highlightedInstance = null;
+		}
+		invalidateIndex();
+		repaint(instance.getBounds());
+	}
+
+	/**
+	 * Indique que l'ordre des instances a changé.
+	 */
+	public void instancesReordered() {
+		invalidateIndex();
+		repaint();
+	}
+
+	/**
+	 * Renvoie l'instance dessinée au point donné.
+	 *
+	 * @param point Point dans ce calque.
+	 * @return L'instance la plus en avant au point donné ou <code>null</code>
+	 * si aucune instance n'est dessinée à ce point.
+	 */
+	public @Nullable Instance getInstanceAt(Point point) {
+		return getInstanceAt(point.x, point.y);
+	}
+
+	private @Nullable Instance getInstanceAt(int x, int y) {
+		validateIndex();
+		Instance result = null;
+		int resultOrder = Integer.MAX_VALUE;
+		for (final Instance instance : grid.candidatesAt(x, y)) {
+			final int instanceOrder = order.get(instance);
+			if (instanceOrder < resultOrder && instance.getBounds().contains(x, y)) {
+				result = instance;
+				resultOrder = instanceOrder;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Renvoie les instances touchant le rectangle donné.
+	 *
+	 * @param rectangle Zone du calque.
+	 * @return Les instances dans l'ordre de dessin (de la plus en arrière à
+	 * la plus en avant).
+	 */
+	public List<Instance> getInstancesIn(Rectangle rectangle) {
+		validateIndex();
+		final List<Instance> result = grid.candidatesIn(rectangle);
+		result.removeIf(instance -> !instance.getBounds().intersects(rectangle));
+		result.sort((first, second) -> Integer.compare(order.get(second), order.get(first)));
+		return result;
+	}
+
+	@Override
+	public boolean contains(int x, int y) {
+		return getInstanceAt(x, y) != null;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		for (final Instance instance : getInstancesIn(clip)) {
+			final Rectangle bounds = instance.getBounds();
+			final Graphics instanceGraphics = g.create(bounds.x, bounds.y, bounds.width, bounds.height);
+			try {
+				instance.paintInstance(instanceGraphics);
+				if (instance == highlightedInstance) {
+					instanceGraphics.setColor(HIGHLIGHT_COLOR);
+					instanceGraphics.drawRect(0, 0, bounds.width - 1, bounds.height - 1);
+				}
+			} finally {
+				instanceGraphics.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Encadre l'instance donnée.
+	 *
+	 * @param instance Instance à encadrer ou <code>null</code> pour n'en
+	 * encadrer aucune.
+	 */
+	public void setHighlightedInstance(@Nullable Instance instance) {
+		if (instance != highlightedInstance) {
+			if (highlightedInstance != null) {
+				repaint(highlightedInstance.getBounds());
+			}
+			highlightedInstance = instance;
+			if (instance != null) {
+				repaint(instance.getBounds());
+			}
+		}
+	}
+
+	private void instanceChanged(PropertyChangeEvent event) {
+		if ("bounds".equals(event.getPropertyName())) {
+			invalidateIndex();
+			if (event.getOldValue() instanceof Rectangle) {
+				repaint((Rectangle) event.getOldValue());
+			}
+			if (event.getNewValue() instanceof Rectangle) {
+				repaint((Rectangle) event.getNewValue());
+			}
+		} else if ("image".equals(event.getPropertyName()) || "script".equals(event.getPropertyName())) {
+			repaint(((Instance) event.getSource()).getBounds());
+		}
+	}
+
+	private void invalidateIndex() {
+		indexValid = false;
+	}
+
+	private void validateIndex() {
+		if (indexValid) {
+			return;
+		}
+		grid.clear();
+		order.clear();
+		for (int index = 0; index < instances.size(); index++) {
+			final Instance instance = instances.get(index);
+			order.put(instance, index);
+
+			final Rectangle bounds = instance.getBounds();
+			if (bounds.isEmpty()) {
+				continue;
+			}
+			grid.add(instance, bounds);
+		}
+		indexValid = true;
+	}
+}
@@ -0,0 +1,250 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.model.map.Layer;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.AbstractEditablePalette;
+import fr.rca.mapmaker.model.palette.Palette;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache des couches déjà dessinées, découpées en morceaux de
+ * {@link #CHUNK_SIZE} x {@link #CHUNK_SIZE} tuiles.
+ * <p>
+ * Un morceau n'est redessiné que lorsqu'une modification de la couche le
+ * concerne (voir {@link #invalidate(TileLayer, Rectangle)}), lorsque la
+ * palette change ou lorsque la taille des tuiles change.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class LayerChunkCache {
+
+	/**
+	 * Nombre de tuiles sur un côté d'un morceau.
+	 */
+	public static final int CHUNK_SIZE = 16;
+
+	/**
+	 * Taille maximale des tuiles pour laquelle le cache est utilisé. Au delà,
+	 * les morceaux seraient trop gros et peu de tuiles sont visibles à la
+	 * fois.
+	 */
+	private static final int MAXIMUM_TILE_SIZE = 64;
+
+	/**
+	 * Mémoire maximale (en octets) occupée par les images des morceaux.
+	 */
+	private static final long MEMORY_BUDGET = 128L * 1024L * 1024L;
+
+	/**
+	 * Marqueur des morceaux ne contenant aucune tuile.
+	 */
+	private static final BufferedImage EMPTY_CHUNK = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+	private final TileImageCache tileImageCache;
+
+	private final LinkedHashMap<ChunkKey, BufferedImage> chunks = new LinkedHashMap<ChunkKey, BufferedImage>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ChunkKey, BufferedImage> eldest) {
+			return size() > maximumChunkCount;
+		}
+	};
+	private final IdentityHashMap<TileLayer, Dimension> layerSizes = new IdentityHashMap<>();
+
+	private int maximumChunkCount;
+	private int tileSize;
+	private AbstractEditablePalette<?> palette;
+	private int paletteModificationCount;
+
+	public LayerChunkCache(TileImageCache tileImageCache) {
+		this.tileImageCache = tileImageCache;
+	}
+
+	/**
+	 * Indique si la couche donnée peut être dessinée à l'aide du cache.
+	 *
+	 * @param layer Couche à dessiner.
+	 * @param palette Palette à utiliser.
+	 * @param tileSize Taille des tuiles.
+	 * @return <code>true</code> si le cache peut être utilisé,
+	 * <code>false</code> sinon.
+	 */
+	public boolean canPaint(Layer layer, Palette palette, int tileSize) {
+		return layer instanceof TileLayer
+				&& tileSize > 0 && tileSize <= MAXIMUM_TILE_SIZE
+				&& TileImageCache.resolve(palette) instanceof AbstractEditablePalette;
+	}
+
+	/**
+	 * Dessine la partie visible de la couche donnée.
+	 *
+	 * @param layer Couche à dessiner.
+	 * @param palette Palette à utiliser.
+	 * @param clipBounds Surface à dessiner.
+	 * @param tileSize Taille des tuiles.
+	 * @param origin Emplacement du coin supérieur gauche de la couche.
+	 * @param g Image de destination.
+	 */
+	public void paintLayer(TileLayer layer, Palette palette, Rectangle clipBounds, int tileSize, Point origin, Graphics g) {
+		validate(layer, palette, tileSize);
+
+		final int chunkPixels = CHUNK_SIZE * tileSize;
+		final int lastColumn = (layer.getWidth() - 1) / CHUNK_SIZE;
+		final int lastRow = (layer.getHeight() - 1) / CHUNK_SIZE;
+
+		final int startColumn = Math.max(0, Math.floorDiv(clipBounds.x - origin.x, chunkPixels));
+		final int startRow = Math.max(0, Math.floorDiv(clipBounds.y - origin.y, chunkPixels));
+		final int endColumn = Math.min(lastColumn, Math.floorDiv(clipBounds.x + clipBounds.width - 1 - origin.x, chunkPixels));
+		final int endRow = Math.min(lastRow, Math.floorDiv(clipBounds.y + clipBounds.height - 1 - origin.y, chunkPixels));
+
+		for (int row = startRow; row <= endRow; row++) {
+			for (int column = startColumn; column <= endColumn; column++) {
+				final BufferedImage chunk = getChunk(layer, palette, column, row);
+				if (chunk != EMPTY_CHUNK) {
+					g.drawImage(chunk, origin.x + column * chunkPixels, origin.y + row * chunkPixels, null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Oublie les morceaux de la couche donnée couverts par le rectangle donné.
+	 *
+	 * @param layer Couche modifiée.
+	 * @param dirtyRectangle Zone modifiée (en tuiles).
+	 */
+	public void invalidate(TileLayer layer, Rectangle dirtyRectangle) {
+		if (!layerSizes.containsKey(layer)) {
+			return;
+		}
+		final Rectangle rectangle = dirtyRectangle.intersection(new Rectangle(0, 0, layer.getWidth(), layer.getHeight()));
+		if (rectangle.isEmpty()) {
+			return;
+		}
+		final int startColumn = rectangle.x / CHUNK_SIZE;
+		final int startRow = rectangle.y / CHUNK_SIZE;
+		final int endColumn = (rectangle.x + rectangle.width - 1) / CHUNK_SIZE;
+		final int endRow = (rectangle.y + rectangle.height - 1) / CHUNK_SIZE;
+
+		for (int row = startRow; row <= endRow; row++) {
+			for (int column = startColumn; column <= endColumn; column++) {
+				chunks.remove(new ChunkKey(layer, column, row));
+			}
+		}
+	}
+
+	/**
+	 * Oublie tous les morceaux de la couche donnée.
+	 *
+	 * @param layer Couche à oublier.
+	 */
+	public void invalidate(TileLayer layer) {
+		final Iterator<ChunkKey> iterator = chunks.keySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().layer == layer) {
+				iterator.remove();
+			}
+		}
+		layerSizes.remove(layer);
+	}
+
+	/**
+	 * Vide entièrement le cache.
+	 */
+	public void clear() {
+		chunks.clear();
+		layerSizes.clear();
+		palette = null;
+	}
+
+	private void validate(TileLayer layer, Palette palette, int tileSize) {
+		final AbstractEditablePalette<?> editablePalette = (AbstractEditablePalette<?>) TileImageCache.resolve(palette);
+		if (this.tileSize != tileSize || this.palette != editablePalette
+				|| this.paletteModificationCount != editablePalette.getModificationCount()) {
+			clear();
+			this.tileSize = tileSize;
+			this.palette = editablePalette;
+			this.paletteModificationCount = editablePalette.getModificationCount();
+
+			final long chunkBytes = 4L * CHUNK_SIZE * tileSize * CHUNK_SIZE * tileSize;
+			this.maximumChunkCount = (int) Math.max(32, MEMORY_BUDGET / chunkBytes);
+		}
+
+		final Dimension size = layerSizes.get(layer);
+		if (size == null || size.width != layer.getWidth() || size.height != layer.getHeight()) {
+			invalidate(layer);
+			layerSizes.put(layer, layer.getDimension());
+		}
+	}
+
+	private BufferedImage getChunk(TileLayer layer, Palette palette, int column, int row) {
+		final ChunkKey key = new ChunkKey(layer, column, row);
+		BufferedImage chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = renderChunk(layer, palette, column, row);
+			chunks.put(key, chunk);
+		}
+		return chunk;
+	}
+
+	private BufferedImage renderChunk(TileLayer layer, Palette palette, int column, int row) {
+		final int startX = column * CHUNK_SIZE;
+		final int startY = row * CHUNK_SIZE;
+		final int endX = Math.min(startX + CHUNK_SIZE, layer.getWidth());
+		final int endY = Math.min(startY + CHUNK_SIZE, layer.getHeight());
+
+		if (layer.isEmpty(new Rectangle(startX, startY, endX - startX, endY - startY))) {
+			return EMPTY_CHUNK;
+		}
+
+		final BufferedImage image = new BufferedImage(CHUNK_SIZE * tileSize, CHUNK_SIZE * tileSize, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = image.createGraphics();
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				tileImageCache.paintTile(palette, graphics, layer.getTile(x, y), (x - startX) * tileSize, (y - startY) * tileSize, tileSize);
+			}
+		}
+		graphics.dispose();
+		return image;
+	}
+
+	/**
+	 * Clé d'un morceau. Les couches sont comparées par identité.
+	 */
+	private static class ChunkKey {
+		private final TileLayer layer;
+		private final int column;
+		private final int row;
+
+		ChunkKey(TileLayer layer, int column, int row) {
+			this.layer = layer;
+			this.column = column;
+			this.row = row;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = System.identityHashCode(layer);
+			hash = 31 * hash + column;
+			hash = 31 * hash + row;
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ChunkKey)) {
+				return false;
+			}
+			final ChunkKey other = (ChunkKey) obj;
+			return layer == other.layer && column == other.column && row == other.row;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.model.palette.AbstractEditablePalette;
+import fr.rca.mapmaker.model.palette.Palette;
+import fr.rca.mapmaker.model.palette.PaletteReference;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cache des images des tuiles d'une palette, pré-redimensionnées à la taille
+ * d'affichage.
+ * <p>
+ * Seules les palettes dessinant des images ({@link AbstractEditablePalette})
+ * sont mises en cache, les autres sont dessinées directement. Une tuile est
+ * automatiquement redessinée lorsque son image source change (par exemple
+ * après un appel à <code>refreshSource</code>).
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class TileImageCache {
+
+	/**
+	 * Nombre de niveaux de zoom conservés pour chaque palette.
+	 */
+	private static final int MAXIMUM_SIZES_PER_PALETTE = 3;
+
+	private final Map<Palette, Map<Integer, CachedTile[]>> caches = new WeakHashMap<>();
+
+	/**
+	 * Dessine la tuile donnée en utilisant le cache si possible.
+	 *
+	 * @param palette Palette à utiliser.
+	 * @param g Image de destination.
+	 * @param tile Numéro de la tuile.
+	 * @param x Abscisse où dessiner la tuile.
+	 * @param y Ordonnée où dessiner la tuile.
+	 * @param size Taille de la tuile.
+	 */
+	public void paintTile(Palette palette, Graphics g, int tile, int x, int y, int size) {
+		final Palette source = resolve(palette);
+
+		if (!(source instanceof AbstractEditablePalette) || size <= 0) {
+			palette.paintTile(g, tile, x, y, size);
+			return;
+		}
+
+		final AbstractEditablePalette<?> editablePalette = (AbstractEditablePalette<?>) source;
+		if (tile < 0 || tile >= editablePalette.size()) {
+			return;
+		}
+
+		final BufferedImage image = editablePalette.get(tile);
+		if (image == null) {
+			return;
+		}
+
+		final CachedTile[] tiles = getTiles(source, size, editablePalette.size());
+		CachedTile cachedTile = tiles[tile];
+		if (cachedTile == null || cachedTile.source != image) {
+			cachedTile = new CachedTile(image, scale(image, size));
+			tiles[tile] = cachedTile;
+		}
+		g.drawImage(cachedTile.scaled, x, y, null);
+	}
+
+	/**
+	 * Vide le cache de la palette donnée.
+	 *
+	 * @param palette Palette à oublier.
+	 */
+	public void invalidate(Palette palette) {
+		caches.remove(resolve(palette));
+	}
+
+	/**
+	 * Vide entièrement le cache.
+	 */
+	public void clear() {
+		caches.clear();
+	}
+
+	/**
+	 * Renvoie la palette réellement utilisée pour dessiner les tuiles.
+	 *
+	 * @param palette Palette ou référence vers une palette.
+	 * @return La palette référencée si <code>palette</code> est une
+	 * référence, <code>palette</code> sinon.
+	 */
+	static Palette resolve(Palette palette) {
+		return palette instanceof PaletteReference
+				? ((PaletteReference) palette).getPalette()
+				: palette;
+	}
+
+	private CachedTile[] getTiles(Palette palette, int size, int count) {
+		Map<Integer, CachedTile[]> sizes = caches.get(palette);
+		if (sizes == null) {
+			sizes = new LinkedHashMap<Integer, CachedTile[]>(MAXIMUM_SIZES_PER_PALETTE + 1, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, CachedTile[]> eldest) {
+					return size() > MAXIMUM_SIZES_PER_PALETTE;
+				}
+			};
+			caches.put(palette, sizes);
+		}
+
+		CachedTile[] tiles = sizes.get(size);
+		if (tiles == null) {
+			tiles = new CachedTile[count];
+			sizes.put(size, tiles);
+		} else if (tiles.length < count) {
+			tiles = Arrays.copyOf(tiles, count);
+			sizes.put(size, tiles);
+		}
+		return tiles;
+	}
+
+	private static BufferedImage scale(BufferedImage image, int size) {
+		final BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = scaled.createGraphics();
+		graphics.drawImage(image, 0, 0, size, size, null);
+		graphics.dispose();
+		return scaled;
+	}
+
+	private static class CachedTile {
+		private final BufferedImage source;
+		private final BufferedImage scaled;
+
+		CachedTile(BufferedImage source, BufferedImage scaled) {
+			this.source = source;
+			this.scaled = scaled;
+		}
+	}
+}
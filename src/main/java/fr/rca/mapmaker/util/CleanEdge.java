@@ -16,6 +16,16 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.geom.Point2D;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 import javax.swing.JFrame;
 import javax.swing.Timer;
 import lombok.AllArgsConstructor;
@@ -38,6 +48,34 @@ public class CleanEdge {
 	private static final Point CENTER = new Point(0.5, 0.5);
 	private static final Color TRANSPARENT = new Color(0, 0, 0, 0);
 
+	/**
+	 * Valeur renvoyée par <code>sliceDist</code> lorsque le point n'est pas
+	 * coupé.
+	 */
+	private static final int NO_SLICE = Integer.MIN_VALUE;
+
+	/**
+	 * Nombre de tuiles à partir duquel les lignes sont calculées en
+	 * parallèle.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64 * 64;
+
+	/**
+	 * Nombre maximum de fonctions analysées conservées.
+	 */
+	private static final int MAX_OPERATIONS = 256;
+
+	/**
+	 * Fonctions déjà analysées. Les moins récemment utilisées sont oubliées
+	 * au delà de {@link #MAX_OPERATIONS} fonctions.
+	 */
+	private static final Map<String, Operation> OPERATIONS = Collections.synchronizedMap(new LinkedHashMap<String, Operation>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Operation> eldest) {
+			return size() > MAX_OPERATIONS;
+		}
+	});
+
 	/**
 	 * Gère des pentes au lieu de ne gérer que des angles à 45°. Obligatoire
 	 * pour les rotations.
@@ -88,7 +126,7 @@ public class CleanEdge {
 
 	public void shade(DataLayer layer) {
 		if (function != null && operation == null) {
-			operation = OperationParser.parse(function);
+			operation = OPERATIONS.computeIfAbsent(function, OperationParser::parse);
 		}
 		if (scale == null && scaleRate != null) {
 			scale = new Point(scaleRate, scaleRate);
@@ -99,38 +137,76 @@ public class CleanEdge {
 		}
 		final int width = (int) Math.ceil(layer.getWidth() * scale.x);
 		final int height = (int) Math.ceil(layer.getHeight() * scale.y);
-		final int max = width * height;
 
-		final int[] tiles = new int[max];
-		for (int index = 0; index < max; index++) {
-			Point point = new Point(index % width + scale.x / 2, index / width + scale.y / 2);
+		final Source source = new Source(layer, palette);
+
+		// Une opération donnée directement ne peut pas être comparée.
+		final ShadeCache.Key key = operation == null || function != null
+				? new ShadeCache.Key(source.tiles, source.colors, layer.getWidth(), width, height, new double[] {
+					slope ? 1 : 0, cleanUpSmallDetails ? 1 : 0,
+					highestColor.red, highestColor.green, highestColor.blue, highestColor.alpha,
+					similarThreshold, lineWidth, scale.x, scale.y, rotation}, function)
+				: null;
+
+		int[] tiles = key != null ? ShadeCache.INSTANCE.get(key) : null;
+		if (tiles == null) {
+			tiles = shade(source, width, height);
+			if (key != null) {
+				ShadeCache.INSTANCE.put(key, tiles);
+			}
+		}
+		layer.restoreData(tiles, width, height);
+	}
 
-			if (operation != null) {
-				point.y = point.y - operation.execute(point.x);
+	/**
+	 * Calcule les tuiles agrandies. Les lignes sont calculées en parallèle
+	 * lorsque l'image est assez grande.
+	 */
+	private int[] shade(Source source, int width, int height) {
+		final int[] tiles = new int[width * height];
+
+		// Décalage vertical de chaque colonne.
+		final double[] offsets = new double[width];
+		if (operation != null) {
+			for (int x = 0; x < width; x++) {
+				offsets[x] = operation.execute(x + scale.x / 2);
 			}
-			if (rotation != 0) {
-				final double middleX = width / 2.0;
-				final double middleY = height / 2.0;
+		}
+		final double cos = Math.cos(rotation);
+		final double sin = Math.sin(rotation);
+		final double middleX = width / 2.0;
+		final double middleY = height / 2.0;
 
-				final double displacementX = point.x - middleX;
-				final double displacementY = point.y - middleY;
+		final Shader shader = new Shader(source);
+		final IntConsumer shadeRow = y -> {
+			for (int x = 0; x < width; x++) {
+				double pointX = x + scale.x / 2;
+				double pointY = y + scale.y / 2 - offsets[x];
 
-				final double xPrime = displacementX * Math.cos(rotation) + displacementY * Math.sin(rotation);
-				final double yPrime = -displacementX * Math.sin(rotation) + displacementY * Math.cos(rotation);
+				if (rotation != 0) {
+					final double displacementX = pointX - middleX;
+					final double displacementY = pointY - middleY;
 
-				point = new Point(xPrime + middleX, yPrime + middleY);
-			}
-			if (scale.x != 1 || scale.y != 1) {
-				point = new Point(point.x / scale.x, point.y / scale.y);
+					pointX = displacementX * cos + displacementY * sin + middleX;
+					pointY = -displacementX * sin + displacementY * cos + middleY;
+				}
+				if (scale.x != 1 || scale.y != 1) {
+					pointX = pointX / scale.x;
+					pointY = pointY / scale.y;
+				}
+
+				tiles[y * width + x] = source.tile(shader.fragment(pointX, pointY));
 			}
+		};
 
-			tiles[index] = fragment(point, layer);
+		if (width * height >= PARALLEL_THRESHOLD) {
+			IntStream.range(0, height).parallel().forEach(shadeRow);
+		} else {
+			for (int y = 0; y < height; y++) {
+				shadeRow.accept(y);
+			}
 		}
-		layer.restoreData(tiles, width, height);
-	}
-
-	private double distance(int lhs, int rhs) {
-		return distance(getTileColor(lhs), getTileColor(rhs));
+		return tiles;
 	}
 
 	private static double distance(Color lhs, Color rhs) {
@@ -161,26 +237,6 @@ public class CleanEdge {
 		return (lhs.getAlpha() == 0 && rhs.getAlpha() == 0) || (distance(lhs, rhs) <= similarThreshold);
 	}
 
-	private boolean isSimilar(int lhs, int rhs) {
-		return isSimilar(getTileColor(lhs), getTileColor(rhs));
-	}
-
-	private boolean isSimilar(Color color1, Color color2, Color color3) {
-		return isSimilar(color1, color2) && isSimilar(color2, color3);
-	}
-
-	private boolean isSimilar(int color1, int color2, int color3) {
-		return isSimilar(getTileColor(color1), getTileColor(color2), getTileColor(color3));
-	}
-
-	private boolean isSimilar(Color color1, Color color2, Color color3, Color color4) {
-		return isSimilar(color1, color2) && isSimilar(color2, color3) && isSimilar(color3, color4);
-	}
-
-	private boolean isSimilar(int color1, int color2, int color3, int color4) {
-		return isSimilar(getTileColor(color1), getTileColor(color2), getTileColor(color3), getTileColor(color4));
-	}
-
 	private boolean isHigher(Color thisColor, Color otherColor) {
 		if (isSimilar(thisColor, otherColor)) {
 			return false;
@@ -191,254 +247,523 @@ public class CleanEdge {
 		}
 	}
 
-	private boolean isHigher(int thisColor, int otherColor) {
-		return isHigher(getTileColor(thisColor), getTileColor(otherColor));
+	private static Color toColor(java.awt.Color color) {
+		return color != null
+				? new Color(color.getRed() / 255.0, color.getGreen() / 255.0, color.getBlue() / 255.0, color.getAlpha() / 255.0)
+				: TRANSPARENT;
 	}
 
-	private Integer sliceDist(Point point, Point mainDir, Point pointDir, int u, int uf, int uff, int b, int c, int f, int ff, int db, int d, int df, int dff, int ddb, int dd, int ddf) {
-		final double minWidth, maxWidth;
-		if (slope) {
-			minWidth = 0.44;
-			maxWidth = 1.142;
-		} else {
-			minWidth = 0.0;
-			maxWidth = 1.4;
-		}
-		final double _lineWidth = Math.max(minWidth, Math.min(maxWidth, lineWidth));
-		//flip point
-		point = mainDir.multiply(point.substract(0.5)).add(0.5);
-
-		//edge detection
-		final double distAgainst = 4.0 * distance(f, d) + distance(uf, c) + distance(c, db) + distance(ff, df) + distance(df, dd);
-		final double distTowards = 4.0 * distance(c, df) + distance(u, f) + distance(f, dff) + distance(b, d) + distance(d, ddf);
-		boolean shouldSlice =
-				(distAgainst < distTowards)
-				|| (distAgainst < distTowards + 0.001) && !isHigher(c, f); //equivalent edges edge case
-		if (isSimilar(f, d, b, u) && isSimilar(uf, df, db/*, ub*/) && !isSimilar(c, f)) { //checkerboard edge case
-			shouldSlice = false;
-		}
-		if (!shouldSlice) {
-			return null;
-		}
-
-		double dist;
-		boolean flip = false;
-
-		if (slope && isSimilar(f, d, db) && !isSimilar(f, d, b) && !isSimilar(uf, db)) { //lower shallow 2:1 slant
-			//single pixel wide diagonal, dont flip
-			final boolean singlePixelWideDiagonal = isSimilar(c, df) && isHigher(c, f);
-			if (!singlePixelWideDiagonal) {
-				//priority edge cases
-				if (isHigher(c, f)) {
-					flip = true;
-				}
-				if (isSimilar(u, f) && !isSimilar(c, df) && !isHigher(c, u)) {
-					flip = true;
+	/**
+	 * Distance entre le point donné et une droite.
+	 *
+	 * @see Point#distToLine(Point, Point, Point)
+	 */
+	private static double distToLine(double x, double y, double x1, double y1, double x2, double y2, double dirX, double dirY) {
+		final double perpX = y2 - y1;
+		final double perpY = -(x2 - x1);
+		final double length = Math.sqrt(perpX * perpX + perpY * perpY);
+		return ((perpX * dirX + perpY * dirY) > 0.0 ? 1.0 : -1.0)
+				* ((perpX / length) * (x1 - x) + (perpY / length) * (y1 - y));
+	}
+
+	/**
+	 * Tuiles de la couche source, numérotées par couleur distincte.
+	 * <p>
+	 * Chaque tuile est remplacée par le numéro de sa couleur (0 pour les
+	 * tuiles hors de la couche) pour que les distances puissent être lues
+	 * dans une table.
+	 */
+	private static class Source {
+		/**
+		 * Numéro de la couleur utilisée pour les tuiles hors de la couche.
+		 */
+		private static final int OUTSIDE = 0;
+
+		private final int width;
+		private final int height;
+		private final int[] tiles;
+
+		/**
+		 * Numéro de la couleur de chaque tuile.
+		 */
+		private final int[] slots;
+
+		/**
+		 * Tuile correspondant à chaque numéro de couleur.
+		 */
+		private final int[] tileOfSlot;
+
+		/**
+		 * Couleur ARGB de chaque numéro, utilisée par le cache.
+		 */
+		private final int[] colors;
+
+		private final Color[] slotColors;
+
+		Source(DataLayer layer, ColorPalette palette) {
+			this.width = layer.getWidth();
+			this.height = layer.getHeight();
+			this.tiles = layer.copyData();
+			this.slots = new int[tiles.length];
+
+			final HashMap<Integer, Integer> slotOfTile = new HashMap<>();
+			final ArrayList<Integer> tilesOfSlots = new ArrayList<>();
+			slotOfTile.put(-1, OUTSIDE);
+			tilesOfSlots.add(-1);
+			for (int index = 0; index < tiles.length; index++) {
+				final int tile = tiles[index];
+				Integer slot = slotOfTile.get(tile);
+				if (slot == null) {
+					slot = tilesOfSlots.size();
+					slotOfTile.put(tile, slot);
+					tilesOfSlots.add(tile);
 				}
+				slots[index] = slot;
+			}
+
+			this.tileOfSlot = new int[tilesOfSlots.size()];
+			this.colors = new int[tileOfSlot.length];
+			this.slotColors = new Color[tileOfSlot.length];
+			for (int slot = 0; slot < tileOfSlot.length; slot++) {
+				tileOfSlot[slot] = tilesOfSlots.get(slot);
+				final java.awt.Color color = palette.getColor(tileOfSlot[slot]);
+				colors[slot] = color != null ? color.getRGB() : 0;
+				slotColors[slot] = toColor(color);
 			}
+		}
+
+		int slot(int x, int y) {
+			return x >= 0 && x < width && y >= 0 && y < height
+					? slots[y * width + x]
+					: OUTSIDE;
+		}
+
+		int tile(int slot) {
+			return tileOfSlot[slot];
+		}
+
+		int size() {
+			return tileOfSlot.length;
+		}
+	}
 
-			if (flip) {
-				//midpoints of neighbor two-pixel groupings
-				dist = _lineWidth - point.distToLine(CENTER.add(pointDir.multiply(1.5, -1.0)), CENTER.add(pointDir.multiply(-0.5, 0.0)), pointDir.negative());
+	/**
+	 * Calcul de la couleur de chaque point. Les comparaisons de couleurs sont
+	 * lues dans des tables calculées une fois par appel à
+	 * {@link #shade(DataLayer)}.
+	 * <p>
+	 * Ne crée aucun objet par point, peut être utilisé par plusieurs threads.
+	 */
+	private class Shader {
+		private final Source source;
+		private final int size;
+
+		private final double lineWidth;
+
+		/**
+		 * Distance entre chaque couple de couleurs (ligne * size + colonne).
+		 */
+		private final double[] distances;
+		private final boolean[] similar;
+		private final boolean[] higher;
+
+		Shader(Source source) {
+			this.source = source;
+			this.size = source.size();
+
+			final double minWidth, maxWidth;
+			if (slope) {
+				minWidth = 0.44;
+				maxWidth = 1.142;
 			} else {
-				//midpoints of neighbor two-pixel groupings
-				dist = point.distToLine(CENTER.add(pointDir.multiply(1.5, 0.0)), CENTER.add(pointDir.multiply(-0.5, 1.0)), pointDir);
+				minWidth = 0.0;
+				maxWidth = 1.4;
+			}
+			this.lineWidth = Math.max(minWidth, Math.min(maxWidth, CleanEdge.this.lineWidth));
+
+			this.distances = new double[size * size];
+			this.similar = new boolean[size * size];
+			this.higher = new boolean[size * size];
+			for (int lhs = 0; lhs < size; lhs++) {
+				for (int rhs = 0; rhs < size; rhs++) {
+					final Color lhsColor = source.slotColors[lhs];
+					final Color rhsColor = source.slotColors[rhs];
+					distances[lhs * size + rhs] = CleanEdge.distance(lhsColor, rhsColor);
+					similar[lhs * size + rhs] = CleanEdge.this.isSimilar(lhsColor, rhsColor);
+					higher[lhs * size + rhs] = CleanEdge.this.isHigher(lhsColor, rhsColor);
+				}
 			}
+		}
 
-			//cleanup slant transitions
-			if (cleanUpSmallDetails && !flip && isSimilar(c, uf) && !(isSimilar(c, uf, uff) && !isSimilar(c, uf, ff) && !isSimilar(d, uff))) { //shallow
-				double dist2 = point.distToLine(CENTER.add(pointDir.multiply(2.0, -1.0)), CENTER.add(pointDir.multiply(-0.0, 1.0)), pointDir);
-				dist = Math.min(dist, dist2);
+		private double distance(int lhs, int rhs) {
+			return distances[lhs * size + rhs];
+		}
+
+		private boolean isSimilar(int lhs, int rhs) {
+			return similar[lhs * size + rhs];
+		}
+
+		private boolean isSimilar(int color1, int color2, int color3) {
+			return isSimilar(color1, color2) && isSimilar(color2, color3);
+		}
+
+		private boolean isSimilar(int color1, int color2, int color3, int color4) {
+			return isSimilar(color1, color2) && isSimilar(color2, color3) && isSimilar(color3, color4);
+		}
+
+		private boolean isHigher(int thisColor, int otherColor) {
+			return higher[thisColor * size + otherColor];
+		}
+
+		/**
+		 * Distance entre le point donné et la droite passant par
+		 * <code>CENTER + pointDir * (x1, y1)</code> et
+		 * <code>CENTER + pointDir * (x2, y2)</code>, orientée selon
+		 * <code>pointDir</code> (ou son opposé si <code>negative</code>).
+		 */
+		private double distToLine(double x, double y, double dirX, double dirY, double x1, double y1, double x2, double y2, boolean negative) {
+			final double sign = negative ? -1.0 : 1.0;
+			return CleanEdge.distToLine(x, y,
+					CENTER.x + dirX * x1, CENTER.y + dirY * y1,
+					CENTER.x + dirX * x2, CENTER.y + dirY * y2,
+					dirX * sign, dirY * sign);
+		}
+
+		private int sliceDist(double localX, double localY, double mainDirX, double mainDirY, double dirX, double dirY, int u, int uf, int uff, int b, int c, int f, int ff, int db, int d, int df, int dff, int ddb, int dd, int ddf) {
+			//flip point
+			final double x = mainDirX * (localX - 0.5) + 0.5;
+			final double y = mainDirY * (localY - 0.5) + 0.5;
+
+			//edge detection
+			final double distAgainst = 4.0 * distance(f, d) + distance(uf, c) + distance(c, db) + distance(ff, df) + distance(df, dd);
+			final double distTowards = 4.0 * distance(c, df) + distance(u, f) + distance(f, dff) + distance(b, d) + distance(d, ddf);
+			boolean shouldSlice =
+					(distAgainst < distTowards)
+					|| (distAgainst < distTowards + 0.001) && !isHigher(c, f); //equivalent edges edge case
+			if (isSimilar(f, d, b, u) && isSimilar(uf, df, db/*, ub*/) && !isSimilar(c, f)) { //checkerboard edge case
+				shouldSlice = false;
+			}
+			if (!shouldSlice) {
+				return NO_SLICE;
 			}
 
-			dist -= (_lineWidth / 2.0);
-			return dist <= 0.0 ? ((distance(c, f) <= distance(c, d)) ? f : d) : null;
-		} else if (slope && isSimilar(uf, f, d) && !isSimilar(u, f, d) && !isSimilar(uf, db)) { //forward steep 2:1 slant
-			//single pixel wide diagonal, dont flip
-			final boolean singlePixelWideDiagonal = isSimilar(c, df) && isSimilar(c, d);
-			if (!singlePixelWideDiagonal) {
-				//priority edge cases
-				if (isHigher(c, d)) {
-					flip = true;
+			double dist;
+			boolean flip = false;
+
+			if (slope && isSimilar(f, d, db) && !isSimilar(f, d, b) && !isSimilar(uf, db)) { //lower shallow 2:1 slant
+				//single pixel wide diagonal, dont flip
+				final boolean singlePixelWideDiagonal = isSimilar(c, df) && isHigher(c, f);
+				if (!singlePixelWideDiagonal) {
+					//priority edge cases
+					if (isHigher(c, f)) {
+						flip = true;
+					}
+					if (isSimilar(u, f) && !isSimilar(c, df) && !isHigher(c, u)) {
+						flip = true;
+					}
 				}
-				if (isSimilar(b, d) && !isSimilar(c, df) && !isHigher(c, d)) {
-					flip = true;
+
+				if (flip) {
+					//midpoints of neighbor two-pixel groupings
+					dist = lineWidth - distToLine(x, y, dirX, dirY, 1.5, -1.0, -0.5, 0.0, true);
+				} else {
+					//midpoints of neighbor two-pixel groupings
+					dist = distToLine(x, y, dirX, dirY, 1.5, 0.0, -0.5, 1.0, false);
 				}
-			}
 
-			if (flip) {
-				//midpoints of neighbor two-pixel groupings
-				dist = _lineWidth - point.distToLine(CENTER.add(pointDir.multiply(0.0, -0.5)), CENTER.add(pointDir.multiply(-1.0, 1.5)), pointDir.negative());
-			} else {
-				//midpoints of neighbor two-pixel groupings
-				dist = point.distToLine(CENTER.add(pointDir.multiply(1.0, -0.5)), CENTER.add(pointDir.multiply(0.0, 1.5)), pointDir);
-			}
+				//cleanup slant transitions
+				if (cleanUpSmallDetails && !flip && isSimilar(c, uf) && !(isSimilar(c, uf, uff) && !isSimilar(c, uf, ff) && !isSimilar(d, uff))) { //shallow
+					double dist2 = distToLine(x, y, dirX, dirY, 2.0, -1.0, -0.0, 1.0, false);
+					dist = Math.min(dist, dist2);
+				}
 
-			//cleanup slant transitions
-			if (cleanUpSmallDetails && !flip && isSimilar(c, db) && !(isSimilar(c, db, ddb) && !isSimilar(c, db, dd) && !isSimilar(f, ddb))) { //steep
-				double dist2 = point.distToLine(CENTER.add(pointDir.multiply(1.0, 0.0)), CENTER.add(pointDir.multiply(-1.0, 2.0)), pointDir);
-				dist = Math.min(dist, dist2);
-			}
+				dist -= (lineWidth / 2.0);
+				return dist <= 0.0 ? ((distance(c, f) <= distance(c, d)) ? f : d) : NO_SLICE;
+			} else if (slope && isSimilar(uf, f, d) && !isSimilar(u, f, d) && !isSimilar(uf, db)) { //forward steep 2:1 slant
+				//single pixel wide diagonal, dont flip
+				final boolean singlePixelWideDiagonal = isSimilar(c, df) && isSimilar(c, d);
+				if (!singlePixelWideDiagonal) {
+					//priority edge cases
+					if (isHigher(c, d)) {
+						flip = true;
+					}
+					if (isSimilar(b, d) && !isSimilar(c, df) && !isHigher(c, d)) {
+						flip = true;
+					}
+				}
 
-			dist -= (_lineWidth / 2.0);
-			return dist <= 0.0 ? ((distance(c, f) <= distance(c, d)) ? f : d) : null;
-		} else if (isSimilar(f, d)) { //45 diagonal
-			if (isSimilar(c, df) && isHigher(c, f)) { //single pixel diagonal along neighbors, dont flip
-				if (!isSimilar(c, dd) && !isSimilar(c, ff)) { //line against triple color stripe edge case
-					flip = true;
+				if (flip) {
+					//midpoints of neighbor two-pixel groupings
+					dist = lineWidth - distToLine(x, y, dirX, dirY, 0.0, -0.5, -1.0, 1.5, true);
+				} else {
+					//midpoints of neighbor two-pixel groupings
+					dist = distToLine(x, y, dirX, dirY, 1.0, -0.5, 0.0, 1.5, false);
 				}
-			} else {
-				//priority edge cases
-				if (isHigher(c, f)) {
-					flip = true;
+
+				//cleanup slant transitions
+				if (cleanUpSmallDetails && !flip && isSimilar(c, db) && !(isSimilar(c, db, ddb) && !isSimilar(c, db, dd) && !isSimilar(f, ddb))) { //steep
+					double dist2 = distToLine(x, y, dirX, dirY, 1.0, 0.0, -1.0, 2.0, false);
+					dist = Math.min(dist, dist2);
 				}
-				if (!isSimilar(c, b) && isSimilar(b, f, d, u)) {
+
+				dist -= (lineWidth / 2.0);
+				return dist <= 0.0 ? ((distance(c, f) <= distance(c, d)) ? f : d) : NO_SLICE;
+			} else if (isSimilar(f, d)) { //45 diagonal
+				if (isSimilar(c, df) && isHigher(c, f)) { //single pixel diagonal along neighbors, dont flip
+					if (!isSimilar(c, dd) && !isSimilar(c, ff)) { //line against triple color stripe edge case
+						flip = true;
+					}
+				} else {
+					//priority edge cases
+					if (isHigher(c, f)) {
+						flip = true;
+					}
+					if (!isSimilar(c, b) && isSimilar(b, f, d, u)) {
+						flip = true;
+					}
+				}
+				//single pixel 2:1 slope, dont flip
+				if ((((isSimilar(f, db) && isSimilar(u, f, df)) || (isSimilar(uf, d) && isSimilar(b, d, df))) && !isSimilar(c, df))) {
 					flip = true;
 				}
-			}
-			//single pixel 2:1 slope, dont flip
-			if ((((isSimilar(f, db) && isSimilar(u, f, df)) || (isSimilar(uf, d) && isSimilar(b, d, df))) && !isSimilar(c, df))) {
-				flip = true;
-			}
 
-			if (flip) {
-				//midpoints of own diagonal pixels
-				dist = _lineWidth - point.distToLine(CENTER.add(pointDir.multiply(1.0, -1.0)), CENTER.add(pointDir.multiply(-1.0, 1.0)), pointDir.negative());
-			} else {
-				//midpoints of corner neighbor pixels
-				dist = point.distToLine(CENTER.add(pointDir.multiply(1.0, 0.0)), CENTER.add(pointDir.multiply(0.0, 1.0)), pointDir);
-			}
-
-			//cleanup slant transitions
-			if (slope && cleanUpSmallDetails) {
-				if (!flip && isSimilar(c, uf, uff) && !isSimilar(c, uf, ff) && !isSimilar(d, uff)) { //shallow
-					double dist2 = point.distToLine(CENTER.add(pointDir.multiply(1.5, 0.0)), CENTER.add(pointDir.multiply(-0.5, 1.0)), pointDir);
-					dist = Math.max(dist, dist2);
+				if (flip) {
+					//midpoints of own diagonal pixels
+					dist = lineWidth - distToLine(x, y, dirX, dirY, 1.0, -1.0, -1.0, 1.0, true);
+				} else {
+					//midpoints of corner neighbor pixels
+					dist = distToLine(x, y, dirX, dirY, 1.0, 0.0, 0.0, 1.0, false);
 				}
 
-				if (!flip && isSimilar(ddb, db, c) && !isSimilar(dd, db, c) && !isSimilar(ddb, f)) { //steep
-					double dist2 = point.distToLine(CENTER.add(pointDir.multiply(1.0, -0.5)), CENTER.add(pointDir.multiply(0.0, 1.5)), pointDir);
-					dist = Math.max(dist, dist2);
+				//cleanup slant transitions
+				if (slope && cleanUpSmallDetails) {
+					if (!flip && isSimilar(c, uf, uff) && !isSimilar(c, uf, ff) && !isSimilar(d, uff)) { //shallow
+						double dist2 = distToLine(x, y, dirX, dirY, 1.5, 0.0, -0.5, 1.0, false);
+						dist = Math.max(dist, dist2);
+					}
+
+					if (!flip && isSimilar(ddb, db, c) && !isSimilar(dd, db, c) && !isSimilar(ddb, f)) { //steep
+						double dist2 = distToLine(x, y, dirX, dirY, 1.0, -0.5, 0.0, 1.5, false);
+						dist = Math.max(dist, dist2);
+					}
 				}
-			}
-			dist -= (_lineWidth / 2.0);
-			return dist <= 0.0 ? ((distance(c, f) <= distance(c, d)) ? f : d) : null;
-		} else if (slope && isSimilar(ff, df, d) && !isSimilar(ff, df, c) && !isSimilar(uff, d)) { //far corner of shallow slant 
+				dist -= (lineWidth / 2.0);
+				return dist <= 0.0 ? ((distance(c, f) <= distance(c, d)) ? f : d) : NO_SLICE;
+			} else if (slope && isSimilar(ff, df, d) && !isSimilar(ff, df, c) && !isSimilar(uff, d)) { //far corner of shallow slant 
 
-			if (isSimilar(f, dff) && isHigher(f, ff)) { //single pixel wide diagonal, dont flip
+				if (isSimilar(f, dff) && isHigher(f, ff)) { //single pixel wide diagonal, dont flip
 
-			} else {
-				//priority edge cases
-				if (isHigher(f, ff)) {
-					flip = true;
+				} else {
+					//priority edge cases
+					if (isHigher(f, ff)) {
+						flip = true;
+					}
+					if (isSimilar(uf, ff) && !isSimilar(f, dff) && !isHigher(f, uf)) {
+						flip = true;
+					}
 				}
-				if (isSimilar(uf, ff) && !isSimilar(f, dff) && !isHigher(f, uf)) {
-					flip = true;
+				if (flip) {
+					//midpoints of neighbor two-pixel groupings
+					dist = lineWidth - distToLine(x, y, dirX, dirY, 1.5 + 1.0, -1.0, -0.5 + 1.0, 0.0, true);
+				} else {
+					//midpoints of neighbor two-pixel groupings
+					dist = distToLine(x, y, dirX, dirY, 1.5 + 1.0, 0.0, -0.5 + 1.0, 1.0, false);
 				}
-			}
-			if (flip) {
-				//midpoints of neighbor two-pixel groupings
-				dist = _lineWidth - point.distToLine(CENTER.add(pointDir.multiply(1.5 + 1.0, -1.0)), CENTER.add(pointDir.multiply(-0.5 + 1.0, 0.0)), pointDir.negative());
-			} else {
-				//midpoints of neighbor two-pixel groupings
-				dist = point.distToLine(CENTER.add(pointDir.multiply(1.5 + 1.0, 0.0)), CENTER.add(pointDir.multiply(-0.5 + 1.0, 1.0)), pointDir);
-			}
 
-			dist -= (_lineWidth / 2.0);
-			return dist <= 0.0 ? ((distance(f, ff) <= distance(f, df)) ? ff : df) : null;
-		} else if (slope && isSimilar(f, df, dd) && !isSimilar(c, df, dd) && !isSimilar(f, ddb)) { //far corner of steep slant
-			//single pixel wide diagonal, dont flip
-			final boolean singlePixelWideDiagonal = isSimilar(d, ddf) && isHigher(d, dd);
-			if (!singlePixelWideDiagonal) {
-				//priority edge cases
-				if (isHigher(d, dd)) {
-					flip = true;
+				dist -= (lineWidth / 2.0);
+				return dist <= 0.0 ? ((distance(f, ff) <= distance(f, df)) ? ff : df) : NO_SLICE;
+			} else if (slope && isSimilar(f, df, dd) && !isSimilar(c, df, dd) && !isSimilar(f, ddb)) { //far corner of steep slant
+				//single pixel wide diagonal, dont flip
+				final boolean singlePixelWideDiagonal = isSimilar(d, ddf) && isHigher(d, dd);
+				if (!singlePixelWideDiagonal) {
+					//priority edge cases
+					if (isHigher(d, dd)) {
+						flip = true;
+					}
+					if (isSimilar(db, dd) && !isSimilar(d, ddf) && !isHigher(d, dd)) {
+						flip = true;
+					}
 				}
-				if (isSimilar(db, dd) && !isSimilar(d, ddf) && !isHigher(d, dd)) {
-					flip = true;
+
+				if (flip) {
+					//midpoints of neighbor two-pixel groupings
+					dist = lineWidth - distToLine(x, y, dirX, dirY, 0.0, -0.5 + 1.0, -1.0, 1.5 + 1.0, true);
+				} else {
+					//midpoints of neighbor two-pixel groupings
+					dist = distToLine(x, y, dirX, dirY, 1.0, -0.5 + 1.0, 0.0, 1.5 + 1.0, false);
 				}
+				dist -= (lineWidth / 2.0);
+				return dist <= 0.0 ? ((distance(d, df) <= distance(d, dd)) ? df : dd) : NO_SLICE;
 			}
+			return NO_SLICE;
+		}
 
-			if (flip) {
-				//midpoints of neighbor two-pixel groupings
-				dist = _lineWidth - point.distToLine(CENTER.add(pointDir.multiply(0.0, -0.5 + 1.0)), CENTER.add(pointDir.multiply(-1.0, 1.5 + 1.0)), pointDir.negative());
-			} else {
-				//midpoints of neighbor two-pixel groupings
-				dist = point.distToLine(CENTER.add(pointDir.multiply(1.0, -0.5 + 1.0)), CENTER.add(pointDir.multiply(0.0, 1.5 + 1.0)), pointDir);
-			}
-			dist -= (_lineWidth / 2.0);
-			return dist <= 0.0 ? ((distance(d, df) <= distance(d, dd)) ? df : dd) : null;
+		private int texture(double pxX, double pxY, double dirX, double dirY, double x, double y) {
+			return source.slot((int) (pxX + dirX * x), (int) (pxY + dirY * y));
 		}
-		return null;
-	}
 
-	private int texture(DataLayer layer, Point point) {
-		return layer.getTile((int) point.x, (int) point.y);
-	}
+		/**
+		 * Calcule la couleur du point donné.
+		 *
+		 * @return Le numéro de la couleur du point.
+		 */
+		int fragment(double pointX, double pointY) {
+			pointX += 0.0001;
+			pointY += 0.0001;
+			final double localX = fractionalOrZero(pointX);
+			final double localY = fractionalOrZero(pointY);
+			final double pxX = Math.floor(pointX);
+			final double pxY = Math.floor(pointY);
+
+			final double dirX = Math.round(localX) * 2.0 - 1.0;
+			final double dirY = Math.round(localY) * 2.0 - 1.0;
+
+			//neighbor pixels
+			//Up, Down, Forward, and Back
+			//relative to quadrant of current location within pixel
+
+			final int uub = texture(pxX, pxY, dirX, dirY, -1.0, -2.0);
+			final int uu  = texture(pxX, pxY, dirX, dirY,  0.0, -2.0);
+			final int uuf = texture(pxX, pxY, dirX, dirY,  1.0, -2.0);
+
+			final int ubb = texture(pxX, pxY, dirX, dirY, -2.0, -2.0);
+			final int ub  = texture(pxX, pxY, dirX, dirY, -1.0, -1.0);
+			final int u   = texture(pxX, pxY, dirX, dirY,  0.0, -1.0);
+			final int uf  = texture(pxX, pxY, dirX, dirY,  1.0, -1.0);
+			final int uff = texture(pxX, pxY, dirX, dirY,  2.0, -1.0);
+
+			final int bb  = texture(pxX, pxY, dirX, dirY, -2.0, 0.0);
+			final int b   = texture(pxX, pxY, dirX, dirY, -1.0, 0.0);
+			final int c   = texture(pxX, pxY, dirX, dirY,  0.0, 0.0);
+			final int f   = texture(pxX, pxY, dirX, dirY,  1.0, 0.0);
+			final int ff  = texture(pxX, pxY, dirX, dirY,  2.0, 0.0);
+
+			final int dbb = texture(pxX, pxY, dirX, dirY, -2.0, 1.0);
+			final int db  = texture(pxX, pxY, dirX, dirY, -1.0, 1.0);
+			final int d   = texture(pxX, pxY, dirX, dirY,  0.0, 1.0);
+			final int df  = texture(pxX, pxY, dirX, dirY,  1.0, 1.0);
+			final int dff = texture(pxX, pxY, dirX, dirY,  2.0, 1.0);
+
+			final int ddb = texture(pxX, pxY, dirX, dirY, -1.0, 2.0);
+			final int dd  = texture(pxX, pxY, dirX, dirY,  0.0, 2.0);
+			final int ddf = texture(pxX, pxY, dirX, dirY,  1.0, 2.0);
+
+			int col = c;
+
+			//c_orner, b_ack, and u_p slices
+			// (slices from neighbor pixels will only ever reach these 3 quadrants
+			final int c_col = sliceDist(localX, localY,  1.0,  1.0, dirX, dirY, u, uf, uff, b, c, f, ff, db, d, df, dff, ddb, dd, ddf);
+			final int b_col = sliceDist(localX, localY, -1.0,  1.0, dirX, dirY, u, ub, ubb, f, c, b, bb, df, d, db, dbb, ddf, dd, ddb);
+			final int u_col = sliceDist(localX, localY,  1.0, -1.0, dirX, dirY, d, df, dff, b, c, f, ff, ub, u, uf, uff, uub, uu, uuf);
+
+			if (c_col != NO_SLICE) {
+				col = c_col;
+			}
+			if (b_col != NO_SLICE) {
+				col = b_col;
+			}
+			if (u_col != NO_SLICE) {
+				col = u_col;
+			}
 
-	private Color getTileColor(int tile) {
-		final java.awt.Color color = palette.getColor(tile);
-		return color != null
-				? new Color(color.getRed() / 255.0, color.getGreen() / 255.0, color.getBlue() / 255.0, color.getAlpha() / 255.0)
-				: TRANSPARENT;
+			return col;
+		}
 	}
 
-	private int fragment(Point px, DataLayer layer) {
-		px = px.add(0.0001);
-		Point local = px.fractional();
-		px = px.floor();
-
-		Point pointDir = local.round().multiply(2).substract(1);
-
-		//neighbor pixels
-		//Up, Down, Forward, and Back
-		//relative to quadrant of current location within pixel
+	private static double fractionalOrZero(double value) {
+		return value < 0
+				? value + Math.floor(-value)
+				: value - Math.floor(value);
+	}
 
-		int uub = texture(layer, px.add(pointDir.multiply(-1.0, -2.0)));
-		int uu  = texture(layer, px.add(pointDir.multiply( 0.0, -2.0)));
-		int uuf = texture(layer, px.add(pointDir.multiply( 1.0, -2.0)));
+	/**
+	 * Résultats déjà calculés, identifiés par le contenu de la couche source,
+	 * les couleurs utilisées, la taille voulue et les paramètres.
+	 * <p>
+	 * Les résultats les moins récemment utilisés sont oubliés au delà de
+	 * {@link #MAX_TILES} tuiles.
+	 */
+	private static class ShadeCache {
+		static final ShadeCache INSTANCE = new ShadeCache();
 
-		int ubb = texture(layer, px.add(pointDir.multiply(-2.0, -2.0)));
-		int ub  = texture(layer, px.add(pointDir.multiply(-1.0, -1.0)));
-		int u   = texture(layer, px.add(pointDir.multiply( 0.0, -1.0)));
-		int uf  = texture(layer, px.add(pointDir.multiply( 1.0, -1.0)));
-		int uff = texture(layer, px.add(pointDir.multiply( 2.0, -1.0)));
+		/**
+		 * Nombre maximum de tuiles conservées (sources et résultats).
+		 */
+		private static final long MAX_TILES = 4L * 1024L * 1024L;
 
-		int bb  = texture(layer, px.add(pointDir.multiply(-2.0, 0.0)));
-		int b   = texture(layer, px.add(pointDir.multiply(-1.0, 0.0)));
-		int c   = texture(layer, px.add(pointDir.multiply( 0.0, 0.0)));
-		int f   = texture(layer, px.add(pointDir.multiply( 1.0, 0.0)));
-		int ff  = texture(layer, px.add(pointDir.multiply( 2.0, 0.0)));
+		private final LinkedHashMap<Key, int[]> results = new LinkedHashMap<>(16, 0.75f, true);
+		private long tileCount;
 
-		int dbb = texture(layer, px.add(pointDir.multiply(-2.0, 1.0)));
-		int db  = texture(layer, px.add(pointDir.multiply(-1.0, 1.0)));
-		int d   = texture(layer, px.add(pointDir.multiply( 0.0, 1.0)));
-		int df  = texture(layer, px.add(pointDir.multiply( 1.0, 1.0)));
-		int dff = texture(layer, px.add(pointDir.multiply( 2.0, 1.0)));
+		synchronized int[] get(Key key) {
+			return results.get(key);
+		}
 
-		int ddb = texture(layer, px.add(pointDir.multiply(-1.0, 2.0)));
-		int dd  = texture(layer, px.add(pointDir.multiply( 0.0, 2.0)));
-		int ddf = texture(layer, px.add(pointDir.multiply( 1.0, 2.0)));
+		synchronized void put(Key key, int[] tiles) {
+			final int[] previous = results.put(key, tiles);
+			if (previous != null) {
+				tileCount -= key.tiles.length + previous.length;
+			}
+			tileCount += key.tiles.length + tiles.length;
+
+			final Iterator<Map.Entry<Key, int[]>> iterator = results.entrySet().iterator();
+			while (tileCount > MAX_TILES && iterator.hasNext()) {
+				final Map.Entry<Key, int[]> eldest = iterator.next();
+				if (eldest.getKey() != key) {
+					tileCount -= eldest.getKey().tiles.length + eldest.getValue().length;
+					iterator.remove();
+				}
+			}
+		}
 
-		int col = c;
+		static class Key {
+			private final int[] tiles;
+			private final int[] colors;
+			private final int sourceWidth;
+			private final int width;
+			private final int height;
+			private final double[] parameters;
+			private final String function;
+			private final int hash;
+
+			Key(int[] tiles, int[] colors, int sourceWidth, int width, int height, double[] parameters, String function) {
+				this.tiles = tiles;
+				this.colors = colors;
+				this.sourceWidth = sourceWidth;
+				this.width = width;
+				this.height = height;
+				this.parameters = parameters;
+				this.function = function;
+
+				int hash = Arrays.hashCode(tiles);
+				hash = 31 * hash + Arrays.hashCode(colors);
+				hash = 31 * hash + sourceWidth;
+				hash = 31 * hash + width;
+				hash = 31 * hash + height;
+				hash = 31 * hash + Arrays.hashCode(parameters);
+				hash = 31 * hash + Objects.hashCode(function);
+				this.hash = hash;
+			}
 
-		//c_orner, b_ack, and u_p slices
-		// (slices from neighbor pixels will only ever reach these 3 quadrants
-		Integer c_col = sliceDist(local, new Point( 1.0, 1.0), pointDir, u, uf, uff, b, c, f, ff, db, d, df, dff, ddb, dd, ddf);
-		Integer b_col = sliceDist(local, new Point(-1.0, 1.0), pointDir, u, ub, ubb, f, c, b, bb, df, d, db, dbb, ddf, dd, ddb);
-		Integer u_col = sliceDist(local, new Point( 1.0, -1.0), pointDir, d, df, dff, b, c, f, ff, ub, u, uf, uff, uub, uu, uuf);
+			@Override
+			public int hashCode() {
+				return hash;
+			}
 
-		if (c_col != null) {
-			col = c_col;
-		}
-		if (b_col != null) {
-			col = b_col;
-		}
-		if (u_col != null) {
-			col = u_col;
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof Key)) {
+					return false;
+				}
+				final Key other = (Key) obj;
+				return hash == other.hash
+						&& sourceWidth == other.sourceWidth
+						&& width == other.width && height == other.height
+						&& Objects.equals(function, other.function)
+						&& Arrays.equals(parameters, other.parameters)
+						&& Arrays.equals(colors, other.colors)
+						&& Arrays.equals(tiles, other.tiles);
+			}
 		}
-
-		return col;
 	}
 
 	public static final class Point extends Point2D.Double {
@@ -11,8 +11,6 @@ import fr.rca.mapmaker.model.sprite.Animation;
 import fr.rca.mapmaker.ui.Grid;
 import java.awt.Color;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.HashMap;
 import javax.swing.JFrame;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,47 +25,23 @@ public class Dithering {
 	public static boolean usePerceivedLightness = false;
 
 
-	public static TileLayer dither(DataLayer layer, ColorPalette palette) {
-		final int blackColor = palette.indexOf(Color.BLACK);
-		final int whiteColor = palette.indexOf(Color.WHITE);
-		final int transparentColor = -1;
-
-		final HashMap<Integer, Double> lightnessMap = new HashMap<>();
-
-		final int height = layer.getHeight();
-		final int width = layer.getWidth();
-		final int length = width * height;
-
-		final int[] bwPixels = new int[length];
-		Arrays.fill(bwPixels, transparentColor);
-
-		for (int y = 0; y < height; y++) {
-			int offset = y * width;
-
-			for (int x = 0; x < width; x++) {
-				int pixel = layer.getTile(x, y);
-				if (pixel < 0) {
-					continue;
-				}
-				if (pixel == blackColor || pixel == whiteColor) {
-					bwPixels[offset + x] = pixel;
-					continue;
-				}
-				final double lightness = lightnessMap.computeIfAbsent(pixel,
-						usePerceivedLightness
-							? key -> perceivedLightnessOf(palette.getColor(key))
-							: key -> luminanceOf(palette.getColor(key)) * 100.0);
-				// Faire x traits noirs sur 16 en fonction de la brillance
-				// noir si position dans la grille < 16 * (100 - brillance) /100
-				final int gridSize = 4;
-				int blackLine = (int) (gridSize - Math.floor(gridSize * lightness / 100.0));
-				bwPixels[offset + x] = blackLine > 0 && blackLine > ((y + x) % gridSize)
-						? blackColor
-						: whiteColor;
-			}
-		}
+	/**
+	 * Nombre de tuiles entre deux traits du mode
+	 * {@link DitheringEngine.Mode#LINES}.
+	 */
+	static final int GRID_SIZE = 4;
 
-		return new TileLayer(width, height, bwPixels);
+	/**
+	 * Transforme l'image donnée en noir et blanc avec des traits diagonaux.
+	 *
+	 * @param layer Image à transformer.
+	 * @param palette Palette des couleurs de l'image.
+	 * @return Une nouvelle image.
+	 * @see DitheringEngine pour les autres modes et pour réutiliser les
+	 * résultats pendant un export.
+	 */
+	public static TileLayer dither(DataLayer layer, ColorPalette palette) {
+		return new DitheringEngine(DitheringEngine.Mode.LINES, usePerceivedLightness).dither(layer, palette);
 	}
 
 	public static int rcaBalanceLines(final double lightness, int y, final int whiteColor, final int blackColor) {
@@ -90,6 +64,20 @@ public class Dithering {
 		}
 	}
 
+	/**
+	 * Luminosité de la couleur donnée.
+	 *
+	 * @param color Couleur.
+	 * @param perceived <code>true</code> pour utiliser la luminosité perçue
+	 * (L*), <code>false</code> pour la luminance.
+	 * @return Une valeur entre 0 (noir) et 100 (blanc).
+	 */
+	static double lightnessOf(Color color, boolean perceived) {
+		return perceived
+				? perceivedLightnessOf(color)
+				: luminanceOf(color) * 100.0;
+	}
+
 	/**
 	 * L* is a value from 0 (black) to 100 (white) where 50 is the perceptual "middle grey".
 	 * L* = 50 is the equivalent of Y = 18.4, or in other words an 18% grey card,
@@ -104,7 +92,7 @@ public class Dithering {
 				// The CIE standard states 903.3, but 24389/27 is the intent, making 903.296296296296296
 				? luminance * (24389.0 / 27.0)
 				: Math.pow(luminance, 1.0 / 3.0) * 116.0 - 16.0;
-		LOGGER.trace("Color: " + color + ", luminance: " + luminance + ", lightness: " + lightness);
+		LOGGER.trace("Color: {}, luminance: {}, lightness: {}", color, luminance, lightness);
 		return lightness;
 	}
 
@@ -112,8 +100,7 @@ public class Dithering {
 		double luminance =  0.2126 * vRGBToLinear(color.getRed())
 				+ 0.7152 * vRGBToLinear(color.getGreen())
 				+ 0.0722 * vRGBToLinear(color.getBlue());
-		int grid = (int) (5 - Math.floor(5 * luminance));
-		LOGGER.trace("Color: " + color + ", luminance: " + luminance + ", grid: " + grid);
+		LOGGER.trace("Color: {}, luminance: {}, grid: {}", color, luminance, (int) (5 - Math.floor(5 * luminance)));
 		return luminance;
 	}
 
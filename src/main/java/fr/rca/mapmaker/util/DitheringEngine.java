@@ -0,0 +1,420 @@
+package fr.rca.mapmaker.util;
+
+import fr.rca.mapmaker.model.map.DataLayer;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.ColorPalette;
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Transforme des images en noir et blanc.
+ * <p>
+ * La luminosité de chaque couleur d'une palette est calculée une seule fois
+ * et rangée dans une table indexée par numéro de tuile. Les images déjà
+ * transformées par le même moteur sont réutilisées : un moteur est prévu
+ * pour durer le temps d'un export, pendant lequel les images ne sont pas
+ * modifiées.
+ * <p>
+ * Peut être utilisé par plusieurs threads.
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class DitheringEngine {
+
+	/**
+	 * Nombre de tuiles à partir duquel les lignes sont calculées en
+	 * parallèle.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64 * 64;
+
+	/**
+	 * Luminosité maximale dans les tables.
+	 */
+	private static final int MAX_LEVEL = 255;
+
+	/**
+	 * Valeur de la table pour les tuiles à transformer. Les autres valeurs
+	 * sont gardées telles quelles (transparent, noir ou blanc).
+	 */
+	private static final int DITHERED = -2;
+
+	/**
+	 * Valeur de la table pour les tuiles pas encore calculées.
+	 */
+	private static final int UNKNOWN = -3;
+
+	private static final int[][] BAYER_4X4 = {
+		{ 0,  8,  2, 10},
+		{12,  4, 14,  6},
+		{ 3, 11,  1,  9},
+		{15,  7, 13,  5}
+	};
+
+	private static final int[][] BAYER_8X8 = {
+		{ 0, 32,  8, 40,  2, 34, 10, 42},
+		{48, 16, 56, 24, 50, 18, 58, 26},
+		{12, 44,  4, 36, 14, 46,  6, 38},
+		{60, 28, 52, 20, 62, 30, 54, 22},
+		{ 3, 35, 11, 43,  1, 33,  9, 41},
+		{51, 19, 59, 27, 49, 17, 57, 25},
+		{15, 47,  7, 39, 13, 45,  5, 37},
+		{63, 31, 55, 23, 61, 29, 53, 21}
+	};
+
+	public static enum Mode {
+		/**
+		 * Traits diagonaux, plus ou moins nombreux selon la luminosité (mode
+		 * historique de {@link Dithering}).
+		 */
+		LINES,
+		/**
+		 * Tramage ordonné avec une matrice de Bayer 4x4.
+		 */
+		BAYER_4X4,
+		/**
+		 * Tramage ordonné avec une matrice de Bayer 8x8.
+		 */
+		BAYER_8X8,
+		/**
+		 * Diffusion d'erreur de Floyd-Steinberg.
+		 */
+		FLOYD_STEINBERG,
+		/**
+		 * Diffusion d'erreur d'Atkinson (seuls 6/8 de l'erreur sont
+		 * diffusés, les images restent plus contrastées).
+		 */
+		ATKINSON;
+	}
+
+	private final Mode mode;
+	private final boolean perceivedLightness;
+
+	/**
+	 * Table de luminosité de chaque palette.
+	 */
+	private final Map<ColorPalette, LookupTable> tables = new IdentityHashMap<>();
+
+	/**
+	 * Images déjà transformées, pour chaque palette.
+	 */
+	private final Map<ColorPalette, Map<TileLayer, TileLayer>> results = new IdentityHashMap<>();
+
+	public DitheringEngine() {
+		this(Mode.LINES);
+	}
+
+	public DitheringEngine(Mode mode) {
+		this(mode, Dithering.usePerceivedLightness);
+	}
+
+	public DitheringEngine(Mode mode, boolean perceivedLightness) {
+		this.mode = mode;
+		this.perceivedLightness = perceivedLightness;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public boolean isPerceivedLightness() {
+		return perceivedLightness;
+	}
+
+	/**
+	 * Transforme l'image donnée en noir et blanc.
+	 * <p>
+	 * Les tuiles transparentes (négatives ou sans couleur) restent
+	 * transparentes, les tuiles noires ou blanches sont gardées.
+	 *
+	 * @param layer Image à transformer.
+	 * @param palette Palette des couleurs de l'image.
+	 * @return Une nouvelle image n'utilisant que le noir et le blanc de la
+	 * palette. Lorsque l'image a déjà été transformée, le même résultat est
+	 * renvoyé : il ne doit pas être modifié.
+	 */
+	public TileLayer dither(DataLayer layer, ColorPalette palette) {
+		if (!(layer instanceof TileLayer)) {
+			return new TileLayer(layer.getWidth(), layer.getHeight(), dither(layer.copyData(), layer.getWidth(), layer.getHeight(), palette));
+		}
+		final TileLayer frame = (TileLayer) layer;
+		final TileLayer previous = getResult(frame, palette);
+		if (previous != null) {
+			return previous;
+		}
+		final TileLayer result = new TileLayer(frame.getWidth(), frame.getHeight(), dither(frame.copyData(), frame.getWidth(), frame.getHeight(), palette));
+		return putResult(frame, palette, result);
+	}
+
+	private synchronized TileLayer getResult(TileLayer frame, ColorPalette palette) {
+		final Map<TileLayer, TileLayer> paletteResults = results.get(palette);
+		return paletteResults != null ? paletteResults.get(frame) : null;
+	}
+
+	private synchronized TileLayer putResult(TileLayer frame, ColorPalette palette, TileLayer result) {
+		final TileLayer previous = results.computeIfAbsent(palette, key -> new HashMap<>()).putIfAbsent(frame, result);
+		return previous != null ? previous : result;
+	}
+
+	private int[] dither(int[] tiles, int width, int height, ColorPalette palette) {
+		final LookupTable table = getTable(palette, tiles);
+
+		final int[] pixels = new int[tiles.length];
+		switch (mode) {
+			case FLOYD_STEINBERG:
+				floydSteinberg(tiles, pixels, width, height, table);
+				break;
+			case ATKINSON:
+				atkinson(tiles, pixels, width, height, table);
+				break;
+			default:
+				final IntConsumer ditherRow = rowDitherer(tiles, pixels, width, table);
+				if (tiles.length >= PARALLEL_THRESHOLD) {
+					IntStream.range(0, height).parallel().forEach(ditherRow);
+				} else {
+					for (int y = 0; y < height; y++) {
+						ditherRow.accept(y);
+					}
+				}
+				break;
+		}
+		return pixels;
+	}
+
+	private synchronized LookupTable getTable(ColorPalette palette, int[] tiles) {
+		final LookupTable table = tables.computeIfAbsent(palette, LookupTable::new).extendedTo(tiles);
+		tables.put(palette, table);
+		return table;
+	}
+
+	/**
+	 * Tramages ne dépendant que de la position du point : chaque ligne est
+	 * calculée indépendamment.
+	 */
+	private IntConsumer rowDitherer(int[] tiles, int[] pixels, int width, LookupTable table) {
+		final int[] outputs = table.outputs;
+		final int[] levels = table.levels;
+		final byte[] lines = table.lines;
+		final int black = table.black;
+		final int white = table.white;
+
+		switch (mode) {
+			case LINES:
+				return y -> {
+					final int offset = y * width;
+					for (int x = 0; x < width; x++) {
+						final int tile = tiles[offset + x];
+						final int output = tile >= 0 ? outputs[tile] : -1;
+						if (output != DITHERED) {
+							pixels[offset + x] = output;
+						} else {
+							// Faire x traits noirs sur 4 en fonction de la brillance.
+							final int blackLine = lines[tile];
+							pixels[offset + x] = blackLine > 0 && blackLine > ((y + x) % Dithering.GRID_SIZE)
+									? black
+									: white;
+						}
+					}
+				};
+			default:
+				final int[][] matrix = mode == Mode.BAYER_4X4 ? BAYER_4X4 : BAYER_8X8;
+				final int size = matrix.length;
+				// Noir si luminosité < (seuil + 0.5) / (taille²).
+				final int[][] thresholds = new int[size][size];
+				for (int y = 0; y < size; y++) {
+					for (int x = 0; x < size; x++) {
+						thresholds[y][x] = (2 * matrix[y][x] + 1) * MAX_LEVEL;
+					}
+				}
+				final int scale = 2 * size * size;
+				return y -> {
+					final int offset = y * width;
+					final int[] row = thresholds[y % size];
+					for (int x = 0; x < width; x++) {
+						final int tile = tiles[offset + x];
+						final int output = tile >= 0 ? outputs[tile] : -1;
+						if (output != DITHERED) {
+							pixels[offset + x] = output;
+						} else {
+							pixels[offset + x] = levels[tile] * scale < row[x % size]
+									? black
+									: white;
+						}
+					}
+				};
+		}
+	}
+
+	/**
+	 * Diffusion de Floyd-Steinberg. L'erreur est conservée multipliée par
+	 * 16 pour rester en entiers. Chaque ligne dépend de la précédente, les
+	 * lignes sont calculées dans l'ordre.
+	 */
+	private static void floydSteinberg(int[] tiles, int[] pixels, int width, int height, LookupTable table) {
+		int[] errors = new int[width + 2];
+		int[] nextErrors = new int[width + 2];
+
+		for (int y = 0; y < height; y++) {
+			final int offset = y * width;
+			for (int x = 0; x < width; x++) {
+				final int tile = tiles[offset + x];
+				final int output = tile >= 0 ? table.outputs[tile] : -1;
+				if (output != DITHERED) {
+					// L'erreur n'est pas diffusée au travers des pixels fixes.
+					pixels[offset + x] = output;
+					continue;
+				}
+				final int value = table.levels[tile] + Math.floorDiv(errors[x + 1], 16);
+				final int error;
+				if (value < (MAX_LEVEL + 1) / 2) {
+					pixels[offset + x] = table.black;
+					error = value;
+				} else {
+					pixels[offset + x] = table.white;
+					error = value - MAX_LEVEL;
+				}
+				errors[x + 2] += error * 7;
+				nextErrors[x] += error * 3;
+				nextErrors[x + 1] += error * 5;
+				nextErrors[x + 2] += error;
+			}
+			final int[] swap = errors;
+			errors = nextErrors;
+			nextErrors = swap;
+			Arrays.fill(nextErrors, 0);
+		}
+	}
+
+	/**
+	 * Diffusion d'Atkinson. L'erreur est conservée multipliée par 8 et
+	 * diffusée sur les deux lignes suivantes.
+	 */
+	private static void atkinson(int[] tiles, int[] pixels, int width, int height, LookupTable table) {
+		int[] errors = new int[width + 4];
+		int[] nextErrors = new int[width + 4];
+		int[] lastErrors = new int[width + 4];
+
+		for (int y = 0; y < height; y++) {
+			final int offset = y * width;
+			for (int x = 0; x < width; x++) {
+				final int tile = tiles[offset + x];
+				final int output = tile >= 0 ? table.outputs[tile] : -1;
+				if (output != DITHERED) {
+					pixels[offset + x] = output;
+					continue;
+				}
+				final int value = table.levels[tile] + Math.floorDiv(errors[x + 2], 8);
+				final int error;
+				if (value < (MAX_LEVEL + 1) / 2) {
+					pixels[offset + x] = table.black;
+					error = value;
+				} else {
+					pixels[offset + x] = table.white;
+					error = value - MAX_LEVEL;
+				}
+				errors[x + 3] += error;
+				errors[x + 4] += error;
+				nextErrors[x + 1] += error;
+				nextErrors[x + 2] += error;
+				nextErrors[x + 3] += error;
+				lastErrors[x + 2] += error;
+			}
+			final int[] swap = errors;
+			errors = nextErrors;
+			nextErrors = lastErrors;
+			lastErrors = swap;
+			Arrays.fill(lastErrors, 0);
+		}
+	}
+
+	/**
+	 * Luminosité et traitement des tuiles d'une palette. Seules les tuiles
+	 * utilisées par les images sont calculées. Une table n'est jamais
+	 * modifiée : elle est remplacée par une table complétée lorsqu'une image
+	 * utilise une tuile qu'elle ne contient pas.
+	 */
+	private class LookupTable {
+		private final ColorPalette palette;
+		private final int black;
+		private final int white;
+
+		/**
+		 * Tuile à utiliser telle quelle ou {@link #DITHERED} si la tuile doit
+		 * être transformée.
+		 */
+		private final int[] outputs;
+
+		/**
+		 * Luminosité de chaque tuile, de 0 à {@link #MAX_LEVEL}.
+		 */
+		private final int[] levels;
+
+		/**
+		 * Nombre de traits noirs du mode {@link Mode#LINES}.
+		 */
+		private final byte[] lines;
+
+		LookupTable(ColorPalette palette) {
+			this.palette = palette;
+			this.black = palette.indexOf(Color.BLACK);
+			this.white = palette.indexOf(Color.WHITE);
+			this.outputs = new int[0];
+			this.levels = new int[0];
+			this.lines = new byte[0];
+		}
+
+		private LookupTable(LookupTable table, int[] tiles, int length) {
+			this.palette = table.palette;
+			this.black = table.black;
+			this.white = table.white;
+			this.outputs = Arrays.copyOf(table.outputs, length);
+			this.levels = Arrays.copyOf(table.levels, length);
+			this.lines = Arrays.copyOf(table.lines, length);
+			Arrays.fill(outputs, table.outputs.length, length, UNKNOWN);
+
+			for (final int tile : tiles) {
+				if (tile < 0 || outputs[tile] != UNKNOWN) {
+					continue;
+				}
+				final Color color = palette.getColor(tile);
+				if (color == null) {
+					outputs[tile] = -1;
+				} else if (tile == black || tile == white) {
+					outputs[tile] = tile;
+				} else {
+					final double lightness = Dithering.lightnessOf(color, perceivedLightness);
+					outputs[tile] = DITHERED;
+					levels[tile] = (int) Math.max(0, Math.min(MAX_LEVEL, Math.round(lightness * MAX_LEVEL / 100.0)));
+					lines[tile] = (byte) (Dithering.GRID_SIZE - Math.floor(Dithering.GRID_SIZE * lightness / 100.0));
+				}
+			}
+		}
+
+		/**
+		 * Renvoie une table contenant toutes les tuiles données.
+		 *
+		 * @param tiles Tuiles d'une image.
+		 * @return Cette table si elle contient déjà toutes les tuiles, une
+		 * nouvelle table sinon.
+		 */
+		LookupTable extendedTo(int[] tiles) {
+			int length = outputs.length;
+			boolean complete = true;
+			for (final int tile : tiles) {
+				if (tile >= outputs.length) {
+					length = Math.max(length, tile + 1);
+					complete = false;
+				} else if (tile >= 0 && outputs[tile] == UNKNOWN) {
+					complete = false;
+				}
+			}
+			return complete
+					? this
+					: new LookupTable(this, tiles, length);
+		}
+	}
+}
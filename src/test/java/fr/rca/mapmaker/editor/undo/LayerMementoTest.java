@@ -0,0 +1,98 @@
+package fr.rca.mapmaker.editor.undo;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import java.awt.Rectangle;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class LayerMementoTest {
+
+	@Test
+	public void testUndoRedo() {
+		System.out.println("undo/redo");
+
+		final TileLayer layer = new TileLayer(3, 3);
+		final LayerMemento instance = new LayerMemento(layer);
+
+		layer.setTile(1, 1, 4);
+		instance.begin();
+		layer.setTile(0, 0, 1);
+		layer.setTile(2, 2, 2);
+		instance.end();
+
+		Assert.assertArrayEquals(new int[] {
+			 1, -1, -1,
+			-1,  4, -1,
+			-1, -1,  2
+		}, layer.copyData());
+
+		instance.undo();
+		Assert.assertArrayEquals(new int[] {
+			-1, -1, -1,
+			-1,  4, -1,
+			-1, -1, -1
+		}, layer.copyData());
+
+		instance.undo();
+		Assert.assertTrue(layer.isEmpty());
+		Assert.assertFalse(instance.isUndoable());
+
+		instance.redo();
+		instance.redo();
+		Assert.assertArrayEquals(new int[] {
+			 1, -1, -1,
+			-1,  4, -1,
+			-1, -1,  2
+		}, layer.copyData());
+		Assert.assertFalse(instance.isRedoable());
+
+		instance.undo();
+		layer.setTile(2, 0, 3);
+		Assert.assertFalse(instance.isRedoable());
+		instance.undo();
+		Assert.assertArrayEquals(new int[] {
+			-1, -1, -1,
+			-1,  4, -1,
+			-1, -1, -1
+		}, layer.copyData());
+	}
+
+	@Test
+	public void testChangeOnlyKeepsDirtyRectangle() {
+		System.out.println("dirty rectangle");
+
+		final TileLayer layer = new TileLayer(1000, 1000);
+		final LayerMemento instance = new LayerMemento(layer);
+
+		layer.setTiles(new Rectangle(10, 10, 2, 2), 5);
+		instance.undo();
+		Assert.assertTrue(layer.isEmpty());
+		instance.redo();
+		Assert.assertEquals(5, layer.getTile(11, 11));
+		Assert.assertFalse(instance.isRedoable());
+	}
+
+	@Test
+	public void testMemoryBudget() {
+		System.out.println("memoryBudget");
+
+		final TileLayer layer = new TileLayer(10, 10);
+		final LayerMemento instance = new LayerMemento(layer);
+		instance.setMemoryBudget(8 * 3);
+
+		layer.setTile(0, 0, 1);
+		layer.setTile(1, 0, 2);
+		layer.setTile(2, 0, 3);
+		layer.setTile(3, 0, 4);
+
+		instance.undo();
+		instance.undo();
+		instance.undo();
+		Assert.assertArrayEquals(new int[] {1, -1, -1, -1}, new TileLayer(layer.copyData(), layer.getDimension(), new Rectangle(0, 0, 4, 1)).copyData());
+		Assert.assertFalse(instance.isUndoable());
+	}
+}
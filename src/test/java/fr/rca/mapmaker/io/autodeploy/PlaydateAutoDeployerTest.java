@@ -0,0 +1,193 @@
+package fr.rca.mapmaker.io.autodeploy;
+
+import fr.rca.mapmaker.io.bundle.BundleFormat;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Animation;
+import fr.rca.mapmaker.model.sprite.Sprite;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class PlaydateAutoDeployerTest {
+
+	private static final long OLD_DATE = 1_000_000_000_000L;
+
+	@Test
+	public void testIncrementalDeploy() throws IOException {
+		System.out.println("deployProjectInFolder (incremental)");
+
+		final Project project = Project.createEmptyProject();
+		final Sprite first = createSprite("first", 0);
+		final Sprite second = createSprite("second", 1);
+		project.getSprites().add(first);
+		project.getSprites().add(second);
+
+		final File root = Files.createTempDirectory("autodeploy").toFile();
+		try {
+			final PlaydateAutoDeployer deployer = new PlaydateAutoDeployer();
+			deployer.setHeadless(true);
+			deployer.setIncremental(true);
+
+			deployer.deployProjectInFolder(project, root);
+			Assert.assertTrue(new File(root, DeployManifest.FILE_NAME).isFile());
+			final File firstImage = new File(root, "Source/sprite-first-table-8-8.png");
+			final File secondImage = new File(root, "Source/sprite-second-table-8-8.png");
+			Assert.assertTrue(firstImage.isFile());
+			Assert.assertTrue(secondImage.isFile());
+
+			// Rien n'a changé : aucun fichier n'est réécrit.
+			final Map<String, byte[]> contents = readFiles(root);
+			setOldDates(root);
+			deployer.deployProjectInFolder(project, root);
+			for (final Map.Entry<String, Long> entry : dates(root).entrySet()) {
+				Assert.assertEquals(entry.getKey(), OLD_DATE, (long) entry.getValue());
+			}
+
+			// Seule l'image du sprite modifié est réécrite.
+			first.findByName(Animation.ANIMATION_NAMES.get(0)).getFrames(0.0).get(0).setTile(0, 0, 3);
+			deployer.deployProjectInFolder(project, root);
+			Assert.assertTrue(firstImage.lastModified() != OLD_DATE);
+			Assert.assertFalse(Arrays.equals(contents.get("Source/sprite-first-table-8-8.png"), Files.readAllBytes(firstImage.toPath())));
+			Assert.assertEquals(OLD_DATE, secondImage.lastModified());
+
+			// Une sortie modifiée sans changer de taille est produite de nouveau.
+			final byte[] edited = Files.readAllBytes(secondImage.toPath());
+			Arrays.fill(edited, 8, edited.length, (byte) 0);
+			Files.write(secondImage.toPath(), edited);
+			deployer.deployProjectInFolder(project, root);
+			Assert.assertArrayEquals(contents.get("Source/sprite-second-table-8-8.png"), Files.readAllBytes(secondImage.toPath()));
+
+			// Une sortie supprimée est produite de nouveau.
+			secondImage.delete();
+			deployer.deployProjectInFolder(project, root);
+			Assert.assertArrayEquals(contents.get("Source/sprite-second-table-8-8.png"), Files.readAllBytes(secondImage.toPath()));
+
+			// Le déploiement complet produit les mêmes fichiers.
+			final Map<String, byte[]> incremental = readFiles(root);
+			final File fullRoot = Files.createTempDirectory("autodeploy").toFile();
+			try {
+				final PlaydateAutoDeployer fullDeployer = new PlaydateAutoDeployer();
+				fullDeployer.setHeadless(true);
+				fullDeployer.deployProjectInFolder(project, fullRoot);
+
+				final Map<String, byte[]> full = readFiles(fullRoot);
+				incremental.remove(DeployManifest.FILE_NAME);
+				Assert.assertEquals(full.keySet(), incremental.keySet());
+				for (final Map.Entry<String, byte[]> entry : full.entrySet()) {
+					Assert.assertArrayEquals(entry.getKey(), entry.getValue(), incremental.get(entry.getKey()));
+				}
+			} finally {
+				delete(fullRoot);
+			}
+		} finally {
+			delete(root);
+		}
+	}
+
+	@Test
+	public void testWatcherSkipsUnreadableBundle() throws IOException {
+		System.out.println("AutoDeployWatcher.deploy (unreadable bundle)");
+
+		final Project project = Project.createEmptyProject();
+		project.getSprites().add(createSprite("first", 0));
+
+		final File directory = Files.createTempDirectory("autodeploy").toFile();
+		try {
+			final File bundle = new File(directory, "project.mmkb");
+			final File root = new File(directory, "output");
+			root.mkdir();
+			new BundleFormat().saveProject(project, bundle);
+
+			final PlaydateAutoDeployer deployer = new PlaydateAutoDeployer();
+			deployer.setHeadless(true);
+			final AutoDeployWatcher watcher = new AutoDeployWatcher(deployer, new BundleFormat(), bundle, root);
+
+			// Paquet incomplet : rien n'est déployé, pas même un projet vide.
+			Assert.assertTrue(new File(bundle, "map0.map").delete());
+			Assert.assertFalse(watcher.deploy());
+			Assert.assertArrayEquals(new String[0], root.list());
+
+			// Le déploiement suivant réussit une fois le paquet complet.
+			project.getMaps().get(0).setDirty(true);
+			new BundleFormat().saveProject(project, bundle);
+			Assert.assertTrue(watcher.deploy());
+			Assert.assertTrue(new File(root, "Source/sprite-first-table-8-8.png").isFile());
+		} finally {
+			delete(directory);
+		}
+	}
+
+	private static Sprite createSprite(String name, int seed) {
+		final TileLayer frame = new TileLayer(8, 8);
+		for (int y = 0; y < 8; y++) {
+			for (int x = 0; x < 8; x++) {
+				frame.setTile(x, y, (x + y * 3 + seed) % 5 - 1);
+			}
+		}
+		final Animation animation = new Animation(Animation.ANIMATION_NAMES.get(0));
+		animation.setFrames(0.0, Arrays.asList(frame));
+
+		final Sprite sprite = new Sprite(8, Collections.singleton(animation));
+		sprite.setName(name);
+		return sprite;
+	}
+
+	private static Map<String, byte[]> readFiles(File root) throws IOException {
+		final Map<String, byte[]> contents = new TreeMap<>();
+		for (final Path path : files(root)) {
+			contents.put(keyOf(root, path), Files.readAllBytes(path));
+		}
+		return contents;
+	}
+
+	private static Map<String, Long> dates(File root) throws IOException {
+		final Map<String, Long> dates = new TreeMap<>();
+		for (final Path path : files(root)) {
+			if (!path.getFileName().toString().equals(DeployManifest.FILE_NAME)) {
+				dates.put(keyOf(root, path), path.toFile().lastModified());
+			}
+		}
+		return dates;
+	}
+
+	private static void setOldDates(File root) throws IOException {
+		for (final Path path : files(root)) {
+			path.toFile().setLastModified(OLD_DATE);
+		}
+	}
+
+	private static List<Path> files(File root) throws IOException {
+		try (Stream<Path> stream = Files.walk(root.toPath())) {
+			return stream.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+	}
+
+	private static String keyOf(File root, Path path) {
+		return root.toPath().relativize(path).toString().replace(File.separatorChar, '/');
+	}
+
+	private static void delete(File root) throws IOException {
+		try (Stream<Path> stream = Files.walk(root.toPath())) {
+			stream.sorted(Comparator.reverseOrder())
+					.map(Path::toFile)
+					.forEach(File::delete);
+		}
+	}
+
+}
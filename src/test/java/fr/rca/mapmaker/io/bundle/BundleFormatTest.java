@@ -0,0 +1,271 @@
+package fr.rca.mapmaker.io.bundle;
+
+import fr.rca.mapmaker.io.DataHandler;
+import fr.rca.mapmaker.io.common.ByteBufferInputStream;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.map.TileMap;
+import fr.rca.mapmaker.model.palette.PaletteReference;
+import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Instance;
+import java.awt.Point;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class BundleFormatTest {
+
+	@Test
+	public void testParallelSave() throws IOException {
+		System.out.println("parallel save");
+
+		final Project project = createProject(12);
+		final File sequential = Files.createTempDirectory("sequential").toFile();
+		final File parallel = Files.createTempDirectory("parallel").toFile();
+		try {
+			final BundleFormat format = new BundleFormat();
+			format.setThreadCount(1);
+			format.saveProject(project, new File(sequential, "project.mmkb"));
+
+			for (final TileMap map : project.getMaps()) {
+				map.setDirty(true);
+			}
+			final List<Integer> progress = new ArrayList<>();
+			format.setThreadCount(4);
+			format.saveProject(project, new File(parallel, "project.mmkb"), progress::add);
+
+			Assert.assertEquals(Integer.valueOf(100), progress.get(progress.size() - 1));
+			for (final TileMap map : project.getMaps()) {
+				Assert.assertFalse(map.isDirty());
+			}
+
+			final File[] files = new File(sequential, "project.mmkb").listFiles();
+			Assert.assertEquals(new File(parallel, "project.mmkb").listFiles().length, files.length);
+			for (final File file : files) {
+				Assert.assertArrayEquals(file.getName(),
+						Files.readAllBytes(file.toPath()),
+						Files.readAllBytes(new File(new File(parallel, "project.mmkb"), file.getName()).toPath()));
+			}
+
+			final Project result = format.openProject(new File(parallel, "project.mmkb"));
+			Assert.assertEquals(12, result.getMaps().size());
+			for (int index = 0; index < 12; index++) {
+				final TileLayer expected = (TileLayer) project.getMaps().get(index).getLayers().get(0);
+				final TileLayer actual = (TileLayer) result.getMaps().get(index).getLayers().get(0);
+				Assert.assertTrue(actual.hasSameData(expected));
+			}
+		} finally {
+			delete(sequential);
+			delete(parallel);
+		}
+	}
+
+	@Test
+	public void testLazyLoading() throws IOException {
+		System.out.println("lazy loading");
+
+		final Project project = createProject(3);
+		final File directory = Files.createTempDirectory("lazy").toFile();
+		try {
+			final File bundle = new File(directory, "project.mmkb");
+			final BundleFormat format = new BundleFormat();
+			format.setLazyLoading(true);
+			format.saveProject(project, bundle);
+
+			final Project result = format.openProject(bundle);
+			final TileMap map = result.getMaps().get(1);
+			final TileLayer layer = (TileLayer) map.getLayers().get(0);
+			Assert.assertFalse(map.isLoaded());
+			Assert.assertEquals(40, layer.getWidth());
+
+			Assert.assertEquals(1, layer.getTile(1, 1));
+			Assert.assertTrue(layer.isLoaded());
+			Assert.assertTrue(layer.unloadTiles());
+			Assert.assertFalse(layer.isLoaded());
+			Assert.assertTrue(layer.hasSameData((TileLayer) project.getMaps().get(1).getLayers().get(0)));
+
+			// Une couche modifiée n'est jamais oubliée.
+			layer.setTile(0, 0, 3);
+			Assert.assertFalse(layer.unloadTiles());
+			Assert.assertEquals(3, layer.getTile(0, 0));
+
+			// La carte 2 change de fichier : ses tuiles doivent être lues
+			// avant la suppression de l'ancien.
+			final TileLayer lastLayer = (TileLayer) result.getMaps().get(2).getLayers().get(0);
+			result.getMaps().get(2).setIndex(5);
+			result.getMaps().get(2).setDirty(true);
+			result.getMaps().get(1).setDirty(true);
+			format.saveProject(result, bundle);
+			Assert.assertTrue(lastLayer.isLoaded());
+			Assert.assertFalse(lastLayer.unloadTiles());
+			Assert.assertEquals(2, lastLayer.getTile(2, 2));
+
+			final Project reopened = format.openProject(bundle);
+			Assert.assertEquals(3, ((TileLayer) reopened.getMaps().get(1).getLayers().get(0)).getTile(0, 0));
+			Assert.assertTrue(((TileLayer) reopened.getMaps().get(2).getLayers().get(0)).hasSameData(lastLayer));
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testLazyLoadingOfTruncatedFile() throws IOException {
+		System.out.println("lazy loading (truncated file)");
+
+		final BundleFormat format = new BundleFormat();
+		final DataHandler<TileLayer> handler = format.getHandler(TileLayer.class);
+		final TileLayer layer = new TileLayer(20, 10);
+		layer.setTile(3, 4, 2);
+
+		final File file = File.createTempFile("layer", ".map");
+		try {
+			try (OutputStream outputStream = new FileOutputStream(file)) {
+				handler.write(layer, outputStream);
+			}
+			try (ByteBufferInputStream inputStream = ByteBufferInputStream.open(file.toPath())) {
+				Assert.assertTrue(((TileLayer) handler.read(inputStream)).hasSameData(layer));
+			}
+
+			// Fichier tronqué.
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				channel.truncate(file.length() - 4);
+			}
+			assertReadFails(handler, file);
+
+			// Tableau complet mais trop petit pour la couche.
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				final ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(199);
+				count.flip();
+				channel.write(count, file.length() - 4 - 199 * 4);
+			}
+			assertReadFails(handler, file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void assertReadFails(DataHandler<TileLayer> handler, File file) throws IOException {
+		try (ByteBufferInputStream inputStream = ByteBufferInputStream.open(file.toPath())) {
+			handler.read(inputStream);
+			Assert.fail("Une couche incomplète doit être refusée à l'ouverture.");
+		} catch (IOException e) {
+			// Attendu.
+		}
+	}
+
+	@Test
+	public void testEntryCache() throws IOException {
+		System.out.println("entry cache");
+
+		final Project project = createProject(3);
+		final File directory = Files.createTempDirectory("cache").toFile();
+		try {
+			final File bundle = new File(directory, "project.mmkb");
+			final BundleFormat format = new BundleFormat();
+			format.saveProject(project, bundle);
+
+			final BundleEntryCache cache = new BundleEntryCache();
+			format.setEntryCache(cache);
+			final Project first = format.openProject(bundle);
+			final int readCount = cache.getReadCount();
+			Assert.assertTrue(readCount > 0);
+
+			// Rien n'a changé : aucun fichier n'est relu.
+			final Project second = format.openProject(bundle);
+			Assert.assertEquals(readCount, cache.getReadCount());
+			for (int index = 0; index < 3; index++) {
+				Assert.assertSame(first.getMaps().get(index), second.getMaps().get(index));
+				Assert.assertSame(second, second.getMaps().get(index).getParent());
+			}
+
+			// La carte modifiée est relue, les autres sont réutilisées.
+			((TileLayer) project.getMaps().get(1).getLayers().get(0)).setTile(5, 5, 3);
+			project.getMaps().get(1).setDirty(true);
+			format.setEntryCache(null);
+			format.saveProject(project, bundle);
+			format.setEntryCache(cache);
+			// La date doit changer même si l'écriture a lieu dans la même
+			// milliseconde que la précédente.
+			final File mapFile = new File(bundle, "map1.map");
+			mapFile.setLastModified(mapFile.lastModified() + 2000);
+
+			final Project third = format.openProject(bundle);
+			Assert.assertSame(second.getMaps().get(0), third.getMaps().get(0));
+			Assert.assertNotSame(second.getMaps().get(1), third.getMaps().get(1));
+			Assert.assertEquals(3, ((TileLayer) third.getMaps().get(1).getLayers().get(0)).getTile(5, 5));
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testEntryCacheInstanceListeners() throws IOException {
+		System.out.println("entry cache (instance listeners)");
+
+		final Project project = createProject(2);
+		project.getMaps().get(0).getSpriteInstances().add(new Instance(0, 10, 10, false, null, 0));
+		final File directory = Files.createTempDirectory("cache").toFile();
+		try {
+			final File bundle = new File(directory, "project.mmkb");
+			final BundleFormat format = new BundleFormat();
+			format.saveProject(project, bundle);
+
+			format.setEntryCache(new BundleEntryCache());
+			final Instance first = format.openProject(bundle).getMaps().get(0).getSpriteInstances().get(0);
+			final int listenerCount = first.getPropertyChangeListeners().length;
+
+			// Chaque ouverture a ses propres instances, la carte réutilisée
+			// retire ses écouteurs des instances précédentes.
+			final Instance second = format.openProject(bundle).getMaps().get(0).getSpriteInstances().get(0);
+			final Instance third = format.openProject(bundle).getMaps().get(0).getSpriteInstances().get(0);
+			Assert.assertNotSame(first, third);
+			Assert.assertEquals(listenerCount, third.getPropertyChangeListeners().length);
+			Assert.assertEquals(listenerCount - 1, first.getPropertyChangeListeners().length);
+			Assert.assertEquals(listenerCount - 1, second.getPropertyChangeListeners().length);
+			Assert.assertEquals(new Point(10, 10), third.getPoint());
+		} finally {
+			delete(directory);
+		}
+	}
+
+	static Project createProject(int mapCount) {
+		final Project project = Project.createEmptyProject();
+		for (int index = 1; index < mapCount; index++) {
+			final TileLayer layer = new TileLayer(40, 30);
+			layer.setName("Calque 1");
+
+			final TileMap map = new TileMap();
+			map.setParent(project);
+			map.setPalette(new PaletteReference(project, 0));
+			map.add(layer);
+			project.addMap(map);
+		}
+		for (int index = 0; index < mapCount; index++) {
+			final TileLayer layer = (TileLayer) project.getMaps().get(index).getLayers().get(0);
+			layer.setTile(index, index % layer.getHeight(), index % 4);
+		}
+		return project;
+	}
+
+	static void delete(File directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+}
@@ -7,6 +7,7 @@ package fr.rca.mapmaker.io.common;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import org.junit.Test;
 import org.junit.Assert;
 
@@ -44,4 +45,42 @@ public class StreamsTest {
 		Streams.write(-1, outputStream);
 		Assert.assertEquals(-1, Streams.readInt(new ByteArrayInputStream(outputStream.toByteArray())));
 	}
+
+	@Test
+	public void testArrays() throws IOException {
+		final int[] ints = new int[5000];
+		final double[] doubles = new double[3000];
+		for (int index = 0; index < ints.length; index++) {
+			ints[index] = index * 7919 - 100000;
+		}
+		for (int index = 0; index < doubles.length; index++) {
+			doubles[index] = index / 3.0;
+		}
+
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Streams.write(ints, outputStream);
+		Streams.write(new int[0], outputStream);
+		Streams.write("Carte", outputStream);
+		Streams.write(doubles, outputStream);
+		Assert.assertEquals(4 + ints.length * 4 + 4 + 4 + 5 * 2 + 4 + doubles.length * 8, outputStream.size());
+
+		// Lecture octet par octet pour vérifier la gestion des lectures partielles.
+		final InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray()) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 3));
+			}
+		};
+		Assert.assertArrayEquals(ints, Streams.readIntArray(inputStream));
+		Assert.assertArrayEquals(new int[0], Streams.readIntArray(inputStream));
+		Assert.assertEquals("Carte", Streams.readString(inputStream));
+		Assert.assertArrayEquals(doubles, Streams.readDoubleArray(inputStream), 0.0);
+	}
+
+	@Test
+	public void testUnsignedShorts() throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Streams.writeUnsignedShorts(new int[] {1, 0xFFFF, 256}, 1, 2, outputStream);
+		Assert.assertArrayEquals(new byte[] {(byte) 0xFF, (byte) 0xFF, 0x00, 0x01}, outputStream.toByteArray());
+	}
 }
@@ -0,0 +1,42 @@
+package fr.rca.mapmaker.io.internal;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.project.Project;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InternalFormatTest {
+
+	@Test
+	public void testSaveAndOpen() throws IOException {
+		System.out.println("save/open");
+
+		final Project project = Project.createEmptyProject();
+		final TileLayer layer = (TileLayer) project.getMaps().get(0).getLayers().get(0);
+		for (int x = 0; x < layer.getWidth(); x++) {
+			layer.setTile(x, x % layer.getHeight(), x);
+		}
+
+		final File file = File.createTempFile("project", ".mmk");
+		try {
+			final InternalFormat format = new InternalFormat();
+			format.saveProject(project, file);
+
+			final Project result = format.openProject(file);
+			Assert.assertNotNull(result);
+			Assert.assertEquals(1, result.getMaps().size());
+
+			final TileLayer resultLayer = (TileLayer) result.getMaps().get(0).getLayers().get(0);
+			Assert.assertEquals("Calque 1", resultLayer.getName());
+			Assert.assertTrue(resultLayer.hasSameData(layer));
+		} finally {
+			file.delete();
+		}
+	}
+}
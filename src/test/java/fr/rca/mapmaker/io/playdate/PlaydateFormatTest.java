@@ -0,0 +1,137 @@
+package fr.rca.mapmaker.io.playdate;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.ColorPalette;
+import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Animation;
+import fr.rca.mapmaker.model.sprite.Sprite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class PlaydateFormatTest {
+
+	@Test
+	public void testRenderSprite() {
+		System.out.println("renderSprite");
+
+		final Sprite sprite = createSprite(8, 0);
+		final BufferedImage image = PlaydateFormat.renderSprite(sprite, Animation.ANIMATION_NAMES);
+
+		// Rendu de référence avec paintTile. Les deux premières images sont
+		// identiques : seules deux images sont dessinées.
+		final ColorPalette palette = sprite.getPalette();
+		final BufferedImage expected = new BufferedImage(16, 8, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = expected.createGraphics();
+		final TileLayer[] frames = {
+			sprite.findByName(Animation.ANIMATION_NAMES.get(0)).getFrames(0.0).get(0),
+			sprite.findByName(Animation.ANIMATION_NAMES.get(0)).getFrames(0.0).get(2)
+		};
+		for (int index = 0; index < frames.length; index++) {
+			for (int y = 0; y < 8; y++) {
+				for (int x = 0; x < 8; x++) {
+					palette.paintTile(graphics, frames[index].getTile(x, y), index * 8 + x, y, 1);
+				}
+			}
+		}
+		graphics.dispose();
+
+		Assert.assertEquals(expected.getWidth(), image.getWidth());
+		Assert.assertEquals(expected.getHeight(), image.getHeight());
+		Assert.assertArrayEquals(
+				expected.getRGB(0, 0, 16, 8, null, 0, 16),
+				image.getRGB(0, 0, 16, 8, null, 0, 16));
+	}
+
+	@Test
+	public void testParallelSave() throws IOException {
+		System.out.println("parallel save");
+
+		final Project project = Project.createEmptyProject();
+		for (int index = 0; index < 6; index++) {
+			project.getSprites().add(createSprite(8 + index * 4, index));
+		}
+
+		final File directory = Files.createTempDirectory("playdate").toFile();
+		try {
+			final File sequential = new File(directory, "sequential.playdate.zip");
+			final File parallel = new File(directory, "parallel.playdate.zip");
+
+			final PlaydateFormat format = new PlaydateFormat();
+			format.setThreadCount(1);
+			format.saveProject(project, sequential);
+			format.setThreadCount(4);
+			format.saveProject(project, parallel);
+
+			final Map<String, byte[]> expected = readEntries(sequential);
+			final Map<String, byte[]> actual = readEntries(parallel);
+			Assert.assertEquals(Arrays.asList(expected.keySet().toArray()), Arrays.asList(actual.keySet().toArray()));
+			Assert.assertTrue(expected.keySet().stream().anyMatch(name -> name.startsWith("sprite-")));
+			for (final Map.Entry<String, byte[]> entry : expected.entrySet()) {
+				Assert.assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+			}
+		} finally {
+			for (final File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	/**
+	 * Crée un sprite avec trois images, les deux premières étant identiques.
+	 */
+	private static Sprite createSprite(int size, int seed) {
+		final TileLayer first = new TileLayer(size, size);
+		final TileLayer second = new TileLayer(size, size);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				first.setTile(x, y, (x + y + seed) % 5 - 1);
+				second.setTile(x, y, (x * y + seed) % 4);
+			}
+		}
+		final Animation animation = new Animation(Animation.ANIMATION_NAMES.get(0));
+		animation.setFrames(0.0, Arrays.asList(first, new TileLayer(first), second));
+
+		final Sprite sprite = new Sprite(size, Collections.singleton(animation));
+		sprite.setName("sprite" + seed);
+		return sprite;
+	}
+
+	private static Map<String, byte[]> readEntries(File file) throws IOException {
+		final Map<String, byte[]> entries = new LinkedHashMap<>();
+		try (ZipFile zipFile = new ZipFile(file)) {
+			final Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+			while (enumeration.hasMoreElements()) {
+				final ZipEntry entry = enumeration.nextElement();
+				try (InputStream inputStream = zipFile.getInputStream(entry)) {
+					final java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
+					final byte[] buffer = new byte[4096];
+					int read;
+					while ((read = inputStream.read(buffer)) >= 0) {
+						outputStream.write(buffer, 0, read);
+					}
+					entries.put(entry.getName(), outputStream.toByteArray());
+				}
+			}
+		}
+		return entries;
+	}
+
+}
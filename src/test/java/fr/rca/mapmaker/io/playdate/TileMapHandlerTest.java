@@ -0,0 +1,166 @@
+package fr.rca.mapmaker.io.playdate;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.map.TileMap;
+import fr.rca.mapmaker.model.project.Project;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class TileMapHandlerTest {
+
+	@Test
+	public void testEncodeRunLength() {
+		System.out.println("encodeRunLength");
+
+		final Random random = new Random(42);
+		for (int iteration = 0; iteration < 200; iteration++) {
+			final int[] tiles = new int[random.nextInt(100_000)];
+			int index = 0;
+			while (index < tiles.length) {
+				// Alternance de plages (parfois plus longues que MAX_RUN_LENGTH)
+				// et de tuiles différentes.
+				final int length = Math.min(tiles.length - index, random.nextBoolean()
+						? random.nextInt(4) + 1
+						: random.nextInt(40_000) + 1);
+				final int tile = random.nextInt(8) - 1;
+				for (int end = index + length; index < end; index++) {
+					tiles[index] = random.nextInt(4) == 0 ? random.nextInt(300) - 1 : tile;
+				}
+			}
+			final int[] words = TileMapHandler.encodeRunLength(tiles);
+			Assert.assertArrayEquals(tiles, decodeRunLength(ByteBuffer.wrap(toBytes(words)).order(ByteOrder.LITTLE_ENDIAN), words.length, tiles.length));
+			Assert.assertTrue(words.length <= tiles.length + (tiles.length + TileMapHandler.MAX_RUN_LENGTH - 1) / TileMapHandler.MAX_RUN_LENGTH);
+		}
+	}
+
+	@Test
+	public void testWriteRunLength() throws IOException {
+		System.out.println("write (rle)");
+
+		final Project project = Project.createEmptyProject();
+		final TileMap map = project.getMaps().get(0);
+		final TileLayer layer = (TileLayer) map.getLayers().get(0);
+		for (int x = 2; x < 18; x++) {
+			layer.setTile(x, 12, 1);
+			layer.setTile(x, 13, x % 3);
+		}
+		layer.setTile(5, 3, 2);
+
+		final PlaydateExportConfiguration configuration = new PlaydateExportConfiguration();
+		final byte[] raw = write(map, configuration);
+		configuration.getMaps().setLayerEncoding(PlaydateExportConfiguration.LayerEncoding.rle);
+		final byte[] rle = write(map, configuration);
+
+		Assert.assertTrue(rle.length < raw.length);
+
+		final List<int[]> rawLayers = readLayers(ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN), false);
+		final List<int[]> rleLayers = readLayers(ByteBuffer.wrap(rle).order(ByteOrder.LITTLE_ENDIAN), true);
+		Assert.assertEquals(rawLayers.size(), rleLayers.size());
+		for (int index = 0; index < rawLayers.size(); index++) {
+			Assert.assertArrayEquals(rawLayers.get(index), rleLayers.get(index));
+		}
+
+		// Couche de 16 x 11 tuiles à partir de (2, 3).
+		final int[] tiles = rleLayers.get(0);
+		Assert.assertEquals(16 * 11, tiles.length);
+		Assert.assertEquals(2, tiles[3]);
+		Assert.assertEquals(TileLayer.EMPTY_TILE, tiles[4]);
+		Assert.assertEquals(1, tiles[9 * 16]);
+		Assert.assertEquals(2 % 3, tiles[10 * 16]);
+	}
+
+	private static byte[] write(TileMap map, PlaydateExportConfiguration configuration) throws IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new TileMapHandler().withConfiguration(configuration).write(map, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Décodeur de référence d'une carte.
+	 *
+	 * @param buffer Contenu de la carte.
+	 * @param hasEncoding <code>true</code> si l'encodage des couches est écrit
+	 * dans l'en-tête.
+	 * @return Les tuiles de chaque couche.
+	 */
+	private static List<int[]> readLayers(ByteBuffer buffer, boolean hasEncoding) {
+		final int encoding = hasEncoding
+				? buffer.getInt()
+				: PlaydateExportConfiguration.LayerEncoding.raw.ordinal();
+		buffer.getInt(); // Largeur.
+		buffer.getInt(); // Hauteur.
+		buffer.getShort(); // Palette.
+		for (int index = 0; index < 4; index++) {
+			buffer.getInt(); // Eau.
+		}
+
+		final int layerCount = buffer.getInt();
+		final List<int[]> layers = new ArrayList<>();
+		for (int layer = 0; layer < layerCount; layer++) {
+			buffer.getInt(); // x
+			buffer.getInt(); // y
+			final int width = buffer.getInt();
+			final int height = buffer.getInt();
+			buffer.getFloat(); // Défilement horizontal.
+			buffer.getFloat(); // Défilement vertical.
+			buffer.get(); // Solide.
+			if (encoding == PlaydateExportConfiguration.LayerEncoding.rle.ordinal()) {
+				layers.add(decodeRunLength(buffer, buffer.getInt(), width * height));
+			} else {
+				final int[] tiles = new int[width * height];
+				for (int index = 0; index < tiles.length; index++) {
+					tiles[index] = buffer.getShort();
+				}
+				layers.add(tiles);
+			}
+		}
+		Assert.assertFalse(buffer.hasRemaining());
+		return layers;
+	}
+
+	/**
+	 * Décodeur de référence de l'encodage par plages.
+	 */
+	private static int[] decodeRunLength(ByteBuffer buffer, int wordCount, int tileCount) {
+		final int[] tiles = new int[tileCount];
+		final int end = buffer.position() + wordCount * 2;
+		int index = 0;
+		while (buffer.position() < end) {
+			final int control = buffer.getShort() & 0xFFFF;
+			final int count = control & TileMapHandler.MAX_RUN_LENGTH;
+			if ((control & TileMapHandler.RUN_FLAG) != 0) {
+				final short tile = buffer.getShort();
+				for (int run = 0; run < count; run++) {
+					tiles[index++] = tile;
+				}
+			} else {
+				for (int literal = 0; literal < count; literal++) {
+					tiles[index++] = buffer.getShort();
+				}
+			}
+		}
+		Assert.assertEquals(tileCount, index);
+		return tiles;
+	}
+
+	private static byte[] toBytes(int[] words) {
+		final ByteBuffer buffer = ByteBuffer.allocate(words.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+		for (final int word : words) {
+			Assert.assertEquals(word, word & 0xFFFF);
+			buffer.putShort((short) word);
+		}
+		return buffer.array();
+	}
+
+}
@@ -0,0 +1,117 @@
+package fr.rca.mapmaker.model;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compare les recherches par distance de {@link KdTree}, de
+ * {@link LegacyKdTree} et d'un parcours de tous les points.
+ * <p>
+ * N'est pas un test : à lancer après <code>mvn test-compile</code> avec
+ * <code>java -cp target/classes:target/test-classes fr.rca.mapmaker.model.KdTreeBenchmark</code>.
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class KdTreeBenchmark {
+
+	private static final int TESTS = 10000;
+	private static final int POINTS = 10000;
+	private static final float DISTANCE = 20.0f;
+
+	public static void main(String[] args) {
+		final Timer iterate = new Timer("Iterate");
+		final Timer legacy = new Timer("Legacy Kd Tree");
+		final Timer kd = new Timer("Kd Tree");
+		final Timer legacyBuild = new Timer("Legacy Kd Tree build");
+		final Timer kdBuild = new Timer("Kd Tree build");
+
+		int legacyErrors = 0;
+		int kdErrors = 0;
+
+		final Random random = new Random();
+		for (int i = 0; i < TESTS; i++) {
+			final List<Point2D.Float> points = generatePoints(random, POINTS);
+			final Point2D.Float reference = new Point2D.Float(random.nextFloat() * 100.0f, random.nextFloat() * 100.0f);
+
+			long start = System.nanoTime();
+			final LegacyKdTree legacyTree = new LegacyKdTree(points);
+			legacyBuild.add(System.nanoTime() - start);
+
+			start = System.nanoTime();
+			final KdTree tree = new KdTree(points);
+			tree.build();
+			kdBuild.add(System.nanoTime() - start);
+
+			start = System.nanoTime();
+			final int expected = findNeighbors(points, reference, DISTANCE).size();
+			iterate.add(System.nanoTime() - start);
+
+			start = System.nanoTime();
+			final int legacyCount = legacyTree.get(reference, DISTANCE).size();
+			legacy.add(System.nanoTime() - start);
+
+			start = System.nanoTime();
+			final int kdCount = tree.get(reference, DISTANCE).size();
+			kd.add(System.nanoTime() - start);
+
+			if (legacyCount != expected) {
+				legacyErrors++;
+			}
+			if (kdCount != expected) {
+				kdErrors++;
+			}
+		}
+
+		System.out.println(TESTS + " tests, " + POINTS + " points, distance " + DISTANCE + '.');
+		System.out.println("Legacy Kd Tree - " + legacyErrors + " errors.");
+		System.out.println("Kd Tree - " + kdErrors + " errors.");
+		for (final Timer timer : Arrays.asList(iterate, legacy, kd, legacyBuild, kdBuild)) {
+			System.out.println(timer);
+		}
+	}
+
+	private static List<Point2D.Float> generatePoints(Random random, int length) {
+		final Point2D.Float[] points = new Point2D.Float[length];
+		for (int i = 0; i < length; i++) {
+			points[i] = new Point2D.Float(random.nextFloat() * 100.0f, random.nextFloat() * 100.0f);
+		}
+		return Arrays.asList(points);
+	}
+
+	private static List<Point2D.Float> findNeighbors(List<Point2D.Float> points, Point2D.Float reference, float distance) {
+		final List<Point2D.Float> neighbors = new ArrayList<>();
+		for (final Point2D.Float point : points) {
+			if (reference.distance(point) <= distance) {
+				neighbors.add(point);
+			}
+		}
+		return neighbors;
+	}
+
+	private static class Timer {
+		private final String name;
+		private long min = Long.MAX_VALUE;
+		private long max;
+		private long total;
+		private int count;
+
+		Timer(String name) {
+			this.name = name;
+		}
+
+		void add(long time) {
+			min = Math.min(min, time);
+			max = Math.max(max, time);
+			total += time;
+			count++;
+		}
+
+		@Override
+		public String toString() {
+			return name + " - min : " + min + ", max : " + max + ", avg : " + (double) total / (count * 1000000.0) + "ms";
+		}
+	}
+}
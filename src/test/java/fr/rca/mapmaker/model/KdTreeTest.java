@@ -0,0 +1,81 @@
+package fr.rca.mapmaker.model;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class KdTreeTest {
+
+	@Test
+	public void testGet() {
+		System.out.println("get");
+
+		final Random random = new Random(42);
+		final List<Point2D.Float> points = generatePoints(random, 2000);
+		final KdTree instance = new KdTree(points);
+
+		for (int test = 0; test < 200; test++) {
+			final Point2D.Float reference = new Point2D.Float(random.nextInt(100), random.nextInt(100));
+			final float distance = random.nextInt(30);
+
+			final List<Point2D.Float> expected = new ArrayList<>();
+			for (final Point2D.Float point : points) {
+				final float dx = point.x - reference.x;
+				final float dy = point.y - reference.y;
+				if (dx * dx + dy * dy <= distance * distance) {
+					expected.add(point);
+				}
+			}
+			final List<Point2D.Float> result = instance.get(reference, distance);
+			Assert.assertEquals(expected.size(), result.size());
+			Assert.assertTrue(result.containsAll(expected));
+		}
+	}
+
+	@Test
+	public void testNearest() {
+		System.out.println("nearest");
+
+		final Random random = new Random(7);
+		final List<Point2D.Float> points = generatePoints(random, 1000);
+		final KdTree instance = new KdTree();
+		for (final Point2D.Float point : points) {
+			instance.add(point);
+		}
+		Assert.assertEquals(points.size(), instance.size());
+
+		for (int test = 0; test < 200; test++) {
+			final Point2D.Float reference = new Point2D.Float(random.nextFloat() * 100, random.nextFloat() * 100);
+			final int count = 1 + random.nextInt(10);
+
+			final List<Point2D.Float> expected = new ArrayList<>(points);
+			expected.sort(Comparator.comparingDouble(point -> point.distanceSq(reference)));
+
+			final List<Point2D.Float> result = instance.nearest(reference, count);
+			Assert.assertEquals(count, result.size());
+			for (int index = 0; index < count; index++) {
+				Assert.assertEquals(expected.get(index).distanceSq(reference), result.get(index).distanceSq(reference), 0.0001);
+			}
+		}
+		Assert.assertNull(new KdTree().nearest(new Point2D.Float()));
+		Assert.assertEquals(points.size(), instance.nearest(new Point2D.Float(), points.size() + 10).size());
+	}
+
+	private static List<Point2D.Float> generatePoints(Random random, int length) {
+		final List<Point2D.Float> points = new ArrayList<>();
+		for (int index = 0; index < length; index++) {
+			// Coordonnées entières pour tester les égalités avec le médian.
+			points.add(new Point2D.Float(random.nextInt(100), random.nextInt(100)));
+		}
+		return points;
+	}
+
+}
@@ -0,0 +1,113 @@
+package fr.rca.mapmaker.model.map;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class ChunkedTileStorageTest {
+
+	@Test
+	public void testSetAndGet() {
+		System.out.println("set/get");
+
+		final ChunkedTileStorage instance = new ChunkedTileStorage(100, 70);
+		Assert.assertEquals(0, instance.getAllocatedChunkCount());
+		Assert.assertTrue(instance.isEmpty());
+
+		instance.set(3, 2, TileLayer.EMPTY_TILE);
+		Assert.assertEquals(0, instance.getAllocatedChunkCount());
+
+		instance.set(99, 69, 7);
+		instance.set(40, 33, 8);
+		Assert.assertEquals(2, instance.getAllocatedChunkCount());
+		Assert.assertEquals(7, instance.get(99, 69));
+		Assert.assertEquals(8, instance.get(40, 33));
+		Assert.assertEquals(TileLayer.EMPTY_TILE, instance.get(41, 33));
+		Assert.assertFalse(instance.isEmpty());
+	}
+
+	@Test
+	public void testRows() {
+		System.out.println("getRow/setRow");
+
+		final ChunkedTileStorage instance = new ChunkedTileStorage(100, 3);
+		final int[] row = new int[80];
+		for (int index = 0; index < row.length; index++) {
+			row[index] = index;
+		}
+		instance.setRow(10, 1, row, 0, row.length);
+		Assert.assertEquals(3, instance.getAllocatedChunkCount());
+
+		final int[] copy = new int[100];
+		instance.getRow(0, 1, copy, 0, copy.length);
+		for (int x = 0; x < 100; x++) {
+			Assert.assertEquals(x >= 10 && x < 90 ? x - 10 : TileLayer.EMPTY_TILE, copy[x]);
+		}
+
+		final int[] empty = new int[100];
+		Arrays.fill(empty, TileLayer.EMPTY_TILE);
+		instance.setRow(0, 2, empty, 0, empty.length);
+		Assert.assertEquals(3, instance.getAllocatedChunkCount());
+	}
+
+	@Test
+	public void testFromArray() {
+		System.out.println("fromArray");
+
+		final int width = 70;
+		final int height = 40;
+		final int[] tiles = new int[width * height];
+		Arrays.fill(tiles, TileLayer.EMPTY_TILE);
+		tiles[5 * width + 65] = 3;
+
+		final ChunkedTileStorage instance = ChunkedTileStorage.fromArray(width, height, tiles);
+		Assert.assertEquals(1, instance.getAllocatedChunkCount());
+		Assert.assertArrayEquals(tiles, instance.toArray());
+		Assert.assertEquals(Arrays.hashCode(tiles), instance.contentHashCode());
+		Assert.assertTrue(instance.contentEquals(new DenseTileStorage(width, tiles)));
+		Assert.assertTrue(instance.contentEquals(instance.copy()));
+	}
+
+	@Test
+	public void testLargeTileLayer() {
+		System.out.println("large TileLayer");
+
+		final TileLayer instance = new TileLayer(4000, 600);
+		Assert.assertTrue(instance.isEmpty());
+
+		instance.setTile(3999, 599, 1);
+		instance.setTile(new Point(10, 20), 2);
+		instance.setTiles(new Rectangle(100, 100, 40, 40), 3);
+		Assert.assertEquals(1, instance.getTile(3999, 599));
+		Assert.assertEquals(2, instance.getTile(10, 20));
+		Assert.assertEquals(3, instance.getTile(139, 139));
+		Assert.assertEquals(TileLayer.EMPTY_TILE, instance.getTile(140, 140));
+		Assert.assertFalse(instance.isEmpty(new Rectangle(100, 100, 1, 1)));
+		Assert.assertTrue(instance.isEmpty(new Rectangle(0, 0, 10, 10)));
+
+		final TileLayer copy = new TileLayer(instance);
+		Assert.assertEquals(instance, copy);
+		Assert.assertEquals(instance.hashCode(), copy.hashCode());
+
+		final int[] data = instance.copyData();
+		Assert.assertEquals(4000 * 600, data.length);
+		copy.clear();
+		Assert.assertTrue(copy.isEmpty());
+		copy.restoreData(data, null);
+		Assert.assertTrue(copy.hasSameData(instance));
+
+		copy.translate(1, 1);
+		Assert.assertEquals(2, copy.getTile(11, 21));
+		Assert.assertEquals(TileLayer.EMPTY_TILE, copy.getTile(10, 20));
+
+		copy.resize(20, 30);
+		Assert.assertEquals(20 * 30, copy.copyData().length);
+		Assert.assertEquals(2, copy.getTile(11, 21));
+	}
+}
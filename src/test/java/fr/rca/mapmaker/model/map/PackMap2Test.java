@@ -0,0 +1,65 @@
+package fr.rca.mapmaker.model.map;
+
+import fr.rca.mapmaker.model.palette.AlphaColorPalette;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (ddaeke-github@yahoo.fr)
+ */
+public class PackMap2Test {
+
+	@Test
+	public void testAddAll() {
+		System.out.println("addAll");
+
+		final Random random = new Random(42);
+		final TreeSet<SingleLayerTileMap> maps = new TreeSet<>();
+		for (int index = 0; index < 500; index++) {
+			final TileLayer layer = new TileLayer(1 + random.nextInt(32), 1 + random.nextInt(32));
+			layer.setTile(0, 0, index);
+			maps.add(new SingleLayerTileMap(layer, AlphaColorPalette.getDefaultColorPalette()));
+		}
+
+		final int size = PackMap2.estimateSize(maps, 1);
+		Assert.assertEquals(0, size & (size - 1));
+
+		PackMap2 instance = new PackMap2(size, size, 1);
+		for (int side = size; !instance.addAll(maps); side *= 2) {
+			instance = new PackMap2(side * 2, side * 2, 1);
+		}
+		Assert.assertTrue(instance.getWidth() <= size * 2);
+
+		final Rectangle bounds = new Rectangle(0, 0, instance.getWidth(), instance.getHeight());
+		final List<Rectangle> rectangles = new ArrayList<>();
+		for (final SingleLayerTileMap map : maps) {
+			final Point point = instance.getPoint(map);
+			Assert.assertNotNull(point);
+			final Rectangle rectangle = new Rectangle(point.x, point.y, map.getWidth() + 1, map.getHeight() + 1);
+			Assert.assertTrue(bounds.contains(rectangle));
+			for (final Rectangle other : rectangles) {
+				Assert.assertFalse(rectangle + " / " + other, rectangle.intersects(other));
+			}
+			rectangles.add(rectangle);
+		}
+	}
+
+	@Test
+	public void testTooLarge() {
+		System.out.println("too large");
+
+		final TreeSet<SingleLayerTileMap> maps = new TreeSet<>();
+		maps.add(new SingleLayerTileMap(new TileLayer(8, 4), AlphaColorPalette.getDefaultColorPalette()));
+
+		Assert.assertFalse(new PackMap2(8, 8, 1).addAll(maps));
+		Assert.assertTrue(new PackMap2(16, 8, 1).addAll(maps));
+		Assert.assertEquals(16, PackMap2.estimateSize(maps, 1));
+	}
+}
@@ -271,4 +271,40 @@ public class TileLayerTest {
 		}, null);
 		Assert.assertTrue(instance.isEmpty());
 	}
+
+	/**
+	 * Test of getContentHash method, of class TileLayer.
+	 */
+	@Test
+	public void testGetContentHash() {
+		System.out.println("getContentHash");
+		final TileLayer instance = new TileLayer(3, 3);
+		final TileLayer other = new TileLayer(3, 3);
+		Assert.assertEquals(instance.getContentHash(), other.getContentHash());
+
+		final long emptyHash = instance.getContentHash();
+		instance.setTile(1, 1, 4);
+		Assert.assertFalse(emptyHash == instance.getContentHash());
+		Assert.assertFalse(instance.equals(other));
+
+		other.restoreData(new int[] {
+			-1, -1, -1,
+			-1,  4, -1,
+			-1, -1, -1
+		}, 3, 3);
+		Assert.assertEquals(instance.getContentHash(), other.getContentHash());
+		Assert.assertEquals(instance, other);
+		Assert.assertEquals(instance.hashCode(), other.hashCode());
+
+		instance.clear();
+		Assert.assertEquals(emptyHash, instance.getContentHash());
+
+		// Le stockage utilisé ne change pas l'empreinte.
+		final int[] tiles = new int[40 * 40];
+		for (int index = 0; index < tiles.length; index++) {
+			tiles[index] = index % 7 - 1;
+		}
+		Assert.assertEquals(new DenseTileStorage(40, tiles.clone()).contentHash(),
+				ChunkedTileStorage.fromArray(40, 40, tiles).contentHash());
+	}
 }
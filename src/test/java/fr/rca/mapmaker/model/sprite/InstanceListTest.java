@@ -0,0 +1,134 @@
+package fr.rca.mapmaker.model.sprite;
+
+import fr.rca.mapmaker.model.project.Project;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceListTest {
+
+	@Test
+	public void testGetInstancesIn() {
+		System.out.println("getInstancesIn");
+
+		final Instance first = instance(10, 10);
+		final Instance second = instance(300, 20);
+		final Instance third = instance(600, 600);
+
+		final InstanceList instance = new InstanceList(Arrays.asList(first, second));
+		instance.add(third);
+
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 1000, 1000)), first, second, third);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 100, 100)), first);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(250, 0, 100, 100)), second);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(100, 100, 100, 100)));
+
+		// Déplacement.
+		first.setPoint(new Point(620, 610));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 100, 100)));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(615, 615, 10, 10)), first, third);
+
+		// Suppression.
+		instance.remove(third);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(615, 615, 10, 10)), first);
+		third.setPoint(new Point(0, 0));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 10, 10)));
+
+		instance.clear();
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 1000, 1000)));
+	}
+
+	@Test
+	public void testGetInstancesInWithEmptyInstances() {
+		System.out.println("getInstancesIn (empty instances)");
+
+		final Project project = Project.createEmptyProject();
+		project.getSprites().add(new Sprite());
+		final Instance flat = new Instance(0, project, new Point(100, 40));
+		flat.getVariables().put("width", 0.0);
+		final Instance withoutPoint = new Instance();
+		Assert.assertTrue(flat.getMapBounds().isEmpty());
+		Assert.assertTrue(withoutPoint.getMapBounds().isEmpty());
+
+		final InstanceList instance = new InstanceList(Arrays.asList(flat, withoutPoint));
+
+		assertSameInstances(instance.getInstancesIn(new Rectangle(90, 30, 20, 20)), flat);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 10, 10)), withoutPoint);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 200, 200)), flat, withoutPoint);
+		assertSameInstances(instance.getInstancesIn(new Rectangle(101, 30, 20, 20)));
+	}
+
+	@Test
+	public void testDuplicatedInstances() {
+		System.out.println("duplicated instances");
+
+		final Instance first = instance(10, 10);
+		final Instance second = instance(300, 20);
+		final InstanceList instance = new InstanceList(Arrays.asList(first, second, first));
+
+		// Il reste une occurrence : l'instance est toujours indexée.
+		instance.remove(2);
+		Assert.assertTrue(instance.contains(first));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(0, 0, 100, 100)), first);
+		first.setPoint(new Point(400, 400));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(390, 390, 20, 20)), first);
+
+		instance.remove(0);
+		Assert.assertFalse(instance.contains(first));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(390, 390, 20, 20)));
+	}
+
+	@Test
+	public void testScriptSize() {
+		System.out.println("script size");
+
+		final Project project = Project.createEmptyProject();
+		project.getSprites().add(new Sprite());
+		final Instance sized = new Instance(0, project, new Point(0, 0));
+		final InstanceList instance = new InstanceList(Arrays.asList(sized));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(250, 0, 10, 10)));
+
+		// Variables calculées par le script (voir ScriptState.applyTo).
+		sized.setVariables(Collections.singletonMap("width", 300.0));
+		assertSameInstances(instance.getInstancesIn(new Rectangle(250, 0, 10, 10)), sized);
+	}
+
+	@Test
+	public void testGetInstancesByLocation() {
+		System.out.println("getInstancesByLocation");
+
+		final Instance first = instance(10, 50);
+		final Instance second = instance(10, 20);
+		final Instance third = instance(5, 100);
+
+		final InstanceList instance = new InstanceList(Arrays.asList(first, second, third));
+		assertSameInstances(instance.getInstancesByLocation(), third, second, first);
+
+		third.setPoint(new Point(40, 0));
+		assertSameInstances(instance.getInstancesByLocation(), second, first, third);
+
+		// Un nouveau tri ne change pas l'ordre de la liste.
+		Assert.assertSame(first, instance.get(0));
+		Assert.assertTrue(instance.contains(third));
+	}
+
+	private static Instance instance(int x, int y) {
+		return new Instance(-1, x, y, false, null, 0);
+	}
+
+	private static void assertSameInstances(List<Instance> actual, Instance... expected) {
+		Assert.assertEquals(expected.length, actual.size());
+		for (final Instance instance : expected) {
+			Assert.assertTrue(actual.stream().anyMatch(other -> other == instance));
+		}
+	}
+
+}
@@ -1,5 +1,9 @@
 package fr.rca.mapmaker.operation;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 import junit.framework.Assert;
 import org.junit.Test;
 
@@ -108,4 +112,55 @@ public class OperationParserTest {
 		Assert.assertEquals("Doit bien positionner le signe négatif au début du groupe.", "-(x + 32) / 2", operation.toString(Language.C));
 	}
 
+	@Test
+	public void testOptimizeConstants() {
+		final Operation operation = OperationParser.parse("sin((pi / 2) * min(max(x, 0), 1)) ^ 2");
+		final Operation optimized = OperationParser.optimize(operation);
+		Assert.assertEquals(12, operation.getInstructions().size());
+		Assert.assertEquals(10, optimized.getInstructions().size());
+		Assert.assertTrue(optimized.toByteArray().length < operation.toByteArray().length);
+		for (double x = -1.0; x <= 2.0; x += 0.125) {
+			final double expected = Math.pow(Math.sin((Math.PI / 2) * Math.min(Math.max(x, 0), 1)), 2);
+			Assert.assertEquals(expected, executeWithStack(operation.getInstructions(), x), 1e-12);
+			Assert.assertEquals(expected, executeWithStack(optimized.getInstructions(), x), 1e-12);
+			Assert.assertEquals(expected, optimized.execute(x), 1e-12);
+		}
+	}
+
+	/**
+	 * Exécute les instructions données avec la pile d'objets, sans
+	 * optimisation ni compilation.
+	 */
+	private static double executeWithStack(List<Instruction> instructions, double x) {
+		final Deque<Double> stack = new ArrayDeque<>();
+		for (final Instruction instruction : instructions) {
+			instruction.execute(x, stack, null);
+		}
+		return stack.isEmpty() ? 0.0 : stack.peek();
+	}
+
+	@Test
+	public void testOptimizeIdentities() {
+		Assert.assertEquals("x", OperationParser.optimize(OperationParser.parse("(x * 1 + 0) / 1 - 0")).toString());
+		Assert.assertEquals("x * x", OperationParser.optimize(OperationParser.parse("x ^ 2")).toString());
+		Assert.assertEquals("-cos(x)", OperationParser.optimize(OperationParser.parse("0 - cos(x) * 1")).toString());
+		Assert.assertEquals("x", OperationParser.optimize(OperationParser.parse("-(-x)")).toString());
+		Assert.assertEquals("6", OperationParser.optimize(OperationParser.parse("2 * 3")).toString());
+		Assert.assertEquals("0", OperationParser.optimize(OperationParser.parse("1 - 1")).toString());
+		Assert.assertEquals("x / 0", OperationParser.optimize(OperationParser.parse("x / (1 - 1)")).toString());
+	}
+
+	@Test
+	public void testOptimizeKeepsSpriteInstructions() {
+		final Operation operation = new Operation(Arrays.asList(
+				new Constant(2), new Constant(3), new Multiply(), new SpriteHitboxTop(),
+				new Variable(), new Constant(1), new Multiply(), new SpriteVariable("a")));
+		final List<Instruction> optimized = OperationParser.optimize(operation).getInstructions();
+		Assert.assertEquals(4, optimized.size());
+		Assert.assertEquals(6.0, ((Constant) optimized.get(0)).getValue());
+		Assert.assertTrue(optimized.get(1) instanceof SpriteHitboxTop);
+		Assert.assertTrue(optimized.get(2) instanceof Variable);
+		Assert.assertTrue(optimized.get(3) instanceof SpriteVariable);
+	}
+
 }
@@ -1,5 +1,8 @@
 package fr.rca.mapmaker.operation;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -62,4 +65,48 @@ public class OperationTest {
 		String result = instance.toString(Language.C);
 		assertEquals(expResult, result);
 	}
+
+	/**
+	 * Test of execute method, of class Operation : la forme compilée donne
+	 * les mêmes résultats que la pile d'objets.
+	 */
+	@Test
+	public void execute_compiled_should_match_stack_evaluation() {
+		final String[] operations = {
+			"min(x, 2) + max(x * 3, -1)",
+			"max(min(x, 1), min(-x, 4))",
+			"x^2 + 2^x - x^0.5",
+			"sin(x) * cos(x / 3) + sqrt(x * 2)",
+			"cos(3 * x^2 * pi / 2) * -sqrt(x * 2)",
+			"x / (x - 2)",
+			"1 / 0 + x",
+			"-x",
+			"--x + -(x * 2)",
+			"64 * -x + 2",
+			"(64 - x) * x + 2",
+			"x",
+			"3.5"
+		};
+		final double[] values = {0.0, 0.5, 1.0, 2.0, 3.0, 10.0, 1234.5};
+
+		for (final String operation : operations) {
+			final List<Instruction> instructions = OperationParser.parse(operation).getInstructions();
+			final CompiledOperation compiled = CompiledOperation.compile(OperationParser.optimize(instructions));
+			assertNotNull(operation, compiled);
+
+			for (final double x : values) {
+				final double expected = executeWithStack(instructions, x);
+				assertEquals(operation + " avec x = " + x, expected, compiled.execute(x), 1e-9);
+				assertEquals(operation + " avec x = " + x, expected, new Operation(instructions).execute(x), 1e-9);
+			}
+		}
+	}
+
+	private static double executeWithStack(List<Instruction> instructions, double x) {
+		final Deque<Double> stack = new ArrayDeque<>();
+		for (final Instruction instruction : instructions) {
+			instruction.execute(x, stack, null);
+		}
+		return stack.isEmpty() ? 0.0 : stack.peek();
+	}
 }
@@ -0,0 +1,64 @@
+package fr.rca.mapmaker.operation;
+
+import fr.rca.mapmaker.model.project.Project;
+import fr.rca.mapmaker.model.sprite.Instance;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (ddaeke-github at yahoo.fr)
+ */
+public class ScriptRunnerTest {
+
+	/**
+	 * Test of runScripts method, of class ScriptRunner.
+	 */
+	@Test
+	public void testRunScripts() {
+		System.out.println("runScripts");
+
+		final Project project = Project.createEmptyProject();
+		final List<Instance> parallel = createInstances(project, 1000);
+		final List<Instance> sequential = createInstances(project, 1000);
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ScriptRunner.runScripts(parallel, pool);
+		} finally {
+			pool.shutdown();
+		}
+		sequential.forEach(Instance::runScript);
+
+		for (int index = 0; index < parallel.size(); index++) {
+			final Instance expected = sequential.get(index);
+			final Instance actual = parallel.get(index);
+			Assert.assertEquals(expected.getDirection(), actual.getDirection());
+			Assert.assertEquals(new ArrayList<>(expected.getVariables().entrySet()), new ArrayList<>(actual.getVariables().entrySet()));
+		}
+		Assert.assertEquals(Double.valueOf(20.0), parallel.get(10).getVariables().get("speed"));
+		Assert.assertEquals(Double.valueOf(640.0), parallel.get(10).getVariables().get("width"));
+	}
+
+	private static List<Instance> createInstances(Project project, int count) {
+		final List<Instance> instances = new ArrayList<>(count);
+		for (int index = 0; index < count; index++) {
+			final Instance instance = new Instance();
+			instance.setIndex(-1);
+			instance.setProject(project);
+			instance.setScript("function Load(sprite)\n"
+					+ "  sprite.Direction = " + (index % 4) + "\n"
+					+ "  sprite.Variables[\"Speed\"] = " + (index % 50) + " * 2\n"
+					+ "  sprite.Variables[\"Width\"] = maps.map0.width\n"
+					+ "end");
+			// Variable d'une exécution précédente.
+			instance.getVariables().put("old", 1.0);
+			instances.add(instance);
+		}
+		return instances;
+	}
+
+}
@@ -1,5 +1,6 @@
 package fr.rca.mapmaker.operation;
 
+import fr.rca.mapmaker.model.map.TileMap;
 import fr.rca.mapmaker.model.project.Project;
 import org.junit.Assert;
 import org.junit.Test;
@@ -37,4 +38,36 @@ public class VariableDeclarationParserTest {
 		}
 	}
 	
+	/**
+	 * Test of parse method, of class VariableDeclarationParser, with the
+	 * script cache.
+	 */
+	@Test
+	public void testParseCache() {
+		final Project project = Project.createEmptyProject();
+		final TileMap map = project.getMaps().get(0);
+		final String script = "function Load(sprite)\n"
+			+ "  sprite.Variables[\"Width\"] = maps.map0.width\n"
+			+ "end";
+
+		final Operation operation = VariableDeclarationParser.parse(script, project);
+		Assert.assertSame(operation, VariableDeclarationParser.parse(script, project));
+		Assert.assertEquals(640.0, ((Constant) operation.getInstructions().get(0)).getValue(), 0.0);
+
+		// Un autre projet a sa propre table de symboles.
+		Assert.assertNotSame(operation, VariableDeclarationParser.parse(script, Project.createEmptyProject()));
+
+		// Le redimensionnement d'une carte vide le cache.
+		map.setWidth(10);
+		final Operation resized = VariableDeclarationParser.parse(script, project);
+		Assert.assertNotSame(operation, resized);
+		Assert.assertEquals(320.0, ((Constant) resized.getInstructions().get(0)).getValue(), 0.0);
+
+		// Tout comme son renommage.
+		map.setName("Level");
+		final Operation renamed = VariableDeclarationParser.parse(script.replace("map0", "level"), project);
+		Assert.assertEquals(Constant.class, renamed.getInstructions().get(0).getClass());
+		Assert.assertEquals(320.0, ((Constant) renamed.getInstructions().get(0)).getValue(), 0.0);
+	}
+	
 }
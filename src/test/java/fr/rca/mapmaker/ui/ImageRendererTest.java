@@ -0,0 +1,184 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.model.map.Layer;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.AlphaColorPalette;
+import fr.rca.mapmaker.model.palette.ColorPalette;
+import fr.rca.mapmaker.model.palette.EditableImagePalette;
+import fr.rca.mapmaker.model.palette.Flip;
+import fr.rca.mapmaker.model.palette.ImagePalette;
+import fr.rca.mapmaker.model.palette.Palette;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class ImageRendererTest {
+
+	@Test
+	public void testRenderColorPalette() {
+		System.out.println("renderImage (ColorPalette)");
+
+		final ColorPalette palette = new ColorPalette(Color.BLACK, Color.WHITE, new Color(188, 20, 60), null);
+		final TileLayer layer = layer(13, 9, 5);
+
+		final ImageRenderer renderer = new ImageRenderer();
+		assertSameImage(reference(layer, palette, 3, 0, null), renderer.renderImage(layer, palette, 3), 0);
+
+		renderer.setPadding(1);
+		assertSameImage(reference(layer, palette, 3, 1, null), renderer.renderImage(layer, palette, 3), 0);
+	}
+
+	@Test
+	public void testRenderTranslucentColors() {
+		System.out.println("renderImage (AlphaColorPalette)");
+
+		final AlphaColorPalette palette = AlphaColorPalette.getDefaultColorPalette();
+		final TileLayer background = layer(10, 10, 7);
+		final TileLayer foreground = new TileLayer(10, 10);
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 10; x++) {
+				foreground.setTile(x, y, AlphaColorPalette.getTile((x * 5 + y) % 16, (x + y) % 8));
+			}
+		}
+
+		final Rectangle bounds = new Rectangle(0, 0, 20, 20);
+		final BufferedImage image = new ImageRenderer().renderImage(Arrays.<Layer>asList(background, foreground), palette, bounds, null, 2, false);
+
+		// Java2D arrondit différemment le mélange des couleurs translucides.
+		final BufferedImage expected = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = expected.createGraphics();
+		paint(background, palette, 2, 0, graphics);
+		paint(foreground, palette, 2, 0, graphics);
+		graphics.dispose();
+		assertSameImage(expected, image, 3);
+	}
+
+	@Test
+	public void testRenderImagePalette() {
+		System.out.println("renderImage (ImagePalette)");
+
+		final BufferedImage tiles = new BufferedImage(12, 8, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < tiles.getHeight(); y++) {
+			for (int x = 0; x < tiles.getWidth(); x++) {
+				tiles.setRGB(x, y, (x + y) % 5 == 0 ? 0 : 0xFF000000 | (x * 20) << 16 | (y * 30) << 8 | (x * y));
+			}
+		}
+		final ImagePalette palette = new ImagePalette(tiles, 4);
+		final TileLayer layer = layer(7, 5, 6);
+
+		final ImageRenderer renderer = new ImageRenderer();
+		assertSameImage(reference(layer, palette, 4, 0, null), renderer.renderImage(layer, palette, 4), 0);
+		assertSameImage(reference(layer, palette, 8, 0, null), renderer.renderImage(layer, palette, 8), 0);
+		assertSameImage(reference(layer, palette, 2, 0, null), renderer.renderImage(layer, palette, 2), 0);
+
+		for (final Flip flip : new Flip[] {Flip.HORIZONTAL, Flip.VERTICAL}) {
+			renderer.setFlip(flip);
+			assertSameImage(reference(layer, palette, 4, 0, flip), renderer.renderImage(layer, palette, 4), 0);
+			assertSameImage(reference(layer, palette, 8, 0, flip), renderer.renderImage(layer, palette, 8), 0);
+		}
+	}
+
+	@Test
+	public void testRenderEditableImagePalette() {
+		System.out.println("renderImage (EditableImagePalette)");
+
+		final ColorPalette colors = new ColorPalette(Color.RED, Color.GREEN, Color.BLUE);
+		final EditableImagePalette palette = new EditableImagePalette(4, 2, colors,
+				Arrays.asList(layer(4, 4, 3), layer(4, 4, 2), layer(4, 4, 4)));
+		final TileLayer layer = layer(6, 6, 4);
+
+		final ImageRenderer renderer = new ImageRenderer();
+		assertSameImage(reference(layer, palette, 4, 0, null), renderer.renderImage(layer, palette, 4), 0);
+		assertSameImage(reference(layer, palette, 12, 0, null), renderer.renderImage(layer, palette, 12), 0);
+	}
+
+	@Test
+	public void testRenderWithCamera() {
+		System.out.println("renderImage (camera)");
+
+		final ColorPalette palette = new ColorPalette(Color.BLACK, Color.WHITE, Color.ORANGE);
+		final TileLayer layer = layer(20, 20, 4);
+		final Rectangle bounds = new Rectangle(8, 12, 30, 25);
+		final Point camera = new Point(-5, 7);
+
+		final BufferedImage image = new ImageRenderer().renderImage(Collections.<Layer>singletonList(layer), palette, bounds, camera, 3, false);
+
+		final BufferedImage expected = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = expected.createGraphics();
+		new ImageRenderer() {
+			{
+				paintLayer(layer, palette, bounds, 3, 0, camera, graphics);
+			}
+		};
+		graphics.dispose();
+		assertSameImage(expected, image, 0);
+	}
+
+	/**
+	 * Crée une couche dont les tuiles vont de -1 à <code>count - 2</code>.
+	 */
+	private static TileLayer layer(int width, int height, int count) {
+		final TileLayer layer = new TileLayer(width, height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				layer.setTile(x, y, (x * 3 + y * 7) % count - 1);
+			}
+		}
+		return layer;
+	}
+
+	/**
+	 * Dessine la couche en passant par <code>Graphics</code>.
+	 */
+	private static BufferedImage reference(TileLayer layer, Palette palette, int tileSize, int padding, Flip flip) {
+		final int spacing = tileSize + padding + padding;
+		final BufferedImage image = new BufferedImage(layer.getWidth() * spacing, layer.getHeight() * spacing, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = image.createGraphics();
+		if (flip != null) {
+			((ImagePalette) palette).flipTiles(flip);
+		}
+		paint(layer, palette, tileSize, padding, graphics);
+		if (flip != null) {
+			((ImagePalette) palette).flipTiles(Flip.NORMAL);
+		}
+		graphics.dispose();
+		return image;
+	}
+
+	private static void paint(TileLayer layer, Palette palette, int tileSize, int padding, Graphics2D graphics) {
+		final int spacing = tileSize + padding + padding;
+		for (int y = 0; y < layer.getHeight(); y++) {
+			for (int x = 0; x < layer.getWidth(); x++) {
+				palette.paintTile(graphics, layer.getTile(x, y), x * spacing + padding, y * spacing + padding, tileSize);
+			}
+		}
+	}
+
+	private static void assertSameImage(BufferedImage expected, BufferedImage actual, int tolerance) {
+		Assert.assertEquals(expected.getWidth(), actual.getWidth());
+		Assert.assertEquals(expected.getHeight(), actual.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				final int expectedColor = expected.getRGB(x, y);
+				final int actualColor = actual.getRGB(x, y);
+				for (int shift = 0; shift < 32; shift += 8) {
+					final int difference = Math.abs(((expectedColor >>> shift) & 0xFF) - ((actualColor >>> shift) & 0xFF));
+					if (difference > tolerance) {
+						Assert.fail("(" + x + ", " + y + ") : " + Integer.toHexString(expectedColor) + " != " + Integer.toHexString(actualColor));
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.event.Event;
+import fr.rca.mapmaker.event.EventBus;
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.AlphaColorPalette;
+import fr.rca.mapmaker.model.palette.ColorPalette;
+import fr.rca.mapmaker.model.sprite.Sprite;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceImageCacheTest {
+
+	@Test
+	public void testGet() throws InterruptedException {
+		System.out.println("get");
+
+		final InstanceImageCache instance = InstanceImageCache.INSTANCE;
+		instance.clear();
+
+		final Sprite sprite = new Sprite();
+		final TileLayer frame = new TileLayer(4, 4);
+		final ColorPalette palette = AlphaColorPalette.getDefaultColorPalette();
+		final Dimension dimension = new Dimension(8, 8);
+		final AtomicInteger renderCount = new AtomicInteger();
+
+		Assert.assertNull(instance.getIfPresent(sprite, frame, dimension, palette));
+
+		final BufferedImage image = instance.get(sprite, frame, dimension, palette, () -> {
+			renderCount.incrementAndGet();
+			return new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+		});
+		Assert.assertSame(image, instance.get(sprite, frame, dimension, palette, () -> {
+			renderCount.incrementAndGet();
+			return new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+		}));
+		Assert.assertSame(image, instance.getIfPresent(sprite, frame, new Dimension(8, 8), palette));
+		Assert.assertEquals(1, renderCount.get());
+
+		// Une autre taille ou une image modifiée doit être redessinée.
+		Assert.assertNull(instance.getIfPresent(sprite, frame, new Dimension(16, 16), palette));
+		frame.setTile(0, 0, 1);
+		Assert.assertNull(instance.getIfPresent(sprite, frame, dimension, palette));
+
+		frame.setTile(0, 0, TileLayer.EMPTY_TILE);
+		Assert.assertSame(image, instance.getIfPresent(sprite, frame, dimension, palette));
+		EventBus.INSTANCE.fireEvent(Event.SPRITE_CHANGED);
+		Assert.assertNull(instance.getIfPresent(sprite, frame, dimension, palette));
+	}
+}
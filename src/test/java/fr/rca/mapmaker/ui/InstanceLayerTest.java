@@ -0,0 +1,82 @@
+package fr.rca.mapmaker.ui;
+
+import fr.rca.mapmaker.model.sprite.Instance;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class InstanceLayerTest {
+
+	@Test
+	public void testGetInstanceAt() {
+		System.out.println("getInstanceAt");
+
+		final Instance front = instance(10, 10, 32, 32);
+		final Instance back = instance(20, 20, 32, 32);
+		final Instance farAway = instance(1000, 500, 16, 16);
+
+		final InstanceLayer layer = new InstanceLayer();
+		final List<Instance> instances = new ArrayList<>(Arrays.asList(front, back, farAway));
+		layer.setInstances(instances);
+
+		Assert.assertSame(front, layer.getInstanceAt(new Point(15, 15)));
+		Assert.assertSame(front, layer.getInstanceAt(new Point(30, 30)));
+		Assert.assertSame(back, layer.getInstanceAt(new Point(50, 50)));
+		Assert.assertSame(farAway, layer.getInstanceAt(new Point(1010, 510)));
+		Assert.assertNull(layer.getInstanceAt(new Point(5, 5)));
+		Assert.assertTrue(layer.contains(30, 30));
+		Assert.assertFalse(layer.contains(500, 500));
+
+		// Changement d'ordre.
+		instances.remove(back);
+		instances.add(0, back);
+		layer.instancesReordered();
+		Assert.assertSame(back, layer.getInstanceAt(new Point(30, 30)));
+
+		// Déplacement.
+		back.setBounds(300, 300, 32, 32);
+		Assert.assertSame(front, layer.getInstanceAt(new Point(30, 30)));
+		Assert.assertSame(back, layer.getInstanceAt(new Point(310, 310)));
+
+		// Suppression.
+		instances.remove(front);
+		layer.instanceRemoved(front);
+		Assert.assertNull(layer.getInstanceAt(new Point(30, 30)));
+		front.setBounds(300, 300, 32, 32);
+		Assert.assertSame(back, layer.getInstanceAt(new Point(310, 310)));
+	}
+
+	@Test
+	public void testGetInstancesIn() {
+		System.out.println("getInstancesIn");
+
+		final Instance front = instance(0, 0, 32, 32);
+		final Instance back = instance(16, 16, 200, 200);
+		final Instance farAway = instance(1000, 1000, 16, 16);
+
+		final InstanceLayer layer = new InstanceLayer();
+		layer.setInstances(new ArrayList<>(Arrays.asList(front, back, farAway)));
+
+		Assert.assertEquals(Arrays.asList(back, front), layer.getInstancesIn(new Rectangle(0, 0, 100, 100)));
+		Assert.assertEquals(Arrays.asList(back), layer.getInstancesIn(new Rectangle(150, 150, 10, 10)));
+		Assert.assertEquals(Arrays.asList(farAway), layer.getInstancesIn(new Rectangle(900, 900, 200, 200)));
+		Assert.assertTrue(layer.getInstancesIn(new Rectangle(500, 500, 100, 100)).isEmpty());
+	}
+
+	private static Instance instance(int x, int y, int width, int height) {
+		final Instance instance = new Instance();
+		// Les instances sont comparées par leur contenu.
+		instance.setId(((long) x << 32) | y);
+		instance.setBounds(x, y, width, height);
+		return instance;
+	}
+
+}
@@ -0,0 +1,80 @@
+package fr.rca.mapmaker.util;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.AlphaColorPalette;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class CleanEdgeTest {
+
+	@Test
+	public void testShadeUniformLayer() {
+		System.out.println("shade (uniform layer)");
+
+		final TileLayer layer = new TileLayer(4, 3);
+		for (int y = 0; y < layer.getHeight(); y++) {
+			for (int x = 0; x < layer.getWidth(); x++) {
+				layer.setTile(x, y, 5);
+			}
+		}
+		CleanEdge.builder()
+				.palette(AlphaColorPalette.getDefaultColorPalette())
+				.scaleRate(2.0)
+				.build()
+				.shade(layer);
+
+		Assert.assertEquals(8, layer.getWidth());
+		Assert.assertEquals(6, layer.getHeight());
+		// Les coins sont arrondis, l'intérieur garde la couleur d'origine.
+		for (int y = 1; y < 5; y++) {
+			for (int x = 1; x < 7; x++) {
+				Assert.assertEquals(5, layer.getTile(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testShadeCache() {
+		System.out.println("shade (cache)");
+
+		// Assez grand pour que les lignes soient calculées en parallèle.
+		final TileLayer source = new TileLayer(40, 40);
+		for (int y = 0; y < source.getHeight(); y++) {
+			for (int x = 0; x < source.getWidth(); x++) {
+				source.setTile(x, y, x > y ? 1 : (x + y) % 7 == 0 ? -1 : 2);
+			}
+		}
+
+		final TileLayer first = shade(source, 0.3);
+		final TileLayer second = shade(source, 0.3);
+		Assert.assertEquals(first.getWidth(), second.getWidth());
+		Assert.assertTrue(Arrays.equals(first.copyData(), second.copyData()));
+
+		// Le résultat en cache ne doit pas être partagé.
+		second.setTile(0, 0, 3);
+		Assert.assertTrue(Arrays.equals(first.copyData(), shade(source, 0.3).copyData()));
+
+		// Un autre paramètre donne un autre résultat.
+		Assert.assertFalse(Arrays.equals(first.copyData(), shade(source, 0.6).copyData()));
+
+		// La couche source n'est pas modifiée.
+		Assert.assertEquals(40, source.getWidth());
+	}
+
+	private static TileLayer shade(TileLayer source, double rotation) {
+		return CleanEdge.builder()
+				.palette(AlphaColorPalette.getDefaultColorPalette())
+				.slope(true)
+				.cleanUpSmallDetails(true)
+				.scaleRate(3.0)
+				.rotation(rotation)
+				.build()
+				.shaded(source);
+	}
+
+}
@@ -0,0 +1,126 @@
+package fr.rca.mapmaker.util;
+
+import fr.rca.mapmaker.model.map.TileLayer;
+import fr.rca.mapmaker.model.palette.ColorPalette;
+import java.awt.Color;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Raphaël Calabro (rcalabro@ideia.fr)
+ */
+public class DitheringEngineTest {
+
+	private static final int BLACK = 0;
+	private static final int WHITE = 1;
+
+	/**
+	 * Gris dont la luminance est 0.5.
+	 */
+	private static final int GRAY = 2;
+
+	private static final int DARK_GRAY = 3;
+
+	@Test
+	public void testOrderedModes() {
+		System.out.println("dither (ordered)");
+
+		final ColorPalette palette = palette();
+		final TileLayer frame = filled(96, 96, GRAY);
+
+		for (final DitheringEngine.Mode mode : new DitheringEngine.Mode[] {DitheringEngine.Mode.BAYER_4X4, DitheringEngine.Mode.BAYER_8X8}) {
+			final TileLayer result = new DitheringEngine(mode, false).dither(frame, palette);
+			Assert.assertEquals(96 * 96 / 2, count(result, BLACK));
+			Assert.assertEquals(96 * 96 / 2, count(result, WHITE));
+		}
+	}
+
+	@Test
+	public void testErrorDiffusionModes() {
+		System.out.println("dither (error diffusion)");
+
+		final ColorPalette palette = palette();
+		final TileLayer frame = filled(32, 32, GRAY);
+		frame.setTile(4, 4, -1);
+		frame.setTile(5, 4, BLACK);
+
+		for (final DitheringEngine.Mode mode : new DitheringEngine.Mode[] {DitheringEngine.Mode.FLOYD_STEINBERG, DitheringEngine.Mode.ATKINSON}) {
+			final TileLayer result = new DitheringEngine(mode, false).dither(frame, palette);
+			Assert.assertEquals(-1, result.getTile(4, 4));
+			Assert.assertEquals(BLACK, result.getTile(5, 4));
+
+			final int blackCount = count(result, BLACK);
+			Assert.assertTrue(mode + ": " + blackCount, blackCount > 32 * 32 * 2 / 5 && blackCount < 32 * 32 * 3 / 5);
+			Assert.assertEquals(32 * 32 - 1, blackCount + count(result, WHITE));
+		}
+	}
+
+	@Test
+	public void testLinesMode() {
+		System.out.println("dither (lines)");
+
+		final ColorPalette palette = palette();
+		final TileLayer frame = new TileLayer(70, 70);
+		for (int y = 0; y < frame.getHeight(); y++) {
+			for (int x = 0; x < frame.getWidth(); x++) {
+				frame.setTile(x, y, (x * 7 + y * 3) % 5 - 1);
+			}
+		}
+		final TileLayer result = new DitheringEngine(DitheringEngine.Mode.LINES, false).dither(frame, palette);
+		Assert.assertTrue(Arrays.equals(result.copyData(), Dithering.dither(frame, palette).copyData()));
+
+		// Gris foncé (luminance 0.2) : 4 - floor(0.8) = 4 traits noirs sur 4.
+		Assert.assertEquals(DARK_GRAY, frame.getTile(2, 0));
+		Assert.assertEquals(BLACK, result.getTile(2, 0));
+		for (int y = 0; y < frame.getHeight(); y++) {
+			for (int x = 0; x < frame.getWidth(); x++) {
+				final int tile = frame.getTile(x, y);
+				if (tile == -1 || tile == BLACK || tile == WHITE) {
+					Assert.assertEquals(tile, result.getTile(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testResultsAreReused() {
+		System.out.println("dither (reuse)");
+
+		final ColorPalette palette = palette();
+		final DitheringEngine engine = new DitheringEngine(DitheringEngine.Mode.BAYER_4X4, false);
+
+		final TileLayer frame = filled(8, 8, GRAY);
+		final TileLayer result = engine.dither(frame, palette);
+		Assert.assertSame(result, engine.dither(frame, palette));
+		Assert.assertSame(result, engine.dither(filled(8, 8, GRAY), palette));
+
+		Assert.assertNotSame(result, engine.dither(frame, palette()));
+
+		final TileLayer darker = engine.dither(filled(8, 8, DARK_GRAY), palette);
+		Assert.assertNotSame(result, darker);
+		Assert.assertTrue(count(darker, BLACK) > count(result, BLACK));
+	}
+
+	private static ColorPalette palette() {
+		return new ColorPalette(Color.BLACK, Color.WHITE, new Color(188, 188, 188), new Color(124, 124, 124));
+	}
+
+	private static TileLayer filled(int width, int height, int tile) {
+		final int[] tiles = new int[width * height];
+		Arrays.fill(tiles, tile);
+		return new TileLayer(width, height, tiles);
+	}
+
+	private static int count(TileLayer layer, int tile) {
+		int count = 0;
+		for (final int other : layer.copyData()) {
+			if (other == tile) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}